@@ -14,6 +14,7 @@
  */
 package io.netty5.buffer;
 
+import io.netty5.buffer.pool.AdaptiveBufferAllocator;
 import io.netty5.util.internal.PlatformDependent;
 import io.netty5.util.internal.SystemPropertyUtil;
 import io.netty5.util.internal.logging.InternalLogger;
@@ -55,6 +56,10 @@ public final class DefaultBufferAllocators {
             onHeap = BufferAllocator.onHeapPooled();
             offHeap = BufferAllocator.offHeapPooled();
             logger.debug("-Dio.netty5.allocator.type: {}", allocType);
+        } else if ("adaptive".equals(allocType)) {
+            onHeap = new AdaptiveBufferAllocator(MemoryManager.instance(), false);
+            offHeap = new AdaptiveBufferAllocator(MemoryManager.instance(), true);
+            logger.debug("-Dio.netty5.allocator.type: {}", allocType);
         } else {
             onHeap = BufferAllocator.onHeapPooled();
             offHeap = BufferAllocator.offHeapPooled();
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.buffer.bytebuffer;
+
+import io.netty5.buffer.AllocationType;
+import io.netty5.buffer.AllocatorControl;
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.BufferAllocator;
+import io.netty5.buffer.Drop;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.StandardAllocationTypes;
+import io.netty5.buffer.internal.ArcDrop;
+import io.netty5.buffer.pool.PooledBufferAllocator;
+import io.netty5.util.internal.PlatformDependent;
+import io.netty5.util.internal.SystemPropertyUtil;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+import static io.netty5.buffer.internal.InternalBufferUtils.convert;
+import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * This memory manager produces and manages {@link Buffer} instances that are backed by NIO {@link java.nio.ByteBuffer}
+ * instances, like the {@link ByteBufferMemoryManager}, but backs off-heap buffers of at least a threshold size with
+ * memory-mapped temporary files. The contents of such buffers are then held by the page cache of the operating
+ * system, rather than counting against the direct memory limit. The file is unlinked right after it was mapped, so
+ * it does not outlive the process, except on Windows, where a mapped file cannot be deleted and is instead deleted
+ * once the buffer is closed.
+ * <p>
+ * This is meant for buffers that can grow very large, like aggregated HTTP request bodies. A
+ * {@link PooledBufferAllocator} can use this memory manager as well: its chunks are smaller than the default
+ * threshold, so only the buffers that are too large to be pooled are backed by files.
+ * <p>
+ * The threshold and the directory of the files can be configured with the
+ * {@code io.netty5.buffer.bytebuffer.MappedFileMemoryManager.threshold} (default 64 MiB) and
+ * {@code io.netty5.buffer.bytebuffer.MappedFileMemoryManager.directory} (default {@code java.io.tmpdir}) system
+ * properties, or by the constructor arguments.
+ * <p>
+ * Memory managers are normally not used directly.
+ * Instead, you likely want to use the {@link BufferAllocator}s, with this memory manager configured via the
+ * {@code io.netty5.buffer.MemoryManager=MappedFile} system property, or passed to their constructors.
+ */
+public final class MappedFileMemoryManager implements MemoryManager {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(MappedFileMemoryManager.class);
+    private static final long DEFAULT_THRESHOLD = SystemPropertyUtil.getLong(
+            "io.netty5.buffer.bytebuffer.MappedFileMemoryManager.threshold", 64 * 1024 * 1024);
+    private static final String DEFAULT_DIRECTORY = SystemPropertyUtil.get(
+            "io.netty5.buffer.bytebuffer.MappedFileMemoryManager.directory",
+            SystemPropertyUtil.get("java.io.tmpdir", "."));
+
+    private final ByteBufferMemoryManager delegate = new ByteBufferMemoryManager();
+    private final long threshold;
+    private final Path directory;
+
+    /**
+     * Creates a new instance with the threshold and directory configured by the system properties.
+     */
+    public MappedFileMemoryManager() {
+        this(DEFAULT_THRESHOLD, Paths.get(DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param threshold The size, in bytes, from which off-heap buffers are backed by memory-mapped files.
+     * @param directory The directory in which the files are created.
+     */
+    public MappedFileMemoryManager(long threshold, Path directory) {
+        this.threshold = checkPositiveOrZero(threshold, "threshold");
+        this.directory = requireNonNull(directory, "directory");
+    }
+
+    @Override
+    public Buffer allocateShared(AllocatorControl allocatorControl, long size,
+                                 Function<Drop<Buffer>, Drop<Buffer>> dropDecorator,
+                                 AllocationType allocationType) {
+        if (allocationType != StandardAllocationTypes.OFF_HEAP || size < threshold) {
+            return delegate.allocateShared(allocatorControl, size, dropDecorator, allocationType);
+        }
+        int capacity = Math.toIntExact(size);
+        Path file = null;
+        MappedByteBuffer buffer = null;
+        boolean success = false;
+        try {
+            file = Files.createTempFile(directory, "netty5-", ".buffer");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed.
+                buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+            }
+            if (!PlatformDependent.isWindows()) {
+                // The mapping also stays valid after the file is unlinked, and the space is reclaimed once unmapped.
+                Files.delete(file);
+                file = null;
+            }
+            Drop<Buffer> drop = ArcDrop.wrap(new UnmapFile(buffer, file));
+            Drop<NioBuffer> concreteDrop = convert(dropDecorator.apply(drop));
+            NioBuffer nioBuffer = new NioBuffer(buffer, buffer, allocatorControl, concreteDrop);
+            concreteDrop.attach(nioBuffer);
+            success = true;
+            return nioBuffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map a file for a buffer of " + size + " bytes", e);
+        } finally {
+            if (!success) {
+                if (buffer != null) {
+                    PlatformDependent.freeDirectBuffer(buffer);
+                }
+                if (file != null) {
+                    deleteFile(file);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Buffer allocateConstChild(Buffer readOnlyConstParent) {
+        return delegate.allocateConstChild(readOnlyConstParent);
+    }
+
+    @Override
+    public Object unwrapRecoverableMemory(Buffer buf) {
+        return delegate.unwrapRecoverableMemory(buf);
+    }
+
+    @Override
+    public Buffer recoverMemory(AllocatorControl allocatorControl, Object recoverableMemory, Drop<Buffer> drop) {
+        return delegate.recoverMemory(allocatorControl, recoverableMemory, drop);
+    }
+
+    @Override
+    public Object sliceMemory(Object memory, int offset, int length) {
+        return delegate.sliceMemory(memory, offset, length);
+    }
+
+    @Override
+    public void clearMemory(Object memory) {
+        delegate.clearMemory(memory);
+    }
+
+    @Override
+    public String implementationName() {
+        return "MappedFile";
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete the file of a memory-mapped buffer: {}", file, e);
+        }
+    }
+
+    /**
+     * Unmaps the file of a buffer once all buffers that share its memory are closed, and deletes it if it could not be
+     * unlinked while mapped.
+     */
+    private static final class UnmapFile implements Drop<Buffer> {
+        private final MappedByteBuffer buffer;
+        // Null if the file was unlinked already.
+        private final Path file;
+
+        UnmapFile(MappedByteBuffer buffer, Path file) {
+            this.buffer = buffer;
+            this.file = file;
+        }
+
+        @Override
+        public void drop(Buffer obj) {
+            // Unmap right away, if possible, as some platforms do not allow deleting files that are still mapped.
+            PlatformDependent.freeDirectBuffer(buffer);
+            if (file != null) {
+                deleteFile(file);
+            }
+        }
+
+        @Override
+        public Drop<Buffer> fork() {
+            throw new IllegalStateException(this + " cannot fork. Must be guarded by an ArcDrop.");
+        }
+
+        @Override
+        public void attach(Buffer obj) {
+        }
+
+        @Override
+        public String toString() {
+            return "UnmapFile(" + (file != null ? file : "unlinked") + ')';
+        }
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.buffer.pool;
+
+import io.netty5.buffer.AllocationType;
+import io.netty5.buffer.AllocatorControl;
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.BufferAllocator;
+import io.netty5.buffer.Drop;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.StandardAllocationTypes;
+import io.netty5.buffer.internal.ArcDrop;
+import io.netty5.buffer.internal.CleanerDrop;
+import io.netty5.buffer.internal.DropCaptor;
+import io.netty5.buffer.internal.InternalBufferUtils;
+import io.netty5.util.NettyRuntime;
+import io.netty5.util.internal.MathUtil;
+import io.netty5.util.internal.StringUtil;
+import io.netty5.util.internal.SystemPropertyUtil;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static io.netty5.buffer.internal.InternalBufferUtils.allocatorClosedException;
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A pooling {@link BufferAllocator} that does not keep any per-thread state, which makes it a better fit than
+ * {@link PooledBufferAllocator} when many short-lived threads allocate buffers, like virtual threads or threads of
+ * offload executors.
+ * <p>
+ * Buffers are carved out of chunks by bumping an offset. Each chunk is owned by one of a fixed number of magazines,
+ * which are shared by all threads. A thread uses the magazine its thread id maps to, or any other magazine that is not
+ * in use at the moment. A chunk is reused once all buffers carved out of it have been closed, and is then handed to
+ * the next magazine that needs a chunk through a lock-free queue. Each magazine keeps a histogram of the sizes it
+ * served, and sizes the chunks it takes on according to the sizes it sees most.
+ * <p>
+ * Buffers larger than {@value #MAX_POOLED_SIZE} bytes are not pooled, but still count towards the used and pinned
+ * memory of the {@linkplain #metric() metric} until they are closed.
+ */
+public final class AdaptiveBufferAllocator implements BufferAllocator, BufferAllocatorMetricProvider {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(AdaptiveBufferAllocator.class);
+    private static final int DEFAULT_NUM_MAGAZINES;
+
+    static final int MAX_POOLED_SIZE = 64 * 1024;
+    static final int MIN_CHUNK_SIZE = 64 * 1024;
+    static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+    // The number of buffers of the most common size that a chunk should be able to hold.
+    private static final int BUFFERS_PER_CHUNK = 64;
+    private static final int ALIGNMENT = 8;
+    // One bucket per power of two up to MAX_POOLED_SIZE.
+    private static final int HISTOGRAM_BUCKETS = 17;
+    private static final int HISTOGRAM_WINDOW = 4096;
+    private static final int MAX_FREE_CHUNK_POLLS = 4;
+
+    static {
+        DEFAULT_NUM_MAGAZINES = Math.max(1, SystemPropertyUtil.getInt(
+                "io.netty5.allocator.adaptive.numMagazines", NettyRuntime.availableProcessors() * 2));
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty5.allocator.adaptive.numMagazines: {}", DEFAULT_NUM_MAGAZINES);
+        }
+    }
+
+    private final MemoryManager manager;
+    private final AllocationType allocationType;
+    private final AllocatorControl control = () -> this;
+    private final Magazine[] magazines;
+    private final Queue<Chunk> freeChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numFreeChunks = new AtomicInteger();
+    private final int maxFreeChunks;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final LongAdder pinnedMemory = new LongAdder();
+    private final BufferAllocatorMetric metric = new AdaptiveBufferAllocatorMetric();
+    private volatile boolean closed;
+
+    public AdaptiveBufferAllocator(MemoryManager manager, boolean direct) {
+        this(manager, direct, DEFAULT_NUM_MAGAZINES);
+    }
+
+    public AdaptiveBufferAllocator(MemoryManager manager, boolean direct, int numMagazines) {
+        this.manager = requireNonNull(manager, "manager");
+        allocationType = direct? StandardAllocationTypes.OFF_HEAP : StandardAllocationTypes.ON_HEAP;
+        magazines = new Magazine[MathUtil.findNextPositivePowerOfTwo(checkPositive(numMagazines, "numMagazines"))];
+        for (int i = 0; i < magazines.length; i++) {
+            magazines[i] = new Magazine();
+        }
+        maxFreeChunks = magazines.length * 2;
+    }
+
+    /**
+     * Default number of magazines - System Property: io.netty5.allocator.adaptive.numMagazines - default 2 * cores
+     */
+    public static int defaultNumMagazines() {
+        return DEFAULT_NUM_MAGAZINES;
+    }
+
+    @Override
+    public boolean isPooling() {
+        return true;
+    }
+
+    @Override
+    public AllocationType getAllocationType() {
+        return allocationType;
+    }
+
+    @Override
+    public Buffer allocate(int size) {
+        if (closed) {
+            throw allocatorClosedException();
+        }
+        InternalBufferUtils.assertValidBufferSize(size);
+        if (size == 0 || size > MAX_POOLED_SIZE) {
+            usedMemory.addAndGet(size);
+            pinnedMemory.add(size);
+            try {
+                return manager.allocateShared(control, size,
+                        drop -> CleanerDrop.wrap(ArcDrop.wrap(new UnpooledDrop(drop, size)), manager), allocationType);
+            } catch (Throwable cause) {
+                usedMemory.addAndGet(-size);
+                pinnedMemory.add(-size);
+                throw cause;
+            }
+        }
+        Magazine magazine = lockMagazine();
+        final Chunk chunk;
+        final int offset;
+        try {
+            if (closed) {
+                throw allocatorClosedException();
+            }
+            chunk = magazine.allocate(size);
+            offset = chunk.allocatedBytes;
+            chunk.allocatedBytes += size + ALIGNMENT - 1 & -ALIGNMENT;
+        } finally {
+            magazine.lock.unlock();
+        }
+        pinnedMemory.add(size);
+        Drop<Buffer> drop = CleanerDrop.wrap(ArcDrop.wrap(new ChunkDrop(chunk, size)), manager);
+        Buffer buffer = manager.recoverMemory(control, manager.sliceMemory(chunk.memory, offset, size), drop);
+        drop.attach(buffer);
+        return buffer;
+    }
+
+    /**
+     * Lock the magazine of the current thread, or any other magazine that is not locked at the moment.
+     */
+    private Magazine lockMagazine() {
+        int mask = magazines.length - 1;
+        int index = (int) Thread.currentThread().getId() & mask;
+        for (int i = 0; i < magazines.length; i++) {
+            Magazine magazine = magazines[index + i & mask];
+            if (magazine.lock.tryLock()) {
+                return magazine;
+            }
+        }
+        Magazine magazine = magazines[index];
+        magazine.lock.lock();
+        return magazine;
+    }
+
+    @Override
+    public Supplier<Buffer> constBufferSupplier(byte[] bytes) {
+        if (closed) {
+            throw allocatorClosedException();
+        }
+        Buffer constantBuffer = manager.allocateShared(
+                control, bytes.length, drop -> CleanerDrop.wrapWithoutLeakDetection(drop, manager),
+                allocationType);
+        constantBuffer.writeBytes(bytes).makeReadOnly();
+        return () -> manager.allocateConstChild(constantBuffer);
+    }
+
+    @Override
+    public BufferAllocatorMetric metric() {
+        return metric;
+    }
+
+    /**
+     * Closes this allocator. Chunks that still hold open buffers are freed once the last of these buffers is closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Magazine magazine : magazines) {
+            magazine.lock.lock();
+            try {
+                Chunk current = magazine.current;
+                if (current != null) {
+                    magazine.current = null;
+                    current.release();
+                }
+            } finally {
+                magazine.lock.unlock();
+            }
+        }
+        Chunk chunk;
+        while ((chunk = freeChunks.poll()) != null) {
+            numFreeChunks.decrementAndGet();
+            chunk.destroy();
+        }
+    }
+
+    /**
+     * Take a chunk that can hold at least {@code size} bytes from the free chunks, preferring chunks of at least
+     * {@code preferredCapacity} bytes. Returns {@code null} if there is none.
+     */
+    private Chunk pollFreeChunk(int size, int preferredCapacity) {
+        for (int i = 0; i < MAX_FREE_CHUNK_POLLS; i++) {
+            Chunk chunk = freeChunks.poll();
+            if (chunk == null) {
+                return null;
+            }
+            numFreeChunks.decrementAndGet();
+            if (chunk.capacity >= size && chunk.capacity >= preferredCapacity >> 1) {
+                return chunk;
+            }
+            // The allocation sizes have grown beyond what this chunk is good for.
+            chunk.destroy();
+        }
+        return null;
+    }
+
+    /**
+     * Offer a chunk that all buffers have been released from for reuse, or destroy it if enough chunks are kept.
+     */
+    private void recycle(Chunk chunk) {
+        if (!closed && numFreeChunks.incrementAndGet() <= maxFreeChunks) {
+            chunk.allocatedBytes = 0;
+            chunk.refCnt.set(1);
+            freeChunks.offer(chunk);
+            if (closed && freeChunks.remove(chunk)) {
+                // Raced with close().
+                numFreeChunks.decrementAndGet();
+                chunk.destroy();
+            }
+        } else {
+            numFreeChunks.decrementAndGet();
+            chunk.destroy();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + '(' + allocationType + ", magazines: " + magazines.length +
+                (closed ? ", closed)" : ")");
+    }
+
+    private final class Magazine {
+        final ReentrantLock lock = new ReentrantLock();
+        // Only accessed while holding the lock.
+        Chunk current;
+        final int[] histogram = new int[HISTOGRAM_BUCKETS];
+        int samples;
+        // Also read by the metric.
+        volatile int preferredChunkSize = MIN_CHUNK_SIZE;
+
+        /**
+         * Returns a chunk with room for {@code size} bytes, which has been retained for the allocation.
+         */
+        Chunk allocate(int size) {
+            record(size);
+            Chunk chunk = current;
+            if (chunk == null || chunk.capacity - chunk.allocatedBytes < size) {
+                if (chunk != null) {
+                    // Retire the current chunk, it will be recycled once its last buffer is closed.
+                    current = null;
+                    chunk.release();
+                }
+                chunk = pollFreeChunk(size, preferredChunkSize);
+                if (chunk == null) {
+                    chunk = new Chunk(Math.max(size, preferredChunkSize));
+                }
+                current = chunk;
+            }
+            chunk.refCnt.incrementAndGet();
+            return chunk;
+        }
+
+        private void record(int size) {
+            histogram[32 - Integer.numberOfLeadingZeros(size - 1)]++;
+            if (++samples == HISTOGRAM_WINDOW) {
+                adaptChunkSize();
+            }
+        }
+
+        /**
+         * Size chunks so that they can hold enough buffers of the size that 90% of the recent allocations fit in.
+         * The histogram is halved afterwards, so older allocations count less and less.
+         */
+        private void adaptChunkSize() {
+            int threshold = samples * 9 / 10;
+            int seen = 0;
+            int bucket = 0;
+            for (; bucket < HISTOGRAM_BUCKETS - 1; bucket++) {
+                seen += histogram[bucket];
+                if (seen >= threshold) {
+                    break;
+                }
+            }
+            long chunkSize = (long) BUFFERS_PER_CHUNK << bucket;
+            preferredChunkSize = (int) Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, chunkSize));
+
+            samples = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] >>= 1;
+                samples += histogram[i];
+            }
+        }
+    }
+
+    private final class Chunk {
+        final Buffer base;
+        final Object memory;
+        final Drop<Buffer> baseDrop;
+        final int capacity;
+        // The number of open buffers, plus one while the chunk belongs to a magazine.
+        final AtomicInteger refCnt = new AtomicInteger(1);
+        // Only accessed by the magazine that owns the chunk, while holding its lock.
+        int allocatedBytes;
+
+        Chunk(int capacity) {
+            this.capacity = capacity;
+            DropCaptor<Buffer> dropCaptor = new DropCaptor<>();
+            base = manager.allocateShared(control, capacity, drop ->
+                    dropCaptor.capture(ArcDrop.wrap(CleanerDrop.wrap(drop, manager))), allocationType);
+            baseDrop = dropCaptor.getDrop();
+            memory = manager.unwrapRecoverableMemory(base);
+            baseDrop.attach(base);
+            usedMemory.addAndGet(capacity);
+        }
+
+        void release() {
+            if (refCnt.decrementAndGet() == 0) {
+                recycle(this);
+            }
+        }
+
+        void destroy() {
+            usedMemory.addAndGet(-capacity);
+            baseDrop.drop(base);
+        }
+    }
+
+    private final class ChunkDrop implements Drop<Buffer> {
+        private final Chunk chunk;
+        private final int size;
+
+        ChunkDrop(Chunk chunk, int size) {
+            this.chunk = chunk;
+            this.size = size;
+        }
+
+        @Override
+        public void drop(Buffer obj) {
+            pinnedMemory.add(-size);
+            chunk.release();
+        }
+
+        @Override
+        public Drop<Buffer> fork() {
+            // Always wrapped in an ArcDrop, which does the reference counting of the forks.
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void attach(Buffer obj) {
+        }
+    }
+
+    /**
+     * The drop of a buffer that is not carved out of a chunk, which takes its memory out of the metric once freed.
+     */
+    private final class UnpooledDrop implements Drop<Buffer> {
+        private final Drop<Buffer> drop;
+        private final int size;
+
+        UnpooledDrop(Drop<Buffer> drop, int size) {
+            this.drop = drop;
+            this.size = size;
+        }
+
+        @Override
+        public void drop(Buffer obj) {
+            usedMemory.addAndGet(-size);
+            pinnedMemory.add(-size);
+            drop.drop(obj);
+        }
+
+        @Override
+        public Drop<Buffer> fork() {
+            // Always wrapped in an ArcDrop, which does the reference counting of the forks.
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void attach(Buffer obj) {
+            drop.attach(obj);
+        }
+    }
+
+    private final class AdaptiveBufferAllocatorMetric implements BufferAllocatorMetric {
+        /**
+         * Returns the number of magazines, which take the place of arenas.
+         */
+        @Override
+        public int numArenas() {
+            return magazines.length;
+        }
+
+        @Override
+        public List<PoolArenaMetric> arenaMetrics() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int numThreadLocalCaches() {
+            return 0;
+        }
+
+        @Override
+        public int smallCacheSize() {
+            return 0;
+        }
+
+        @Override
+        public int normalCacheSize() {
+            return 0;
+        }
+
+        /**
+         * Returns the largest chunk size currently preferred by any of the magazines.
+         */
+        @Override
+        public int chunkSize() {
+            int chunkSize = MIN_CHUNK_SIZE;
+            for (Magazine magazine : magazines) {
+                chunkSize = Math.max(chunkSize, magazine.preferredChunkSize);
+            }
+            return chunkSize;
+        }
+
+        @Override
+        public long usedMemory() {
+            return usedMemory.get();
+        }
+
+        @Override
+        public long pinnedMemory() {
+            return pinnedMemory.sum();
+        }
+
+        @Override
+        public String toString() {
+            return StringUtil.simpleClassName(AdaptiveBufferAllocator.class) + "Metric(usedMemory: " + usedMemory() +
+                    "; pinnedMemory: " + pinnedMemory() + "; numMagazines: " + numArenas() +
+                    "; chunkSize: " + chunkSize() + ')';
+        }
+    }
+}
@@ -61,4 +61,12 @@ public interface BufferAllocatorMetric {
      * {@link BufferAllocator}, or {@code -1} if unknown.
      */
     long pinnedMemory();
+
+    /**
+     * Returns the number of bytes of memory that a {@link BufferAllocator} has given back after it was no longer
+     * used, or {@code -1} if unknown.
+     */
+    default long reclaimedMemory() {
+        return -1;
+    }
 }
@@ -17,6 +17,7 @@ package io.netty5.buffer.pool;
 
 import io.netty5.buffer.AllocationType;
 import io.netty5.buffer.MemoryManager;
+import io.netty5.util.internal.MathUtil;
 import io.netty5.util.internal.StringUtil;
 
 import java.lang.invoke.MethodHandles;
@@ -25,7 +26,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.concurrent.locks.ReentrantLock;
 
 import static io.netty5.buffer.pool.PoolChunk.isSubpage;
 import static java.lang.Math.max;
@@ -45,36 +45,30 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
     final int directMemoryCacheAlignment;
     private final PoolSubpage[] smallSubpagePools;
 
-    private final PoolChunkList q050;
-    private final PoolChunkList q025;
-    private final PoolChunkList q000;
-    private final PoolChunkList qInit;
-    private final PoolChunkList q075;
-    private final PoolChunkList q100;
+    // Each stripe has its own chunks, so threads that allocate at the same time rarely wait for each other.
+    final PoolArenaStripe[] stripes;
 
     private final List<PoolChunkListMetric> chunkListMetrics;
 
     // Metrics for allocations and deallocations
-    private long allocationsNormal;
-
-    // We need to use the LongAdder here as this is not guarded via synchronized block.
+    // We need to use the LongAdder here as these are updated under the locks of different stripes, or none at all.
+    private final LongAdder allocationsNormal = new LongAdder();
     private final LongAdder allocationsSmall = new LongAdder();
     private final LongAdder allocationsHuge = new LongAdder();
     private final LongAdder activeBytesHuge = new LongAdder();
 
-    private long deallocationsSmall;
-    private long deallocationsNormal;
-
-    // We need to use the LongAdder here as this is not guarded via synchronized block.
+    private final LongAdder deallocationsSmall = new LongAdder();
+    private final LongAdder deallocationsNormal = new LongAdder();
     private final LongAdder deallocationsHuge = new LongAdder();
 
+    // Bytes of the chunks that were destroyed by trim(long).
+    private final LongAdder reclaimedBytes = new LongAdder();
+
     // Number of thread caches backed by this arena.
     final AtomicInteger numThreadCaches = new AtomicInteger();
 
-    private final ReentrantLock lock = new ReentrantLock();
-
     protected PoolArena(PooledBufferAllocator parent, MemoryManager manager, AllocationType allocationType,
-                        int pageSize, int pageShifts, int chunkSize, int cacheAlignment) {
+                        int pageSize, int pageShifts, int chunkSize, int cacheAlignment, int numStripes) {
         super(pageSize, pageShifts, chunkSize, cacheAlignment);
         this.parent = parent;
         this.manager = manager;
@@ -84,21 +78,14 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
         numSmallSubpagePools = nSubpages;
         smallSubpagePools = newSubpagePoolArray(numSmallSubpagePools);
 
-        q100 = new PoolChunkList(this, null, 100, Integer.MAX_VALUE, chunkSize);
-        q075 = new PoolChunkList(this, q100, 75, 100, chunkSize);
-        q050 = new PoolChunkList(this, q075, 50, 100, chunkSize);
-        q025 = new PoolChunkList(this, q050, 25, 75, chunkSize);
-        q000 = new PoolChunkList(this, q025, 1, 50, chunkSize);
-        qInit = new PoolChunkList(this, q000, Integer.MIN_VALUE, 25, chunkSize);
-
-        q100.prevList(q075);
-        q075.prevList(q050);
-        q050.prevList(q025);
-        q025.prevList(q000);
-        q000.prevList(null);
-        qInit.prevList(qInit);
-
-        chunkListMetrics = List.of(qInit, q000, q025, q050, q075, q100);
+        // Threads are spread over the stripes by their id, which is cheapest with a power of two of them.
+        stripes = new PoolArenaStripe[MathUtil.safeFindNextPositivePowerOfTwo(numStripes)];
+        List<PoolChunkListMetric> metrics = new ArrayList<>(stripes.length * 6);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new PoolArenaStripe(this, chunkSize);
+            metrics.addAll(stripes[i].chunkLists);
+        }
+        chunkListMetrics = List.copyOf(metrics);
     }
 
     private static PoolSubpage newSubpagePoolHead() {
@@ -156,12 +143,7 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
         }
 
         if (needsNormalAllocation) {
-            lock();
-            try {
-                memory = allocateNormal(size, sizeIdx, cache);
-            } finally {
-                unlock();
-            }
+            memory = allocateNormal(size, sizeIdx, cache);
         }
 
         incSmallAllocation();
@@ -175,45 +157,35 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
             // was able to allocate out of the cache so move on
             return memory;
         }
-        lock();
-        try {
-            memory = allocateNormal(size, sizeIdx, cache);
-            allocationsNormal++;
-        } finally {
-            unlock();
-        }
+        memory = allocateNormal(size, sizeIdx, cache);
+        allocationsNormal.increment();
         return memory;
     }
 
     private UntetheredMemory allocateNormal(int size, int sizeIdx, PoolThreadCache threadCache) {
-        assert lock.isHeldByCurrentThread();
-        UntetheredMemory memory = q050.allocate(size, sizeIdx, threadCache);
-        if (memory != null) {
-            return memory;
-        }
-        memory = q025.allocate(size, sizeIdx, threadCache);
-        if (memory != null) {
-            return memory;
-        }
-        memory = q000.allocate(size, sizeIdx, threadCache);
-        if (memory != null) {
-            return memory;
-        }
-        memory = qInit.allocate(size, sizeIdx, threadCache);
-        if (memory != null) {
-            return memory;
-        }
-        memory = q075.allocate(size, sizeIdx, threadCache);
-        if (memory != null) {
-            return memory;
+        PoolArenaStripe stripe = lockStripe();
+        try {
+            return stripe.allocate(size, sizeIdx, threadCache);
+        } finally {
+            stripe.unlock();
         }
+    }
 
-        // Add a new chunk.
-        PoolChunk c = newChunk(pageSize, nPSizes, pageShifts, chunkSize);
-        memory = c.allocate(size, sizeIdx, threadCache);
-        assert memory != null;
-        qInit.add(c);
-        return memory;
+    /**
+     * Lock the stripe of the current thread, or any other stripe that is not locked at the moment.
+     */
+    private PoolArenaStripe lockStripe() {
+        int mask = stripes.length - 1;
+        int index = (int) Thread.currentThread().getId() & mask;
+        for (int i = 0; i < stripes.length; i++) {
+            PoolArenaStripe stripe = stripes[index + i & mask];
+            if (stripe.tryLock()) {
+                return stripe;
+            }
+        }
+        PoolArenaStripe stripe = stripes[index];
+        stripe.lock();
+        return stripe;
     }
 
     private void incSmallAllocation() {
@@ -240,24 +212,88 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
     }
 
     void freeChunk(PoolChunk chunk, long handle, int normCapacity, SizeClass sizeClass) {
-        final boolean destroyChunk;
-        lock();
-        try {
-            if (sizeClass == SizeClass.Normal) {
-                ++deallocationsNormal;
-            } else if (sizeClass == SizeClass.Small) {
-                ++deallocationsSmall;
-            } else {
-                throw new AssertionError("Unexpected size class: " + sizeClass);
-            }
-            destroyChunk = !chunk.parent.free(chunk, handle, normCapacity);
-        } finally {
-            unlock();
+        if (sizeClass == SizeClass.Normal) {
+            deallocationsNormal.increment();
+        } else if (sizeClass == SizeClass.Small) {
+            deallocationsSmall.increment();
+        } else {
+            throw new AssertionError("Unexpected size class: " + sizeClass);
+        }
+        chunk.stripe.free(chunk, handle, normCapacity);
+    }
+
+    /**
+     * Destroys the {@link PoolChunk}s that have been empty for at least the given time, and returns the number of
+     * bytes that were released by doing so.
+     */
+    long trim(long decayNanos) {
+        long nanoTime = System.nanoTime();
+        List<PoolChunk> emptyChunks = new ArrayList<>();
+        freeUnusedSubpages(nanoTime, decayNanos, emptyChunks);
+        for (PoolArenaStripe stripe : stripes) {
+            stripe.removeEmptyChunks(nanoTime, decayNanos, emptyChunks);
         }
-        if (destroyChunk) {
+        long reclaimed = 0;
+        for (PoolChunk chunk : emptyChunks) {
             // destroyChunk not need to be called while holding the synchronized lock.
             chunk.destroy();
+            reclaimed += chunk.chunkSize();
         }
+        reclaimedBytes.add(reclaimed);
+        return reclaimed;
+    }
+
+    /**
+     * Frees the runs of the subpages that are kept in the subpage pools without any allocations, as they would
+     * otherwise keep their chunks from ever becoming empty.
+     */
+    private void freeUnusedSubpages(long nanoTime, long decayNanos, List<PoolChunk> emptyChunks) {
+        for (int i = 0, len = smallSubpagePools.length; i < len; i++) {
+            PoolSubpage head = (PoolSubpage) SUBPAGE_ARRAY.getVolatile(smallSubpagePools, i);
+            if (head == null) {
+                continue;
+            }
+            PoolSubpage subpage;
+            head.lock();
+            try {
+                subpage = head.next;
+                // Only the last subpage of a pool is kept when it has no allocations left.
+                if (subpage == head || subpage.next != head) {
+                    continue;
+                }
+            } finally {
+                head.unlock();
+            }
+            // The stripe lock must be taken before the lock of the head, like it is when allocating and freeing.
+            PoolChunk chunk = subpage.chunk;
+            PoolArenaStripe stripe = chunk.stripe;
+            stripe.lock();
+            try {
+                if (nanoTime - chunk.lastFreeNanos < decayNanos) {
+                    continue;
+                }
+                long handle;
+                head.lock();
+                try {
+                    // The subpage may have been used, or left the pool, while we did not hold the lock of the head.
+                    handle = head.next == subpage && subpage.next == head ? subpage.removeIfUnused() : -1;
+                } finally {
+                    head.unlock();
+                }
+                if (handle != -1 && !chunk.parent.freeSubpageRun(chunk, handle)) {
+                    emptyChunks.add(chunk);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes that were released by {@link #trim(long)} so far.
+     */
+    long numReclaimedBytes() {
+        return reclaimedBytes.longValue();
     }
 
     PoolSubpage findSubpagePoolHead(int sizeIdx) {
@@ -315,15 +351,7 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public long numAllocations() {
-        final long allocsNormal;
-        lock();
-        try {
-            allocsNormal = allocationsNormal;
-        } finally {
-            unlock();
-        }
-
-        return allocationsSmall.longValue() + allocsNormal + allocationsHuge.longValue();
+        return allocationsSmall.longValue() + allocationsNormal.longValue() + allocationsHuge.longValue();
     }
 
     @Override
@@ -333,44 +361,22 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public long numNormalAllocations() {
-        lock();
-        try {
-            return allocationsNormal;
-        } finally {
-            unlock();
-        }
+        return allocationsNormal.longValue();
     }
 
     @Override
     public long numDeallocations() {
-        final long deallocs;
-        lock();
-        try {
-            deallocs = deallocationsSmall + deallocationsNormal;
-        } finally {
-            unlock();
-        }
-        return deallocs + deallocationsHuge.longValue();
+        return deallocationsSmall.longValue() + deallocationsNormal.longValue() + deallocationsHuge.longValue();
     }
 
     @Override
     public long numSmallDeallocations() {
-        lock();
-        try {
-            return deallocationsSmall;
-        } finally {
-            unlock();
-        }
+        return deallocationsSmall.longValue();
     }
 
     @Override
     public long numNormalDeallocations() {
-        lock();
-        try {
-            return deallocationsNormal;
-        } finally {
-            unlock();
-        }
+        return deallocationsNormal.longValue();
     }
 
     @Override
@@ -385,14 +391,8 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public  long numActiveAllocations() {
-        long val = allocationsSmall.longValue() + allocationsHuge.longValue()
-                - deallocationsHuge.longValue();
-        lock();
-        try {
-            val += allocationsNormal - (deallocationsSmall + deallocationsNormal);
-        } finally {
-            unlock();
-        }
+        long val = allocationsSmall.longValue() + allocationsHuge.longValue() + allocationsNormal.longValue()
+                - deallocationsHuge.longValue() - deallocationsSmall.longValue() - deallocationsNormal.longValue();
         return max(val, 0);
     }
 
@@ -403,14 +403,7 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public long numActiveNormalAllocations() {
-        final long val;
-        lock();
-        try {
-            val = allocationsNormal - deallocationsNormal;
-        } finally {
-            unlock();
-        }
-        return max(val, 0);
+        return max(numNormalAllocations() - numNormalDeallocations(), 0);
     }
 
     @Override
@@ -421,15 +414,10 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
     @Override
     public long numActiveBytes() {
         long val = activeBytesHuge.longValue();
-        lock();
-        try {
-            for (int i = 0; i < chunkListMetrics.size(); i++) {
-                for (PoolChunkMetric m: chunkListMetrics.get(i)) {
-                    val += m.chunkSize();
-                }
+        for (int i = 0; i < chunkListMetrics.size(); i++) {
+            for (PoolChunkMetric m: chunkListMetrics.get(i)) {
+                val += m.chunkSize();
             }
-        } finally {
-            unlock();
         }
         return max(0, val);
     }
@@ -437,77 +425,58 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
     @Override
     public long numPinnedBytes() {
         long val = activeBytesHuge.longValue();
-        lock();
-        try {
-            for (int i = 0; i < chunkListMetrics.size(); i++) {
-                for (PoolChunkMetric m: chunkListMetrics.get(i)) {
-                    val += m.pinnedBytes();
-                }
+        for (int i = 0; i < chunkListMetrics.size(); i++) {
+            for (PoolChunkMetric m: chunkListMetrics.get(i)) {
+                val += m.pinnedBytes();
             }
-        } finally {
-            unlock();
         }
         return max(0, val);
     }
 
-    protected final PoolChunk newChunk(int pageSize, int maxPageIdx, int pageShifts, int chunkSize) {
-        return new PoolChunk(this, pageSize, pageShifts, chunkSize, maxPageIdx);
+    protected final PoolChunk newChunk(PoolArenaStripe stripe) {
+        return new PoolChunk(this, stripe, pageSize, pageShifts, chunkSize, nPSizes);
     }
 
     @Override
     public String toString() {
-        lock();
-        try {
-            StringBuilder buf = new StringBuilder()
-                    .append("Chunk(s) at 0~25%:")
-                    .append(StringUtil.NEWLINE)
-                    .append(qInit)
-                    .append(StringUtil.NEWLINE)
-                    .append("Chunk(s) at 0~50%:")
-                    .append(StringUtil.NEWLINE)
-                    .append(q000)
-                    .append(StringUtil.NEWLINE)
-                    .append("Chunk(s) at 25~75%:")
-                    .append(StringUtil.NEWLINE)
-                    .append(q025)
-                    .append(StringUtil.NEWLINE)
-                    .append("Chunk(s) at 50~100%:")
-                    .append(StringUtil.NEWLINE)
-                    .append(q050)
-                    .append(StringUtil.NEWLINE)
-                    .append("Chunk(s) at 75~100%:")
-                    .append(StringUtil.NEWLINE)
-                    .append(q075)
-                    .append(StringUtil.NEWLINE)
-                    .append("Chunk(s) at 100%:")
-                    .append(StringUtil.NEWLINE)
-                    .append(q100)
-                    .append(StringUtil.NEWLINE)
-                    .append("small subpages:");
-            appendPoolSubPages(buf, smallSubpagePools);
-            buf.append(StringUtil.NEWLINE);
-
-            return buf.toString();
-        } finally {
-            unlock();
+        StringBuilder buf = new StringBuilder();
+        for (PoolArenaStripe stripe : stripes) {
+            buf.append(stripe)
+                    .append(StringUtil.NEWLINE);
         }
+        buf.append("small subpages:");
+        appendPoolSubPages(buf, smallSubpagePools);
+        buf.append(StringUtil.NEWLINE);
+        return buf.toString();
     }
 
     private static void appendPoolSubPages(StringBuilder buf, PoolSubpage[] subpages) {
+        List<PoolSubpage> pool = new ArrayList<>();
         for (int i = 0; i < subpages.length; i ++) {
             PoolSubpage head = (PoolSubpage) SUBPAGE_ARRAY.getVolatile(subpages, i);
-            if (head == null || head.next == head) {
+            if (head == null) {
+                continue;
+            }
+            // The subpages lock their stripe to print themselves, which must not be done while holding the head.
+            head.lock();
+            try {
+                for (PoolSubpage s = head.next; s != head; s = s.next) {
+                    pool.add(s);
+                }
+            } finally {
+                head.unlock();
+            }
+            if (pool.isEmpty()) {
                 continue;
             }
 
             buf.append(StringUtil.NEWLINE)
                     .append(i)
                     .append(": ");
-            PoolSubpage s = head.next;
-            do {
+            for (PoolSubpage s : pool) {
                 buf.append(s);
-                s = s.next;
-            } while (s != head);
+            }
+            pool.clear();
         }
     }
 
@@ -519,16 +488,8 @@ class PoolArena extends SizeClasses implements PoolArenaMetric {
                 SUBPAGE_ARRAY.setVolatile(smallSubpagePools, i, null);
             }
         }
-        for (PoolChunkList list : new PoolChunkList[] {qInit, q000, q025, q050, q100}) {
-            list.destroy();
+        for (PoolArenaStripe stripe : stripes) {
+            stripe.destroy();
         }
     }
-
-    void lock() {
-        lock.lock();
-    }
-
-    void unlock() {
-        lock.unlock();
-    }
 }
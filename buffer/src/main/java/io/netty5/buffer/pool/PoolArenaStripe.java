@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.buffer.pool;
+
+import io.netty5.util.internal.PlatformDependent;
+import io.netty5.util.internal.StringUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A part of a {@link PoolArena} with chunk lists and a lock of its own. Threads that allocate from the same arena at
+ * the same time use different stripes, and every allocation is freed back to the stripe of its {@link PoolChunk}.
+ */
+final class PoolArenaStripe {
+    final PoolArena arena;
+
+    private final PoolChunkList q050;
+    private final PoolChunkList q025;
+    private final PoolChunkList q000;
+    private final PoolChunkList qInit;
+    private final PoolChunkList q075;
+    private final PoolChunkList q100;
+
+    final List<PoolChunkList> chunkLists;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Frees of threads that found the lock taken, which are done by the thread holding the lock before it unlocks.
+    private final Queue<DeferredFree> deferredFrees = PlatformDependent.newMpscQueue();
+
+    PoolArenaStripe(PoolArena arena, int chunkSize) {
+        this.arena = arena;
+
+        q100 = new PoolChunkList(this, null, 100, Integer.MAX_VALUE, chunkSize);
+        q075 = new PoolChunkList(this, q100, 75, 100, chunkSize);
+        q050 = new PoolChunkList(this, q075, 50, 100, chunkSize);
+        q025 = new PoolChunkList(this, q050, 25, 75, chunkSize);
+        q000 = new PoolChunkList(this, q025, 1, 50, chunkSize);
+        qInit = new PoolChunkList(this, q000, Integer.MIN_VALUE, 25, chunkSize);
+
+        q100.prevList(q075);
+        q075.prevList(q050);
+        q050.prevList(q025);
+        q025.prevList(q000);
+        q000.prevList(null);
+        qInit.prevList(qInit);
+
+        chunkLists = List.of(qInit, q000, q025, q050, q075, q100);
+    }
+
+    UntetheredMemory allocate(int size, int sizeIdx, PoolThreadCache threadCache) {
+        assert lock.isHeldByCurrentThread();
+        UntetheredMemory memory = q050.allocate(size, sizeIdx, threadCache);
+        if (memory != null) {
+            return memory;
+        }
+        memory = q025.allocate(size, sizeIdx, threadCache);
+        if (memory != null) {
+            return memory;
+        }
+        memory = q000.allocate(size, sizeIdx, threadCache);
+        if (memory != null) {
+            return memory;
+        }
+        memory = qInit.allocate(size, sizeIdx, threadCache);
+        if (memory != null) {
+            return memory;
+        }
+        memory = q075.allocate(size, sizeIdx, threadCache);
+        if (memory != null) {
+            return memory;
+        }
+
+        // Add a new chunk.
+        PoolChunk c = arena.newChunk(this);
+        memory = c.allocate(size, sizeIdx, threadCache);
+        assert memory != null;
+        qInit.add(c);
+        return memory;
+    }
+
+    void free(PoolChunk chunk, long handle, int normCapacity) {
+        assert chunk.stripe == this;
+        if (!lock.tryLock()) {
+            // Do not wait for the lock, but leave the free to the thread that holds it. This mostly happens when
+            // buffers are released by another thread than the one that allocated them.
+            deferredFrees.offer(new DeferredFree(chunk, handle, normCapacity));
+            // If the lock is still taken, its holder is guaranteed to see the deferred free once it unlocks.
+            if (lock.tryLock()) {
+                unlock();
+            }
+            return;
+        }
+        final boolean destroyChunk;
+        try {
+            destroyChunk = !chunk.parent.free(chunk, handle, normCapacity);
+        } finally {
+            unlock();
+        }
+        if (destroyChunk) {
+            // destroyChunk not need to be called while holding the synchronized lock.
+            chunk.destroy();
+        }
+    }
+
+    /**
+     * Do the deferred frees and return the {@link PoolChunk}s that must be destroyed, or {@code null} if there are
+     * none.
+     */
+    private List<PoolChunk> freeDeferred() {
+        List<PoolChunk> destroyChunks = null;
+        DeferredFree free;
+        while ((free = deferredFrees.poll()) != null) {
+            if (!free.chunk.parent.free(free.chunk, free.handle, free.normCapacity)) {
+                if (destroyChunks == null) {
+                    destroyChunks = new ArrayList<>(1);
+                }
+                destroyChunks.add(free.chunk);
+            }
+        }
+        return destroyChunks;
+    }
+
+    /**
+     * Removes the {@link PoolChunk}s that have been empty for at least {@code decayNanos} before {@code nanoTime},
+     * and adds them to the given {@link List} so they can be destroyed.
+     */
+    void removeEmptyChunks(long nanoTime, long decayNanos, List<PoolChunk> emptyChunks) {
+        lock();
+        try {
+            // Chunks that become empty in any other list are destroyed right away, so only qInit may retain them.
+            qInit.removeEmptyChunks(nanoTime, decayNanos, emptyChunks);
+        } finally {
+            unlock();
+        }
+    }
+
+    boolean tryLock() {
+        return lock.tryLock();
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        if (lock.getHoldCount() > 1) {
+            // Leave the deferred frees to the outermost unlock, as the caller may be iterating over the lists or
+            // subpages that doing them would change.
+            lock.unlock();
+            return;
+        }
+        for (;;) {
+            List<PoolChunk> destroyChunks = freeDeferred();
+            lock.unlock();
+            if (destroyChunks != null) {
+                for (PoolChunk chunk : destroyChunks) {
+                    chunk.destroy();
+                }
+            }
+            // A free may have been deferred after we looked, by a thread that then failed to take the lock.
+            if (deferredFrees.isEmpty() || !lock.tryLock()) {
+                return;
+            }
+        }
+    }
+
+    void destroy() {
+        for (PoolChunkList list : chunkLists) {
+            list.destroy();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock();
+        try {
+            return new StringBuilder()
+                    .append("Chunk(s) at 0~25%:")
+                    .append(StringUtil.NEWLINE)
+                    .append(qInit)
+                    .append(StringUtil.NEWLINE)
+                    .append("Chunk(s) at 0~50%:")
+                    .append(StringUtil.NEWLINE)
+                    .append(q000)
+                    .append(StringUtil.NEWLINE)
+                    .append("Chunk(s) at 25~75%:")
+                    .append(StringUtil.NEWLINE)
+                    .append(q025)
+                    .append(StringUtil.NEWLINE)
+                    .append("Chunk(s) at 50~100%:")
+                    .append(StringUtil.NEWLINE)
+                    .append(q050)
+                    .append(StringUtil.NEWLINE)
+                    .append("Chunk(s) at 75~100%:")
+                    .append(StringUtil.NEWLINE)
+                    .append(q075)
+                    .append(StringUtil.NEWLINE)
+                    .append("Chunk(s) at 100%:")
+                    .append(StringUtil.NEWLINE)
+                    .append(q100)
+                    .toString();
+        } finally {
+            unlock();
+        }
+    }
+
+    private static final class DeferredFree {
+        final PoolChunk chunk;
+        final long handle;
+        final int normCapacity;
+
+        DeferredFree(PoolChunk chunk, long handle, int normCapacity) {
+            this.chunk = chunk;
+            this.handle = handle;
+            this.normCapacity = normCapacity;
+        }
+    }
+}
@@ -155,6 +155,7 @@ final class PoolChunk implements PoolChunkMetric {
     static final int RUN_OFFSET_SHIFT = SIZE_BIT_LENGTH + SIZE_SHIFT;
 
     final PoolArena arena;
+    final PoolArenaStripe stripe;
     final Buffer base; // The buffer that is the source of the memory. Closing it will free the memory.
     final Object memory;
     final Drop<Buffer> baseDrop; // An ArcDrop that manages references to the base Buffer.
@@ -182,13 +183,16 @@ final class PoolChunk implements PoolChunkMetric {
 
     int freeBytes;
     int pinnedBytes;
+    // The System.nanoTime() of the last free of an allocation of this chunk, guarded by the stripe lock.
+    long lastFreeNanos;
 
     PoolChunkList parent;
     PoolChunk prev;
     PoolChunk next;
 
-    PoolChunk(PoolArena arena, int pageSize, int pageShifts, int chunkSize, int maxPageIdx) {
+    PoolChunk(PoolArena arena, PoolArenaStripe stripe, int pageSize, int pageShifts, int chunkSize, int maxPageIdx) {
         this.arena = arena;
+        this.stripe = stripe;
         MemoryManager manager = arena.manager;
         // Unlike a standard wrapping, the CleanerDrop needs to be inside the ArcDrop here, because it can only drop
         // once. And we need the ArcDrop for the reference counting by every buffer allocated from this chunk.
@@ -268,11 +272,11 @@ final class PoolChunk implements PoolChunkMetric {
     @Override
     public int usage() {
         final int freeBytes;
-        arena.lock();
+        stripe.lock();
         try {
             freeBytes = this.freeBytes;
         } finally {
-            arena.unlock();
+            stripe.unlock();
         }
         return usage(freeBytes);
     }
@@ -450,6 +454,7 @@ final class PoolChunk implements PoolChunkMetric {
      * @param handle handle to free
      */
     void free(long handle, int normCapacity) {
+        lastFreeNanos = System.nanoTime();
         int runSize = runSize(pageShifts, handle);
         pinnedBytes -= runSize;
         if (isSubpage(handle)) {
@@ -476,7 +481,21 @@ final class PoolChunk implements PoolChunkMetric {
             }
         }
 
-        //start free run
+        freeRun(handle, runSize);
+    }
+
+    /**
+     * Free the run of a subpage that was removed from the subpage pool by {@link PoolSubpage#removeIfUnused()}.
+     *
+     * @param handle handle of the subpage run to free
+     */
+    void freeSubpageRun(long handle) {
+        assert isSubpage(handle);
+        subpages[runOffset(handle)] = null;
+        freeRun(handle, runSize(pageShifts, handle));
+    }
+
+    private void freeRun(long handle, int runSize) {
         runsAvailLock.lock();
         try {
             // collapse continuous runs, successfully collapsed runs
@@ -620,32 +639,32 @@ final class PoolChunk implements PoolChunkMetric {
 
     @Override
     public int freeBytes() {
-        arena.lock();
+        stripe.lock();
         try {
             return freeBytes;
         } finally {
-            arena.unlock();
+            stripe.unlock();
         }
     }
 
     @Override
     public int pinnedBytes() {
-        arena.lock();
+        stripe.lock();
         try {
             return pinnedBytes;
         } finally {
-            arena.unlock();
+            stripe.unlock();
         }
     }
 
     @Override
     public String toString() {
         final int freeBytes;
-        arena.lock();
+        stripe.lock();
         try {
             freeBytes = this.freeBytes;
         } finally {
-            arena.unlock();
+            stripe.unlock();
         }
 
         return new StringBuilder()
@@ -28,6 +28,7 @@ import static java.lang.Math.min;
 final class PoolChunkList implements PoolChunkListMetric {
     private static final Iterator<PoolChunkMetric> EMPTY_METRICS = Collections.emptyIterator();
     private final PoolArena arena;
+    private final PoolArenaStripe stripe;
     private final PoolChunkList nextList;
     private final int minUsage;
     private final int maxUsage;
@@ -39,9 +40,10 @@ final class PoolChunkList implements PoolChunkListMetric {
     // This is only update once when create the linked like list of PoolChunkList in PoolArena constructor.
     private PoolChunkList prevList;
 
-    PoolChunkList(PoolArena arena, PoolChunkList nextList, int minUsage, int maxUsage, int chunkSize) {
+    PoolChunkList(PoolArenaStripe stripe, PoolChunkList nextList, int minUsage, int maxUsage, int chunkSize) {
         assert minUsage <= maxUsage;
-        this.arena = arena;
+        arena = stripe.arena;
+        this.stripe = stripe;
         this.nextList = nextList;
         this.minUsage = minUsage;
         this.maxUsage = maxUsage;
@@ -114,6 +116,15 @@ final class PoolChunkList implements PoolChunkListMetric {
 
     boolean free(PoolChunk chunk, long handle, int normCapacity) {
         chunk.free(handle, normCapacity);
+        return moveAfterFree(chunk);
+    }
+
+    boolean freeSubpageRun(PoolChunk chunk, long handle) {
+        chunk.freeSubpageRun(handle);
+        return moveAfterFree(chunk);
+    }
+
+    private boolean moveAfterFree(PoolChunk chunk) {
         if (chunk.freeBytes > freeMaxThreshold) {
             remove(chunk);
             // Move the PoolChunk down the PoolChunkList linked-list.
@@ -186,6 +197,24 @@ final class PoolChunkList implements PoolChunkListMetric {
         }
     }
 
+    /**
+     * Removes the {@link PoolChunk}s that have no allocations and had none freed since at least {@code decayNanos}
+     * before {@code nanoTime}, and adds them to the given {@link List} so they can be destroyed.
+     */
+    void removeEmptyChunks(long nanoTime, long decayNanos, List<PoolChunk> emptyChunks) {
+        PoolChunk cur = head;
+        while (cur != null) {
+            PoolChunk next = cur.next;
+            if (cur.freeBytes == cur.chunkSize() && nanoTime - cur.lastFreeNanos >= decayNanos) {
+                remove(cur);
+                cur.next = null;
+                cur.prev = null;
+                emptyChunks.add(cur);
+            }
+            cur = next;
+        }
+    }
+
     @Override
     public int minUsage() {
         return minUsage0(minUsage);
@@ -202,7 +231,7 @@ final class PoolChunkList implements PoolChunkListMetric {
 
     @Override
     public Iterator<PoolChunkMetric> iterator() {
-        arena.lock();
+        stripe.lock();
         try {
             if (head == null) {
                 return EMPTY_METRICS;
@@ -217,14 +246,14 @@ final class PoolChunkList implements PoolChunkListMetric {
             }
             return metrics.iterator();
         } finally {
-            arena.unlock();
+            stripe.unlock();
         }
     }
 
     @Override
     public String toString() {
         StringBuilder buf = new StringBuilder();
-        arena.lock();
+        stripe.lock();
         try {
             if (head == null) {
                 return "none";
@@ -239,7 +268,7 @@ final class PoolChunkList implements PoolChunkListMetric {
                 buf.append(StringUtil.NEWLINE);
             }
         } finally {
-            arena.unlock();
+            stripe.unlock();
         }
         return buf.toString();
     }
@@ -141,6 +141,21 @@ final class PoolSubpage implements PoolSubpageMetric {
         }
     }
 
+    /**
+     * Removes this subpage from the pool if none of its elements are allocated, so the run of the subpage can be
+     * freed. This must be called while holding the lock of the pool head.
+     *
+     * @return the handle of the run of this subpage, or {@code -1} if it is still in use.
+     */
+    long removeIfUnused() {
+        if (!doNotDestroy || elemSize == 0 || numAvail != maxNumElems) {
+            return -1;
+        }
+        doNotDestroy = false;
+        removeFromPool();
+        return toHandle(0);
+    }
+
     private void addToPool(PoolSubpage head) {
         assert prev == null && next == null;
         prev = head;
@@ -222,7 +237,7 @@ final class PoolSubpage implements PoolSubpageMetric {
             numAvail = 0;
             elemSize = -1;
         } else {
-            chunk.arena.lock();
+            chunk.stripe.lock();
             try {
                 if (!this.doNotDestroy) {
                     doNotDestroy = false;
@@ -235,7 +250,7 @@ final class PoolSubpage implements PoolSubpageMetric {
                     elemSize = this.elemSize;
                 }
             } finally {
-                chunk.arena.unlock();
+                chunk.stripe.unlock();
             }
         }
 
@@ -253,11 +268,11 @@ final class PoolSubpage implements PoolSubpageMetric {
             // It's the head.
             return 0;
         }
-        chunk.arena.lock();
+        chunk.stripe.lock();
         try {
             return maxNumElems;
         } finally {
-            chunk.arena.unlock();
+            chunk.stripe.unlock();
         }
     }
 
@@ -267,11 +282,11 @@ final class PoolSubpage implements PoolSubpageMetric {
             // It's the head.
             return 0;
         }
-        chunk.arena.lock();
+        chunk.stripe.lock();
         try {
             return numAvail;
         } finally {
-            chunk.arena.unlock();
+            chunk.stripe.unlock();
         }
     }
 
@@ -281,11 +296,11 @@ final class PoolSubpage implements PoolSubpageMetric {
             // It's the head.
             return -1;
         }
-        chunk.arena.lock();
+        chunk.stripe.lock();
         try {
             return elemSize;
         } finally {
-            chunk.arena.unlock();
+            chunk.stripe.unlock();
         }
     }
 
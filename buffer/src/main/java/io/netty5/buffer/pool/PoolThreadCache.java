@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static io.netty5.buffer.pool.PoolArena.SizeClass.Normal;
 import static io.netty5.buffer.pool.PoolArena.SizeClass.Small;
@@ -38,6 +39,10 @@ import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
  * techniques of
  * <a href="https://www.facebook.com/notes/facebook-engineering/scalable-memory-allocation-using-jemalloc/480222803919">
  * Scalable memory allocation using jemalloc</a>.
+ * <p>
+ * A cache is either used by a single thread, or shared by threads that do not have a cache of their own. Buffers
+ * may be released into a cache by any thread, but only one thread at a time may allocate out of it, so a shared
+ * cache is guarded by a lock, and is skipped by threads that find it locked.
  */
 final class PoolThreadCache {
 
@@ -52,14 +57,23 @@ final class PoolThreadCache {
     private final MemoryRegionCache[] normalCaches;
 
     private final int freeSweepAllocationThreshold;
+    // Only set if this cache is shared by multiple threads.
+    private final ReentrantLock sharedLock;
 
     private int allocations;
 
     PoolThreadCache(PoolArena arena,
                     int smallCacheSize, int normalCacheSize, int maxCachedBufferCapacity,
                     int freeSweepAllocationThreshold) {
+        this(arena, smallCacheSize, normalCacheSize, maxCachedBufferCapacity, freeSweepAllocationThreshold, false);
+    }
+
+    PoolThreadCache(PoolArena arena,
+                    int smallCacheSize, int normalCacheSize, int maxCachedBufferCapacity,
+                    int freeSweepAllocationThreshold, boolean shared) {
         checkPositiveOrZero(maxCachedBufferCapacity, "maxCachedBufferCapacity");
         this.freeSweepAllocationThreshold = freeSweepAllocationThreshold;
+        sharedLock = shared ? new ReentrantLock() : null;
         if (arena != null) {
             // Create the caches for the heap allocations
             MemoryRegionCache[] smallSubPageCaches = createSubPageCaches(
@@ -124,6 +138,13 @@ final class PoolThreadCache {
         return arena;
     }
 
+    /**
+     * Returns {@code true} if this cache is shared by multiple threads.
+     */
+    boolean isShared() {
+        return sharedLock != null;
+    }
+
     // val > 0
     static int log2(int val) {
         return INTEGER_SIZE_MINUS_ONE - Integer.numberOfLeadingZeros(val);
@@ -148,6 +169,21 @@ final class PoolThreadCache {
             // no cache found so just return false here
             return null;
         }
+        if (sharedLock == null) {
+            return allocate0(cache, size);
+        }
+        // Rather allocate out of the arena than wait for another thread that uses the cache.
+        if (!sharedLock.tryLock()) {
+            return null;
+        }
+        try {
+            return allocate0(cache, size);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    private UntetheredMemory allocate0(MemoryRegionCache cache, int size) {
         UntetheredMemory allocated = cache.allocate(size, this);
         if (++allocations >= freeSweepAllocationThreshold) {
             allocations = 0;
@@ -185,7 +221,13 @@ final class PoolThreadCache {
      */
     void free() {
         if (arena != null) {
-            int numFreed = free(smallSubPageCaches) + free(normalCaches);
+            final int numFreed;
+            lock();
+            try {
+                numFreed = free(smallSubPageCaches) + free(normalCaches);
+            } finally {
+                unlock();
+            }
 
             if (numFreed > 0 && logger.isDebugEnabled()) {
                 logger.debug("Freed {} thread-local buffer(s) from thread: {}", numFreed,
@@ -219,8 +261,25 @@ final class PoolThreadCache {
 
     void trim() {
         if (arena != null) {
-            trim(smallSubPageCaches);
-            trim(normalCaches);
+            lock();
+            try {
+                trim(smallSubPageCaches);
+                trim(normalCaches);
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    private void lock() {
+        if (sharedLock != null) {
+            sharedLock.lock();
+        }
+    }
+
+    private void unlock() {
+        if (sharedLock != null) {
+            sharedLock.unlock();
         }
     }
 
@@ -334,7 +393,7 @@ final class PoolThreadCache {
             UntetheredMemory buffer = allocBuf(entry.chunk, entry.handle, size, threadCache);
             entry.recycle();
 
-            // allocations are not thread-safe which is fine as this is only called from the same thread all time.
+            // allocations are not thread-safe which is fine as this is only called by one thread at a time.
             allocations++;
             return buffer;
         }
@@ -28,6 +28,9 @@ import io.netty5.util.NettyRuntime;
 import io.netty5.util.concurrent.EventExecutor;
 import io.netty5.util.concurrent.FastThreadLocal;
 import io.netty5.util.concurrent.FastThreadLocalThread;
+import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.GlobalEventExecutor;
+import io.netty5.util.internal.MathUtil;
 import io.netty5.util.internal.PlatformDependent;
 import io.netty5.util.internal.StringUtil;
 import io.netty5.util.internal.SystemPropertyUtil;
@@ -35,6 +38,7 @@ import io.netty5.util.internal.ThreadExecutorMap;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -42,6 +46,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static io.netty5.buffer.internal.InternalBufferUtils.allocatorClosedException;
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
 import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
 import static java.util.Objects.requireNonNull;
 
@@ -59,6 +64,11 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
     private static final int DEFAULT_CACHE_TRIM_INTERVAL;
     private static final long DEFAULT_CACHE_TRIM_INTERVAL_MILLIS;
     private static final boolean DEFAULT_USE_CACHE_FOR_ALL_THREADS;
+    private static final int DEFAULT_NUM_SHARED_CACHES;
+    private static final int DEFAULT_NUM_ARENA_STRIPES;
+    private static final long DEFAULT_ARENA_TRIM_INTERVAL_MILLIS;
+    private static final long DEFAULT_CHUNK_DECAY_MILLIS;
+    private static final long DEFAULT_MAX_RESIDENT_MEMORY;
     private static final int DEFAULT_DIRECT_MEMORY_CACHE_ALIGNMENT;
 
     private static final int MIN_PAGE_SIZE = 4096;
@@ -137,6 +147,26 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
         DEFAULT_USE_CACHE_FOR_ALL_THREADS = SystemPropertyUtil.getBoolean(
                 "io.netty5.allocator.useCacheForAllThreads", false);
 
+        // the number of caches that are shared by the threads which do not get a cache of their own
+        DEFAULT_NUM_SHARED_CACHES = Math.max(0, SystemPropertyUtil.getInt(
+                "io.netty5.allocator.numSharedCaches", 0));
+
+        // the number of stripes, with chunks and a lock of their own, that each arena allocates normal sizes from
+        DEFAULT_NUM_ARENA_STRIPES = Math.max(1, SystemPropertyUtil.getInt(
+                "io.netty5.allocator.numArenaStripes", 4));
+
+        // the interval at which chunks that were not used for a while are given back, disabled if not positive
+        DEFAULT_ARENA_TRIM_INTERVAL_MILLIS = SystemPropertyUtil.getLong(
+                "io.netty5.allocator.arenaTrimIntervalMillis", 0);
+
+        // the time a chunk must have been empty for, before it is given back by the arena trimming
+        DEFAULT_CHUNK_DECAY_MILLIS = Math.max(0, SystemPropertyUtil.getLong(
+                "io.netty5.allocator.chunkDecayMillis", 10000));
+
+        // the used memory above which all empty chunks are given back by the arena trimming, regardless of decay
+        DEFAULT_MAX_RESIDENT_MEMORY = SystemPropertyUtil.getLong(
+                "io.netty5.allocator.maxResidentMemory", Long.MAX_VALUE);
+
         if (logger.isDebugEnabled()) {
             logger.debug("-Dio.netty5.allocator.numArenas: {}", DEFAULT_NUM_HEAP_ARENA);
             logger.debug("-Dio.netty5.allocator.numDirectArenas: {}", DEFAULT_NUM_DIRECT_ARENA);
@@ -157,6 +187,11 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
             logger.debug("-Dio.netty5.allocator.cacheTrimInterval: {}", DEFAULT_CACHE_TRIM_INTERVAL);
             logger.debug("-Dio.netty5.allocator.cacheTrimIntervalMillis: {}", DEFAULT_CACHE_TRIM_INTERVAL_MILLIS);
             logger.debug("-Dio.netty5.allocator.useCacheForAllThreads: {}", DEFAULT_USE_CACHE_FOR_ALL_THREADS);
+            logger.debug("-Dio.netty5.allocator.numSharedCaches: {}", DEFAULT_NUM_SHARED_CACHES);
+            logger.debug("-Dio.netty5.allocator.numArenaStripes: {}", DEFAULT_NUM_ARENA_STRIPES);
+            logger.debug("-Dio.netty5.allocator.arenaTrimIntervalMillis: {}", DEFAULT_ARENA_TRIM_INTERVAL_MILLIS);
+            logger.debug("-Dio.netty5.allocator.chunkDecayMillis: {}", DEFAULT_CHUNK_DECAY_MILLIS);
+            logger.debug("-Dio.netty5.allocator.maxResidentMemory: {}", DEFAULT_MAX_RESIDENT_MEMORY);
         }
     }
 
@@ -168,15 +203,17 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
     private final List<PoolArenaMetric> arenaMetrics;
     private final List<PoolArenaMetric> arenaMetricsView;
     private final PoolThreadLocalCache threadCache;
+    private final PoolThreadCache[] sharedCaches;
     private final int chunkSize;
     private final PooledBufferAllocatorMetric metric;
+    private final Future<Void> arenaTrimFuture;
     private volatile boolean closed;
 
     public PooledBufferAllocator(MemoryManager manager, boolean direct) {
         this(manager, direct, direct? DEFAULT_NUM_DIRECT_ARENA : DEFAULT_NUM_HEAP_ARENA,
                 DEFAULT_PAGE_SIZE, DEFAULT_MAX_ORDER, DEFAULT_SMALL_CACHE_SIZE,
                 DEFAULT_NORMAL_CACHE_SIZE, DEFAULT_USE_CACHE_FOR_ALL_THREADS,
-                DEFAULT_DIRECT_MEMORY_CACHE_ALIGNMENT);
+                DEFAULT_DIRECT_MEMORY_CACHE_ALIGNMENT, DEFAULT_NUM_SHARED_CACHES);
     }
 
     public PooledBufferAllocator(MemoryManager manager, boolean direct, int numArenas, int pageSize, int maxOrder) {
@@ -196,6 +233,39 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
     public PooledBufferAllocator(MemoryManager manager, boolean direct, int numArenas, int pageSize, int maxOrder,
                                  int smallCacheSize, int normalCacheSize,
                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment) {
+        this(manager, direct, numArenas, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, DEFAULT_NUM_SHARED_CACHES);
+    }
+
+    /**
+     * Creates a new instance.
+     * <p>
+     * If {@code useCacheForAllThreads} is {@code false}, only event loop threads and {@link FastThreadLocalThread}s
+     * get a cache of their own. All other threads, like virtual threads or the threads of short-lived pools, then
+     * share {@code numSharedCaches} caches between them, or use no cache at all if it is {@code 0}.
+     */
+    public PooledBufferAllocator(MemoryManager manager, boolean direct, int numArenas, int pageSize, int maxOrder,
+                                 int smallCacheSize, int normalCacheSize,
+                                 boolean useCacheForAllThreads, int directMemoryCacheAlignment,
+                                 int numSharedCaches) {
+        this(manager, direct, numArenas, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, numSharedCaches, DEFAULT_NUM_ARENA_STRIPES);
+    }
+
+    /**
+     * Creates a new instance.
+     * <p>
+     * Each arena allocates from {@code numArenaStripes} stripes, which have chunks and a lock of their own, so threads
+     * that share an arena do not have to wait for each other when they allocate at the same time.
+     *
+     * @see #PooledBufferAllocator(MemoryManager, boolean, int, int, int, int, int, boolean, int, int)
+     */
+    public PooledBufferAllocator(MemoryManager manager, boolean direct, int numArenas, int pageSize, int maxOrder,
+                                 int smallCacheSize, int normalCacheSize,
+                                 boolean useCacheForAllThreads, int directMemoryCacheAlignment,
+                                 int numSharedCaches, int numArenaStripes) {
         this.manager = requireNonNull(manager, "MemoryManager");
         allocationType = direct? StandardAllocationTypes.OFF_HEAP : StandardAllocationTypes.ON_HEAP;
         threadCache = new PoolThreadLocalCache(useCacheForAllThreads);
@@ -210,6 +280,8 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
         chunkSize = validateAndCalculateChunkSize(pageSize, maxOrder);
 
         checkPositiveOrZero(numArenas, "numArenas");
+        checkPositiveOrZero(numSharedCaches, "numSharedCaches");
+        checkPositive(numArenaStripes, "numArenaStripes");
 
         checkPositiveOrZero(directMemoryCacheAlignment, "directMemoryCacheAlignment");
         if (directMemoryCacheAlignment > 0 && !isDirectMemoryCacheAlignmentSupported()) {
@@ -229,7 +301,7 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
             for (int i = 0; i < arenas.length; i ++) {
                 PoolArena arena = new PoolArena(this, manager, allocationType,
                         pageSize, pageShifts, chunkSize,
-                        directMemoryCacheAlignment);
+                        directMemoryCacheAlignment, numArenaStripes);
                 arenas[i] = arena;
                 metrics.add(arena);
             }
@@ -241,7 +313,19 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
             arenaMetricsView = Collections.emptyList();
         }
 
+        // Threads are spread over the shared caches by their id, which is cheapest with a power of two of them.
+        sharedCaches = numSharedCaches > 0 && arenas != null ?
+                new PoolThreadCache[MathUtil.safeFindNextPositivePowerOfTwo(numSharedCaches)] : null;
+
         metric = new PooledBufferAllocatorMetric(this);
+
+        if (DEFAULT_ARENA_TRIM_INTERVAL_MILLIS > 0 && arenas != null) {
+            arenaTrimFuture = GlobalEventExecutor.INSTANCE.scheduleAtFixedRate(
+                    new ArenaTrimTask(this), DEFAULT_ARENA_TRIM_INTERVAL_MILLIS,
+                    DEFAULT_ARENA_TRIM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            arenaTrimFuture = null;
+        }
     }
 
     final AllocatorControl getPooledAllocatorControl() {
@@ -339,8 +423,21 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
     @Override
     public void close() {
         closed = true;
+        if (arenaTrimFuture != null) {
+            arenaTrimFuture.cancel();
+        }
         trimCurrentThreadCache();
         threadCache.remove();
+        if (sharedCaches != null) {
+            synchronized (threadCache) {
+                for (int i = 0; i < sharedCaches.length; i++) {
+                    if (sharedCaches[i] != null) {
+                        sharedCaches[i].free();
+                        sharedCaches[i] = null;
+                    }
+                }
+            }
+        }
         for (int i = 0, arenasLength = arenas.length; i < arenasLength; i++) {
             PoolArena arena = arenas[i];
             if (arena != null) {
@@ -386,6 +483,22 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
         return DEFAULT_USE_CACHE_FOR_ALL_THREADS;
     }
 
+    /**
+     * Default number of caches shared by threads without a cache of their own - System Property:
+     * io.netty5.allocator.numSharedCaches - default 0
+     */
+    public static int defaultNumSharedCaches() {
+        return DEFAULT_NUM_SHARED_CACHES;
+    }
+
+    /**
+     * Default number of stripes that each arena allocates from - System Property:
+     * io.netty5.allocator.numArenaStripes - default 4
+     */
+    public static int defaultNumArenaStripes() {
+        return DEFAULT_NUM_ARENA_STRIPES;
+    }
+
     /**
      * Default prefer direct - System Property: io.netty5.noPreferDirect - default false
      */
@@ -453,13 +566,34 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
                 }
                 return cache;
             }
+            if (sharedCaches != null) {
+                return sharedCache(current);
+            }
             // No caching so just use 0 as sizes.
             return new PoolThreadCache(arena, 0, 0, 0, 0);
         }
 
+        /**
+         * Returns the shared cache for the given {@link Thread}, and creates it on first use.
+         */
+        private PoolThreadCache sharedCache(Thread thread) {
+            int index = (int) thread.getId() & sharedCaches.length - 1;
+            PoolThreadCache cache = sharedCaches[index];
+            if (cache == null) {
+                cache = new PoolThreadCache(
+                        leastUsedArena(arenas), smallCacheSize, normalCacheSize,
+                        DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL, true);
+                sharedCaches[index] = cache;
+            }
+            return cache;
+        }
+
         @Override
         protected void onRemoval(PoolThreadCache threadCache) {
-            threadCache.free();
+            // Shared caches outlive the threads that use them, and are freed when the allocator is closed.
+            if (!threadCache.isShared()) {
+                threadCache.free();
+            }
         }
     }
 
@@ -585,6 +719,56 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
         return false;
     }
 
+    /**
+     * Give back the chunks of all arenas that have had no allocations for at least the time configured by
+     * {@code io.netty5.allocator.chunkDecayMillis}. If more memory than configured by
+     * {@code io.netty5.allocator.maxResidentMemory} is used, all chunks without allocations are given back.
+     * <p>
+     * This is done periodically if {@code io.netty5.allocator.arenaTrimIntervalMillis} is set. Memory that is held
+     * by the thread local caches is not given back, see {@link #trimCurrentThreadCache()} for this.
+     *
+     * @return the number of bytes that were given back.
+     */
+    public long trimArenas() {
+        long decayMillis = usedMemory() > DEFAULT_MAX_RESIDENT_MEMORY ? 0 : DEFAULT_CHUNK_DECAY_MILLIS;
+        return trimArenas(decayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Give back the chunks of all arenas that have had no allocations for at least the given time.
+     *
+     * @param decayTime the time a chunk must have been without allocations for, before it is given back.
+     * @param unit      the {@link TimeUnit} of {@code decayTime}.
+     * @return the number of bytes that were given back.
+     */
+    public long trimArenas(long decayTime, TimeUnit unit) {
+        long decayNanos = unit.toNanos(checkPositiveOrZero(decayTime, "decayTime"));
+        PoolArena[] arenas = this.arenas;
+        if (arenas == null) {
+            return 0;
+        }
+        long reclaimed = 0;
+        for (PoolArena arena : arenas) {
+            if (arena != null) {
+                reclaimed += arena.trim(decayNanos);
+            }
+        }
+        return reclaimed;
+    }
+
+    final long reclaimedMemory() {
+        if (arenas == null) {
+            return -1;
+        }
+        long reclaimed = 0;
+        for (PoolArena arena : arenas) {
+            if (arena != null) {
+                reclaimed += arena.numReclaimedBytes();
+            }
+        }
+        return reclaimed;
+    }
+
     /**
      * Returns the status of the allocator (which contains all metrics) as string. Be aware this may be expensive
      * and so should not be called too frequently.
@@ -604,6 +788,30 @@ public class PooledBufferAllocator implements BufferAllocator, BufferAllocatorMe
         return buf.toString();
     }
 
+    /**
+     * Periodically trims the arenas of a {@link PooledBufferAllocator}, without keeping it from being garbage
+     * collected if it is never closed.
+     */
+    private static final class ArenaTrimTask implements Runnable {
+        private final WeakReference<PooledBufferAllocator> allocatorRef;
+
+        ArenaTrimTask(PooledBufferAllocator allocator) {
+            allocatorRef = new WeakReference<>(allocator);
+        }
+
+        @Override
+        public void run() {
+            PooledBufferAllocator allocator = allocatorRef.get();
+            if (allocator == null) {
+                // Throwing cancels the periodic execution.
+                throw new IllegalStateException("allocator was garbage collected");
+            }
+            if (!allocator.closed) {
+                allocator.trimArenas();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "PooledBufferAllocator@" + Integer.toHexString(System.identityHashCode(this)) +
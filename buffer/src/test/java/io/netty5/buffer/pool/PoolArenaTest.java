@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.buffer.pool;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.MemoryManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PoolArenaTest {
+
+    @Test
+    public void toStringWithDeferredFrees() throws Exception {
+        // No thread caches, so every release goes back to the arena.
+        try (PooledBufferAllocator allocator = new PooledBufferAllocator(
+                MemoryManager.instance(), false, 1, 8192, 9, 0, 0, true, 0, 0, 1);
+             Buffer small = allocator.allocate(1024)) {
+            PoolArena arena = (PoolArena) allocator.metric().arenaMetrics().get(0);
+            Buffer normal = allocator.allocate(64 * 1024);
+            long pinnedBytes = arena.numPinnedBytes();
+
+            PoolArenaStripe stripe = arena.stripes[0];
+            stripe.lock();
+            try {
+                // The lock is taken, so the release is deferred to us.
+                Thread thread = new Thread(normal::close);
+                thread.start();
+                thread.join();
+
+                assertFalse(arena.toString().isEmpty());
+                assertEquals(pinnedBytes, arena.numPinnedBytes());
+            } finally {
+                stripe.unlock();
+            }
+            assertEquals(pinnedBytes - 64 * 1024, arena.numPinnedBytes());
+        }
+    }
+
+    @Test
+    public void allocateFromOtherStripeWhileLocked() throws Exception {
+        try (PooledBufferAllocator allocator = new PooledBufferAllocator(
+                MemoryManager.instance(), false, 1, 8192, 9, 0, 0, true, 0, 0, 2)) {
+            PoolArena arena = (PoolArena) allocator.metric().arenaMetrics().get(0);
+
+            for (PoolArenaStripe stripe : arena.stripes) {
+                stripe.lock();
+                try {
+                    // The other stripe is free, so the allocation does not have to wait for us.
+                    CompletableFuture.runAsync(() -> allocator.allocate(64 * 1024).close())
+                            .get(10, TimeUnit.SECONDS);
+                } finally {
+                    stripe.unlock();
+                }
+            }
+            assertEquals(2, arena.numNormalAllocations());
+            assertEquals(0, arena.numActiveNormalAllocations());
+        }
+    }
+}
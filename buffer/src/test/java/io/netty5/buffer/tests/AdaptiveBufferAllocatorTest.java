@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.buffer.tests;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.pool.AdaptiveBufferAllocator;
+import io.netty5.buffer.pool.BufferAllocatorMetric;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveBufferAllocatorTest {
+
+    @Test
+    void closedBuffersAreReused() {
+        try (AdaptiveBufferAllocator allocator = new AdaptiveBufferAllocator(MemoryManager.instance(), true, 1)) {
+            BufferAllocatorMetric metric = allocator.metric();
+            for (int i = 0; i < 10_000; i++) {
+                try (Buffer buffer = allocator.allocate(1024)) {
+                    assertEquals(1024, buffer.capacity());
+                    assertEquals(1024, metric.pinnedMemory());
+                }
+            }
+            assertEquals(0, metric.pinnedMemory());
+            // The chunks were recycled, so no more than a few were ever needed.
+            assertThat(metric.usedMemory()).isLessThanOrEqualTo(2L * metric.chunkSize());
+        }
+    }
+
+    @Test
+    void unpooledBuffersAreCountedInMetric() {
+        try (AdaptiveBufferAllocator allocator = new AdaptiveBufferAllocator(MemoryManager.instance(), true, 1)) {
+            BufferAllocatorMetric metric = allocator.metric();
+            int size = 128 * 1024;
+            try (Buffer buffer = allocator.allocate(size)) {
+                assertEquals(size, metric.usedMemory());
+                assertEquals(size, metric.pinnedMemory());
+                // Splits share the memory, which is only freed once all parts are closed.
+                try (Buffer split = buffer.writerOffset(size).split(size / 2)) {
+                    assertEquals(size / 2, split.readableBytes());
+                }
+                assertEquals(size, metric.pinnedMemory());
+            }
+            assertEquals(0, metric.usedMemory());
+            assertEquals(0, metric.pinnedMemory());
+        }
+    }
+
+    @Test
+    void chunkSizeAdaptsToAllocationSizes() {
+        try (AdaptiveBufferAllocator allocator = new AdaptiveBufferAllocator(MemoryManager.instance(), false, 1)) {
+            BufferAllocatorMetric metric = allocator.metric();
+            int initialChunkSize = metric.chunkSize();
+            for (int i = 0; i < 10_000; i++) {
+                allocator.allocate(32 * 1024).close();
+            }
+            assertThat(metric.chunkSize()).isGreaterThan(initialChunkSize);
+        }
+    }
+
+    @Test
+    void closingAllocatorFreesMemoryOnceBuffersAreClosed() {
+        AdaptiveBufferAllocator allocator = new AdaptiveBufferAllocator(MemoryManager.instance(), true, 2);
+        BufferAllocatorMetric metric = allocator.metric();
+        List<Buffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            buffers.add(allocator.allocate(4096).writeInt(i));
+        }
+        assertThat(metric.usedMemory()).isGreaterThanOrEqualTo(100 * 4096);
+        allocator.close();
+        assertThat(metric.usedMemory()).isGreaterThan(0);
+        for (int i = 0; i < buffers.size(); i++) {
+            try (Buffer buffer = buffers.get(i)) {
+                assertEquals(i, buffer.readInt());
+            }
+        }
+        assertEquals(0, metric.usedMemory());
+        assertEquals(0, metric.pinnedMemory());
+    }
+
+    @Test
+    void buffersCanBeClosedByOtherThreads() throws Exception {
+        try (AdaptiveBufferAllocator allocator = new AdaptiveBufferAllocator(MemoryManager.instance(), true, 4)) {
+            BufferAllocatorMetric metric = allocator.metric();
+            Buffer[] buffers = new Buffer[1000];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = allocator.allocate(1 + i * 37 % 8192);
+            }
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = first; i < buffers.length; i += threads.length) {
+                        buffers[i].close();
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(0, metric.pinnedMemory());
+        }
+    }
+}
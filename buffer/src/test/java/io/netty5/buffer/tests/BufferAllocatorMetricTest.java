@@ -17,12 +17,16 @@ package io.netty5.buffer.tests;
 
 import io.netty5.buffer.Buffer;
 import io.netty5.buffer.BufferAllocator;
+import io.netty5.buffer.MemoryManager;
 import io.netty5.buffer.pool.BufferAllocatorMetric;
+import io.netty5.buffer.pool.PoolArenaMetric;
 import io.netty5.buffer.pool.PooledBufferAllocator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -37,6 +41,107 @@ class BufferAllocatorMetricTest extends BufferTestSupport {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("pooledAllocators")
+    void testReleaseFromOtherThreads(Fixture fixture) throws Exception {
+        try (BufferAllocator allocator = fixture.createAllocator()) {
+            if (!(allocator instanceof PooledBufferAllocator)) {
+                return;
+            }
+            BufferAllocatorMetric metric = ((PooledBufferAllocator) allocator).metric();
+            // Too large for the thread local caches, so every release goes back to the arena.
+            Buffer[] buffers = new Buffer[400];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = allocator.allocate(64 * 1024);
+            }
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = first; i < buffers.length; i += threads.length) {
+                        buffers[i].close();
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long deallocations = 0;
+            for (PoolArenaMetric arena : metric.arenaMetrics()) {
+                assertEquals(0, arena.numActiveNormalAllocations());
+                deallocations += arena.numNormalDeallocations();
+            }
+            assertEquals(buffers.length, deallocations);
+            assertEquals(0, metric.pinnedMemory());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("pooledAllocators")
+    void testTrimArenas(Fixture fixture) {
+        try (BufferAllocator allocator = fixture.createAllocator()) {
+            if (!(allocator instanceof PooledBufferAllocator)) {
+                return;
+            }
+            PooledBufferAllocator pooledBufferAllocator = (PooledBufferAllocator) allocator;
+            BufferAllocatorMetric metric = pooledBufferAllocator.metric();
+            allocator.allocate(1024).close();
+            pooledBufferAllocator.trimCurrentThreadCache();
+            assertEquals(metric.chunkSize(), metric.usedMemory());
+            assertEquals(0, metric.reclaimedMemory());
+
+            // The chunk has not been empty for long enough.
+            assertEquals(0, pooledBufferAllocator.trimArenas(1, TimeUnit.HOURS));
+            assertEquals(metric.chunkSize(), metric.usedMemory());
+
+            try (Buffer buffer = allocator.allocate(1024)) {
+                // Chunks that still have allocations are never given back.
+                assertEquals(0, pooledBufferAllocator.trimArenas(0, TimeUnit.NANOSECONDS));
+                assertEquals(metric.chunkSize(), metric.usedMemory());
+                buffer.writeLong(42);
+            }
+            pooledBufferAllocator.trimCurrentThreadCache();
+
+            assertEquals(metric.chunkSize(), pooledBufferAllocator.trimArenas(0, TimeUnit.NANOSECONDS));
+            assertEquals(0, metric.usedMemory());
+            assertEquals(metric.chunkSize(), metric.reclaimedMemory());
+
+            try (Buffer buffer = allocator.allocate(1024)) {
+                assertEquals(42, buffer.writeLong(42).readLong());
+                assertEquals(metric.chunkSize(), metric.usedMemory());
+            }
+        }
+    }
+
+    @Test
+    void testSharedCaches() throws Exception {
+        try (PooledBufferAllocator allocator = new PooledBufferAllocator(MemoryManager.instance(), false, 2,
+                PooledBufferAllocator.defaultPageSize(), PooledBufferAllocator.defaultMaxOrder(),
+                PooledBufferAllocator.defaultSmallCacheSize(), PooledBufferAllocator.defaultNormalCacheSize(),
+                false, 0, 4)) {
+            BufferAllocatorMetric metric = allocator.metric();
+            Thread[] threads = new Thread[16];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        try (Buffer buffer = allocator.allocate(256 + i * 64)) {
+                            buffer.writeInt(i);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // The threads have no cache of their own, but share the caches between them.
+            assertThat(metric.numThreadLocalCaches()).isBetween(1, 4);
+            // Released buffers were kept in the shared caches, rather than given back to the arenas.
+            assertThat(metric.pinnedMemory()).isGreaterThan(0);
+        }
+    }
+
     private static void testUsedMemory(Fixture fixture, int initialCapacity) {
         try (BufferAllocator allocator = fixture.createAllocator()) {
             if (allocator instanceof PooledBufferAllocator) {
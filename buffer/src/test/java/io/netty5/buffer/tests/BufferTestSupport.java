@@ -22,14 +22,20 @@ import io.netty5.buffer.BufferClosedException;
 import io.netty5.buffer.CompositeBuffer;
 import io.netty5.buffer.MemoryManager;
 import io.netty5.buffer.SensitiveBufferAllocator;
+import io.netty5.buffer.bytebuffer.MappedFileMemoryManager;
 import io.netty5.buffer.internal.ResourceSupport;
+import io.netty5.buffer.pool.AdaptiveBufferAllocator;
 import io.netty5.buffer.pool.PooledBufferAllocator;
 import io.netty5.buffer.tests.Fixture.Properties;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -74,6 +80,16 @@ public abstract class BufferTestSupport {
         }
     });
 
+    // Every off-heap allocation is mapped from a file, with a threshold of zero.
+    private static final Memoize<MemoryManager> MAPPED_FILE_MANAGER = new Memoize<>(() -> {
+        try {
+            Path directory = Files.createTempDirectory("netty5-buffer-test-");
+            directory.toFile().deleteOnExit();
+            return new MappedFileMemoryManager(0, directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    });
     private static final Memoize<Fixture[]> INITIAL_COMBINATIONS = new Memoize<>(
             () -> initialFixturesForEachImplementation().toArray(Fixture[]::new));
     private static final Memoize<Fixture[]> ALL_COMBINATIONS = new Memoize<>(
@@ -150,6 +166,16 @@ public abstract class BufferTestSupport {
                                 PooledBufferAllocator.defaultNumDirectArena(), PooledBufferAllocator.defaultPageSize(),
                                 PooledBufferAllocator.defaultMaxOrder(), PooledBufferAllocator.defaultSmallCacheSize(),
                                 PooledBufferAllocator.defaultNormalCacheSize(), true, 64),
+                        POOLED, DIRECT),
+                new Fixture("pooledSharedCacheHeap", () ->
+                        new PooledBufferAllocator(MemoryManager.instance(), false,
+                                PooledBufferAllocator.defaultNumHeapArena(), PooledBufferAllocator.defaultPageSize(),
+                                PooledBufferAllocator.defaultMaxOrder(), PooledBufferAllocator.defaultSmallCacheSize(),
+                                PooledBufferAllocator.defaultNormalCacheSize(), false, 0, 4),
+                        POOLED, HEAP),
+                new Fixture("adaptiveHeap", () -> new AdaptiveBufferAllocator(MemoryManager.instance(), false),
+                        POOLED, HEAP),
+                new Fixture("adaptiveDirect", () -> new AdaptiveBufferAllocator(MemoryManager.instance(), true),
                         POOLED, DIRECT)
         );
     }
@@ -161,6 +187,10 @@ public abstract class BufferTestSupport {
         List<Throwable> failedManagers = new ArrayList<>();
         List<MemoryManager> loadableManagers = new ArrayList<>();
         MemoryManager.availableManagers().forEach(provider -> {
+            // Below its threshold, the MappedFile manager is a ByteBuffer manager, so it only gets the fixture below.
+            if (provider.type() == MappedFileMemoryManager.class) {
+                return;
+            }
             try {
                 loadableManagers.add(provider.get());
             } catch (ServiceConfigurationError | Exception e) {
@@ -190,6 +220,8 @@ public abstract class BufferTestSupport {
             }
             return builder.build();
         }).collect(Collectors.toList());
+        initFixtures.add(new Fixture("direct/MF", () -> MemoryManager.using(
+                MAPPED_FILE_MANAGER.get(), BufferAllocator::offHeapUnpooled), DIRECT));
         return initFixtures;
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.buffer.tests;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.BufferAllocator;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.bytebuffer.MappedFileMemoryManager;
+import io.netty5.buffer.pool.PooledBufferAllocator;
+import io.netty5.util.internal.PlatformDependent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MappedFileMemoryManagerTest {
+    private static final Path PROC_MAPS = Paths.get("/proc/self/maps");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void buffersFromThresholdAreBackedByFiles() throws IOException {
+        MemoryManager manager = new MappedFileMemoryManager(4096, directory);
+        try (BufferAllocator allocator = MemoryManager.using(manager, BufferAllocator::offHeapUnpooled)) {
+            try (Buffer small = allocator.allocate(4095)) {
+                assertEquals(0, countMappedFiles());
+                try (Buffer large = allocator.allocate(4096)) {
+                    assertEquals(1, countMappedFiles());
+                    large.writeLong(42).writeBytes(small.fill((byte) 1).writerOffset(4095));
+                    assertEquals(42, large.readLong());
+                    assertEquals(1, large.readByte());
+                }
+                assertEquals(0, countMappedFiles());
+            }
+        }
+    }
+
+    @Test
+    void fileIsDeletedWhenAllPartsAreClosed() throws IOException {
+        MemoryManager manager = new MappedFileMemoryManager(4096, directory);
+        try (BufferAllocator allocator = MemoryManager.using(manager, BufferAllocator::offHeapUnpooled)) {
+            Buffer buffer = allocator.allocate(8192);
+            Buffer split = buffer.writeInt(1).writeInt(2).split(4);
+            buffer.close();
+            assertEquals(1, countMappedFiles());
+            assertEquals(1, split.readInt());
+            split.close();
+            assertEquals(0, countMappedFiles());
+        }
+    }
+
+    @Test
+    void pooledAllocatorOnlyMapsHugeBuffers() throws IOException {
+        MemoryManager manager = new MappedFileMemoryManager(8 * 1024 * 1024, directory);
+        // 8 KiB pages with a max order of 9 makes for chunks of 4 MiB, which are not mapped.
+        try (PooledBufferAllocator allocator = new PooledBufferAllocator(manager, true, 1, 8192, 9)) {
+            try (Buffer small = allocator.allocate(1024)) {
+                small.writeInt(1);
+                assertEquals(0, countMappedFiles());
+            }
+            try (Buffer huge = allocator.allocate(16 * 1024 * 1024)) {
+                huge.writerOffset(huge.capacity() - 4).writeInt(42);
+                assertEquals(1, countMappedFiles());
+                assertEquals(42, huge.getInt(huge.capacity() - 4));
+            }
+            assertEquals(0, countMappedFiles());
+            assertTrue(allocator.isPooling());
+        }
+    }
+
+    @Test
+    void fileIsUnlinkedWhileMapped() throws IOException {
+        assumeFalse(PlatformDependent.isWindows());
+        MemoryManager manager = new MappedFileMemoryManager(4096, directory);
+        try (BufferAllocator allocator = MemoryManager.using(manager, BufferAllocator::offHeapUnpooled);
+             Buffer buffer = allocator.allocate(8192)) {
+            assertEquals(0, countFiles());
+            buffer.writeLong(42);
+            assertEquals(42, buffer.readLong());
+        }
+    }
+
+    /**
+     * Returns the number of files that back buffers. Outside of Windows the files are unlinked once mapped, so on Linux
+     * the mappings of the process are counted instead.
+     */
+    private long countMappedFiles() throws IOException {
+        if (PlatformDependent.isWindows()) {
+            return countFiles();
+        }
+        assumeTrue(Files.isReadable(PROC_MAPS), "requires /proc/self/maps");
+        String prefix = directory.toRealPath().toString();
+        try (Stream<String> lines = Files.lines(PROC_MAPS)) {
+            return lines.filter(line -> line.contains(prefix)).count();
+        }
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
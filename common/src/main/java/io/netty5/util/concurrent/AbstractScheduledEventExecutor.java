@@ -16,11 +16,8 @@
 package io.netty5.util.concurrent;
 
 import io.netty5.util.internal.DefaultPriorityQueue;
-import io.netty5.util.internal.PriorityQueue;
 import io.netty5.util.internal.PriorityQueueNode;
 
-import java.util.Comparator;
-import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
@@ -33,14 +30,21 @@ import static java.util.concurrent.Executors.callable;
 public abstract class AbstractScheduledEventExecutor extends AbstractEventExecutor {
     static final long START_TIME = System.nanoTime();
 
-    private static final Comparator<RunnableScheduledFutureNode<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
-            Comparable::compareTo;
-    private static final RunnableScheduledFutureNode<?>[]
-            EMPTY_RUNNABLE_SCHEDULED_FUTURE_NODES = new RunnableScheduledFutureNode<?>[0];
-
-    private PriorityQueue<RunnableScheduledFutureNode<?>> scheduledTaskQueue;
+    private final ScheduledTaskStoreFactory scheduledTaskStoreFactory;
+    private ScheduledTaskStore scheduledTaskStore;
 
     protected AbstractScheduledEventExecutor() {
+        this(PriorityQueueScheduledTaskStore.newFactory());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to create the {@link ScheduledTaskStore}
+     *                                  that holds the scheduled tasks with.
+     */
+    protected AbstractScheduledEventExecutor(ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        this.scheduledTaskStoreFactory = requireNonNull(scheduledTaskStoreFactory, "scheduledTaskStoreFactory");
     }
 
     /**
@@ -83,18 +87,19 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         return deadlineNanos < 0 ? Long.MAX_VALUE : deadlineNanos;
     }
 
-    PriorityQueue<RunnableScheduledFutureNode<?>> scheduledTaskQueue() {
-        if (scheduledTaskQueue == null) {
-            scheduledTaskQueue = new DefaultPriorityQueue<>(
-                    SCHEDULED_FUTURE_TASK_COMPARATOR,
-                    // Use same initial capacity as java.util.PriorityQueue
-                    11);
+    static long deadlineToDelayNanos(long currentTimeNanos, long deadlineNanos) {
+        return deadlineNanos == 0L ? 0L : Math.max(0L, deadlineNanos - currentTimeNanos);
+    }
+
+    ScheduledTaskStore scheduledTaskStore() {
+        if (scheduledTaskStore == null) {
+            scheduledTaskStore = requireNonNull(scheduledTaskStoreFactory.newStore(), "newStore");
         }
-        return scheduledTaskQueue;
+        return scheduledTaskStore;
     }
 
-    private static boolean isNullOrEmpty(Queue<RunnableScheduledFutureNode<?>> queue) {
-        return queue == null || queue.isEmpty();
+    private static boolean isNullOrEmpty(ScheduledTaskStore store) {
+        return store == null || store.isEmpty();
     }
 
     /**
@@ -104,19 +109,14 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
      */
     protected final void cancelScheduledTasks() {
         assert inEventLoop();
-        PriorityQueue<RunnableScheduledFutureNode<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        if (isNullOrEmpty(scheduledTaskQueue)) {
+        ScheduledTaskStore scheduledTaskStore = this.scheduledTaskStore;
+        if (isNullOrEmpty(scheduledTaskStore)) {
             return;
         }
 
-        final RunnableScheduledFutureNode<?>[] scheduledTasks =
-                scheduledTaskQueue.toArray(EMPTY_RUNNABLE_SCHEDULED_FUTURE_NODES);
-
-        for (RunnableScheduledFutureNode<?> task : scheduledTasks) {
+        for (RunnableScheduledFuture<?> task : scheduledTaskStore.removeAll()) {
             task.cancel();
         }
-
-        scheduledTaskQueue.clearIgnoringIndexes();
     }
 
     /**
@@ -135,17 +135,8 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
     protected final RunnableScheduledFuture<?> pollScheduledTask(long nanoTime) {
         assert inEventLoop();
 
-        Queue<RunnableScheduledFutureNode<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        RunnableScheduledFutureNode<?> scheduledTask = scheduledTaskQueue == null? null : scheduledTaskQueue.peek();
-        if (scheduledTask == null) {
-            return null;
-        }
-
-        if (scheduledTask.deadlineNanos() <= nanoTime) {
-            scheduledTaskQueue.remove();
-            return scheduledTask;
-        }
-        return null;
+        ScheduledTaskStore scheduledTaskStore = this.scheduledTaskStore;
+        return scheduledTaskStore == null ? null : scheduledTaskStore.poll(nanoTime);
     }
 
     /**
@@ -154,20 +145,20 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
      * This method MUST be called only when {@link #inEventLoop()} is {@code true}.
      */
     protected final long nextScheduledTaskNano() {
-        Queue<RunnableScheduledFutureNode<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        RunnableScheduledFutureNode<?> scheduledTask = scheduledTaskQueue == null? null : scheduledTaskQueue.peek();
-        if (scheduledTask == null) {
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        if (deadlineNanos == -1) {
             return -1;
         }
-        return Math.max(0, scheduledTask.deadlineNanos() - getCurrentTimeNanos());
+        return Math.max(0, deadlineNanos - getCurrentTimeNanos());
     }
 
-    final RunnableScheduledFuture<?> peekScheduledTask() {
-        Queue<RunnableScheduledFutureNode<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        if (scheduledTaskQueue == null) {
-            return null;
-        }
-        return scheduledTaskQueue.peek();
+    /**
+     * Return the point in time at which the next scheduled task may be ready to be run or {@code -1} if no task is
+     * scheduled. Depending on the {@link ScheduledTaskStore} this may differ from the actual deadline of the task.
+     */
+    final long nextScheduledTaskDeadlineNanos() {
+        ScheduledTaskStore scheduledTaskStore = this.scheduledTaskStore;
+        return scheduledTaskStore == null ? -1 : scheduledTaskStore.nextDeadlineNanos();
     }
 
     /**
@@ -177,9 +168,19 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
      */
     protected final boolean hasScheduledTasks() {
         assert inEventLoop();
-        Queue<RunnableScheduledFutureNode<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        RunnableScheduledFutureNode<?> scheduledTask = scheduledTaskQueue == null? null : scheduledTaskQueue.peek();
-        return scheduledTask != null && scheduledTask.deadlineNanos() <= getCurrentTimeNanos();
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        return deadlineNanos != -1 && deadlineNanos <= getCurrentTimeNanos();
+    }
+
+    /**
+     * Returns the number of scheduled tasks, including those that are not ready for processing yet.
+     * <p>
+     * This method MUST be called only when {@link #inEventLoop()} is {@code true}.
+     */
+    protected final int scheduledTaskCount() {
+        assert inEventLoop();
+        ScheduledTaskStore scheduledTaskStore = this.scheduledTaskStore;
+        return scheduledTaskStore == null ? 0 : scheduledTaskStore.size();
     }
 
     @Override
@@ -263,12 +264,12 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         } else {
             node = new DefaultRunnableScheduledFutureNode<>(task);
         }
-        scheduledTaskQueue().add(node);
+        scheduledTaskStore().add(node);
     }
 
     final void removeScheduled(final RunnableScheduledFutureNode<?> task) {
         if (inEventLoop()) {
-            scheduledTaskQueue().removeTyped(task);
+            scheduledTaskStore().remove(task);
         } else {
             execute(() -> removeScheduled(task));
         }
@@ -295,11 +296,22 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
     }
 
     interface RunnableScheduledFutureNode<V> extends PriorityQueueNode, RunnableScheduledFuture<V> {
+
+        /**
+         * Returns the object the {@link ScheduledTaskStore} keeps this node in, or {@code null} if none.
+         */
+        Object scheduledTaskStoreEntry();
+
+        /**
+         * Sets the object the {@link ScheduledTaskStore} keeps this node in.
+         */
+        void scheduledTaskStoreEntry(Object entry);
     }
 
     private static final class DefaultRunnableScheduledFutureNode<V> implements RunnableScheduledFutureNode<V> {
         private final RunnableScheduledFuture<V> future;
         private int queueIndex = INDEX_NOT_IN_QUEUE;
+        private Object storeEntry;
 
         DefaultRunnableScheduledFutureNode(RunnableScheduledFuture<V> future) {
             this.future = future;
@@ -353,6 +365,16 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
             queueIndex = i;
         }
 
+        @Override
+        public Object scheduledTaskStoreEntry() {
+            return storeEntry;
+        }
+
+        @Override
+        public void scheduledTaskStoreEntry(Object entry) {
+            storeEntry = entry;
+        }
+
         @Override
         public void run() {
             future.run();
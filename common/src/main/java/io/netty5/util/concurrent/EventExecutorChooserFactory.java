@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+import java.util.List;
+
+/**
+ * Factory that creates new {@link EventExecutorChooser}s, which are used by {@link MultithreadEventExecutorGroup} to
+ * select the {@link EventExecutor} that is returned by {@link MultithreadEventExecutorGroup#next()}.
+ */
+@FunctionalInterface
+public interface EventExecutorChooserFactory {
+
+    /**
+     * Returns a new {@link EventExecutorChooser} that selects from the given {@link EventExecutor}s.
+     *
+     * @param executors the {@link EventExecutor}s of the group, which will never change.
+     */
+    EventExecutorChooser newChooser(List<EventExecutor> executors);
+
+    /**
+     * Chooses the next {@link EventExecutor} to use.
+     */
+    @FunctionalInterface
+    interface EventExecutorChooser {
+
+        /**
+         * Returns the next {@link EventExecutor} to use. This method may be called from any thread.
+         */
+        EventExecutor next();
+    }
+}
@@ -25,7 +25,6 @@ import org.jetbrains.annotations.VisibleForTesting;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -91,7 +90,7 @@ public final class GlobalEventExecutor extends AbstractScheduledEventExecutor im
                 deadlineNanos(getCurrentTimeNanos(), SCHEDULE_QUIET_PERIOD_INTERVAL),
                 -SCHEDULE_QUIET_PERIOD_INTERVAL);
 
-        scheduledTaskQueue().add(quietPeriodTask);
+        scheduledTaskStore().add(quietPeriodTask);
     }
 
     /**
@@ -102,8 +101,8 @@ public final class GlobalEventExecutor extends AbstractScheduledEventExecutor im
     private Runnable takeTask() {
         BlockingQueue<Runnable> taskQueue = this.taskQueue;
         for (;;) {
-            RunnableScheduledFuture<?> scheduledTask = peekScheduledTask();
-            if (scheduledTask == null) {
+            long deadlineNanos = nextScheduledTaskDeadlineNanos();
+            if (deadlineNanos == -1) {
                 Runnable task = null;
                 try {
                     task = taskQueue.take();
@@ -112,7 +111,7 @@ public final class GlobalEventExecutor extends AbstractScheduledEventExecutor im
                 }
                 return task;
             } else {
-                long delayNanos = scheduledTask.delayNanos();
+                long delayNanos = deadlineToDelayNanos(getCurrentTimeNanos(), deadlineNanos);
                 Runnable task = null;
                 if (delayNanos > 0) {
                     try {
@@ -265,9 +264,8 @@ public final class GlobalEventExecutor extends AbstractScheduledEventExecutor im
                     }
                 }
 
-                Queue<RunnableScheduledFutureNode<?>> scheduledTaskQueue = scheduledTaskQueue();
                 // Terminate if there is no task in the queue (except the noop task).
-                if (taskQueue.isEmpty() && scheduledTaskQueue.size() <= 1) {
+                if (taskQueue.isEmpty() && scheduledTaskStore().size() <= 1) {
                     // Mark the current thread as stopped.
                     // The following CAS must always success and must be uncontended,
                     // because only one thread should be running at the same time.
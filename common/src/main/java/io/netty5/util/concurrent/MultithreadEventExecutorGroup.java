@@ -25,9 +25,9 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 import static io.netty5.util.internal.ObjectUtil.checkPositive;
+import static java.util.Objects.requireNonNull;
 
 /**
  * {@link EventExecutorGroup} implementation that handles their tasks with multiple threads at
@@ -39,7 +39,7 @@ public class MultithreadEventExecutorGroup implements EventExecutorGroup {
     private final List<EventExecutor> readonlyChildren;
     private final AtomicInteger terminatedChildren = new AtomicInteger();
     private final Promise<Void> terminationFuture = GlobalEventExecutor.INSTANCE.newPromise();
-    private final boolean powerOfTwo;
+    private final EventExecutorChooserFactory.EventExecutorChooser chooser;
 
     /**
      * Create a new instance.
@@ -101,8 +101,27 @@ public class MultithreadEventExecutorGroup implements EventExecutorGroup {
      */
     protected MultithreadEventExecutorGroup(int nThreads, ThreadFactory threadFactory, int maxPendingTasks,
                                             RejectedExecutionHandler rejectedHandler, Object... args) {
+        this(nThreads, threadFactory, maxPendingTasks, rejectedHandler, DefaultEventExecutorChooserFactory.INSTANCE,
+                args);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param threadFactory     the ThreadFactory to use, or {@code null} if the default should be used.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} to use for selecting the {@link EventExecutor}
+     *                          returned by {@link #next()}.
+     * @param args              arguments which will passed to each {@link #newChild(Executor, int,
+     * RejectedExecutionHandler, Object...)} call
+     */
+    protected MultithreadEventExecutorGroup(int nThreads, ThreadFactory threadFactory, int maxPendingTasks,
+                                            RejectedExecutionHandler rejectedHandler,
+                                            EventExecutorChooserFactory chooserFactory, Object... args) {
         this(nThreads, threadFactory == null ? null : new ThreadPerTaskExecutor(threadFactory),
-                maxPendingTasks, rejectedHandler, args);
+                maxPendingTasks, rejectedHandler, chooserFactory, args);
     }
 
     /**
@@ -117,14 +136,32 @@ public class MultithreadEventExecutorGroup implements EventExecutorGroup {
      */
     protected MultithreadEventExecutorGroup(int nThreads, Executor executor, int maxPendingTasks,
                                             RejectedExecutionHandler rejectedHandler, Object... args) {
+        this(nThreads, executor, maxPendingTasks, rejectedHandler, DefaultEventExecutorChooserFactory.INSTANCE, args);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param executor          the Executor to use, or {@code null} if the default should be used.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} to use for selecting the {@link EventExecutor}
+     *                          returned by {@link #next()}.
+     * @param args              arguments which will passed to each {@link #newChild(Executor, int,
+     * RejectedExecutionHandler, Object...)} call
+     */
+    protected MultithreadEventExecutorGroup(int nThreads, Executor executor, int maxPendingTasks,
+                                            RejectedExecutionHandler rejectedHandler,
+                                            EventExecutorChooserFactory chooserFactory, Object... args) {
         checkPositive(nThreads, "nThreads");
+        requireNonNull(chooserFactory, "chooserFactory");
 
         if (executor == null) {
             executor = new ThreadPerTaskExecutor(new DefaultThreadFactory(getClass()));
         }
 
         children = new EventExecutor[nThreads];
-        powerOfTwo = isPowerOfTwo(children.length);
         for (int i = 0; i < nThreads; i ++) {
             boolean success = false;
             try {
@@ -165,13 +202,9 @@ public class MultithreadEventExecutorGroup implements EventExecutorGroup {
             e.terminationFuture().addListener(terminationListener);
         }
         readonlyChildren = Collections.unmodifiableList(Arrays.asList(children));
+        chooser = requireNonNull(chooserFactory.newChooser(readonlyChildren), "newChooser");
     }
 
-    // Use a 'long' counter to avoid non-round-robin behaviour at the 32-bit overflow boundary.
-    // The 64-bit long solves this by placing the overflow so far into the future, that no system
-    // will encounter this in practice.
-    private final AtomicLong idx = new AtomicLong();
-
     /**
      * The {@link EventExecutor}s that are used by this {@link MultithreadEventExecutorGroup}.
      */
@@ -180,19 +213,14 @@ public class MultithreadEventExecutorGroup implements EventExecutorGroup {
     }
 
     /**
-     * Returns the next {@link EventExecutor} to use. The default implementation will use round-robin, but you may
+     * Returns the next {@link EventExecutor} to use. The default implementation will use the
+     * {@link EventExecutorChooserFactory.EventExecutorChooser} created on construction, which selects in a
+     * round-robin fashion unless another {@link EventExecutorChooserFactory} was given, but you may
      * override this to change the selection algorithm.
      */
     @Override
     public EventExecutor next() {
-        if (powerOfTwo) {
-            return children[(int) idx.getAndIncrement() & children.length - 1];
-        }
-        return children[(int) Math.abs(idx.getAndIncrement() % children.length)];
-    }
-
-    private static boolean isPowerOfTwo(int val) {
-        return (val & -val) == val;
+        return chooser.next();
     }
 
     @Override
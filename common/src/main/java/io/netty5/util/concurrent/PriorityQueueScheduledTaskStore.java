@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+import io.netty5.util.concurrent.AbstractScheduledEventExecutor.RunnableScheduledFutureNode;
+import io.netty5.util.internal.DefaultPriorityQueue;
+
+import java.util.Comparator;
+
+/**
+ * {@link ScheduledTaskStore} which keeps the tasks in a priority queue ordered by their deadline. Adding and removing
+ * tasks costs {@code O(log n)}, and tasks are returned in the exact order of their deadlines.
+ * <p>
+ * This is the store used by default.
+ */
+public final class PriorityQueueScheduledTaskStore implements ScheduledTaskStore {
+    private static final Comparator<RunnableScheduledFutureNode<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
+            Comparable::compareTo;
+    private static final RunnableScheduledFuture<?>[] EMPTY_RUNNABLE_SCHEDULED_FUTURES =
+            new RunnableScheduledFuture<?>[0];
+    private static final ScheduledTaskStoreFactory FACTORY = PriorityQueueScheduledTaskStore::new;
+
+    private final DefaultPriorityQueue<RunnableScheduledFutureNode<?>> queue = new DefaultPriorityQueue<>(
+            SCHEDULED_FUTURE_TASK_COMPARATOR,
+            // Use same initial capacity as java.util.PriorityQueue
+            11);
+
+    private PriorityQueueScheduledTaskStore() {
+    }
+
+    /**
+     * Returns the {@link ScheduledTaskStoreFactory} that creates {@link PriorityQueueScheduledTaskStore} instances.
+     */
+    public static ScheduledTaskStoreFactory newFactory() {
+        return FACTORY;
+    }
+
+    @Override
+    public void add(RunnableScheduledFuture<?> task) {
+        queue.add((RunnableScheduledFutureNode<?>) task);
+    }
+
+    @Override
+    public boolean remove(RunnableScheduledFuture<?> task) {
+        return queue.removeTyped((RunnableScheduledFutureNode<?>) task);
+    }
+
+    @Override
+    public RunnableScheduledFuture<?> poll(long nanoTime) {
+        RunnableScheduledFutureNode<?> task = queue.peek();
+        if (task == null || task.deadlineNanos() > nanoTime) {
+            return null;
+        }
+        queue.remove();
+        return task;
+    }
+
+    @Override
+    public long nextDeadlineNanos() {
+        RunnableScheduledFutureNode<?> task = queue.peek();
+        return task == null ? -1 : task.deadlineNanos();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public RunnableScheduledFuture<?>[] removeAll() {
+        if (queue.isEmpty()) {
+            return EMPTY_RUNNABLE_SCHEDULED_FUTURES;
+        }
+        RunnableScheduledFuture<?>[] tasks = queue.toArray(EMPTY_RUNNABLE_SCHEDULED_FUTURES);
+        queue.clearIgnoringIndexes();
+        return tasks;
+    }
+}
@@ -33,6 +33,7 @@ final class RunnableScheduledFutureAdapter<V> implements AbstractScheduledEventE
     private final long periodNanos;
 
     private int queueIndex = INDEX_NOT_IN_QUEUE;
+    private Object storeEntry;
 
     private final AbstractScheduledEventExecutor executor;
     private final Promise<V> promise;
@@ -66,11 +67,7 @@ final class RunnableScheduledFutureAdapter<V> implements AbstractScheduledEventE
 
     @Override
     public long delayNanos(long currentTimeNanos) {
-        return deadlineToDelayNanos(currentTimeNanos, deadlineNanos);
-    }
-
-    private static long deadlineToDelayNanos(long currentTimeNanos, long deadlineNanos) {
-        return deadlineNanos == 0L ? 0L : Math.max(0L, deadlineNanos - currentTimeNanos);
+        return AbstractScheduledEventExecutor.deadlineToDelayNanos(currentTimeNanos, deadlineNanos);
     }
 
     @Override
@@ -217,6 +214,16 @@ final class RunnableScheduledFutureAdapter<V> implements AbstractScheduledEventE
         queueIndex = i;
     }
 
+    @Override
+    public Object scheduledTaskStoreEntry() {
+        return storeEntry;
+    }
+
+    @Override
+    public void scheduledTaskStoreEntry(Object entry) {
+        storeEntry = entry;
+    }
+
     @Override
     public String toString() {
         StringBuilder buf = new StringBuilder(64)
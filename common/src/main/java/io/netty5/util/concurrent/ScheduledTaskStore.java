@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+/**
+ * Holds the {@link RunnableScheduledFuture}s of an {@link AbstractScheduledEventExecutor} until they are due.
+ * <p>
+ * Implementations are only ever accessed from the thread of the executor that owns them, and so do not need to be
+ * thread-safe. Deadlines are in nanoseconds, relative to {@link AbstractScheduledEventExecutor#getCurrentTimeNanos()}.
+ * <p>
+ * Which store an executor uses is decided by the {@link ScheduledTaskStoreFactory} given on construction, see
+ * {@link PriorityQueueScheduledTaskStore} and {@link TimingWheelScheduledTaskStore}.
+ */
+public interface ScheduledTaskStore {
+
+    /**
+     * Adds the given task.
+     */
+    void add(RunnableScheduledFuture<?> task);
+
+    /**
+     * Removes the given task, returning {@code true} if it was contained in this store.
+     */
+    boolean remove(RunnableScheduledFuture<?> task);
+
+    /**
+     * Removes and returns a task whose deadline is not after the given {@code nanoTime}, or {@code null} if there is
+     * no such task.
+     */
+    RunnableScheduledFuture<?> poll(long nanoTime);
+
+    /**
+     * Returns the point in time at which {@link #poll(long)} should be called next, or {@code -1} if this store is
+     * empty. The returned value may differ from the deadline of the next task, as a store may only track deadlines
+     * with limited precision, or need to be polled in between to update its internal state.
+     */
+    long nextDeadlineNanos();
+
+    /**
+     * Returns the number of tasks in this store.
+     */
+    int size();
+
+    /**
+     * Returns {@code true} if this store contains no tasks.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all tasks from this store, and returns them.
+     */
+    RunnableScheduledFuture<?>[] removeAll();
+}
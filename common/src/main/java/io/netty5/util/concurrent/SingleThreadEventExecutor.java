@@ -123,6 +123,20 @@ public class SingleThreadEventExecutor extends AbstractScheduledEventExecutor im
         this(new ThreadPerTaskExecutor(threadFactory), maxPendingTasks, rejectedHandler);
     }
 
+    /**
+     * Create a new instance
+     *
+     * @param threadFactory             the {@link ThreadFactory} which will be used for the used {@link Thread}
+     * @param maxPendingTasks           the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler           the {@link RejectedExecutionHandler} to use.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding scheduled tasks.
+     */
+    public SingleThreadEventExecutor(ThreadFactory threadFactory,
+            int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+            ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        this(new ThreadPerTaskExecutor(threadFactory), maxPendingTasks, rejectedHandler, scheduledTaskStoreFactory);
+    }
+
     /**
      * Create a new instance
      *
@@ -140,6 +154,20 @@ public class SingleThreadEventExecutor extends AbstractScheduledEventExecutor im
      * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
      */
     public SingleThreadEventExecutor(Executor executor, int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        this(executor, maxPendingTasks, rejectedHandler, PriorityQueueScheduledTaskStore.newFactory());
+    }
+
+    /**
+     * Create a new instance
+     *
+     * @param executor                  the {@link Executor} which will be used for executing
+     * @param maxPendingTasks           the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler           the {@link RejectedExecutionHandler} to use.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding scheduled tasks.
+     */
+    public SingleThreadEventExecutor(Executor executor, int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        super(scheduledTaskStoreFactory);
         this.executor = ThreadExecutorMap.apply(executor, this);
         taskQueue = newTaskQueue(Math.max(16, maxPendingTasks));
         addTaskWakesUp = taskQueue instanceof BlockingQueue;
@@ -210,8 +238,8 @@ public class SingleThreadEventExecutor extends AbstractScheduledEventExecutor im
 
         BlockingQueue<Runnable> taskQueue = (BlockingQueue<Runnable>) this.taskQueue;
         for (;;) {
-            RunnableScheduledFuture<?> scheduledTask = peekScheduledTask();
-            if (scheduledTask == null) {
+            long deadlineNanos = nextScheduledTaskDeadlineNanos();
+            if (deadlineNanos == -1) {
                 Runnable task = null;
                 try {
                     task = taskQueue.take();
@@ -223,7 +251,7 @@ public class SingleThreadEventExecutor extends AbstractScheduledEventExecutor im
                 }
                 return task;
             } else {
-                long delayNanos = scheduledTask.delayNanos();
+                long delayNanos = deadlineToDelayNanos(getCurrentTimeNanos(), deadlineNanos);
                 Runnable task = null;
                 if (delayNanos > 0) {
                     try {
@@ -380,12 +408,12 @@ public class SingleThreadEventExecutor extends AbstractScheduledEventExecutor im
     protected final long delayNanos(long currentTimeNanos) {
         assert inEventLoop();
         currentTimeNanos -= START_TIME;
-        RunnableScheduledFuture<?> scheduledTask = peekScheduledTask();
-        if (scheduledTask == null) {
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        if (deadlineNanos == -1) {
             return SCHEDULE_PURGE_INTERVAL;
         }
 
-        return scheduledTask.delayNanos(currentTimeNanos);
+        return deadlineToDelayNanos(currentTimeNanos, deadlineNanos);
     }
 
     /**
@@ -396,8 +424,7 @@ public class SingleThreadEventExecutor extends AbstractScheduledEventExecutor im
      */
     protected final long deadlineNanos() {
         assert inEventLoop();
-        RunnableScheduledFuture<?> scheduledTask = peekScheduledTask();
-        return scheduledTask == null ? -1 : scheduledTask.deadlineNanos();
+        return nextScheduledTaskDeadlineNanos();
     }
 
     /**
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+import io.netty5.util.concurrent.AbstractScheduledEventExecutor.RunnableScheduledFutureNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link ScheduledTaskStore} which keeps the tasks in a hierarchical timing wheel. Adding and removing tasks costs
+ * {@code O(1)}, which makes it a good fit for event loops that serve many connections that each have timeouts
+ * scheduled, most of which are cancelled before they fire.
+ * <p>
+ * Time is divided into ticks of a fixed duration. The wheel has six levels of 64 buckets each,
+ * where a bucket of a level spans all the buckets of the level below it. Tasks are put into the bucket
+ * of the lowest level that spans their deadline, and are moved down a level once time reaches the start of their
+ * bucket, until they are due. Tasks with a deadline beyond the range of the highest level are kept aside and
+ * re-inserted each time the highest level completes a rotation.
+ * <p>
+ * In contrast to {@link PriorityQueueScheduledTaskStore}, tasks become due at the end of the tick their deadline
+ * falls into, and so may run up to one tick late. Tasks that become due at the same tick are not ordered by their
+ * deadline.
+ * <p>
+ * Unlike {@link io.netty5.util.HashedWheelTimer}, this store does not use a thread of its own, but is advanced by the
+ * {@link EventExecutor} it belongs to.
+ */
+public final class TimingWheelScheduledTaskStore implements ScheduledTaskStore {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 6;
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final RunnableScheduledFuture<?>[] EMPTY_RUNNABLE_SCHEDULED_FUTURES =
+            new RunnableScheduledFuture<?>[0];
+
+    private final long tickNanos;
+    private final Bucket[][] wheel = new Bucket[LEVELS][WHEEL_SIZE];
+    // One bit per bucket of each level, set if the bucket is not empty.
+    private final long[] occupied = new long[LEVELS];
+    private final Bucket due = new Bucket(-1, -1);
+    private final Bucket overflow = new Bucket(LEVELS, -1);
+    private long currentTick;
+    private int size;
+
+    private TimingWheelScheduledTaskStore(long tickNanos) {
+        this.tickNanos = tickNanos;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int index = 0; index < WHEEL_SIZE; index++) {
+                wheel[level][index] = new Bucket(level, index);
+            }
+        }
+    }
+
+    /**
+     * Returns a new {@link ScheduledTaskStoreFactory} that creates {@link TimingWheelScheduledTaskStore} instances
+     * with a tick duration of one millisecond.
+     */
+    public static ScheduledTaskStoreFactory newFactory() {
+        return () -> new TimingWheelScheduledTaskStore(DEFAULT_TICK_NANOS);
+    }
+
+    /**
+     * Returns a new {@link ScheduledTaskStoreFactory} that creates {@link TimingWheelScheduledTaskStore} instances
+     * with the given tick duration.
+     *
+     * @param tickDuration  the duration between ticks, which is the precision at which tasks become due.
+     * @param unit          the {@link TimeUnit} of {@code tickDuration}.
+     */
+    public static ScheduledTaskStoreFactory newFactory(long tickDuration, TimeUnit unit) {
+        requireNonNull(unit, "unit");
+        long tickNanos = unit.toNanos(checkPositive(tickDuration, "tickDuration"));
+        return () -> new TimingWheelScheduledTaskStore(tickNanos);
+    }
+
+    @Override
+    public void add(RunnableScheduledFuture<?> task) {
+        RunnableScheduledFutureNode<?> node = (RunnableScheduledFutureNode<?>) task;
+        if (node.scheduledTaskStoreEntry() != null) {
+            throw new IllegalArgumentException("task is already scheduled: " + task);
+        }
+        Entry entry = new Entry(node, toTick(node.deadlineNanos()));
+        node.scheduledTaskStoreEntry(entry);
+        place(entry);
+        size++;
+    }
+
+    @Override
+    public boolean remove(RunnableScheduledFuture<?> task) {
+        RunnableScheduledFutureNode<?> node = (RunnableScheduledFutureNode<?>) task;
+        Object entry = node.scheduledTaskStoreEntry();
+        if (!(entry instanceof Entry)) {
+            return false;
+        }
+        node.scheduledTaskStoreEntry(null);
+        unlink((Entry) entry);
+        size--;
+        return true;
+    }
+
+    @Override
+    public RunnableScheduledFuture<?> poll(long nanoTime) {
+        if (size == 0) {
+            return null;
+        }
+        advance(Math.max(0, nanoTime) / tickNanos);
+        Entry entry = due.head;
+        if (entry == null || entry.task.deadlineNanos() > nanoTime) {
+            return null;
+        }
+        entry.task.scheduledTaskStoreEntry(null);
+        unlink(entry);
+        size--;
+        return entry.task;
+    }
+
+    @Override
+    public long nextDeadlineNanos() {
+        if (size == 0) {
+            return -1;
+        }
+        Entry entry = due.head;
+        if (entry != null) {
+            return entry.task.deadlineNanos();
+        }
+        long tick = nextEventTick();
+        return tick > Long.MAX_VALUE / tickNanos ? Long.MAX_VALUE : tick * tickNanos;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public RunnableScheduledFuture<?>[] removeAll() {
+        if (size == 0) {
+            return EMPTY_RUNNABLE_SCHEDULED_FUTURES;
+        }
+        List<RunnableScheduledFuture<?>> tasks = new ArrayList<>(size);
+        due.drainTo(tasks);
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            while (bits != 0) {
+                int index = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                wheel[level][index].drainTo(tasks);
+            }
+            occupied[level] = 0;
+        }
+        overflow.drainTo(tasks);
+        size = 0;
+        return tasks.toArray(EMPTY_RUNNABLE_SCHEDULED_FUTURES);
+    }
+
+    /**
+     * Returns the first tick at or after the given point in time.
+     */
+    private long toTick(long nanoTime) {
+        if (nanoTime <= 0) {
+            return 0;
+        }
+        long tick = nanoTime / tickNanos;
+        return nanoTime % tickNanos == 0 ? tick : tick + 1;
+    }
+
+    /**
+     * Puts the entry into the due list if its tick has been reached, or else into the bucket of the lowest level
+     * that spans its tick.
+     */
+    private void place(Entry entry) {
+        long tick = entry.tick;
+        if (tick <= currentTick) {
+            link(due, entry);
+            return;
+        }
+        // The lowest level above which the tick and the current tick are the same.
+        int level = (63 - Long.numberOfLeadingZeros(tick ^ currentTick)) / WHEEL_BITS;
+        if (level >= LEVELS) {
+            link(overflow, entry);
+        } else {
+            link(wheel[level][(int) (tick >>> level * WHEEL_BITS) & WHEEL_MASK], entry);
+        }
+    }
+
+    /**
+     * Moves the current tick forward to the given one, cascading the buckets that start along the way.
+     */
+    private void advance(long targetTick) {
+        while (currentTick < targetTick) {
+            long tick = nextEventTick();
+            if (tick > targetTick) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick = tick;
+            cascade();
+        }
+    }
+
+    /**
+     * Returns the tick at which the next non-empty bucket starts, or {@link Long#MAX_VALUE} if all are empty.
+     * Only buckets after the current tick are ever occupied, and each level only spans a single bucket of the level
+     * above it, so the lowest occupied level holds the next bucket.
+     */
+    private long nextEventTick() {
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            if (bits != 0) {
+                int shift = level * WHEEL_BITS;
+                long levelStart = currentTick >>> shift + WHEEL_BITS << shift + WHEEL_BITS;
+                return levelStart | (long) Long.numberOfTrailingZeros(bits) << shift;
+            }
+        }
+        if (overflow.head != null) {
+            int shift = LEVELS * WHEEL_BITS;
+            return (currentTick >>> shift) + 1 << shift;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Re-places the entries of all buckets that start at the current tick.
+     */
+    private void cascade() {
+        if ((currentTick & (1L << LEVELS * WHEEL_BITS) - 1) == 0) {
+            cascade(overflow);
+        }
+        for (int level = LEVELS - 1; level >= 0; level--) {
+            int shift = level * WHEEL_BITS;
+            if ((currentTick & (1L << shift) - 1) == 0) {
+                int index = (int) (currentTick >>> shift) & WHEEL_MASK;
+                if ((occupied[level] & 1L << index) != 0) {
+                    cascade(wheel[level][index]);
+                }
+            }
+        }
+    }
+
+    private void cascade(Bucket bucket) {
+        // Detach all entries first, as entries of the overflow bucket may be placed back into it.
+        Entry entry = bucket.head;
+        bucket.head = null;
+        bucket.tail = null;
+        if (bucket.index >= 0) {
+            occupied[bucket.level] &= ~(1L << bucket.index);
+        }
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void link(Bucket bucket, Entry entry) {
+        bucket.link(entry);
+        if (bucket.index >= 0) {
+            occupied[bucket.level] |= 1L << bucket.index;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        Bucket bucket = entry.bucket;
+        bucket.unlink(entry);
+        if (bucket.head == null && bucket.index >= 0) {
+            occupied[bucket.level] &= ~(1L << bucket.index);
+        }
+    }
+
+    private static final class Bucket {
+        final int level;
+        final int index;
+        Entry head;
+        Entry tail;
+
+        Bucket(int level, int index) {
+            this.level = level;
+            this.index = index;
+        }
+
+        void link(Entry entry) {
+            entry.bucket = this;
+            entry.prev = tail;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        void unlink(Entry entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        void drainTo(List<RunnableScheduledFuture<?>> tasks) {
+            for (Entry entry = head; entry != null; entry = entry.next) {
+                entry.task.scheduledTaskStoreEntry(null);
+                entry.bucket = null;
+                tasks.add(entry.task);
+            }
+            head = null;
+            tail = null;
+        }
+    }
+
+    private static final class Entry {
+        final RunnableScheduledFutureNode<?> task;
+        final long tick;
+        Bucket bucket;
+        Entry prev;
+        Entry next;
+
+        Entry(RunnableScheduledFutureNode<?> task, long tick) {
+            this.task = task;
+            this.tick = tick;
+        }
+    }
+}
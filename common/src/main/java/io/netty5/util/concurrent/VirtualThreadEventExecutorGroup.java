@@ -0,0 +1,367 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+import io.netty5.util.internal.UnstableApi;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link EventExecutorGroup} for offloading blocking work, which runs tasks on threads that only exist while there
+ * are tasks to run, instead of on a fixed pool of threads.
+ * <p>
+ * Each call to {@link #next()} returns a new {@link OrderedEventExecutor}, which is meant to be kept per
+ * {@link Object} whose tasks must run in order, like a {@code Channel}. Such an executor has no thread and no task
+ * queue of its own until the first task is submitted, starts a thread once tasks are submitted while it is idle, and
+ * lets that thread terminate as soon as all its tasks have run. This way a great number of executors, most of them
+ * idle, can be kept without having as many threads.
+ * <p>
+ * By default, virtual threads are used if the JDK supports them, and daemon platform threads otherwise. As a thread is
+ * started every time an executor becomes busy, platform threads are only a good fit for executors that are rarely
+ * used.
+ * <p>
+ * Scheduling tasks is not supported.
+ */
+@UnstableApi
+public final class VirtualThreadEventExecutorGroup implements EventExecutorGroup {
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(VirtualThreadEventExecutorGroup.class);
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = newVirtualThreadFactory();
+
+    private final ThreadFactory threadFactory;
+    private final AtomicLong pendingTasks = new AtomicLong();
+    private final Promise<Void> terminationFuture = GlobalEventExecutor.INSTANCE.newPromise();
+    private volatile boolean shuttingDown;
+
+    /**
+     * Creates a new instance, which uses virtual threads if they are {@linkplain #isVirtualThreadSupported()
+     * supported}.
+     */
+    public VirtualThreadEventExecutorGroup() {
+        this(VIRTUAL_THREAD_FACTORY != null ? VIRTUAL_THREAD_FACTORY :
+                new DefaultThreadFactory(VirtualThreadEventExecutorGroup.class, true));
+    }
+
+    /**
+     * Creates a new instance, which uses the given {@link ThreadFactory} to create a thread every time an executor
+     * becomes busy.
+     */
+    public VirtualThreadEventExecutorGroup(ThreadFactory threadFactory) {
+        this.threadFactory = requireNonNull(threadFactory, "threadFactory");
+    }
+
+    /**
+     * Returns {@code true} if the JDK supports virtual threads and so they are used by default.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    private static ThreadFactory newVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "virtualThreadEventExecutorGroup-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            // Virtual threads are a preview feature on some JDKs and then fail once they are used.
+            factory.newThread(() -> { });
+            logger.debug("Virtual threads: available");
+            return factory;
+        } catch (Throwable cause) {
+            logger.debug("Virtual threads: unavailable", cause);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shuttingDown;
+    }
+
+    /**
+     * Stops accepting new tasks. The {@linkplain #terminationFuture() termination future} is completed once all the
+     * tasks submitted before have run, so {@code quietPeriod} and {@code timeout} are ignored.
+     */
+    @Override
+    public Future<Void> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        shuttingDown = true;
+        if (pendingTasks.get() == 0) {
+            terminationFuture.trySuccess(null);
+        }
+        return terminationFuture();
+    }
+
+    @Override
+    public Future<Void> terminationFuture() {
+        return terminationFuture.asFuture();
+    }
+
+    /**
+     * Returns a new {@link OrderedEventExecutor}, which runs the tasks submitted to it one after another in the order
+     * they were submitted.
+     */
+    @Override
+    public EventExecutor next() {
+        return new VirtualThreadOrderedEventExecutor(this);
+    }
+
+    /**
+     * Returns an empty {@link Iterator}, as the executors of this group are not kept by it.
+     */
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return Collections.emptyIterator();
+    }
+
+    private void taskAdded() {
+        pendingTasks.incrementAndGet();
+        if (shuttingDown) {
+            taskDone();
+            throw new RejectedExecutionException("event executor group shut down");
+        }
+    }
+
+    private void taskDone() {
+        if (pendingTasks.decrementAndGet() == 0 && shuttingDown) {
+            terminationFuture.trySuccess(null);
+        }
+    }
+
+    private static final class VirtualThreadOrderedEventExecutor extends AbstractEventExecutor
+            implements Runnable, OrderedEventExecutor {
+        private static final AtomicReferenceFieldUpdater<VirtualThreadOrderedEventExecutor, Queue> TASKS_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(VirtualThreadOrderedEventExecutor.class, Queue.class, "tasks");
+        private static final AtomicIntegerFieldUpdater<VirtualThreadOrderedEventExecutor> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(VirtualThreadOrderedEventExecutor.class, "state");
+
+        private static final int NONE = 0;
+        private static final int SUBMITTED = 1;
+        private static final int RUNNING = 2;
+
+        private final VirtualThreadEventExecutorGroup parent;
+        // Created once the first task is submitted, as many executors never run any task.
+        private volatile Queue<Task> tasks;
+        private volatile int state;
+        private volatile Thread thread;
+
+        VirtualThreadOrderedEventExecutor(VirtualThreadEventExecutorGroup parent) {
+            this.parent = parent;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Queue<Task> tasks() {
+            Queue<Task> tasks = this.tasks;
+            if (tasks == null) {
+                // A linked queue takes next to no memory while it is empty.
+                tasks = new ConcurrentLinkedQueue<>();
+                if (!TASKS_UPDATER.compareAndSet(this, null, tasks)) {
+                    tasks = this.tasks;
+                }
+            }
+            return tasks;
+        }
+
+        @Override
+        public void run() {
+            if (!STATE_UPDATER.compareAndSet(this, SUBMITTED, RUNNING)) {
+                return;
+            }
+            Queue<Task> tasks = this.tasks;
+            Thread current = Thread.currentThread();
+            thread = current;
+            try {
+                for (;;) {
+                    Task task = tasks.poll();
+                    if (task != null) {
+                        try {
+                            safeExecute(task.task);
+                        } finally {
+                            parent.taskDone();
+                        }
+                        continue;
+                    }
+                    // Clear the thread before the state, as once the state is NONE another thread may take over.
+                    thread = null;
+                    state = NONE;
+                    // A task may have been added after the poll() above, but before the state was set. If the
+                    // producer saw the state NONE it started another thread, otherwise we must keep on running.
+                    if (tasks.isEmpty() || !STATE_UPDATER.compareAndSet(this, NONE, RUNNING)) {
+                        return;
+                    }
+                    thread = current;
+                }
+            } finally {
+                // Only still set if we did not return normally, in which case no other thread took over yet.
+                if (thread == current) {
+                    thread = null;
+                    state = NONE;
+                }
+            }
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return thread == this.thread;
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return parent.isShuttingDown();
+        }
+
+        @Override
+        public Future<Void> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            return parent.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+
+        @Override
+        public Future<Void> terminationFuture() {
+            return parent.terminationFuture();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return parent.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return parent.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return parent.awaitTermination(timeout, unit);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            requireNonNull(task, "task");
+            parent.taskAdded();
+            // Each submission gets its own node, so only the entry of this call is taken back below, even if the same
+            // task was submitted more than once.
+            Task node = new Task(task);
+            tasks().offer(node);
+            if (STATE_UPDATER.compareAndSet(this, NONE, SUBMITTED)) {
+                try {
+                    parent.threadFactory.newThread(this).start();
+                } catch (Throwable cause) {
+                    // No thread will run the task, so take it back if it is still there.
+                    if (tasks.remove(node)) {
+                        parent.taskDone();
+                    }
+                    startOrRejectOrphanedTasks(cause);
+                    throw new RejectedExecutionException("failed to start a thread", cause);
+                }
+            }
+        }
+
+        /**
+         * Called with the state still {@link #SUBMITTED} after starting a thread failed. Other producers may have
+         * added tasks in the meantime, which they rely on being run by the thread that failed to start, so try to
+         * start another thread for them. If that fails as well, the tasks are rejected rather than run in the calling
+         * thread, which is often an event loop that must not block.
+         */
+        private void startOrRejectOrphanedTasks(Throwable cause) {
+            if (tasks.isEmpty()) {
+                state = NONE;
+                // A task may have been added after the check above, but before the state was set.
+                if (tasks.isEmpty() || !STATE_UPDATER.compareAndSet(this, NONE, SUBMITTED)) {
+                    return;
+                }
+            }
+            try {
+                parent.threadFactory.newThread(this).start();
+            } catch (Throwable retryCause) {
+                retryCause.addSuppressed(cause);
+                int rejected = rejectOrphanedTasks();
+                logger.warn("Failed to start a thread, rejected {} pending task(s)", rejected, retryCause);
+            }
+        }
+
+        /**
+         * Rejects the queued tasks, by cancelling the ones that were {@linkplain #submit(Callable) submitted}, and
+         * gives up the state {@link #SUBMITTED}. Returns the number of tasks that were rejected.
+         */
+        private int rejectOrphanedTasks() {
+            int rejected = 0;
+            for (;;) {
+                Task task;
+                while ((task = tasks.poll()) != null) {
+                    parent.taskDone();
+                    if (task.task instanceof Future) {
+                        ((Future<?>) task.task).cancel();
+                    }
+                    rejected++;
+                }
+                state = NONE;
+                // A task may have been added after the poll() above, but before the state was set.
+                if (tasks.isEmpty() || !STATE_UPDATER.compareAndSet(this, NONE, SUBMITTED)) {
+                    return rejected;
+                }
+            }
+        }
+
+        @Override
+        public Future<Void> schedule(Runnable task, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <V> Future<V> schedule(Callable<V> task, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Void> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Void> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static final class Task {
+            final Runnable task;
+
+            Task(Runnable task) {
+                this.task = task;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelScheduledTaskStoreTest {
+    private static final Runnable TEST_RUNNABLE = () -> {
+    };
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testTasksBecomeDueAfterTheirDeadline() {
+        TestScheduledEventExecutor executor = new TestScheduledEventExecutor();
+        Random random = new Random(42);
+        List<RunnableScheduledFuture<?>> tasks = new ArrayList<>();
+        long[] maxDelays = {
+                TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.SECONDS.toNanos(10), TimeUnit.HOURS.toNanos(10),
+                TimeUnit.DAYS.toNanos(2000)
+        };
+        for (int i = 0; i < 4000; i++) {
+            long delay = (long) (random.nextDouble() * maxDelays[i % maxDelays.length]);
+            tasks.add((RunnableScheduledFuture<?>) executor.schedule(TEST_RUNNABLE, delay, TimeUnit.NANOSECONDS));
+        }
+
+        int polled = 0;
+        while (polled < tasks.size()) {
+            long next = executor.nextScheduledTaskDeadlineNanos();
+            assertTrue(next >= 0);
+            for (RunnableScheduledFuture<?> task : tasks) {
+                if (!task.isDone()) {
+                    // The store only needs to be polled again once the tick of the deadline has been reached.
+                    assertTrue(next <= (task.deadlineNanos() + TICK_NANOS - 1) / TICK_NANOS * TICK_NANOS);
+                }
+            }
+            executor.now = Math.max(executor.now, next) + random.nextInt((int) TICK_NANOS * 10);
+
+            RunnableScheduledFuture<?> task;
+            while ((task = executor.pollScheduledTask(executor.now)) != null) {
+                assertTrue(task.deadlineNanos() <= executor.now);
+                task.run();
+                polled++;
+            }
+            long lastTickStart = executor.now / TICK_NANOS * TICK_NANOS;
+            for (RunnableScheduledFuture<?> t : tasks) {
+                if (!t.isDone()) {
+                    assertTrue(t.deadlineNanos() > lastTickStart);
+                }
+            }
+        }
+        assertEquals(-1, executor.nextScheduledTaskDeadlineNanos());
+    }
+
+    @Test
+    public void testCancel() {
+        TestScheduledEventExecutor executor = new TestScheduledEventExecutor();
+        Future<?> cancelled = executor.schedule(TEST_RUNNABLE, 10, TimeUnit.SECONDS);
+        Future<?> kept = executor.schedule(TEST_RUNNABLE, 20, TimeUnit.SECONDS);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+
+        executor.now = TimeUnit.SECONDS.toNanos(30);
+        assertSame(kept, executor.pollScheduledTask(executor.now));
+        assertNull(executor.pollScheduledTask(executor.now));
+        assertEquals(-1, executor.nextScheduledTaskDeadlineNanos());
+    }
+
+    @Test
+    public void testCancelScheduledTasks() {
+        TestScheduledEventExecutor executor = new TestScheduledEventExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(executor.schedule(TEST_RUNNABLE, 0, TimeUnit.NANOSECONDS));
+        futures.add(executor.schedule(TEST_RUNNABLE, 1, TimeUnit.MINUTES));
+        futures.add(executor.schedule(TEST_RUNNABLE, 1, TimeUnit.DAYS));
+        futures.add(executor.schedule(TEST_RUNNABLE, 10000, TimeUnit.DAYS));
+        executor.cancelScheduledTasks();
+
+        for (Future<?> future : futures) {
+            assertTrue(future.isCancelled());
+        }
+        assertEquals(-1, executor.nextScheduledTaskDeadlineNanos());
+        assertNull(executor.pollScheduledTask(Long.MAX_VALUE));
+    }
+
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testSingleThreadEventExecutor() throws Exception {
+        SingleThreadEventExecutor executor = new SingleThreadEventExecutor(
+                new DefaultThreadFactory(TimingWheelScheduledTaskStoreTest.class), Integer.MAX_VALUE,
+                RejectedExecutionHandlers.reject(), TimingWheelScheduledTaskStore.newFactory());
+        try {
+            long start = System.nanoTime();
+            Future<Long> future = executor.schedule(System::nanoTime, 100, TimeUnit.MILLISECONDS);
+            Future<?> cancelled = executor.schedule(TEST_RUNNABLE, 50, TimeUnit.MILLISECONDS);
+            assertTrue(cancelled.cancel());
+            assertNotNull(future.asStage().get());
+            assertTrue(future.getNow() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class TestScheduledEventExecutor extends AbstractScheduledEventExecutor {
+        long now;
+
+        TestScheduledEventExecutor() {
+            super(TimingWheelScheduledTaskStore.newFactory(TICK_NANOS, TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        protected long getCurrentTimeNanos() {
+            return now;
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return false;
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return true;
+        }
+
+        @Override
+        public Future<Void> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Void> terminationFuture() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadEventExecutorGroupTest {
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testOrderingPerExecutor() throws Throwable {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        int executors = 64;
+        int tasks = 500;
+        CountDownLatch latch = new CountDownLatch(executors * tasks);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<EventExecutor> list = new ArrayList<>();
+        List<AtomicInteger> counters = new ArrayList<>();
+        for (int i = 0; i < executors; i++) {
+            list.add(group.next());
+            counters.add(new AtomicInteger());
+        }
+        try {
+            for (int t = 0; t < tasks; t++) {
+                for (int i = 0; i < executors; i++) {
+                    EventExecutor executor = list.get(i);
+                    AtomicInteger counter = counters.get(i);
+                    int expected = t;
+                    executor.execute(() -> {
+                        if (!executor.inEventLoop()) {
+                            error.compareAndSet(null, new AssertionError("not in event loop"));
+                        }
+                        int value = counter.getAndIncrement();
+                        if (value != expected) {
+                            error.compareAndSet(null, new AssertionError(value + " != " + expected));
+                        }
+                        latch.countDown();
+                    });
+                }
+            }
+            latch.await();
+            Throwable cause = error.get();
+            if (cause != null) {
+                throw cause;
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testBlockingTaskDoesNotBlockOtherExecutors() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            EventExecutor blocked = group.next();
+            blocked.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            AtomicBoolean ran = new AtomicBoolean();
+            Future<Void> future = blocked.submit(() -> ran.set(true));
+
+            group.next().submit(() -> { }).asStage().sync();
+            assertFalse(ran.get());
+            release.countDown();
+            future.asStage().sync();
+            assertTrue(ran.get());
+        } finally {
+            release.countDown();
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testShutdownWaitsForPendingTasks() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        CountDownLatch release = new CountDownLatch(1);
+        EventExecutor executor = group.next();
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Future<Void> termination = group.shutdownGracefully();
+        assertTrue(group.isShutdown());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+        assertThrows(RejectedExecutionException.class, () -> group.next().execute(() -> { }));
+        assertFalse(termination.isDone());
+
+        release.countDown();
+        termination.asStage().sync();
+        assertTrue(group.isTerminated());
+    }
+
+    @Test
+    public void testIdleExecutorHasNoThread() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            EventExecutor executor = group.next();
+            AtomicReference<Thread> thread = new AtomicReference<>();
+            executor.submit(() -> thread.set(Thread.currentThread())).asStage().sync();
+            thread.get().join(5000);
+            assertFalse(thread.get().isAlive());
+            assertFalse(executor.inEventLoop(thread.get()));
+            assertNull(executor.submit(() -> null).asStage().get());
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testTasksOfOtherProducersRunIfThreadFailsToStart() throws Exception {
+        AtomicReference<EventExecutor> executor = new AtomicReference<>();
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(runnable -> {
+            if (failed.compareAndSet(false, true)) {
+                // Another producer adds a task while the thread is being started, so it does not start one itself.
+                executor.get().execute(ran::countDown);
+                throw new IllegalStateException("test");
+            }
+            return new Thread(runnable);
+        });
+        try {
+            executor.set(group.next());
+            assertThrows(RejectedExecutionException.class, () -> executor.get().execute(() -> { }));
+            ran.await();
+        } finally {
+            group.shutdownGracefully().asStage().sync();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testTasksOfOtherProducersAreRejectedIfNoThreadStarts() throws Exception {
+        AtomicReference<EventExecutor> executor = new AtomicReference<>();
+        AtomicReference<Future<Void>> orphaned = new AtomicReference<>();
+        AtomicBoolean ran = new AtomicBoolean();
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(runnable -> {
+            if (orphaned.get() == null) {
+                // Another producer adds a task while the thread is being started, so it does not start one itself.
+                orphaned.set(executor.get().submit(() -> ran.set(true)));
+            }
+            throw new IllegalStateException("test");
+        });
+        executor.set(group.next());
+        assertThrows(RejectedExecutionException.class, () -> executor.get().execute(() -> { }));
+        assertTrue(orphaned.get().isCancelled());
+        assertFalse(ran.get());
+        // Both tasks are done with, so the group terminates.
+        group.shutdownGracefully().asStage().sync();
+    }
+}
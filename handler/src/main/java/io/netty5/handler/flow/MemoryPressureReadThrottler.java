@@ -0,0 +1,359 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.handler.flow;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.pool.BufferAllocatorMetric;
+import io.netty5.channel.Channel;
+import io.netty5.channel.ChannelHandler;
+import io.netty5.channel.ChannelHandlerContext;
+import io.netty5.channel.ChannelOption;
+import io.netty5.channel.FileRegion;
+import io.netty5.channel.ReadBufferAllocator;
+import io.netty5.util.AttributeKey;
+import io.netty5.util.concurrent.EventExecutorGroup;
+import io.netty5.util.concurrent.Future;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
+import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Suspends reading on the {@link Channel}s it is added to while the memory they use together is too high, so that an
+ * overloaded server degrades gracefully instead of running out of (direct) memory.
+ * <p>
+ * One instance is meant to be shared by all {@link Channel}s of an {@link io.netty5.channel.EventLoopGroup}. At a
+ * fixed interval, it looks at two signals, each compared against its own pair of water marks:
+ * <ul>
+ *     <li>the {@linkplain BufferAllocatorMetric#usedMemory() memory used} by the
+ *     {@link io.netty5.buffer.BufferAllocator}, and</li>
+ *     <li>the outbound backlog, which is the bytes that were written through this handler but have not been written
+ *     to the transport yet.</li>
+ * </ul>
+ * The signals are not added up, as outbound {@link Buffer}s are usually allocated by the same allocator and so are
+ * already part of its used memory. The outbound backlog still matters on its own for messages whose memory is not
+ * accounted by the allocator, like {@link FileRegion}s or {@link Buffer}s of another allocator.
+ * <p>
+ * Once either signal exceeds its high water mark, channels are suspended, starting with those of the lowest
+ * {@link #PRIORITY} and, for equal priorities, those with the largest outbound backlog. At most half of the still
+ * reading channels are suspended per check, and no more than needed to cover the largest excess above a low water
+ * mark by their backlogs. Once both signals have dropped to their low water marks, all suspended channels are
+ * resumed.
+ * <p>
+ * Suspending a {@link Channel} turns off {@link ChannelOption#AUTO_READ} and holds back any
+ * {@link Channel#read()} until it is resumed. This handler should be placed close to the head of the pipeline so it
+ * sees the outbound bytes as they are handed to the transport.
+ *
+ * <pre>{@code
+ * MemoryPressureReadThrottler throttler = new MemoryPressureReadThrottler(group,
+ *         ((BufferAllocatorMetricProvider) allocator).metric(), 256 * 1024 * 1024, 384 * 1024 * 1024,
+ *         100, TimeUnit.MILLISECONDS);
+ *
+ * pipeline.addFirst(throttler);
+ * }</pre>
+ *
+ * The {@link #release()} method must be called once the handler is no longer used.
+ */
+public class MemoryPressureReadThrottler implements ChannelHandler {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(MemoryPressureReadThrottler.class);
+
+    /**
+     * The priority of a {@link Channel}. Channels with a lower priority are suspended first, channels without this
+     * attribute have priority {@code 0}.
+     */
+    public static final AttributeKey<Integer> PRIORITY =
+            AttributeKey.valueOf(MemoryPressureReadThrottler.class, "PRIORITY");
+
+    private static final Comparator<PerChannel> SUSPEND_ORDER = Comparator
+            .comparingInt(PerChannel::priority)
+            .thenComparing(Comparator.comparingLong(PerChannel::pendingOutboundBytes).reversed());
+
+    private final ConcurrentMap<ChannelHandlerContext, PerChannel> channels = new ConcurrentHashMap<>();
+    private final BufferAllocatorMetric metric;
+    private final long lowWaterMark;
+    private final long highWaterMark;
+    private final long outboundLowWaterMark;
+    private final long outboundHighWaterMark;
+    private final Future<Void> checkFuture;
+    private volatile long lastPressure;
+    private volatile long lastPendingOutboundBytes;
+
+    /**
+     * Create a new instance, which uses the same water marks for the memory usage and the outbound backlog.
+     *
+     * @param executor          the {@link EventExecutorGroup} on which the memory usage is checked.
+     * @param metric            the {@link BufferAllocatorMetric} of the allocator used by the channels.
+     * @param lowWaterMark      the number of bytes to which the memory usage and the outbound backlog must drop to
+     *                          resume the channels.
+     * @param highWaterMark     the number of bytes above which the memory usage or the outbound backlog suspends
+     *                          channels.
+     * @param checkInterval     the interval between two checks.
+     * @param unit              the {@link TimeUnit} of {@code checkInterval}.
+     */
+    public MemoryPressureReadThrottler(EventExecutorGroup executor, BufferAllocatorMetric metric,
+                                       long lowWaterMark, long highWaterMark, long checkInterval, TimeUnit unit) {
+        this(executor, metric, lowWaterMark, highWaterMark, lowWaterMark, highWaterMark, checkInterval, unit);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param executor              the {@link EventExecutorGroup} on which the memory usage is checked.
+     * @param metric                the {@link BufferAllocatorMetric} of the allocator used by the channels.
+     * @param lowWaterMark          the number of bytes to which the memory usage must drop to resume the channels.
+     * @param highWaterMark         the number of bytes of memory usage above which channels are suspended.
+     * @param outboundLowWaterMark  the number of bytes to which the outbound backlog must drop to resume the
+     *                              channels.
+     * @param outboundHighWaterMark the number of bytes of outbound backlog above which channels are suspended.
+     * @param checkInterval         the interval between two checks.
+     * @param unit                  the {@link TimeUnit} of {@code checkInterval}.
+     */
+    public MemoryPressureReadThrottler(EventExecutorGroup executor, BufferAllocatorMetric metric,
+                                       long lowWaterMark, long highWaterMark,
+                                       long outboundLowWaterMark, long outboundHighWaterMark,
+                                       long checkInterval, TimeUnit unit) {
+        requireNonNull(executor, "executor");
+        requireNonNull(unit, "unit");
+        this.metric = requireNonNull(metric, "metric");
+        checkWaterMarks(lowWaterMark, highWaterMark, "lowWaterMark", "highWaterMark");
+        checkWaterMarks(outboundLowWaterMark, outboundHighWaterMark, "outboundLowWaterMark", "outboundHighWaterMark");
+        checkPositive(checkInterval, "checkInterval");
+        this.lowWaterMark = lowWaterMark;
+        this.highWaterMark = highWaterMark;
+        this.outboundLowWaterMark = outboundLowWaterMark;
+        this.outboundHighWaterMark = outboundHighWaterMark;
+        checkFuture = executor.scheduleAtFixedRate(this::checkPressure, checkInterval, checkInterval, unit);
+    }
+
+    private static void checkWaterMarks(long low, long high, String lowName, String highName) {
+        checkPositiveOrZero(low, lowName);
+        if (high <= low) {
+            throw new IllegalArgumentException(highName + ": " + high + " (expected: > " + lowName + ": " + low + ')');
+        }
+    }
+
+    @Override
+    public boolean isSharable() {
+        return true;
+    }
+
+    /**
+     * Returns the memory usage of the allocator in bytes that was seen by the last check.
+     */
+    public long pressure() {
+        return lastPressure;
+    }
+
+    /**
+     * Returns the outbound backlog in bytes of all {@link Channel}s that was seen by the last check.
+     */
+    public long pendingOutboundBytes() {
+        return lastPendingOutboundBytes;
+    }
+
+    /**
+     * Returns the number of {@link Channel}s that are currently suspended.
+     */
+    public int suspendedChannels() {
+        int suspended = 0;
+        for (PerChannel perChannel : channels.values()) {
+            if (perChannel.suspended) {
+                suspended++;
+            }
+        }
+        return suspended;
+    }
+
+    /**
+     * Release all internal resources of this instance and resume all suspended {@link Channel}s.
+     */
+    public final void release() {
+        checkFuture.cancel();
+        for (PerChannel perChannel : channels.values()) {
+            resume(perChannel);
+        }
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        channels.put(ctx, new PerChannel(ctx));
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        PerChannel perChannel = channels.remove(ctx);
+        if (perChannel != null) {
+            perChannel.suspended = false;
+            if (perChannel.autoReadTurnedOff) {
+                perChannel.autoReadTurnedOff = false;
+                ctx.channel().setOption(ChannelOption.AUTO_READ, true);
+            }
+            ReadBufferAllocator readBufferAllocator = perChannel.pendingRead;
+            if (readBufferAllocator != null) {
+                perChannel.pendingRead = null;
+                ctx.channel().read(readBufferAllocator);
+            }
+        }
+    }
+
+    @Override
+    public void read(ChannelHandlerContext ctx, ReadBufferAllocator readBufferAllocator) {
+        PerChannel perChannel = channels.get(ctx);
+        if (perChannel != null && perChannel.suspended) {
+            perChannel.pendingRead = readBufferAllocator;
+        } else {
+            ctx.read(readBufferAllocator);
+        }
+    }
+
+    @Override
+    public Future<Void> write(ChannelHandlerContext ctx, Object msg) {
+        long size = calculateSize(msg);
+        PerChannel perChannel = channels.get(ctx);
+        if (size <= 0 || perChannel == null) {
+            return ctx.write(msg);
+        }
+        // Only ever updated from the EventLoop of the Channel, so there are no concurrent writes to the field.
+        perChannel.pendingOutboundBytes += size;
+        return ctx.write(msg).addListener(future -> perChannel.pendingOutboundBytes -= size);
+    }
+
+    /**
+     * Calculate the size of the given {@link Object}, or {@code -1} if it is unknown.
+     *
+     * @param msg   the msg for which the size should be calculated.
+     * @return size the size of the msg or {@code -1} if unknown.
+     */
+    protected long calculateSize(Object msg) {
+        if (msg instanceof Buffer) {
+            return ((Buffer) msg).readableBytes();
+        }
+        if (msg instanceof FileRegion) {
+            return ((FileRegion) msg).count();
+        }
+        return -1;
+    }
+
+    /**
+     * Compare the memory usage and the outbound backlog against their water marks and suspend or resume
+     * {@link Channel}s accordingly.
+     */
+    void checkPressure() {
+        long pressure = Math.max(0, metric.usedMemory());
+        long pendingOutboundBytes = 0;
+        for (PerChannel perChannel : channels.values()) {
+            pendingOutboundBytes += perChannel.pendingOutboundBytes;
+        }
+        lastPressure = pressure;
+        lastPendingOutboundBytes = pendingOutboundBytes;
+
+        if (pressure <= lowWaterMark && pendingOutboundBytes <= outboundLowWaterMark) {
+            for (PerChannel perChannel : channels.values()) {
+                if (perChannel.suspended) {
+                    resume(perChannel);
+                }
+            }
+        } else if (pressure > highWaterMark || pendingOutboundBytes > outboundHighWaterMark) {
+            List<PerChannel> candidates = new ArrayList<>();
+            for (PerChannel perChannel : channels.values()) {
+                if (!perChannel.suspended) {
+                    candidates.add(perChannel);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return;
+            }
+            candidates.sort(SUSPEND_ORDER);
+            int maxSuspend = Math.max(1, candidates.size() / 2);
+            long excess = Math.max(pressure - lowWaterMark, pendingOutboundBytes - outboundLowWaterMark);
+            for (int i = 0; i < maxSuspend && excess > 0; i++) {
+                PerChannel perChannel = candidates.get(i);
+                excess -= perChannel.pendingOutboundBytes;
+                suspend(perChannel);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Memory usage of {} bytes (high water mark: {}) and outbound backlog of {} bytes " +
+                        "(high water mark: {}), {} channels suspended", pressure, highWaterMark,
+                        pendingOutboundBytes, outboundHighWaterMark, suspendedChannels());
+            }
+        }
+    }
+
+    private static void suspend(PerChannel perChannel) {
+        perChannel.suspended = true;
+        perChannel.ctx.executor().execute(perChannel::suspendNow);
+    }
+
+    private static void resume(PerChannel perChannel) {
+        perChannel.suspended = false;
+        perChannel.ctx.executor().execute(perChannel::resumeNow);
+    }
+
+    private static final class PerChannel {
+        final ChannelHandlerContext ctx;
+        volatile long pendingOutboundBytes;
+        volatile boolean suspended;
+        // Only accessed from the EventLoop of the Channel.
+        ReadBufferAllocator pendingRead;
+        boolean autoReadTurnedOff;
+
+        PerChannel(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        int priority() {
+            Integer priority = ctx.channel().attr(PRIORITY).get();
+            return priority == null ? 0 : priority;
+        }
+
+        long pendingOutboundBytes() {
+            return pendingOutboundBytes;
+        }
+
+        void suspendNow() {
+            Channel channel = ctx.channel();
+            if (suspended && !autoReadTurnedOff && channel.getOption(ChannelOption.AUTO_READ)) {
+                autoReadTurnedOff = true;
+                channel.setOption(ChannelOption.AUTO_READ, false);
+            }
+        }
+
+        void resumeNow() {
+            if (suspended) {
+                // Suspended again before this task ran.
+                return;
+            }
+            if (autoReadTurnedOff) {
+                autoReadTurnedOff = false;
+                ctx.channel().setOption(ChannelOption.AUTO_READ, true);
+            }
+            ReadBufferAllocator readBufferAllocator = pendingRead;
+            if (readBufferAllocator != null) {
+                pendingRead = null;
+                ctx.read(readBufferAllocator);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.handler.flow;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.pool.BufferAllocatorMetric;
+import io.netty5.buffer.pool.PoolArenaMetric;
+import io.netty5.channel.ChannelHandler;
+import io.netty5.channel.ChannelHandlerContext;
+import io.netty5.channel.ChannelOption;
+import io.netty5.channel.ReadBufferAllocator;
+import io.netty5.channel.embedded.EmbeddedChannel;
+import io.netty5.util.concurrent.DefaultEventExecutorGroup;
+import io.netty5.util.concurrent.EventExecutorGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.netty5.buffer.DefaultBufferAllocators.preferredAllocator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryPressureReadThrottlerTest {
+    private EventExecutorGroup executor;
+    private TestMetric metric;
+    private MemoryPressureReadThrottler throttler;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new DefaultEventExecutorGroup(1);
+        metric = new TestMetric();
+        // Checks are triggered by the tests themselves.
+        throttler = new MemoryPressureReadThrottler(executor, metric, 100, 200, 1, TimeUnit.DAYS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        throttler.release();
+        executor.shutdownGracefully();
+    }
+
+    @Test
+    public void testSuspendAndResumeWithHysteresis() {
+        ReadCounter reads = new ReadCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(reads, throttler);
+
+        metric.usedMemory = 250;
+        throttler.checkPressure();
+        channel.runPendingTasks();
+        assertEquals(1, throttler.suspendedChannels());
+        assertFalse(channel.getOption(ChannelOption.AUTO_READ));
+
+        int readsBefore = reads.count.get();
+        channel.read();
+        assertEquals(readsBefore, reads.count.get());
+
+        // Between the water marks nothing changes.
+        metric.usedMemory = 150;
+        throttler.checkPressure();
+        channel.runPendingTasks();
+        assertEquals(1, throttler.suspendedChannels());
+        assertEquals(readsBefore, reads.count.get());
+
+        metric.usedMemory = 100;
+        throttler.checkPressure();
+        channel.runPendingTasks();
+        assertEquals(0, throttler.suspendedChannels());
+        assertTrue(channel.getOption(ChannelOption.AUTO_READ));
+        assertTrue(reads.count.get() > readsBefore);
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testSuspendsLowestPriorityFirst() {
+        EmbeddedChannel low = new EmbeddedChannel(throttler);
+        EmbeddedChannel high = new EmbeddedChannel(throttler);
+        high.attr(MemoryPressureReadThrottler.PRIORITY).set(1);
+
+        metric.usedMemory = 250;
+        throttler.checkPressure();
+        low.runPendingTasks();
+        high.runPendingTasks();
+        assertFalse(low.getOption(ChannelOption.AUTO_READ));
+        assertTrue(high.getOption(ChannelOption.AUTO_READ));
+
+        // Still above the high water mark, so the next check suspends the remaining channel.
+        throttler.checkPressure();
+        high.runPendingTasks();
+        assertFalse(high.getOption(ChannelOption.AUTO_READ));
+        assertEquals(2, throttler.suspendedChannels());
+
+        assertFalse(low.finish());
+        assertFalse(high.finish());
+    }
+
+    @Test
+    public void testSuspendsLargestBacklogFirst() {
+        EmbeddedChannel idle = new EmbeddedChannel(throttler);
+        EmbeddedChannel busy = new EmbeddedChannel(throttler);
+        // Written but not flushed, so the bytes stay pending.
+        busy.write(preferredAllocator().copyOf(new byte[150]));
+
+        metric.usedMemory = 250;
+        throttler.checkPressure();
+        idle.runPendingTasks();
+        busy.runPendingTasks();
+        assertEquals(250, throttler.pressure());
+        assertEquals(150, throttler.pendingOutboundBytes());
+        assertTrue(idle.getOption(ChannelOption.AUTO_READ));
+        assertFalse(busy.getOption(ChannelOption.AUTO_READ));
+
+        busy.flush();
+        try (Buffer written = busy.readOutbound()) {
+            assertEquals(150, written.readableBytes());
+        }
+        metric.usedMemory = 0;
+        throttler.checkPressure();
+        busy.runPendingTasks();
+        assertEquals(0, throttler.pressure());
+        assertEquals(0, throttler.pendingOutboundBytes());
+        assertTrue(busy.getOption(ChannelOption.AUTO_READ));
+
+        assertFalse(idle.finish());
+        assertFalse(busy.finishAndReleaseAll());
+    }
+
+    @Test
+    public void testOutboundBytesNotAddedToUsedMemory() {
+        EmbeddedChannel channel = new EmbeddedChannel(throttler);
+        channel.write(preferredAllocator().copyOf(new byte[150]));
+
+        // The pending bytes are part of the used memory, so neither signal is above the high water mark.
+        metric.usedMemory = 150;
+        throttler.checkPressure();
+        channel.runPendingTasks();
+        assertEquals(0, throttler.suspendedChannels());
+        assertTrue(channel.getOption(ChannelOption.AUTO_READ));
+
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    @Test
+    public void testSuspendOnOutboundBacklog() {
+        throttler.release();
+        throttler = new MemoryPressureReadThrottler(executor, metric, 100, 200, 10, 20, 1, TimeUnit.DAYS);
+        EmbeddedChannel channel = new EmbeddedChannel(throttler);
+        channel.write(preferredAllocator().copyOf(new byte[50]));
+
+        // The allocator does not see the pending bytes, but the outbound backlog is above its own high water mark.
+        throttler.checkPressure();
+        channel.runPendingTasks();
+        assertEquals(1, throttler.suspendedChannels());
+        assertFalse(channel.getOption(ChannelOption.AUTO_READ));
+
+        channel.flush();
+        try (Buffer written = channel.readOutbound()) {
+            assertEquals(50, written.readableBytes());
+        }
+        throttler.checkPressure();
+        channel.runPendingTasks();
+        assertEquals(0, throttler.suspendedChannels());
+        assertTrue(channel.getOption(ChannelOption.AUTO_READ));
+
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    private static final class ReadCounter implements ChannelHandler {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void read(ChannelHandlerContext ctx, ReadBufferAllocator readBufferAllocator) {
+            count.incrementAndGet();
+            ctx.read(readBufferAllocator);
+        }
+    }
+
+    private static final class TestMetric implements BufferAllocatorMetric {
+        volatile long usedMemory;
+
+        @Override
+        public int numArenas() {
+            return 0;
+        }
+
+        @Override
+        public List<PoolArenaMetric> arenaMetrics() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int numThreadLocalCaches() {
+            return 0;
+        }
+
+        @Override
+        public int smallCacheSize() {
+            return 0;
+        }
+
+        @Override
+        public int normalCacheSize() {
+            return 0;
+        }
+
+        @Override
+        public int chunkSize() {
+            return 0;
+        }
+
+        @Override
+        public long usedMemory() {
+            return usedMemory;
+        }
+
+        @Override
+        public long pinnedMemory() {
+            return 0;
+        }
+    }
+}
@@ -16,28 +16,90 @@
 package io.netty5.microbench.buffer;
 
 import io.netty5.buffer.BufferAllocator;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.pool.PooledBufferAllocator;
 import io.netty5.microbench.util.AbstractMicrobenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
+/**
+ * Allocates and releases buffers from several threads at once. The {@code allocateReleaseXXThreads} benchmarks give
+ * the scaling curve of an allocator. Buffers larger than 32 KiB are not kept in the thread local caches of the pooled
+ * allocator by default, so each of their allocations and releases goes through the shared arenas. With
+ * {@code numArenas} set to {@code 1}, all threads share one arena, and {@code numArenaStripes} decides how many of them
+ * can allocate from it at the same time.
+ */
 @State(Scope.Benchmark)
 @Warmup(iterations = 5)
 @Measurement(iterations = 10)
 @Threads(8)
 public class BufferAllocatorConcurrentBenchmark extends AbstractMicrobenchmark {
 
-    private static final BufferAllocator unpooledAllocator = BufferAllocator.offHeapUnpooled();
+    @Param({ "unpooled", "pooled" })
+    public String allocatorType;
 
-    @Param({ "00064", "00256", "01024", "04096" })
+    @Param({ "00064", "00256", "01024", "04096", "32768", "65536" })
     public int size;
 
+    // The number of arenas of the pooled allocator, or 0 for the default.
+    @Param({ "0", "1" })
+    public int numArenas;
+
+    @Param({ "1", "4" })
+    public int numArenaStripes;
+
+    private BufferAllocator allocator;
+
+    @Setup
+    public void setup() {
+        allocator = "pooled".equals(allocatorType) ?
+                new PooledBufferAllocator(MemoryManager.instance(), true,
+                        numArenas == 0 ? PooledBufferAllocator.defaultNumDirectArena() : numArenas,
+                        PooledBufferAllocator.defaultPageSize(), PooledBufferAllocator.defaultMaxOrder(),
+                        PooledBufferAllocator.defaultSmallCacheSize(), PooledBufferAllocator.defaultNormalCacheSize(),
+                        PooledBufferAllocator.defaultUseCacheForAllThreads(), 0,
+                        PooledBufferAllocator.defaultNumSharedCaches(), numArenaStripes) :
+                BufferAllocator.offHeapUnpooled();
+    }
+
+    @TearDown
+    public void tearDown() {
+        allocator.close();
+    }
+
     @Benchmark
     public void allocateRelease() {
-        unpooledAllocator.allocate(size).close();
+        allocator.allocate(size).close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void allocateRelease01Threads() {
+        allocator.allocate(size).close();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void allocateRelease02Threads() {
+        allocator.allocate(size).close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void allocateRelease04Threads() {
+        allocator.allocate(size).close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void allocateRelease16Threads() {
+        allocator.allocate(size).close();
     }
 }
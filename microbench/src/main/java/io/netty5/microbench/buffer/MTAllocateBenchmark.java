@@ -16,7 +16,10 @@
 package io.netty5.microbench.buffer;
 
 import io.netty5.buffer.Buffer;
+import io.netty5.buffer.BufferAllocator;
 import io.netty5.buffer.DefaultBufferAllocators;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.pool.PooledBufferAllocator;
 import io.netty5.microbench.util.AbstractMicrobenchmark;
 import io.netty5.util.concurrent.SingleThreadEventExecutor;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -25,6 +28,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
@@ -52,6 +56,14 @@ public class MTAllocateBenchmark extends AbstractMicrobenchmark {
      */
     private SingleThreadEventExecutor[] execs;
 
+    /**
+     * The number of stripes of each arena of the allocator used by testAllocateEventLoopThreadReleaseRemote.
+     */
+    @Param({ "1", "4" })
+    public int numArenaStripes;
+
+    private BufferAllocator remoteReleaseAllocator;
+
     /**
      * JVM arguments.
      */
@@ -76,6 +88,11 @@ public class MTAllocateBenchmark extends AbstractMicrobenchmark {
         execs = IntStream.range(0, Runtime.getRuntime().availableProcessors())
                 .mapToObj(i -> new SingleThreadEventExecutor())
                 .toArray(SingleThreadEventExecutor[]::new);
+        // Half as many arenas as event loops, so that every arena is shared by two threads.
+        remoteReleaseAllocator = new PooledBufferAllocator(MemoryManager.instance(), false,
+                Math.max(1, execs.length / 2), PooledBufferAllocator.defaultPageSize(),
+                PooledBufferAllocator.defaultMaxOrder(), PooledBufferAllocator.defaultSmallCacheSize(),
+                PooledBufferAllocator.defaultNormalCacheSize(), true, 0, 0, numArenaStripes);
     }
 
     /**
@@ -84,6 +101,7 @@ public class MTAllocateBenchmark extends AbstractMicrobenchmark {
     @TearDown
     public void tearDown() {
         Stream.of(execs).forEach(eventExecutors -> eventExecutors.shutdownGracefully());
+        remoteReleaseAllocator.close();
     }
 
     /**
@@ -129,4 +147,37 @@ public class MTAllocateBenchmark extends AbstractMicrobenchmark {
         IntStream.range(0, cpus).forEach(i -> execs[i].execute(task));
         latch.await();
     }
+
+    /**
+     * Many event-loop threads are allocating buffers that are then released by another event-loop thread, as happens
+     * when a buffer read from one channel is written to a channel of another event-loop. Releasing a buffer on another
+     * thread bypasses the thread local cache of the allocating thread, so the buffers go back to the shared arenas.
+     * Every arena is shared by two event-loop threads, which allocate from different stripes of it.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void testAllocateEventLoopThreadReleaseRemote(Blackhole bh) throws InterruptedException {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int batches = 100;
+        final CountDownLatch latch = new CountDownLatch(cpus * batches);
+
+        IntStream.range(0, cpus).forEach(i -> execs[i].execute(() -> {
+            SingleThreadEventExecutor remote = execs[(i + 1) % cpus];
+            for (int j = 0; j < batches; j ++) {
+                Buffer[] bufs = new Buffer[1000];
+                for (int k = 0; k < bufs.length; k ++) {
+                    int size = ThreadLocalRandom.current().nextInt(1, 64 * 1024);
+                    bufs[k] = remoteReleaseAllocator.allocate(size);
+                    bh.consume(bufs[k]);
+                }
+                remote.execute(() -> {
+                    for (Buffer buf : bufs) {
+                        buf.close();
+                    }
+                    latch.countDown();
+                });
+            }
+        }));
+        latch.await();
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.microbench.buffer;
+
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.pool.PooledBufferAllocator;
+import io.netty5.microbench.util.AbstractMicrobenchmark;
+import io.netty5.util.NettyRuntime;
+import io.netty5.util.concurrent.VirtualThreadEventExecutorGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Allocates and releases buffers from many short-lived threads, which are virtual threads if the JVM supports them,
+ * with the different cache modes of the {@link PooledBufferAllocator}:
+ * <ul>
+ *     <li>{@code none}: the threads allocate directly out of the arenas.</li>
+ *     <li>{@code shared}: the threads share one cache per available processor.</li>
+ *     <li>{@code allThreads}: every thread gets a cache of its own.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class PooledCacheModeBenchmark extends AbstractMicrobenchmark {
+    private static final int TASKS = 64;
+    private static final int ALLOCATIONS_PER_TASK = 32;
+
+    @Param({ "none", "shared", "allThreads" })
+    public String cacheMode;
+
+    @Param({ "00256", "04096", "16384" })
+    public int size;
+
+    private PooledBufferAllocator allocator;
+    private VirtualThreadEventExecutorGroup group;
+
+    @Setup
+    public void setup() {
+        allocator = new PooledBufferAllocator(MemoryManager.instance(), true,
+                PooledBufferAllocator.defaultNumDirectArena(), PooledBufferAllocator.defaultPageSize(),
+                PooledBufferAllocator.defaultMaxOrder(), PooledBufferAllocator.defaultSmallCacheSize(),
+                PooledBufferAllocator.defaultNormalCacheSize(), "allThreads".equals(cacheMode), 0,
+                "shared".equals(cacheMode) ? NettyRuntime.availableProcessors() : 0);
+        // Without virtual threads, fall back to plain threads, rather than FastThreadLocalThreads that always get a
+        // cache of their own.
+        group = VirtualThreadEventExecutorGroup.isVirtualThreadSupported() ?
+                new VirtualThreadEventExecutorGroup() : new VirtualThreadEventExecutorGroup(Thread::new);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        group.shutdownGracefully().asStage().sync();
+        allocator.close();
+    }
+
+    @Benchmark
+    public void allocateReleaseShortLivedThreads() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            // Every executor of the group runs its tasks on a thread of its own.
+            group.next().execute(() -> {
+                for (int j = 0; j < ALLOCATIONS_PER_TASK; j++) {
+                    allocator.allocate(size).close();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.microbench.channel;
+
+import io.netty5.channel.EventLoop;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.local.LocalHandler;
+import io.netty5.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the {@link io.netty5.channel.EventLoopMetric}s of an {@link EventLoop}, by submitting
+ * bursts of tasks and waiting for them to complete, with metrics disabled and enabled.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventLoopMetricsBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "1", "100" })
+    private int burstLength;
+
+    private EventLoopGroup group;
+    private EventLoop eventLoop;
+    private Runnable task;
+    private volatile int completed;
+    private int submitted;
+
+    @Setup
+    public void setup() {
+        group = new MultithreadEventLoopGroup(1, LocalHandler.newFactory());
+        eventLoop = group.next();
+        // Only written by the EventLoop.
+        task = () -> completed++;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        group.shutdownGracefully().asStage().sync();
+    }
+
+    @Benchmark
+    @Fork(value = DEFAULT_FORKS, jvmArgsAppend = "-Dio.netty5.eventLoop.metrics=false")
+    public int metricsDisabled() {
+        return burst();
+    }
+
+    @Benchmark
+    @Fork(value = DEFAULT_FORKS, jvmArgsAppend = "-Dio.netty5.eventLoop.metrics=true")
+    public int metricsEnabled() {
+        return burst();
+    }
+
+    private int burst() {
+        for (int i = 0; i < burstLength; i++) {
+            eventLoop.execute(task);
+        }
+        submitted += burstLength;
+        while (completed != submitted) {
+            Thread.onSpinWait();
+        }
+        return submitted;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.microbench.channel;
+
+import io.netty5.bootstrap.Bootstrap;
+import io.netty5.bootstrap.ServerBootstrap;
+import io.netty5.buffer.Buffer;
+import io.netty5.channel.AdaptiveSelectStrategyFactory;
+import io.netty5.channel.Channel;
+import io.netty5.channel.ChannelHandler;
+import io.netty5.channel.ChannelHandlerContext;
+import io.netty5.channel.ChannelInitializer;
+import io.netty5.channel.DefaultSelectStrategyFactory;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.IoHandlerFactory;
+import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.SelectStrategyFactory;
+import io.netty5.channel.ServerChannel;
+import io.netty5.channel.epoll.EpollHandler;
+import io.netty5.channel.epoll.EpollServerSocketChannel;
+import io.netty5.channel.epoll.EpollSocketChannel;
+import io.netty5.channel.kqueue.KQueueHandler;
+import io.netty5.channel.kqueue.KQueueServerSocketChannel;
+import io.netty5.channel.kqueue.KQueueSocketChannel;
+import io.netty5.channel.nio.NioHandler;
+import io.netty5.channel.socket.nio.NioServerSocketChannel;
+import io.netty5.channel.socket.nio.NioSocketChannel;
+import io.netty5.microbench.util.AbstractMicrobenchmark;
+import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip latency of a single byte over a loopback connection, whose client and server are served
+ * by different {@link EventLoopGroup}s, with the {@link DefaultSelectStrategyFactory default select strategy} and the
+ * {@link AdaptiveSelectStrategyFactory adaptive select strategy}. The think time between round trips simulates
+ * request/response traffic with gaps of various lengths.
+ * <p>
+ * The {@code epoll} and {@code kqueue} transports can be selected with {@code -p transport=epoll} or
+ * {@code -p transport=kqueue} on platforms that support them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SelectStrategyLatencyBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "nio" })
+    private String transport;
+
+    @Param({ "default", "adaptive" })
+    private String selectStrategy;
+
+    @Param({ "0", "20", "200" })
+    private long thinkTimeMicros;
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private Channel serverChannel;
+    private Channel channel;
+    private Buffer abyte;
+
+    @Setup
+    public void setup() throws Exception {
+        SelectStrategyFactory selectStrategyFactory;
+        switch (selectStrategy) {
+            case "default":
+                selectStrategyFactory = DefaultSelectStrategyFactory.INSTANCE;
+                break;
+            case "adaptive":
+                selectStrategyFactory = new AdaptiveSelectStrategyFactory();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown select strategy: " + selectStrategy);
+        }
+
+        IoHandlerFactory ioHandlerFactory;
+        Class<? extends ServerChannel> serverChannelClass;
+        Class<? extends Channel> channelClass;
+        switch (transport) {
+            case "nio":
+                ioHandlerFactory = NioHandler.newFactory(SelectorProvider.provider(), selectStrategyFactory);
+                serverChannelClass = NioServerSocketChannel.class;
+                channelClass = NioSocketChannel.class;
+                break;
+            case "epoll":
+                ioHandlerFactory = EpollHandler.newFactory(0, selectStrategyFactory);
+                serverChannelClass = EpollServerSocketChannel.class;
+                channelClass = EpollSocketChannel.class;
+                break;
+            case "kqueue":
+                ioHandlerFactory = KQueueHandler.newFactory(0, selectStrategyFactory);
+                serverChannelClass = KQueueServerSocketChannel.class;
+                channelClass = KQueueSocketChannel.class;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+
+        serverGroup = new MultithreadEventLoopGroup(1, ioHandlerFactory);
+        clientGroup = new MultithreadEventLoopGroup(1, ioHandlerFactory);
+        serverChannel = new ServerBootstrap()
+                .channel(serverChannelClass)
+                .group(serverGroup)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new ChannelHandler() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                ctx.writeAndFlush(msg);
+                            }
+                        });
+                    }
+                })
+                .bind(0).asStage().get();
+        channel = new Bootstrap()
+                .channel(channelClass)
+                .group(clientGroup)
+                .handler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new ChannelHandler() {
+                            private Promise<Void> roundTripPromise;
+
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                try (Buffer buf = (Buffer) msg) {
+                                    if (buf.readableBytes() != 1) {
+                                        throw new AssertionError();
+                                    }
+                                }
+                                roundTripPromise.trySuccess(null);
+                                roundTripPromise = null;
+                            }
+
+                            @Override
+                            public Future<Void> write(ChannelHandlerContext ctx, Object msg) {
+                                if (roundTripPromise != null) {
+                                    throw new IllegalStateException();
+                                }
+                                roundTripPromise = ctx.newPromise();
+                                ctx.write(msg);
+                                return roundTripPromise.asFuture();
+                            }
+                        });
+                    }
+                })
+                .connect(serverChannel.localAddress()).asStage().get();
+
+        abyte = channel.bufferAllocator().allocate(1);
+        abyte.writeByte((byte) 'a').makeReadOnly();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.close().asStage().sync();
+        serverChannel.close().asStage().sync();
+        clientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).asStage().sync();
+        serverGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).asStage().sync();
+        abyte.close();
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        if (thinkTimeMicros > 0) {
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(thinkTimeMicros);
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+        return channel.writeAndFlush(abyte.copy(true)).asStage().sync();
+    }
+}
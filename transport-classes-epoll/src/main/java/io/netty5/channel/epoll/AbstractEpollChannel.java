@@ -344,6 +344,17 @@ abstract class AbstractEpollChannel<P extends UnixChannel>
         executor().execute(readNowRunnable);
     }
 
+    /**
+     * Read again without waiting for the next EPOLLIN event, as the last read loop might have left data unread that
+     * epoll ET will not signal again. If no read is pending, this happens once the next read is requested.
+     */
+    final void readAgain() {
+        maybeMoreDataToRead = true;
+        if (isReadPending()) {
+            executeReadNowRunnable();
+        }
+    }
+
     /**
      * Called once EPOLLRDHUP event is ready to be processed
      */
@@ -365,6 +376,13 @@ abstract class AbstractEpollChannel<P extends UnixChannel>
         }
     }
 
+    /**
+     * Called once EPOLLERR event is ready to be processed, after the other events were processed. Sub-classes that
+     * queue messages on the error queue of the socket read them here.
+     */
+    void epollErrReady() {
+    }
+
     /**
      * Clear the {@link Native#EPOLLRDHUP} flag from EPOLL, and close on failure.
      */
@@ -52,6 +52,18 @@ public final class EpollChannelOption<T> extends UnixChannelOption<T> {
     public static final ChannelOption<Integer> MAX_DATAGRAM_PAYLOAD_SIZE = valueOf("MAX_DATAGRAM_PAYLOAD_SIZE");
     public static final ChannelOption<Boolean> UDP_GRO = valueOf("UDP_GRO");
 
+    /**
+     * Enable {@code SO_ZEROCOPY}, and send writes of at least this many bytes with {@code MSG_ZEROCOPY}, which lets
+     * the network stack use the memory of the written buffers directly, instead of copying it into the socket buffer.
+     * The write promise is completed as soon as the data has been sent, but the memory of the buffers is only released
+     * once the kernel signals via the error queue of the socket that it no longer needs it, also if the channel was
+     * closed in the meantime. Zero-copy sends have a fixed cost per call, so they only pay off for large writes;
+     * smaller writes are still copied. {@code -1}, the default, disables zero-copy sends.
+     * See <a href="https://docs.kernel.org/networking/msg_zerocopy.html">MSG_ZEROCOPY</a>.
+     */
+    public static final ChannelOption<Integer> MSG_ZEROCOPY_THRESHOLD =
+            valueOf(EpollChannelOption.class, "MSG_ZEROCOPY_THRESHOLD");
+
     /**
      * Returns the {@code TCP_INFO} for the current socket.
      * See <a href="https://linux.die.net//man/7/tcp">man 7 tcp</a>.
@@ -63,6 +63,8 @@ public class EpollHandler implements IoHandler {
     private final FileDescriptor eventFd;
     private final FileDescriptor timerFd;
     private final IntObjectMap<AbstractEpollChannel<?>> channels = new IntObjectHashMap<>(4096);
+    // The zero-copy sends of closed channels, by the file descriptor of the duplicate of their socket.
+    private final IntObjectMap<ZeroCopyOrphan> zeroCopyOrphans = new IntObjectHashMap<>();
     private final boolean allowGrowing;
     private final EpollEventArray events;
 
@@ -223,6 +225,11 @@ public class EpollHandler implements IoHandler {
             public NativeDatagramPacketArray cleanDatagramPacketArray() {
                 return EpollHandler.this.cleanDatagramPacketArray();
             }
+
+            @Override
+            public void orphanZeroCopySends(LinuxSocket socket, ZeroCopySends sends) throws IOException {
+                EpollHandler.this.addZeroCopyOrphan(socket, sends);
+            }
         });
         add(epollChannel);
     }
@@ -280,6 +287,44 @@ public class EpollHandler implements IoHandler {
         }
     }
 
+    /**
+     * Track the zero-copy sends of a closed channel, until their notifications were read from the error queue of the
+     * given duplicate of its socket.
+     */
+    private void addZeroCopyOrphan(LinuxSocket socket, ZeroCopySends sends) throws IOException {
+        int fd = socket.intValue();
+        // EPOLLERR is always reported, also for notifications that were posted before the socket is added.
+        Native.epollCtlAdd(epollFd.intValue(), fd, Native.EPOLLET);
+        zeroCopyOrphans.put(fd, new ZeroCopyOrphan(socket, sends));
+    }
+
+    private void zeroCopyOrphanReady(int fd) {
+        ZeroCopyOrphan orphan = zeroCopyOrphans.get(fd);
+        try {
+            if (!orphan.sends.readNotifications(orphan.socket)) {
+                return;
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to read the zero-copy notifications of a closed channel.", e);
+            return;
+        }
+        zeroCopyOrphans.remove(fd);
+        try {
+            // Also removes it from epoll.
+            orphan.socket.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the socket of a closed channel.", e);
+        }
+    }
+
+    /**
+     * Returns the number of closed channels with zero-copy sends whose notification was not read yet.
+     */
+    @VisibleForTesting
+    int zeroCopyOrphans() {
+        return zeroCopyOrphans.size();
+    }
+
     private long epollWait(IoExecutionContext context, long deadlineNanos) throws IOException {
         if (deadlineNanos == NONE) {
             return Native.epollWait(epollFd, events, timerFd,
@@ -318,7 +363,9 @@ public class EpollHandler implements IoHandler {
                     return 0;
 
                 case SelectStrategy.BUSY_WAIT:
+                    context.beforeBlocking();
                     strategy = epollBusyWait();
+                    context.afterBlocking();
                     break;
 
                 case SelectStrategy.SELECT:
@@ -346,6 +393,7 @@ public class EpollHandler implements IoHandler {
                     nextWakeupNanos.set(curDeadlineNanos);
                     try {
                         if (context.canBlock()) {
+                            context.beforeBlocking();
                             if (curDeadlineNanos == prevDeadlineNanos) {
                                 // No timer activity needed
                                 strategy = epollWaitNoTimerChange();
@@ -357,6 +405,7 @@ public class EpollHandler implements IoHandler {
                                 strategy = Native.epollReady(result);
                                 prevDeadlineNanos = Native.epollTimerWasUsed(result) ? curDeadlineNanos : NONE;
                             }
+                            context.afterBlocking();
                         }
                     } finally {
                         // Try get() first to avoid much more expensive CAS in the case we
@@ -426,7 +475,11 @@ public class EpollHandler implements IoHandler {
                 final long ev = events.events(i);
 
                 AbstractEpollChannel<?> ch = channels.get(fd);
-                if (ch != null) {
+                if (zeroCopyOrphans.containsKey(fd)) {
+                    // The fd is a duplicate of the socket of a closed channel, it may only be in channels if the fd of
+                    // that channel was reused before it was deregistered.
+                    zeroCopyOrphanReady(fd);
+                } else if (ch != null) {
                     // Don't change the ordering of processing EPOLLOUT | EPOLLRDHUP / EPOLLIN if you're not 100%
                     // sure about it!
                     // Re-ordering can easily introduce bugs and bad side-effects, as we found out painfully in the
@@ -461,6 +514,12 @@ public class EpollHandler implements IoHandler {
                     if ((ev & Native.EPOLLRDHUP) != 0) {
                         ch.epollRdHupReady();
                     }
+
+                    // EPOLLERR is also signalled while the error queue of the socket is not empty, which is where
+                    // the kernel posts the completions of MSG_ZEROCOPY sends.
+                    if ((ev & Native.EPOLLERR) != 0) {
+                        ch.epollErrReady();
+                    }
                 } else {
                     // We received an event for an fd which we not use anymore. Remove it from the epoll_event set.
                     try {
@@ -513,6 +572,16 @@ public class EpollHandler implements IoHandler {
             } catch (IOException e) {
                 logger.warn("Failed to close the epoll fd.", e);
             }
+            // Nothing will notice the completion of these sends anymore. Their buffers are left to the GC rather than
+            // handed back to the allocator, as the kernel may still send from them.
+            for (ZeroCopyOrphan orphan : zeroCopyOrphans.values()) {
+                try {
+                    orphan.socket.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close the socket of a closed channel.", e);
+                }
+            }
+            zeroCopyOrphans.clear();
         } finally {
             // release native memory
             if (iovArray != null) {
@@ -531,4 +600,14 @@ public class EpollHandler implements IoHandler {
     public boolean isCompatible(Class<? extends IoHandle> handleType) {
         return AbstractEpollChannel.class.isAssignableFrom(handleType);
     }
+
+    private static final class ZeroCopyOrphan {
+        final LinuxSocket socket;
+        final ZeroCopySends sends;
+
+        ZeroCopyOrphan(LinuxSocket socket, ZeroCopySends sends) {
+            this.socket = socket;
+            this.sends = sends;
+        }
+    }
 }
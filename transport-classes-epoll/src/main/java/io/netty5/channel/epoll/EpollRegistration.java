@@ -43,4 +43,11 @@ interface EpollRegistration {
      * Returns a {@link NativeDatagramPacketArray} that can used for {@code sendmmsg}.
      */
     NativeDatagramPacketArray cleanDatagramPacketArray();
+
+    /**
+     * Keep the buffers of the given zero-copy sends alive after the channel was closed, until the kernel signalled
+     * through the error queue of the given duplicate of its socket that it no longer uses them. The duplicate is closed
+     * after that.
+     */
+    void orphanZeroCopySends(LinuxSocket socket, ZeroCopySends sends) throws IOException;
 }
@@ -19,6 +19,7 @@ import io.netty5.buffer.Buffer;
 import io.netty5.buffer.BufferAllocator;
 import io.netty5.channel.AdaptiveReadHandleFactory;
 import io.netty5.channel.ChannelException;
+import io.netty5.channel.ChannelHandlerContext;
 import io.netty5.channel.ChannelOption;
 import io.netty5.channel.ChannelShutdownDirection;
 import io.netty5.channel.DefaultFileRegion;
@@ -41,18 +42,25 @@ import io.netty5.channel.unix.UnixChannelUtil;
 import io.netty5.util.Resource;
 import io.netty5.util.concurrent.Future;
 import io.netty5.util.concurrent.GlobalEventExecutor;
+import io.netty5.util.concurrent.Promise;
 import io.netty5.util.internal.StringUtil;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ProtocolFamily;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -66,6 +74,7 @@ import static io.netty5.channel.ChannelOption.TCP_NODELAY;
 import static io.netty5.channel.epoll.Native.IS_SUPPORTING_TCP_FASTOPEN_CLIENT;
 import static io.netty5.channel.unix.Limits.SSIZE_MAX;
 import static io.netty5.channel.unix.UnixChannelOption.DOMAIN_SOCKET_READ_MODE;
+import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -109,6 +118,8 @@ import static java.util.Objects.requireNonNull;
  * </tr><tr>
  * <td>{@link EpollChannelOption#SO_BUSY_POLL}</td><td>X</td><td>X</td><td>-</td>
  * </tr><tr>
+ * <td>{@link EpollChannelOption#MSG_ZEROCOPY_THRESHOLD}</td><td>X</td><td>X</td><td>-</td>
+ * </tr><tr>
  * <td>{@link UnixChannelOption#SO_PEERCRED}</td><td></td><td></td><td>X</td>
  * </tr><tr>
  * <td>{@link UnixChannelOption#DOMAIN_SOCKET_READ_MODE}</td><td></td><td></td><td>X</td>
@@ -119,6 +130,7 @@ public final class EpollSocketChannel
         extends AbstractEpollChannel<EpollServerSocketChannel>
         implements SocketChannel {
 
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollSocketChannel.class);
     private static final Set<ChannelOption<?>> SUPPORTED_OPTIONS = supportedOptions();
     private static final Set<ChannelOption<?>> SUPPORTED_OPTIONS_DOMAIN_SOCKET = supportedOptionsDomainSocket();
 
@@ -134,6 +146,18 @@ public final class EpollSocketChannel
 
     private volatile boolean tcpFastopen;
 
+    // Only accessed from the event loop.
+    private Queue<SpliceInTask> spliceQueue;
+    private Future<Void> lastSpliceOut;
+    private boolean spliceStalled;
+    // The pipe that other channels splice into, before its contents are spliced into this channel.
+    private FileDescriptor pipeIn;
+    private FileDescriptor pipeOut;
+
+    private volatile int zeroCopyThreshold = -1;
+    // Only accessed from the event loop.
+    private ZeroCopySends zeroCopySends;
+
     public EpollSocketChannel(EventLoop eventLoop) {
         this(eventLoop, (ProtocolFamily) null);
     }
@@ -169,6 +193,179 @@ public final class EpollSocketChannel
         return new SocketChannelWriteHandleFactory(Integer.MAX_VALUE, SSIZE_MAX);
     }
 
+    /**
+     * Splice the next {@code len} bytes that are received by this channel into the given channel, by moving them from
+     * the socket into a pipe and from the pipe into the other socket via {@code splice(2)}. The data is never copied
+     * to user space, and it is neither fired through the {@link io.netty5.channel.ChannelPipeline} of this channel,
+     * nor does it pass the handlers of the given channel.
+     * <p>
+     * Splicing is driven by the reads of this channel, so it only makes progress while a read is requested, either
+     * explicitly or via {@link ChannelOption#AUTO_READ}. Reading is suspended while the given channel did not write
+     * the data that was spliced before. Once all {@code len} bytes were spliced, or once the returned {@link Future}
+     * was cancelled, the data that is received is fired through the pipeline again.
+     * <p>
+     * Both channels must use the same {@link EventLoop}.
+     *
+     * @param ch    the channel to splice to.
+     * @param len   the number of bytes to splice, or {@link Integer#MAX_VALUE} to splice until the end of the stream.
+     * @return      the {@link Future} that is notified once all bytes were written to the given channel.
+     */
+    public Future<Void> spliceTo(EpollSocketChannel ch, int len) {
+        requireNonNull(ch, "ch");
+        checkPositiveOrZero(len, "len");
+        if (ch.executor() != executor()) {
+            throw new IllegalArgumentException("EventLoops are not the same.");
+        }
+        Promise<Void> promise = newPromise();
+        if (executor().inEventLoop()) {
+            spliceTo0(ch, len, promise);
+        } else {
+            executor().execute(() -> spliceTo0(ch, len, promise));
+        }
+        return promise.asFuture();
+    }
+
+    private void spliceTo0(EpollSocketChannel ch, int len, Promise<Void> promise) {
+        if (!isActive() || isShutdown(ChannelShutdownDirection.Inbound)) {
+            promise.setFailure(new ClosedChannelException());
+            return;
+        }
+        if (len == 0) {
+            promise.setSuccess(null);
+            return;
+        }
+        if (spliceQueue == null) {
+            spliceQueue = new ArrayDeque<>();
+        }
+        spliceQueue.add(new SpliceInTask(ch, len, promise));
+        // Data that was received already is not signalled again.
+        readAgain();
+    }
+
+    private ReadState epollInSplice(ReadSink readSink, SpliceInTask task) throws IOException {
+        if (task.promise.isCancelled()) {
+            spliceQueue.remove();
+            readSink.processRead(0, 0, null);
+            return ReadState.Partial;
+        }
+        if (lastSpliceOut != null && !lastSpliceOut.isDone()) {
+            // The data that was spliced before was not written yet, so the pipe might still be full. Stop reading
+            // until it was written.
+            spliceStalled = true;
+            readSink.processRead(0, 0, null);
+            return ReadState.All;
+        }
+        EpollSocketChannel ch = task.ch;
+        FileDescriptor pipe;
+        try {
+            pipe = ch.splicePipeOut();
+        } catch (IOException e) {
+            spliceQueue.remove();
+            task.promise.setFailure(e);
+            readSink.processRead(0, 0, null);
+            return ReadState.Partial;
+        }
+        int capacity = readHandle().prepareRead();
+        if (capacity <= 0) {
+            readSink.processRead(0, 0, null);
+            return ReadState.Partial;
+        }
+        int attempted = Math.min(capacity, task.len);
+        int spliced = 0;
+        int res = 0;
+        while (spliced < attempted) {
+            res = socket.spliceTo(pipe, attempted - spliced);
+            if (res <= 0) {
+                break;
+            }
+            spliced += res;
+        }
+        readSink.processRead(attempted, spliced, null);
+
+        if (spliced > 0) {
+            if (task.len != Integer.MAX_VALUE) {
+                task.len -= spliced;
+            }
+            Future<Void> spliceOut = ch.spliceOut(spliced);
+            lastSpliceOut = spliceOut;
+            spliceOut.addListener(future -> spliceOutComplete(task, future));
+            if (task.len == 0) {
+                spliceQueue.remove();
+                spliceOut.cascadeTo(task.promise);
+            }
+        }
+        if (res < 0) {
+            if (task.len == Integer.MAX_VALUE && spliceQueue.remove(task)) {
+                if (lastSpliceOut == null) {
+                    task.promise.setSuccess(null);
+                } else {
+                    lastSpliceOut.cascadeTo(task.promise);
+                }
+            }
+            return ReadState.Closed;
+        }
+        // Stopping short does not tell if the socket or the pipe ran out of data or space, so only assume that
+        // everything was read if nothing was spliced at all.
+        return spliced == 0 ? ReadState.All : ReadState.Partial;
+    }
+
+    private void spliceOutComplete(SpliceInTask task, Future<?> future) {
+        if (future.isFailed()) {
+            task.promise.tryFailure(future.cause());
+            spliceQueue.remove(task);
+        }
+        if (spliceStalled) {
+            spliceStalled = false;
+            readAgain();
+        }
+    }
+
+    private void failSpliceTasks() {
+        if (spliceQueue != null) {
+            SpliceInTask task;
+            while ((task = spliceQueue.poll()) != null) {
+                task.promise.tryFailure(new ClosedChannelException());
+            }
+        }
+    }
+
+    /**
+     * Returns the write end of the pipe that other channels splice into, creating it if needed.
+     */
+    private FileDescriptor splicePipeOut() throws IOException {
+        if (!isActive()) {
+            throw new ClosedChannelException();
+        }
+        if (pipeOut == null) {
+            FileDescriptor[] pipe = FileDescriptor.pipe();
+            pipeIn = pipe[0];
+            pipeOut = pipe[1];
+        }
+        return pipeOut;
+    }
+
+    /**
+     * Write the given number of bytes from the pipe into the socket, once all data that was written before is written.
+     */
+    private Future<Void> spliceOut(int len) {
+        // Bypass all handlers, as none of them could make sense of the spliced data.
+        ChannelHandlerContext ctx = pipeline().firstContext();
+        SpliceOutTask task = new SpliceOutTask(len);
+        return ctx == null ? writeAndFlush(task) : ctx.writeAndFlush(task);
+    }
+
+    /**
+     * Splice bytes from the pipe into the socket.
+     * @param writeSink the {@link WriteSink} used to track write results.
+     */
+    private void writeSpliceOut(WriteSink writeSink) throws IOException {
+        SpliceOutTask task = (SpliceOutTask) writeSink.currentFlushedMessage();
+        int attempted = task.len;
+        int spliced = socket.spliceFrom(pipeIn, attempted);
+        task.len -= spliced;
+        writeSink.complete(attempted, spliced, task.len == 0 ? 1 : 0, spliced > 0);
+    }
+
     /**
      * Write bytes form the given {@link Buffer} to the underlying {@link java.nio.channels.Channel}.
      * @param writeSink the {@link WriteSink} used to track write results.
@@ -284,8 +481,106 @@ public final class EpollSocketChannel
         }
     }
 
+    /**
+     * Write the leading {@link Buffer}s with {@code MSG_ZEROCOPY}, if they add up to at least the zero-copy threshold.
+     * The written bytes are split off the buffers, and kept alive until the kernel signals the completion of the send.
+     * @param writeSink the {@link WriteSink} used to track write results.
+     * @return {@code false} if the buffers should be written with a regular write instead.
+     * @throws IOException If an I/O exception occurs during write.
+     */
+    private boolean writeZeroCopy(WriteSink writeSink) throws IOException {
+        IovArray array = registration().cleanIovArray();
+        array.maxBytes(writeSink.estimatedMaxBytesPerGatheringWrite());
+        writeSink.forEachFlushedMessage(array);
+        if (array.count() == 0 || array.size() < zeroCopyThreshold) {
+            return false;
+        }
+        long result = socket.sendZeroCopy(array.memoryAddress(0), array.count());
+        if (result < 0) {
+            // The socket ran out of memory to track notifications, until some of the outstanding sends complete.
+            return false;
+        }
+        if (result == 0) {
+            writeSink.complete(array.size(), 0, 0, false);
+            return true;
+        }
+        if (zeroCopySends == null) {
+            zeroCopySends = new ZeroCopySends();
+        }
+        ZeroCopySends.ZeroCopySend send = zeroCopySends.add(result);
+        writeSink.forEachFlushedMessage(send);
+        writeSink.complete(array.size(), result, send.messages, true);
+        return true;
+    }
+
+    @Override
+    void epollErrReady() {
+        try {
+            readZeroCopyNotifications();
+        } catch (IOException e) {
+            pipeline().fireChannelExceptionCaught(e);
+            closeTransport(newPromise());
+        }
+    }
+
+    /**
+     * Read the zero-copy notifications from the error queue of the socket, and release the buffers of the sends that
+     * completed.
+     */
+    private void readZeroCopyNotifications() throws IOException {
+        if (zeroCopySends != null) {
+            zeroCopySends.readNotifications(socket);
+        }
+    }
+
+    /**
+     * Hand the outstanding zero-copy sends over to the {@link EpollHandler}, together with a duplicate of the socket.
+     * The kernel keeps sending from the buffers after the socket is closed, and the duplicate keeps its error queue
+     * around until the last notification arrived. As closing the file descriptor of the channel then no longer closes
+     * the connection, the socket is shut down first. This also means a reset, due to {@code SO_LINGER} set to
+     * {@code 0}, is only sent once the sends completed.
+     */
+    private void orphanZeroCopySends() {
+        ZeroCopySends sends = zeroCopySends;
+        zeroCopySends = null;
+        try {
+            socket.shutdown();
+        } catch (IOException | NotYetConnectedException ignore) {
+            // The connection is already gone, the notifications are still posted once the kernel freed the data.
+        }
+        LinuxSocket duplicate = null;
+        try {
+            duplicate = socket.duplicate();
+            registration().orphanZeroCopySends(duplicate, sends);
+        } catch (IOException e) {
+            // Without the error queue, there is no telling when the kernel is done with the buffers. Leave them to the
+            // GC rather than handing them back to the allocator.
+            logger.debug("Failed to track the zero-copy sends of a closed channel: {}", this, e);
+            if (duplicate != null) {
+                try {
+                    duplicate.close();
+                } catch (IOException ignore) {
+                    // Nothing we can do.
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of zero-copy sends whose notification was not read yet.
+     */
+    @VisibleForTesting
+    int pendingZeroCopySends() {
+        assert executor().inEventLoop();
+        return zeroCopySends == null ? 0 : zeroCopySends.size();
+    }
+
     @Override
     protected void doWriteNow(WriteSink writeSink) throws Exception {
+        if (zeroCopyThreshold >= 0 && writeSink.currentFlushedMessage() instanceof Buffer &&
+                writeZeroCopy(writeSink)) {
+            return;
+        }
         final int msgCount = writeSink.numFlushedMessages();
         // Do gathering write if the outbound buffer entries start with more than one Buffer.
         if (msgCount > 1 && writeSink.currentFlushedMessage() instanceof Buffer) {
@@ -322,6 +617,8 @@ public final class EpollSocketChannel
             writeDefaultFileRegion(writeSink);
         } else if (msg instanceof FileRegion) {
             writeFileRegion(writeSink);
+        } else if (msg instanceof SpliceOutTask) {
+            writeSpliceOut(writeSink);
         } else {
             // Should never reach here.
             throw new Error();
@@ -360,7 +657,7 @@ public final class EpollSocketChannel
             return UnixChannelUtil.isBufferCopyNeededForWrite(buf)? newDirectBuffer(buf) : buf;
         }
 
-        if (msg instanceof FileRegion) {
+        if (msg instanceof FileRegion || msg instanceof SpliceOutTask) {
             return msg;
         }
 
@@ -375,6 +672,7 @@ public final class EpollSocketChannel
             switch (direction) {
                 case Inbound:
                     socket.shutdown(true, false);
+                    failSpliceTasks();
                     break;
                 case Outbound:
                     socket.shutdown(false, true);
@@ -388,6 +686,30 @@ public final class EpollSocketChannel
         }
     }
 
+    @Override
+    protected void doClose() throws Exception {
+        try {
+            readZeroCopyNotifications();
+        } catch (IOException ignore) {
+            // The remaining sends are tracked by the handler below.
+        }
+        if (zeroCopySends != null && !zeroCopySends.isEmpty()) {
+            orphanZeroCopySends();
+        }
+        try {
+            super.doClose();
+        } finally {
+            failSpliceTasks();
+            if (pipeIn != null) {
+                try {
+                    pipeIn.close();
+                } finally {
+                    pipeOut.close();
+                }
+            }
+        }
+    }
+
     @Override
     public boolean isShutdown(ChannelShutdownDirection direction) {
         if (!isActive()) {
@@ -405,6 +727,12 @@ public final class EpollSocketChannel
 
     @Override
     protected ReadState epollInReady(ReadSink readSink) throws Exception {
+        if (spliceQueue != null) {
+            SpliceInTask task = spliceQueue.peek();
+            if (task != null) {
+                return epollInSplice(readSink, task);
+            }
+        }
         if (socket.protocolFamily() == SocketProtocolFamily.UNIX
                 && getReadMode() == DomainSocketReadMode.FILE_DESCRIPTORS) {
             return epollInReadFd(readSink);
@@ -455,6 +783,26 @@ public final class EpollSocketChannel
         }
     }
 
+    private static final class SpliceInTask {
+        final EpollSocketChannel ch;
+        final Promise<Void> promise;
+        int len;
+
+        SpliceInTask(EpollSocketChannel ch, int len, Promise<Void> promise) {
+            this.ch = ch;
+            this.len = len;
+            this.promise = promise;
+        }
+    }
+
+    private static final class SpliceOutTask {
+        int len;
+
+        SpliceOutTask(int len) {
+            this.len = len;
+        }
+    }
+
     private final class EpollSocketWritableByteChannel extends SocketWritableByteChannel {
         EpollSocketWritableByteChannel() {
             super(socket);
@@ -526,6 +874,9 @@ public final class EpollSocketChannel
             if (option == EpollChannelOption.SO_BUSY_POLL) {
                 return (T) Integer.valueOf(getSoBusyPoll());
             }
+            if (option == EpollChannelOption.MSG_ZEROCOPY_THRESHOLD) {
+                return (T) Integer.valueOf(zeroCopyThreshold);
+            }
             if (option == DOMAIN_SOCKET_READ_MODE) {
                 return (T) getReadMode();
             }
@@ -581,6 +932,8 @@ public final class EpollSocketChannel
                 setTcpFastOpenConnect((Boolean) value);
             } else if (option == EpollChannelOption.SO_BUSY_POLL) {
                 setSoBusyPoll((Integer) value);
+            } else if (option == EpollChannelOption.MSG_ZEROCOPY_THRESHOLD) {
+                setZeroCopyThreshold((Integer) value);
             } else if (option == DOMAIN_SOCKET_READ_MODE) {
                 setReadMode((DomainSocketReadMode) value);
             } else if (option == EpollChannelOption.TCP_INFO) {
@@ -611,7 +964,8 @@ public final class EpollSocketChannel
                 EpollChannelOption.TCP_KEEPINTVL, EpollChannelOption.TCP_USER_TIMEOUT,
                 EpollChannelOption.IP_TRANSPARENT, EpollChannelOption.TCP_MD5SIG, EpollChannelOption.TCP_QUICKACK,
                 ChannelOption.TCP_FASTOPEN_CONNECT, EpollChannelOption.SO_BUSY_POLL,
-                EpollChannelOption.TCP_NOTSENT_LOWAT, EpollChannelOption.TCP_INFO);
+                EpollChannelOption.TCP_NOTSENT_LOWAT, EpollChannelOption.TCP_INFO,
+                EpollChannelOption.MSG_ZEROCOPY_THRESHOLD);
     }
 
     private static Set<ChannelOption<?>> supportedOptionsDomainSocket() {
@@ -823,6 +1177,23 @@ public final class EpollSocketChannel
         }
     }
 
+    /**
+     * Set the {@code SO_ZEROCOPY} option on the socket, and the minimum number of bytes that are sent with
+     * {@code MSG_ZEROCOPY}. See <a href="https://docs.kernel.org/networking/msg_zerocopy.html">MSG_ZEROCOPY</a>.
+     * @param threshold the minimum number of bytes, or {@code -1} to disable zero-copy sends.
+     */
+    private void setZeroCopyThreshold(int threshold) {
+        if (threshold < -1) {
+            throw new IllegalArgumentException("zeroCopyThreshold: " + threshold + " (expected: >= -1)");
+        }
+        try {
+            socket.setZeroCopy(threshold >= 0);
+            zeroCopyThreshold = threshold;
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
     /**
      * Set the {@code TCP_NOTSENT_LOWAT} option on the socket. See {@code man 7 tcp} for more details.
      * @param tcpNotSentLowAt is a uint32_t
@@ -18,6 +18,7 @@ package io.netty5.channel.epoll;
 import io.netty5.channel.ChannelException;
 import io.netty5.channel.DefaultFileRegion;
 import io.netty5.channel.socket.SocketProtocolFamily;
+import io.netty5.channel.unix.FileDescriptor;
 import io.netty5.channel.unix.NativeInetAddress;
 import io.netty5.channel.unix.PeerCredentials;
 import io.netty5.channel.unix.Socket;
@@ -33,6 +34,7 @@ import java.net.UnknownHostException;
 import java.util.Enumeration;
 
 import static io.netty5.channel.unix.Errors.ioResult;
+import static io.netty5.channel.unix.Errors.newIOException;
 
 /**
  * A socket which provides access Linux native methods.
@@ -294,6 +296,55 @@ public final class LinuxSocket extends Socket {
         setUdpGro(intValue(), gro ? 1 : 0);
     }
 
+    void setZeroCopy(boolean zeroCopy) throws IOException {
+        setZeroCopy(intValue(), zeroCopy ? 1 : 0);
+    }
+
+    /**
+     * Send the given {@code iovec}s with {@code MSG_ZEROCOPY}. The memory must not be modified or freed until
+     * {@link #recvZeroCopyNotification(int[])} signalled that the kernel no longer uses it.
+     *
+     * @return the number of bytes, {@code 0} if nothing could be sent without blocking, or {@code -1} if the
+     *         notification memory of the socket is exhausted, and the bytes should be sent with a regular write.
+     */
+    long sendZeroCopy(long memoryAddress, int length) throws IOException {
+        long res = sendZeroCopy(intValue(), memoryAddress, length);
+        if (res >= 0) {
+            return res;
+        }
+        if (res == Native.ERRNO_ENOBUFS_NEGATIVE) {
+            return -1;
+        }
+        return ioResult("sendmsg", (int) res);
+    }
+
+    /**
+     * Read the next zero-copy notification from the error queue of the socket. The {@code MSG_ZEROCOPY} sends are
+     * numbered consecutively, starting at {@code 0}, and a notification covers the sends of a range of ids.
+     *
+     * @param range holds the first and the last id of the range, if a notification was read.
+     * @return {@code true} if a notification was read, or {@code false} if the error queue is empty.
+     */
+    boolean recvZeroCopyNotification(int[] range) throws IOException {
+        int res = recvZeroCopyNotification(intValue(), range);
+        if (res > 0) {
+            return true;
+        }
+        ioResult("recvmsg", res);
+        return false;
+    }
+
+    /**
+     * Returns a duplicate of the file descriptor of this socket. The socket stays open until both are closed.
+     */
+    LinuxSocket duplicate() throws IOException {
+        int res = duplicate(intValue());
+        if (res < 0) {
+            throw newIOException("dup", res);
+        }
+        return new LinuxSocket(res, protocolFamily());
+    }
+
     long sendFile(DefaultFileRegion src, long baseOffset, long offset, long length) throws IOException {
         // Open the file-region as it may be created via the lazy constructor. This is needed as we directly access
         // the FileChannel field via JNI.
@@ -306,6 +357,24 @@ public final class LinuxSocket extends Socket {
         return ioResult("sendfile", (int) res);
     }
 
+    /**
+     * Splice up to {@code len} received bytes into the given pipe.
+     *
+     * @return the number of bytes, {@code 0} if nothing could be spliced without blocking, or {@code -1} on EOF.
+     */
+    int spliceTo(FileDescriptor pipeOut, int len) throws IOException {
+        return Native.splice(intValue(), -1, pipeOut.intValue(), -1, len);
+    }
+
+    /**
+     * Splice up to {@code len} bytes from the given pipe into the socket.
+     *
+     * @return the number of bytes, or {@code 0} if nothing could be spliced without blocking.
+     */
+    int spliceFrom(FileDescriptor pipeIn, int len) throws IOException {
+        return Math.max(0, Native.splice(pipeIn.intValue(), -1, intValue(), -1, len));
+    }
+
     private static InetAddress deriveInetAddress(NetworkInterface netInterface, boolean ipv6) {
         final InetAddress ipAny = ipv6 ? INET6_ANY : INET_ANY;
         if (netInterface != null) {
@@ -444,4 +513,8 @@ public final class LinuxSocket extends Socket {
     private static native void setTimeToLive(int fd, int ttl) throws IOException;
     private static native int isUdpGro(int fd) throws IOException;
     private static native void setUdpGro(int fd, int gro) throws IOException;
+    private static native void setZeroCopy(int fd, int zeroCopy) throws IOException;
+    private static native long sendZeroCopy(int fd, long memoryAddress, int length);
+    private static native int recvZeroCopyNotification(int fd, int[] range);
+    private static native int duplicate(int fd);
 }
@@ -36,6 +36,7 @@ import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.epoll
 import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.epollin;
 import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.epollout;
 import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.epollrdhup;
+import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.errnoENOBUFS;
 import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.isSupportingRecvmmsg;
 import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.isSupportingSendmmsg;
 import static io.netty5.channel.epoll.NativeStaticallyReferencedJniMethods.kernelVersion;
@@ -103,6 +104,7 @@ public final class Native {
     public static final int EPOLLRDHUP = epollrdhup();
     public static final int EPOLLET = epollet();
     public static final int EPOLLERR = epollerr();
+    static final int ERRNO_ENOBUFS_NEGATIVE = -errnoENOBUFS();
 
     public static final boolean IS_SUPPORTING_SENDMMSG = isSupportingSendmmsg();
     static final boolean IS_SUPPORTING_RECVMMSG = isSupportingRecvmmsg();
@@ -232,6 +234,27 @@ public final class Native {
     }
     private static native int epollCtlDel0(int efd, int fd);
 
+    /**
+     * Move up to {@code len} bytes from {@code fd} to {@code fdOut} via {@code splice(2)}, without copying them to
+     * user space. At least one of the file descriptors must refer to a pipe. An offset of {@code -1} means that the
+     * current offset of the file descriptor is used.
+     *
+     * @return the number of bytes that were moved, {@code 0} if nothing could be moved without blocking, or
+     * {@code -1} if the end of the input was reached.
+     */
+    static int splice(int fd, long offIn, int fdOut, long offOut, long len) throws IOException {
+        int res = splice0(fd, offIn, fdOut, offOut, len);
+        if (res > 0) {
+            return res;
+        }
+        if (res == 0) {
+            return -1;
+        }
+        return ioResult("splice", res);
+    }
+
+    private static native int splice0(int fd, long offIn, int fdOut, long offOut, long len);
+
     @Deprecated
     public static int sendmmsg(int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs,
                                int offset, int len) throws IOException {
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.epoll;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.util.Resource;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+/**
+ * The outstanding {@code MSG_ZEROCOPY} sends of a socket. The buffers of a send are kept alive until the kernel
+ * signalled through the error queue of the socket that it no longer uses them.
+ * <p>
+ * Only accessed from the event loop.
+ */
+final class ZeroCopySends {
+    private final Queue<ZeroCopySend> sends = new ArrayDeque<>();
+    private final int[] range = new int[2];
+    private int nextId;
+
+    /**
+     * Add a send of the given number of bytes. The kernel numbers every zero-copy send that did not fail.
+     *
+     * @return the send, that splits the bytes off the written buffers while iterating over them.
+     */
+    ZeroCopySend add(long written) {
+        ZeroCopySend send = new ZeroCopySend(nextId++, written);
+        sends.add(send);
+        return send;
+    }
+
+    /**
+     * Read the zero-copy notifications from the error queue of the given socket, and release the buffers of the sends
+     * that completed.
+     *
+     * @return {@code true} if no sends are outstanding anymore.
+     */
+    boolean readNotifications(LinuxSocket socket) throws IOException {
+        while (!sends.isEmpty() && socket.recvZeroCopyNotification(range)) {
+            int first = range[0];
+            int length = range[1] - first;
+            // Notifications of TCP sockets arrive in order, but may cover multiple sends.
+            Iterator<ZeroCopySend> iterator = sends.iterator();
+            while (iterator.hasNext()) {
+                ZeroCopySend send = iterator.next();
+                if (Integer.compareUnsigned(send.id - first, length) <= 0) {
+                    iterator.remove();
+                    send.release();
+                }
+            }
+        }
+        return sends.isEmpty();
+    }
+
+    /**
+     * Returns the number of sends whose notification was not read yet.
+     */
+    int size() {
+        return sends.size();
+    }
+
+    boolean isEmpty() {
+        return sends.isEmpty();
+    }
+
+    /**
+     * The bytes of a {@code MSG_ZEROCOPY} send, which are split off the written buffers while iterating over them.
+     */
+    static final class ZeroCopySend implements Predicate<Object> {
+        final int id;
+        private final List<Buffer> buffers = new ArrayList<>(1);
+        private long remaining;
+        int messages;
+
+        ZeroCopySend(int id, long written) {
+            this.id = id;
+            remaining = written;
+        }
+
+        @Override
+        public boolean test(Object msg) {
+            if (!(msg instanceof Buffer)) {
+                return false;
+            }
+            Buffer buf = (Buffer) msg;
+            int split = (int) Math.min(buf.readableBytes(), remaining);
+            if (split > 0) {
+                buffers.add(buf.readSplit(split));
+                remaining -= split;
+            }
+            if (buf.readableBytes() == 0) {
+                messages++;
+                return remaining > 0;
+            }
+            return false;
+        }
+
+        void release() {
+            for (Buffer buf : buffers) {
+                Resource.dispose(buf);
+            }
+            buffers.clear();
+        }
+    }
+}
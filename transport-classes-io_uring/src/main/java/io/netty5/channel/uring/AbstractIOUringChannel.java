@@ -42,6 +42,7 @@ import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
@@ -60,6 +61,9 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         implements UnixChannel {
     private static final InternalLogger LOGGER = InternalLoggerFactory.getInstance(AbstractIOUringChannel.class);
     private static final int MAX_READ_AHEAD_PACKETS = 8;
+    // Reserved data value of multishot receives, which is never used as the id of a regular read.
+    private static final short MULTISHOT_RECV_ID = 0;
+    private static volatile boolean multishotRecvUnsupported;
 
     static final FutureContextListener<Buffer, Void> CLOSE_BUFFER = (b, f) -> SilentDispose.dispose(b, LOGGER);
 
@@ -73,6 +77,10 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
     protected volatile SocketAddress remote;
 
     protected SubmissionQueue submissionQueue;
+    protected IOUringBufferRing bufferRing;
+    protected ZeroCopyNotifications zeroCopyNotifications;
+    protected IOUringFixedBuffers fixedBuffers;
+    protected SplicePipes splicePipes;
     protected WriteSink writeSink;
     protected int currentCompletionResult;
     protected short currentCompletionData;
@@ -80,6 +88,7 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
     private final Promise<Executor> prepareClosePromise;
     private final Runnable pendingRead;
     private final Runnable rdHupRead;
+    private final Runnable heldRead;
 
     private short lastReadId;
     private boolean readPendingRegister;
@@ -88,6 +97,11 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
     private boolean scheduledRdHup;
     private boolean receivedRdHup;
     private boolean submittedClose;
+    private long multishotRecvUdata;
+    private boolean multishotRecvCancelled;
+    private boolean multishotRecvCompleted;
+    private boolean multishotRecvOutOfBuffers;
+    private boolean multishotRecvFailed;
 
     protected AbstractIOUringChannel(P parent, EventLoop eventLoop, boolean supportingDisconnect,
                                      ReadHandleFactory defaultReadHandleFactory,
@@ -106,6 +120,7 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         prepareClosePromise = eventLoop.newPromise();
         pendingRead = this::submitReadForPending;
         rdHupRead = this::submitReadForRdHup;
+        heldRead = this::readHeldReads;
         readsPending = new ObjectRing<>();
         readsCompleted = new ObjectRing<>();
         cancelledReads = new LongObjectHashMap<>(8);
@@ -158,6 +173,27 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
     }
 
     private void submitRead() {
+        if (!readsCompleted.isEmpty() && isMultishotRecv()) {
+            // Deliver the reads that the multishot receive completed beyond what was asked for last time, first.
+            // See doReadNow(ReadSink).
+            executor().execute(heldRead);
+            return;
+        }
+        if (multishotRecvUdata != 0) {
+            // The multishot receive is still armed and will deliver the next reads.
+            return;
+        }
+        if (isMultishotRecv() && !multishotRecvFailed) {
+            if (!multishotRecvOutOfBuffers) {
+                int bufferSize = nextReadBufferSize();
+                if (bufferSize > 0) {
+                    submitMultishotRecv(bufferSize);
+                }
+                return;
+            }
+            // The buffer ring ran dry last time, so use a regular read this time around to make progress.
+            multishotRecvOutOfBuffers = false;
+        }
         // Submit reads until read handle says stop, we fill the submission queue, or hit max limit
         int maxPackets = Math.min(submissionQueue.remaining(), MAX_READ_AHEAD_PACKETS);
         int sumPackets = 0;
@@ -165,19 +201,36 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         boolean morePackets = bufferSize > 0;
 
         while (morePackets) {
-            Buffer readBuffer = readBufferAllocator().allocate(bufferSize);
+            // Only the first read blocks, and the others are likely to not read anything, so they don't use up fixed
+            // buffers.
+            Buffer readBuffer = sumPackets == 0 ? allocateReadBuffer(bufferSize) :
+                    readBufferAllocator().allocate(bufferSize);
             assert readBuffer.isDirect();
             assert readBuffer.countWritableComponents() == 1;
             sumPackets++;
             morePackets = sumPackets < maxPackets && (bufferSize = nextReadBufferSize()) > 0;
             submissionQueue.link(morePackets);
-            short readId = ++lastReadId;
+            short readId = nextReadId();
             submitReadForReadBuffer(readBuffer, readId, sumPackets > 1, readsPending);
         }
     }
 
+    private Buffer allocateReadBuffer(int bufferSize) {
+        if (fixedBuffers != null && isFixedBufferReadSupported()) {
+            Buffer buffer = fixedBuffers.takeBuffer(bufferSize);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return readBufferAllocator().allocate(bufferSize);
+    }
+
     private void submitNonBlockingRead() {
         assert readsPending.isEmpty();
+        if (multishotRecvUdata != 0) {
+            // The multishot receive will deliver the EOF, or deal with it when it terminates.
+            return;
+        }
         int bufferSize = nextReadBufferSize();
         if (bufferSize == 0) {
             return;
@@ -185,16 +238,58 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         Buffer readBuffer = readBufferAllocator().allocate(bufferSize);
         assert readBuffer.isDirect();
         assert readBuffer.countWritableComponents() == 1;
-        short readId = ++lastReadId;
+        short readId = nextReadId();
         submitReadForReadBuffer(readBuffer, readId, true, readsPending);
     }
 
+    private short nextReadId() {
+        short readId = ++lastReadId;
+        if (readId == MULTISHOT_RECV_ID) {
+            readId = ++lastReadId;
+        }
+        return readId;
+    }
+
+    /**
+     * Whether reads should use a multishot receive, that picks its buffers from the provided buffer ring.
+     * Only stream-oriented channels can support this.
+     */
+    protected boolean isMultishotRecvSupported() {
+        return false;
+    }
+
+    /**
+     * Whether reads can use the fixed buffers, with {@code IORING_OP_READ_FIXED}.
+     * Only stream-oriented channels that use {@link #submitReadForReadBuffer} as is can support this.
+     */
+    protected boolean isFixedBufferReadSupported() {
+        return false;
+    }
+
+    private boolean isMultishotRecv() {
+        return bufferRing != null && !multishotRecvUnsupported && isMultishotRecvSupported();
+    }
+
+    private void submitMultishotRecv(int maxLength) {
+        // The read size is sampled once, as the multishot receive serves all reads until it terminates.
+        multishotRecvUdata = submissionQueue.addRecvMultishot(fd().intValue(), bufferRing.groupId(),
+                maxLength, MULTISHOT_RECV_ID);
+        multishotRecvCancelled = false;
+    }
+
     private void submitReadForPending() {
         if (active && readsPending.isEmpty()) {
             submitRead();
         }
     }
 
+    private void readHeldReads() {
+        // The read may already have been served by a read loop that ran in the meantime.
+        if (isReadPending() && !readsCompleted.isEmpty()) {
+            readNow();
+        }
+    }
+
     private void submitReadForRdHup() {
         if (active && readsPending.isEmpty()) {
             submitNonBlockingRead();
@@ -211,9 +306,14 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
             var cmp = itr.firstWritable();
             assert cmp != null;
             long address = cmp.writableNativeAddress();
-            int flags = nonBlocking ? Native.MSG_DONTWAIT : 0;
-            long udata = submissionQueue.addRecv(
-                    fd().intValue(), address, 0, cmp.writableBytes(), flags, readId);
+            long udata;
+            if (!nonBlocking && fixedBuffers != null && fixedBuffers.contains(address, cmp.writableBytes())) {
+                udata = submissionQueue.addReadFixed(fd().intValue(), address, cmp.writableBytes(),
+                        IOUringFixedBuffers.BUFFER_INDEX, readId);
+            } else {
+                int flags = nonBlocking ? Native.MSG_DONTWAIT : 0;
+                udata = submissionQueue.addRecv(fd().intValue(), address, 0, cmp.writableBytes(), flags, readId);
+            }
             pendingConsumer.accept(buffer, udata);
         }
     }
@@ -228,10 +328,20 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
             cancelledReads.put(udata, obj);
             submissionQueue.addCancel(fd().intValue(), udata);
         }
+        if (multishotRecvUdata != 0 && !multishotRecvCancelled) {
+            // The multishot receive stays armed until the kernel posts its final completion, so data that is already
+            // received will still be delivered.
+            submissionQueue.addCancel(fd().intValue(), multishotRecvUdata);
+            multishotRecvCancelled = true;
+        }
     }
 
-    void readComplete(int res, long udata) {
+    void readComplete(int res, int flags, long udata) {
         assert executor().inEventLoop();
+        if (UserData.decodeOp(udata) == Native.IORING_OP_RECV && UserData.decodeData(udata) == MULTISHOT_RECV_ID) {
+            multishotRecvComplete(res, flags, udata);
+            return;
+        }
         if (res == Native.ERRNO_ECANCELED_NEGATIVE || res == Errors.ERRNO_EAGAIN_NEGATIVE) {
             Object obj = cancelledReads.remove(udata);
             if (obj == null) {
@@ -261,13 +371,50 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         }
     }
 
+    private void multishotRecvComplete(int res, int flags, long udata) {
+        boolean more = (flags & Native.IORING_CQE_F_MORE) != 0;
+        if (!more) {
+            multishotRecvUdata = 0;
+        }
+        if ((flags & Native.IORING_CQE_F_BUFFER) != 0) {
+            multishotRecvCompleted = true;
+            Buffer buffer = bufferRing.takeBuffer(flags >>> Native.IORING_CQE_BUFFER_SHIFT, res);
+            readsCompleted.push(buffer, udata);
+        } else if (res == 0) {
+            // EOF, without a buffer.
+            readsCompleted.push(readBufferAllocator().allocate(0), udata);
+        } else if (res == Native.ERRNO_ENOBUFS_NEGATIVE) {
+            multishotRecvOutOfBuffers = true;
+        } else if (res == Native.ERRNO_EINVAL_NEGATIVE && !multishotRecvCompleted) {
+            // The kernel rejected the receive flags, so multishot receives are not supported.
+            if (!multishotRecvUnsupported) {
+                multishotRecvUnsupported = true;
+                logger().debug("Multishot receive is not supported by the kernel, falling back to regular reads");
+            }
+        } else if (res != Native.ERRNO_ECANCELED_NEGATIVE && res != Errors.ERRNO_EAGAIN_NEGATIVE) {
+            // The multishot receive reports an error, e.g. a connection reset, as soon as it happens, while a regular
+            // read only sees it once it is submitted after the data before it has been read. Leave it to the regular
+            // reads from now on to raise the error, so errors are seen at the same point either way.
+            multishotRecvFailed = true;
+        }
+        if (!more && active && res != 0) {
+            // The kernel terminated the multishot receive before EOF, re-arm if we still want to read.
+            if (isReadPending()) {
+                submitRead();
+            } else if (receivedRdHup && readsPending.isEmpty()) {
+                submitNonBlockingRead();
+            }
+        }
+    }
+
     protected Object prepareCompletedRead(Object obj, int result) {
         ((Buffer) obj).skipWritableBytes(result);
         return obj;
     }
 
     void ioLoopCompleted() {
-        if (!readsCompleted.isEmpty()) {
+        // Reads completed by a multishot receive are held until they are asked for.
+        if (!readsCompleted.isEmpty() && (isReadPending() || !isMultishotRecv())) {
             readNow(); // Will call back into doReadNow.
         }
         WriteSink writeSink = this.writeSink;
@@ -290,6 +437,17 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
                 // Leave it to the sub-class to decide if this buffer is EOF or not.
                 return true;
             }
+            if (isMultishotRecv()) {
+                // The number of reads a multishot receive completes is not bounded by the read handle, so we return
+                // after every message to let the read handle decide if the read loop should continue.
+                // Any remaining reads are held until the next read.
+                if (readsCompleted.peek() && readsCompleted.getPolledObject() instanceof Failure) {
+                    // Like with regular reads, let the data be handled before the failure is raised in a later
+                    // read loop.
+                    readSink.processRead(0, 0, null);
+                }
+                return false;
+            }
         }
         // We have no more completed reads. Stop the read loop.
         readSink.processRead(0, 0, null);
@@ -355,13 +513,14 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
     @Override
     protected void doWriteNow(WriteSink writeSink) {
         submitAllWriteMessages(writeSink);
-        // We *MUST* submit all our messages, since we'll be releasing the outbound buffers after the doWriteNow call.
-        submissionQueue.submit();
+        // The messages stay in the outbound buffer until their writes complete, so the submission may be coalesced
+        // with those of other channels, as long as it happens before the event loop waits for completions.
+        submissionQueue.submitOrCoalesce();
     }
 
     protected abstract void submitAllWriteMessages(WriteSink writeSink);
 
-    abstract void writeComplete(int result, long udata);
+    abstract void writeComplete(int result, int flags, long udata);
 
     /**
      * Connect to the remote peer
@@ -373,27 +532,25 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
             checkResolvable((InetSocketAddress) localAddress);
         }
 
-        InetSocketAddress remoteSocketAddr = remoteAddress instanceof InetSocketAddress
-                ? (InetSocketAddress) remoteAddress : null;
-        if (remoteSocketAddr != null) {
-            checkResolvable(remoteSocketAddr);
+        if (remoteAddress instanceof InetSocketAddress) {
+            checkResolvable((InetSocketAddress) remoteAddress);
         }
 
         if (localAddress != null) {
             socket.bind(localAddress);
         }
 
-        submitConnect(remoteSocketAddr, initialData);
+        submitConnect(remoteAddress, initialData);
         return false;
     }
 
-    protected void submitConnect(InetSocketAddress remoteSocketAddr, Buffer initialData) throws IOException {
+    protected void submitConnect(SocketAddress remoteAddress, Buffer initialData) throws IOException {
         Buffer addrBuf = ioBufferAllocator().allocate(Native.SIZEOF_SOCKADDR_STORAGE);
         try (var itr = addrBuf.forEachComponent()) {
             var cmp = itr.firstWritable();
-            SockaddrIn.write(socket.isIpv6(), cmp.writableNativeAddress(), remoteSocketAddr);
-            submissionQueue.addConnect(fd().intValue(), cmp.writableNativeAddress(),
-                    Native.SIZEOF_SOCKADDR_STORAGE, (short) 0);
+            // The length matters for AF_UNIX addresses, as it tells the kernel where the path of the socket ends.
+            int addressLength = SockaddrIn.write(socket.isIpv6(), cmp.writableNativeAddress(), remoteAddress);
+            submissionQueue.addConnect(fd().intValue(), cmp.writableNativeAddress(), addressLength, (short) 0);
         }
         connectRemoteAddressMem = addrBuf;
     }
@@ -424,6 +581,11 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
                 unreach.initCause(nativeException);
                 throw unreach;
             }
+            if (res == Errors.ERRNO_ENOENT_NEGATIVE) { // ENOENT: The path of an AF_UNIX address does not exist
+                FileNotFoundException notFound = new FileNotFoundException(nativeException.getMessage());
+                notFound.initCause(nativeException);
+                throw notFound;
+            }
             SocketException exception = new SocketException(nativeException.getMessage());
             exception.initCause(nativeException);
             throw exception;
@@ -465,8 +627,14 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         }
     }
 
-    void completeChannelRegister(SubmissionQueue submissionQueue) {
+    void completeChannelRegister(SubmissionQueue submissionQueue, IOUringBufferRing bufferRing,
+                                 ZeroCopyNotifications zeroCopyNotifications, IOUringFixedBuffers fixedBuffers,
+                                 SplicePipes splicePipes) {
         this.submissionQueue = submissionQueue;
+        this.bufferRing = bufferRing;
+        this.zeroCopyNotifications = zeroCopyNotifications;
+        this.fixedBuffers = fixedBuffers;
+        this.splicePipes = splicePipes;
         if (active) {
             submitPollRdHup();
         }
@@ -808,10 +976,10 @@ abstract class AbstractIOUringChannel<P extends UnixChannel>
         return socket.isIpv6();
     }
 
-    private static final class Failure {
+    static final class Failure {
         final int result;
 
-        private Failure(int result) {
+        Failure(int result) {
             this.result = result;
         }
     }
@@ -33,6 +33,33 @@ final class CmsgHdr {
 
     static void write(long cmsghdrAddress, long cmsgHdrDataAddress,
                       int cmsgLen, int cmsgLevel, int cmsgType, short segmentSize) {
+        writeHeader(cmsghdrAddress, cmsgLen, cmsgLevel, cmsgType);
+        PlatformDependent.putShort(cmsgHdrDataAddress, segmentSize);
+    }
+
+    /**
+     * Write a {@code SCM_RIGHTS} message that passes the given file descriptor.
+     */
+    static void writeScmRights(long cmsghdrAddress, long cmsgHdrDataAddress, int fd) {
+        writeHeader(cmsghdrAddress, Native.CMSG_LEN_FD, Native.SOL_SOCKET, Native.SCM_RIGHTS);
+        PlatformDependent.putInt(cmsgHdrDataAddress, fd);
+    }
+
+    /**
+     * Read the file descriptor of a {@code SCM_RIGHTS} message, as received in a control buffer of the given length.
+     *
+     * @return the file descriptor, or {@code -1} if there is none.
+     */
+    static int readScmRights(long cmsghdrAddress, long cmsgHdrDataAddress, int controlLength) {
+        if (controlLength < Native.CMSG_LEN_FD ||
+                PlatformDependent.getInt(cmsghdrAddress + Native.CMSG_OFFSETOF_CMSG_LEVEL) != Native.SOL_SOCKET ||
+                PlatformDependent.getInt(cmsghdrAddress + Native.CMSG_OFFSETOF_CMSG_TYPE) != Native.SCM_RIGHTS) {
+            return -1;
+        }
+        return PlatformDependent.getInt(cmsgHdrDataAddress);
+    }
+
+    private static void writeHeader(long cmsghdrAddress, int cmsgLen, int cmsgLevel, int cmsgType) {
         if (Native.SIZEOF_SIZE_T == 4) {
             PlatformDependent.putInt(cmsghdrAddress + Native.CMSG_OFFSETOF_CMSG_LEN, cmsgLen);
         } else {
@@ -41,6 +68,5 @@ final class CmsgHdr {
         }
         PlatformDependent.putInt(cmsghdrAddress + Native.CMSG_OFFSETOF_CMSG_LEVEL, cmsgLevel);
         PlatformDependent.putInt(cmsghdrAddress + Native.CMSG_OFFSETOF_CMSG_TYPE, cmsgType);
-        PlatformDependent.putShort(cmsgHdrDataAddress, segmentSize);
     }
 }
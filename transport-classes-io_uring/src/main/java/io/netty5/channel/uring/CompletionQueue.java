@@ -41,6 +41,7 @@ final class CompletionQueue implements IntSupplier {
     //these unsigned integer pointers(shared with the kernel) will be changed by the kernel
     private final long kHeadAddress;
     private final long kTailAddress;
+    private final long kOverflowAddress;
 
     private final long completionQueueArrayAddress;
 
@@ -48,7 +49,7 @@ final class CompletionQueue implements IntSupplier {
     final long ringAddress;
     final int ringFd;
 
-    private final int ringEntries;
+    final int ringEntries;
     private final int ringMask;
     private int ringHead;
 
@@ -57,6 +58,7 @@ final class CompletionQueue implements IntSupplier {
                     int ringFd) {
         this.kHeadAddress = kHeadAddress;
         this.kTailAddress = kTailAddress;
+        this.kOverflowAddress = kOverflowAddress;
         this.completionQueueArrayAddress = completionQueueArrayAddress;
         this.ringSize = ringSize;
         this.ringAddress = ringAddress;
@@ -84,6 +86,13 @@ final class CompletionQueue implements IntSupplier {
         return PlatformDependent.getIntVolatile(kTailAddress) - ringHead;
     }
 
+    /**
+     * The number of completions that the kernel dropped, because the queue was full.
+     */
+    int overflow() {
+        return PlatformDependent.getIntVolatile(kOverflowAddress);
+    }
+
     /**
      * Process the completion events in the {@link CompletionQueue} and return the number of processed
      * events.
@@ -106,6 +106,53 @@ public final class IOUring {
         };
     }
 
+    /**
+     * Create a new {@link IoHandlerFactory} with the given configuration.
+     */
+    public static IoHandlerFactory newFactory(IOUringHandlerConfig config) {
+        ensureAvailability();
+        IOUringHandlerConfig copy = new IOUringHandlerConfig(config);
+        if ((long) copy.getBufferRingSize() * copy.getBufferRingBufferSize() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bufferRingSize * bufferRingBufferSize must not exceed " +
+                    Integer.MAX_VALUE + " bytes");
+        }
+        int ringSize = copy.getRingSize() == 0 ? Native.DEFAULT_RING_SIZE : copy.getRingSize();
+        int kernelWorkerOffloadThreshold = copy.getKernelWorkerOffloadThreshold() == -1 ?
+                Native.DEFAULT_IOSEQ_ASYNC_THRESHOLD : copy.getKernelWorkerOffloadThreshold();
+        int setupFlags = setupFlags(copy);
+        int sqThreadCpu = Math.max(0, copy.getSubmissionPollingCpu());
+        if (!copy.isSharedKernelWorkers()) {
+            return () -> {
+                RingBuffer ringBuffer = Native.createRingBuffer(ringSize, kernelWorkerOffloadThreshold,
+                        setupFlags, copy.getSubmissionPollingIdleTimeout(), sqThreadCpu, 0);
+                return new IOUringHandler(ringBuffer, copy);
+            };
+        }
+        // All rings attach to the first one, which is expected to still be open, as the handlers of an
+        // EventLoopGroup are all created when it is constructed.
+        int[] sharedRingFd = { -1 };
+        return () -> {
+            RingBuffer ringBuffer;
+            synchronized (sharedRingFd) {
+                int wqFd = sharedRingFd[0];
+                ringBuffer = Native.createRingBuffer(ringSize, kernelWorkerOffloadThreshold,
+                        wqFd == -1 ? setupFlags : setupFlags | Native.IORING_SETUP_ATTACH_WQ,
+                        copy.getSubmissionPollingIdleTimeout(), sqThreadCpu, Math.max(0, wqFd));
+                if (wqFd == -1) {
+                    sharedRingFd[0] = ringBuffer.fd();
+                }
+            }
+            return new IOUringHandler(ringBuffer, copy);
+        };
+    }
+
+    private static int setupFlags(IOUringHandlerConfig config) {
+        if (!config.isSubmissionPolling()) {
+            return 0;
+        }
+        return Native.IORING_SETUP_SQPOLL | (config.getSubmissionPollingCpu() == -1 ? 0 : Native.IORING_SETUP_SQ_AFF);
+    }
+
     private IOUring() {
     }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.buffer.AllocatorControl;
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.DefaultBufferAllocators;
+import io.netty5.buffer.Drop;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.StandardAllocationTypes;
+import io.netty5.buffer.internal.ArcDrop;
+import io.netty5.buffer.internal.CleanerDrop;
+import io.netty5.buffer.internal.DropCaptor;
+import io.netty5.util.internal.PlatformDependent;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.invoke.VarHandle;
+import java.util.Queue;
+
+/**
+ * A provided buffer ring, as registered with {@code IORING_REGISTER_PBUF_RING}.
+ * <p>
+ * The kernel picks buffers from this ring for operations that use {@code IOSQE_BUFFER_SELECT}, such as multishot
+ * receives. All buffers are slices of a single off-heap allocation. A buffer handed out by
+ * {@link #takeBuffer(int, int)} is returned to the ring when it is closed; this can happen on any thread, but the ring
+ * itself is only ever updated by the event loop thread that owns it.
+ */
+final class IOUringBufferRing {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringBufferRing.class);
+    private static final AllocatorControl CONTROL = DefaultBufferAllocators::offHeapAllocator;
+
+    // struct io_uring_buf, see https://github.com/axboe/liburing/blob/master/src/include/liburing/io_uring.h
+    private static final int SIZEOF_IO_URING_BUF = 16;
+    private static final int IO_URING_BUF_ADDR_FIELD = 0; // u64
+    private static final int IO_URING_BUF_LEN_FIELD = 8; // u32
+    private static final int IO_URING_BUF_BID_FIELD = 12; // u16
+    // The ring tail overlays the 'resv' field of the first struct io_uring_buf.
+    private static final int IO_URING_BUF_RING_TAIL_FIELD = 14; // u16
+
+    private final int ringFd;
+    private final short groupId;
+    private final int entries;
+    private final int mask;
+    private final int bufferSize;
+    private final long ringAddress;
+    private final MemoryManager manager;
+    private final Buffer base; // The buffer that is the source of the memory. Closing it will free the memory.
+    private final Object memory;
+    private final long memoryAddress;
+    private final Drop<Buffer> baseDrop; // An ArcDrop that manages references to the base Buffer.
+    private final Queue<Integer> remoteRecycled;
+
+    private Thread owner;
+    private short tail;
+    private boolean tailDirty;
+    private volatile boolean closed;
+
+    private IOUringBufferRing(int ringFd, short groupId, int entries, int bufferSize, long ringAddress) {
+        this.ringFd = ringFd;
+        this.groupId = groupId;
+        this.entries = entries;
+        this.bufferSize = bufferSize;
+        this.ringAddress = ringAddress;
+        mask = entries - 1;
+        manager = MemoryManager.instance();
+        // Like in the pooled allocator, the CleanerDrop needs to be inside the ArcDrop here, because it can only drop
+        // once. And we need the ArcDrop for the reference counting by every buffer taken from this ring.
+        DropCaptor<Buffer> dropCaptor = new DropCaptor<>();
+        base = manager.allocateShared(CONTROL, (long) entries * bufferSize, drop ->
+                dropCaptor.capture(ArcDrop.wrap(CleanerDrop.wrap(drop, manager))), StandardAllocationTypes.OFF_HEAP);
+        baseDrop = dropCaptor.getDrop();
+        memory = manager.unwrapRecoverableMemory(base);
+        baseDrop.attach(base);
+        try (var itr = base.forEachComponent()) {
+            memoryAddress = itr.first().baseNativeAddress();
+        }
+        remoteRecycled = PlatformDependent.newMpscQueue();
+    }
+
+    /**
+     * Register a new buffer ring with the given io_uring instance.
+     *
+     * @return the registered buffer ring, or {@code null} if provided buffer rings are not supported.
+     */
+    static IOUringBufferRing register(int ringFd, short groupId, int entries, int bufferSize) {
+        long ringAddress = Native.ioUringRegisterBufRing(ringFd, entries, groupId);
+        if (ringAddress < 0) {
+            logger.debug("Provided buffer rings are not supported by the kernel (errno={}), using regular reads",
+                    -ringAddress);
+            return null;
+        }
+        IOUringBufferRing ring;
+        try {
+            ring = new IOUringBufferRing(ringFd, groupId, entries, bufferSize, ringAddress);
+        } catch (Throwable t) {
+            Native.ioUringUnregisterBufRing(ringFd, ringAddress, entries, groupId);
+            throw t;
+        }
+        if (ring.memoryAddress == 0) {
+            logger.debug("The MemoryManager does not provide native memory, using regular reads");
+            ring.close();
+            return null;
+        }
+        for (int bid = 0; bid < entries; bid++) {
+            ring.addBuffer(bid);
+        }
+        ring.publish();
+        return ring;
+    }
+
+    short groupId() {
+        return groupId;
+    }
+
+    /**
+     * Wrap the buffer with the given id, as selected by the kernel, in a {@link Buffer} with the given number of
+     * readable bytes. The buffer is returned to the ring when it is closed.
+     */
+    Buffer takeBuffer(int bid, int length) {
+        Object slice = manager.sliceMemory(memory, bid * bufferSize, bufferSize);
+        Drop<Buffer> drop = CleanerDrop.wrap(ArcDrop.wrap(new BufferDrop(bid)), manager);
+        Buffer buffer = manager.recoverMemory(CONTROL, slice, drop);
+        drop.attach(buffer);
+        buffer.skipWritableBytes(length);
+        return buffer;
+    }
+
+    /**
+     * Make the buffers that were returned since the last call visible to the kernel.
+     * Must be called from the event loop thread.
+     */
+    void publish() {
+        // The handler may be created on a different thread, so the owner is tracked here rather than on creation.
+        owner = Thread.currentThread();
+        Integer bid;
+        while ((bid = remoteRecycled.poll()) != null) {
+            addBuffer(bid);
+        }
+        if (tailDirty) {
+            tailDirty = false;
+            // The kernel reads the tail with acquire semantics, so the entries must be visible before the tail.
+            VarHandle.releaseFence();
+            PlatformDependent.putShort(ringAddress + IO_URING_BUF_RING_TAIL_FIELD, tail);
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        int res = Native.ioUringUnregisterBufRing(ringFd, ringAddress, entries, groupId);
+        if (res < 0) {
+            logger.debug("Failed to unregister buffer ring (errno={})", -res);
+        }
+        remoteRecycled.clear();
+        // Buffers that are still in use keep the memory alive until they are closed.
+        baseDrop.drop(base);
+    }
+
+    private void recycle(int bid) {
+        if (closed) {
+            return;
+        }
+        if (Thread.currentThread() == owner) {
+            addBuffer(bid);
+        } else {
+            remoteRecycled.offer(bid);
+        }
+    }
+
+    private void addBuffer(int bid) {
+        long entry = ringAddress + (long) (tail & mask) * SIZEOF_IO_URING_BUF;
+        PlatformDependent.putLong(entry + IO_URING_BUF_ADDR_FIELD, memoryAddress + (long) bid * bufferSize);
+        PlatformDependent.putInt(entry + IO_URING_BUF_LEN_FIELD, bufferSize);
+        PlatformDependent.putShort(entry + IO_URING_BUF_BID_FIELD, (short) bid);
+        tail++;
+        tailDirty = true;
+    }
+
+    private final class BufferDrop implements Drop<Buffer> {
+        private final Drop<Buffer> baseDrop;
+        private final int bid;
+
+        BufferDrop(int bid) {
+            baseDrop = IOUringBufferRing.this.baseDrop.fork();
+            this.bid = bid;
+        }
+
+        @Override
+        public void drop(Buffer obj) {
+            recycle(bid);
+            baseDrop.drop(base);
+        }
+
+        @Override
+        public Drop<Buffer> fork() {
+            // Always wrapped in an ArcDrop, which does the reference counting for us.
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void attach(Buffer obj) {
+        }
+    }
+}
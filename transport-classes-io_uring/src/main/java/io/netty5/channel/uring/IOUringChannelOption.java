@@ -42,6 +42,25 @@ public class IOUringChannelOption<T> extends UnixChannelOption<T> {
     public static final ChannelOption<Boolean> TCP_QUICKACK = valueOf(IOUringChannelOption.class, "TCP_QUICKACK");
     public static final ChannelOption<Map<InetAddress, byte[]>> TCP_MD5SIG = valueOf("TCP_MD5SIG");
 
+    /**
+     * Use a single multishot {@code IORING_OP_ACCEPT} submission, which keeps producing completions for every accepted
+     * connection, instead of submitting a new accept for each connection. Kernels that do not support multishot
+     * accepts (before 5.19) transparently fall back to the single-shot accepts.
+     */
+    public static final ChannelOption<Boolean> MULTISHOT_ACCEPT =
+            valueOf(IOUringChannelOption.class, "MULTISHOT_ACCEPT");
+
+    /**
+     * Send writes of at least this many bytes with {@code IORING_OP_SENDMSG_ZC}, which lets the network stack use the
+     * memory of the written buffers directly, instead of copying it into the socket buffer. The write promise is
+     * completed as soon as the data has been sent, but the memory of the buffers is only released once the kernel
+     * signals that it no longer needs it. Zero-copy sends mostly pay off for large writes; {@code -1}, the default,
+     * disables them. Kernels that do not support zero-copy sends (before 6.1) transparently fall back to regular
+     * writes.
+     */
+    public static final ChannelOption<Integer> SEND_ZC_THRESHOLD =
+            valueOf(IOUringChannelOption.class, "SEND_ZC_THRESHOLD");
+
     public static final ChannelOption<Integer> MAX_DATAGRAM_PAYLOAD_SIZE = valueOf("MAX_DATAGRAM_PAYLOAD_SIZE");
     public static final ChannelOption<Boolean> UDP_GRO = valueOf("UDP_GRO");
 }
@@ -43,10 +43,12 @@ import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
+import java.net.ProtocolFamily;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.channels.UnresolvedAddressException;
@@ -87,9 +89,13 @@ public final class IOUringDatagramChannel extends AbstractIOUringChannel<UnixCha
     private volatile boolean outputShutdown;
 
     public IOUringDatagramChannel(EventLoop eventLoop) {
+        this(eventLoop, null);
+    }
+
+    public IOUringDatagramChannel(EventLoop eventLoop, ProtocolFamily protocolFamily) {
         this(null, eventLoop, true, new FixedReadHandleFactory(2048),
                 new MaxMessagesWriteHandleFactory(Integer.MAX_VALUE),
-                LinuxSocket.newSocketDgram(), false);
+                LinuxSocket.newSocketDgram(protocolFamily), false);
     }
 
     IOUringDatagramChannel(
@@ -375,7 +381,7 @@ public final class IOUringDatagramChannel extends AbstractIOUringChannel<UnixCha
             checkUnresolved(e);
 
             if (recipientClass.isInstance(e.recipient())) {
-                InetSocketAddress recipient = (InetSocketAddress) e.recipient();
+                SocketAddress recipient = e.recipient();
                 Object content = e.content();
                 if (content instanceof Buffer) {
                     Buffer buf = (Buffer) content;
@@ -452,9 +458,12 @@ public final class IOUringDatagramChannel extends AbstractIOUringChannel<UnixCha
     }
 
     @Override
-    void writeComplete(int result, long udata) {
+    void writeComplete(int result, int flags, long udata) {
         Promise<Void> promise = pendingWrites.removePending(UserData.decodeData(udata));
-        if (result < 0) {
+        if (result == Errors.ERRNO_ENOENT_NEGATIVE) {
+            // The path of the AF_UNIX recipient does not exist.
+            promise.setFailure(new FileNotFoundException());
+        } else if (result < 0) {
             promise.setFailure(Errors.newIOException("send/sendmsg", result));
         } else {
             promise.setSuccess(null);
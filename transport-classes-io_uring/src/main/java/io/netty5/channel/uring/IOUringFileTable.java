@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.util.internal.PlatformDependent;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * A sparse table of fixed files, as registered with {@code IORING_REGISTER_FILES}.
+ * <p>
+ * Operations on a file descriptor that is in the table are submitted with {@code IOSQE_FIXED_FILE} and the index of
+ * its slot, which saves the kernel from looking up the file for every operation.
+ * <p>
+ * File descriptors are put into the table synchronously, when a channel is registered. They are taken out with an
+ * {@code IORING_OP_FILES_UPDATE} submission, so that operations that were queued before still see the file.
+ * The slot is only reused once that submission has completed. All methods must be called from the event loop thread.
+ */
+final class IOUringFileTable {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringFileTable.class);
+
+    private final int ringFd;
+    private final int[] freeSlots; // A FIFO queue, so freed slots are reused as late as possible.
+    private final long emptyFdAddress; // An int of -1, which is the source of the IORING_OP_FILES_UPDATE submissions.
+    private int freeHead;
+    private int freeCount;
+    private int[] slots; // Indexed by file descriptor, holding the slot index + 1, or 0 if not in the table.
+
+    private IOUringFileTable(int ringFd, int size) {
+        this.ringFd = ringFd;
+        freeSlots = new int[size];
+        for (int i = 0; i < size; i++) {
+            freeSlots[i] = i;
+        }
+        freeCount = size;
+        slots = new int[64];
+        emptyFdAddress = PlatformDependent.allocateMemory(Integer.BYTES);
+        PlatformDependent.putInt(emptyFdAddress, -1);
+    }
+
+    /**
+     * Register a new fixed file table with the given io_uring instance.
+     *
+     * @return the registered table, or {@code null} if fixed files are not supported.
+     */
+    static IOUringFileTable register(int ringFd, int size) {
+        int res = Native.ioUringRegisterFiles(ringFd, size);
+        if (res < 0) {
+            logger.debug("Fixed files are not supported by the kernel (errno={}), using regular files", -res);
+            return null;
+        }
+        return new IOUringFileTable(ringFd, size);
+    }
+
+    /**
+     * Put the given file descriptor into the table, if there is a free slot.
+     */
+    void add(int fd) {
+        int slot = slot(fd);
+        if (slot < 0) {
+            if (freeCount == 0) {
+                return;
+            }
+            slot = freeSlots[freeHead];
+            freeHead = (freeHead + 1) % freeSlots.length;
+            freeCount--;
+        }
+        // If the file descriptor was already in the table, its slot may still refer to a file that was closed without
+        // being taken out of the table, so it is always updated.
+        int res = Native.ioUringRegisterFilesUpdate(ringFd, slot, fd);
+        if (res < 0) {
+            logger.debug("Failed to add fd {} to the fixed file table (errno={})", fd, -res);
+            remove(fd);
+            release(slot);
+            return;
+        }
+        if (fd >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(fd + 1, slots.length << 1));
+        }
+        slots[fd] = slot + 1;
+    }
+
+    /**
+     * Get the slot of the given file descriptor, or {@code -1} if it is not in the table.
+     */
+    int slot(int fd) {
+        return fd < slots.length ? slots[fd] - 1 : -1;
+    }
+
+    /**
+     * Take the given file descriptor out of the table. The slot must be emptied with an
+     * {@code IORING_OP_FILES_UPDATE} submission of {@link #emptyFdAddress()}, and then be {@linkplain #release(int)
+     * released} once that has completed.
+     *
+     * @return the slot of the file descriptor, or {@code -1} if it was not in the table.
+     */
+    int remove(int fd) {
+        int slot = slot(fd);
+        if (slot >= 0) {
+            slots[fd] = 0;
+        }
+        return slot;
+    }
+
+    /**
+     * Make the given slot, which has been emptied, available again.
+     */
+    void release(int slot) {
+        freeSlots[(freeHead + freeCount) % freeSlots.length] = slot;
+        freeCount++;
+    }
+
+    long emptyFdAddress() {
+        return emptyFdAddress;
+    }
+
+    /**
+     * Free the memory of this table. Must only be called once the ring is closed, which also drops the table in the
+     * kernel.
+     */
+    void close() {
+        PlatformDependent.freeMemory(emptyFdAddress);
+    }
+}
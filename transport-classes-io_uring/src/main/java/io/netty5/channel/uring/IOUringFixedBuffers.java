@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.buffer.AllocatorControl;
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.DefaultBufferAllocators;
+import io.netty5.buffer.Drop;
+import io.netty5.buffer.MemoryManager;
+import io.netty5.buffer.StandardAllocationTypes;
+import io.netty5.buffer.internal.ArcDrop;
+import io.netty5.buffer.internal.CleanerDrop;
+import io.netty5.buffer.internal.DropCaptor;
+import io.netty5.util.internal.PlatformDependent;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Queue;
+
+/**
+ * A region of memory that is registered with {@code IORING_REGISTER_BUFFERS}, as the fixed buffer with index
+ * {@link #BUFFER_INDEX}.
+ * <p>
+ * The kernel pins the pages of the region once, instead of for every operation, when {@code IORING_OP_READ_FIXED} or
+ * {@code IORING_OP_WRITE_FIXED} is used on memory within the region. The region is divided into buffers of equal size,
+ * that are handed out for reads by {@link #takeBuffer(int)}. A buffer is returned when it is closed; this can happen
+ * on any thread, but the buffers are only ever handed out by the event loop thread that owns the region.
+ */
+final class IOUringFixedBuffers {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringFixedBuffers.class);
+    private static final AllocatorControl CONTROL = DefaultBufferAllocators::offHeapAllocator;
+    static final short BUFFER_INDEX = 0;
+
+    private final int ringFd;
+    private final int bufferSize;
+    private final long length;
+    private final MemoryManager manager;
+    private final Buffer base; // The buffer that is the source of the memory. Closing it will free the memory.
+    private final Object memory;
+    private final long memoryAddress;
+    private final Drop<Buffer> baseDrop; // An ArcDrop that manages references to the base Buffer.
+    private final int[] free;
+    private final Queue<Integer> remoteRecycled;
+
+    private Thread owner;
+    private int freeCount;
+    private volatile boolean closed;
+
+    private IOUringFixedBuffers(int ringFd, int count, int bufferSize) {
+        this.ringFd = ringFd;
+        this.bufferSize = bufferSize;
+        length = (long) count * bufferSize;
+        manager = MemoryManager.instance();
+        // Like in the buffer ring, the CleanerDrop needs to be inside the ArcDrop here, because it can only drop once.
+        // And we need the ArcDrop for the reference counting by every buffer taken from this region.
+        DropCaptor<Buffer> dropCaptor = new DropCaptor<>();
+        base = manager.allocateShared(CONTROL, length, drop ->
+                dropCaptor.capture(ArcDrop.wrap(CleanerDrop.wrap(drop, manager))), StandardAllocationTypes.OFF_HEAP);
+        baseDrop = dropCaptor.getDrop();
+        memory = manager.unwrapRecoverableMemory(base);
+        baseDrop.attach(base);
+        try (var itr = base.forEachComponent()) {
+            memoryAddress = itr.first().baseNativeAddress();
+        }
+        free = new int[count];
+        for (int i = 0; i < count; i++) {
+            free[i] = count - 1 - i;
+        }
+        freeCount = count;
+        remoteRecycled = PlatformDependent.newMpscQueue();
+    }
+
+    /**
+     * Register a new region of fixed buffers with the given io_uring instance.
+     *
+     * @return the registered region, or {@code null} if fixed buffers are not supported.
+     */
+    static IOUringFixedBuffers register(int ringFd, int count, int bufferSize) {
+        IOUringFixedBuffers buffers = new IOUringFixedBuffers(ringFd, count, bufferSize);
+        if (buffers.memoryAddress == 0) {
+            logger.debug("The MemoryManager does not provide native memory, not using fixed buffers");
+            buffers.release();
+            return null;
+        }
+        int res = Native.ioUringRegisterBuffers(ringFd, buffers.memoryAddress, buffers.length);
+        if (res < 0) {
+            logger.debug("Failed to register fixed buffers (errno={}), not using fixed buffers", -res);
+            buffers.release();
+            return null;
+        }
+        return buffers;
+    }
+
+    /**
+     * Take a buffer with the given capacity from the region. The buffer is returned to the region when it is closed.
+     * Must be called from the event loop thread.
+     *
+     * @return the buffer, or {@code null} if the capacity is too large or the region has no free buffers left.
+     */
+    Buffer takeBuffer(int capacity) {
+        if (capacity > bufferSize) {
+            return null;
+        }
+        // The region may be created on a different thread, so the owner is tracked here rather than on creation.
+        owner = Thread.currentThread();
+        if (freeCount == 0) {
+            Integer index;
+            while ((index = remoteRecycled.poll()) != null) {
+                free[freeCount++] = index;
+            }
+            if (freeCount == 0) {
+                return null;
+            }
+        }
+        int index = free[--freeCount];
+        Object slice = manager.sliceMemory(memory, index * bufferSize, capacity);
+        Drop<Buffer> drop = CleanerDrop.wrap(ArcDrop.wrap(new BufferDrop(index)), manager);
+        Buffer buffer = manager.recoverMemory(CONTROL, slice, drop);
+        drop.attach(buffer);
+        return buffer;
+    }
+
+    /**
+     * Whether the given memory lies within the registered region.
+     */
+    boolean contains(long address, int length) {
+        return address >= memoryAddress && address + length <= memoryAddress + this.length;
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        int res = Native.ioUringUnregisterBuffers(ringFd);
+        if (res < 0) {
+            logger.debug("Failed to unregister fixed buffers (errno={})", -res);
+        }
+        release();
+    }
+
+    private void release() {
+        closed = true;
+        remoteRecycled.clear();
+        // Buffers that are still in use keep the memory alive until they are closed.
+        baseDrop.drop(base);
+    }
+
+    private void recycle(int index) {
+        if (closed) {
+            return;
+        }
+        if (Thread.currentThread() == owner) {
+            free[freeCount++] = index;
+        } else {
+            remoteRecycled.offer(index);
+        }
+    }
+
+    private final class BufferDrop implements Drop<Buffer> {
+        private final Drop<Buffer> baseDrop;
+        private final int index;
+
+        BufferDrop(int index) {
+            baseDrop = IOUringFixedBuffers.this.baseDrop.fork();
+            this.index = index;
+        }
+
+        @Override
+        public void drop(Buffer obj) {
+            recycle(index);
+            baseDrop.drop(base);
+        }
+
+        @Override
+        public Drop<Buffer> fork() {
+            // Always wrapped in an ArcDrop, which does the reference counting for us.
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void attach(Buffer obj) {
+        }
+    }
+}
@@ -41,8 +41,18 @@ import static java.util.Objects.requireNonNull;
 final class IOUringHandler implements IoHandler, CompletionCallback {
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringHandler.class);
     private static final short RING_CLOSE = 1;
+    private static final short BUFFER_GROUP_ID = 0;
+    // The event loop counts as busy once it reaps this many completions per run, on average.
+    private static final int BUSY_COMPLETIONS = 4;
 
     private final RingBuffer ringBuffer;
+    private final IOUringBufferRing bufferRing;
+    private final IOUringFileTable fileTable;
+    private final IOUringFixedBuffers fixedBuffers;
+    private final ZeroCopyNotifications zeroCopyNotifications;
+    private final SplicePipes splicePipes;
+    private final IOUringHandlerMetrics metrics;
+    private final boolean submitBatching;
     private final IntObjectMap<AbstractIOUringChannel<?>> channels;
     private final ArrayDeque<AbstractIOUringChannel<?>> touchedChannels;
 
@@ -50,24 +60,63 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
     private final FileDescriptor eventfd;
     private final long eventfdReadBuf;
     private long eventfdReadSubmitted;
+    private int averageCompletions; // Scaled by 8, so it is fine-grained enough to compare with BUSY_COMPLETIONS.
+    private long reapTime;
 
     private volatile boolean shuttingDown;
     private boolean closeCompleted;
 
     IOUringHandler(RingBuffer ringBuffer) {
+        this(ringBuffer, new IOUringHandlerConfig());
+    }
+
+    IOUringHandler(RingBuffer ringBuffer, IOUringHandlerConfig config) {
         // Ensure that we load all native bits as otherwise it may fail when try to use native methods in IovArray
         IOUring.ensureAvailability();
         this.ringBuffer = requireNonNull(ringBuffer, "ringBuffer");
         channels = new IntObjectHashMap<>();
         touchedChannels = new ArrayDeque<>();
+        zeroCopyNotifications = new ZeroCopyNotifications();
+        splicePipes = new SplicePipes();
         eventfd = Native.newBlockingEventFd();
         eventfdReadBuf = PlatformDependent.allocateMemory(8);
+        if (config.getBufferRingSize() > 0) {
+            bufferRing = IOUringBufferRing.register(ringBuffer.fd(), BUFFER_GROUP_ID,
+                    config.getBufferRingSize(), config.getBufferRingBufferSize());
+        } else {
+            bufferRing = null;
+        }
+        if (config.getFixedFileTableSize() > 0) {
+            fileTable = IOUringFileTable.register(ringBuffer.fd(), config.getFixedFileTableSize());
+            ringBuffer.ioUringSubmissionQueue().fileTable(fileTable);
+        } else {
+            fileTable = null;
+        }
+        if (config.getFixedBufferCount() > 0) {
+            fixedBuffers = IOUringFixedBuffers.register(ringBuffer.fd(), config.getFixedBufferCount(),
+                    config.getFixedBufferSize());
+        } else {
+            fixedBuffers = null;
+        }
+        submitBatching = config.isSubmitBatching();
+        if (config.getMetricListener() != null) {
+            metrics = new IOUringHandlerMetrics(ringBuffer.ioUringSubmissionQueue().ringEntries,
+                    ringBuffer.ioUringCompletionQueue().ringEntries, config.isLatencyTracking());
+            ringBuffer.ioUringSubmissionQueue().metrics(metrics);
+            config.getMetricListener().accept(metrics);
+        } else {
+            metrics = null;
+        }
     }
 
     @Override
     public int run(IoExecutionContext context) {
         SubmissionQueue submissionQueue = ringBuffer.ioUringSubmissionQueue();
         CompletionQueue completionQueue = ringBuffer.ioUringCompletionQueue();
+        if (bufferRing != null) {
+            // Hand the buffers that were released since the last run back to the kernel.
+            bufferRing.publish();
+        }
         if (!completionQueue.hasCompletions() && context.canBlock()) {
             if (eventfdReadSubmitted == 0) {
                 submitEventFdRead();
@@ -75,12 +124,36 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
             if (context.deadlineNanos() != -1) {
                 submitTimeout(context);
             }
-            submissionQueue.submitAndWait();
+            context.beforeBlocking();
+            try {
+                submissionQueue.submitAndWait();
+            } finally {
+                context.afterBlocking();
+            }
         } else {
             submissionQueue.submit();
         }
+        if (metrics != null) {
+            int count = completionQueue.count();
+            if (count > 0) {
+                reapTime = metrics.reaping(count, submissionQueue.kernelFlags(), completionQueue.overflow(),
+                        submissionQueue.dropped());
+            }
+        }
+        if (!submitBatching) {
+            int completed = completionQueue.process(this);
+            notifyIoFinished();
+            return completed;
+        }
+        // The channels submit what they queue while processing completions all at once, when we are done.
+        submissionQueue.coalesce(true);
         int completed = completionQueue.process(this);
         notifyIoFinished();
+        averageCompletions += completed - (averageCompletions >> 3);
+        // If we are busy, the tasks that run before the next run may coalesce their submissions as well, since the
+        // next run comes soon, and submits before it waits.
+        submissionQueue.coalesce(averageCompletions >= BUSY_COMPLETIONS << 3);
+        submissionQueue.submit();
         return completed;
     }
 
@@ -93,6 +166,9 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
 
     @Override
     public void handle(int fd, int res, int flags, long udata) {
+        if (metrics != null) {
+            metrics.completed(udata, reapTime);
+        }
         if (fd == eventfd.intValue()) {
             handleEventFdRead();
             return;
@@ -104,6 +180,30 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
             }
             return;
         }
+        if (op == Native.IORING_OP_SENDMSG_ZC && (flags & Native.IORING_CQE_F_NOTIF) != 0) {
+            // The channel may already be gone, so notifications are tracked by the handler.
+            zeroCopyNotifications.complete(udata);
+            return;
+        }
+        if (op == Native.IORING_OP_FILES_UPDATE) {
+            // A slot of the fixed file table was emptied, so it can be used again.
+            if (res < 0) {
+                logger.debug("Failed to remove fd {} from the fixed file table (errno={})", fd, -res);
+            }
+            fileTable.release(UserData.decodeData(udata));
+            return;
+        }
+        if (op == Native.IORING_OP_SPLICE) {
+            // Splices carry the pipe in their user data, as the channel may be gone before they complete.
+            IOUringSocketChannel ch = splicePipes.owner(fd);
+            if (ch == null) {
+                logger.debug("ignoring SPLICE completion for unknown pipe (fd={}, res={})", fd, res);
+                return;
+            }
+            touchedChannels.offer(ch);
+            ch.writeComplete(res, flags, udata);
+            return;
+        }
         if (op == Native.IORING_OP_ASYNC_CANCEL) {
             // We don't care about the result of async cancels; they are best effort.
             return;
@@ -117,16 +217,19 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
         touchedChannels.offer(ch);
         switch (op) {
             case Native.IORING_OP_READ:
+            case Native.IORING_OP_READ_FIXED:
             case Native.IORING_OP_RECV:
             case Native.IORING_OP_ACCEPT:
             case Native.IORING_OP_RECVMSG:
-                ch.readComplete(res, udata);
+                ch.readComplete(res, flags, udata);
                 break;
             case Native.IORING_OP_WRITE:
+            case Native.IORING_OP_WRITE_FIXED:
             case Native.IORING_OP_SEND:
             case Native.IORING_OP_WRITEV:
             case Native.IORING_OP_SENDMSG:
-                ch.writeComplete(res, udata);
+            case Native.IORING_OP_SENDMSG_ZC:
+                ch.writeComplete(res, flags, udata);
                 break;
             case Native.IORING_OP_CONNECT:
                 ch.connectComplete(res, udata);
@@ -214,7 +317,20 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
 
     private void completeRingClose() {
         closeCompleted = true;
+        if (bufferRing != null) {
+            bufferRing.close();
+        }
+        if (fixedBuffers != null) {
+            fixedBuffers.close();
+        }
+        // All channels are closed by now, and the kernel is done with their memory once the ring is gone.
+        zeroCopyNotifications.releaseAll();
         ringBuffer.close();
+        splicePipes.close();
+        if (fileTable != null) {
+            // Only now that the ring is closed, as pending submissions may still refer to its memory.
+            fileTable.close();
+        }
         try {
             eventfd.close();
         } catch (IOException e) {
@@ -230,7 +346,12 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
             throw new RejectedExecutionException("IoEventLoop is shutting down");
         }
         int fd = ch.fd().intValue();
-        ch.completeChannelRegister(ringBuffer.ioUringSubmissionQueue());
+        if (fileTable != null) {
+            // Before completing the registration, as that may already submit operations on the file.
+            fileTable.add(fd);
+        }
+        ch.completeChannelRegister(ringBuffer.ioUringSubmissionQueue(), bufferRing, zeroCopyNotifications,
+                fixedBuffers, splicePipes);
         if (channels.put(fd, ch) == null) {
             ringBuffer.ioUringSubmissionQueue().incrementHandledFds();
         }
@@ -243,7 +364,11 @@ final class IOUringHandler implements IoHandler, CompletionCallback {
         AbstractIOUringChannel<?> existing = channels.remove(fd);
         if (existing != null) {
             ringBuffer.ioUringSubmissionQueue().decrementHandledFds();
-            if (existing != ch) {
+            if (existing == ch) {
+                // The file is normally taken out of the fixed file table when it is closed, but the channel may also
+                // be deregistered while it is still open.
+                ringBuffer.ioUringSubmissionQueue().removeFixedFile(fd);
+            } else {
                 // The Channel mapping was already replaced due FD reuse, put back the stored Channel.
                 channels.put(fd, existing);
                 // If we found another Channel in the map that is mapped to the same FD the given Channel MUST be
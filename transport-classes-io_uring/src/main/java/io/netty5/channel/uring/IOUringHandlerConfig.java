@@ -0,0 +1,364 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.channel.IoHandlerFactory;
+
+import java.util.function.Consumer;
+
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
+import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * Configuration for the {@code io_uring} based {@link io.netty5.channel.IoHandler}s created by
+ * {@link IOUring#newFactory(IOUringHandlerConfig)}.
+ * <p>
+ * The configuration is copied when the {@link IoHandlerFactory} is created, so later changes to this object have no
+ * effect on factories that have already been created.
+ */
+public final class IOUringHandlerConfig {
+    private int ringSize;
+    private int kernelWorkerOffloadThreshold = -1;
+    private int bufferRingSize;
+    private int bufferRingBufferSize = 4096;
+    private int fixedFileTableSize;
+    private int fixedBufferCount;
+    private int fixedBufferSize = 65536;
+    private boolean submissionPolling;
+    private int submissionPollingIdleTimeout = 1000;
+    private int submissionPollingCpu = -1;
+    private boolean sharedKernelWorkers;
+    private boolean submitBatching;
+    private Consumer<? super IOUringHandlerMetric> metricListener;
+    private boolean latencyTracking;
+
+    /**
+     * Create a new configuration, using the default values.
+     */
+    public IOUringHandlerConfig() {
+    }
+
+    IOUringHandlerConfig(IOUringHandlerConfig config) {
+        ringSize = config.ringSize;
+        kernelWorkerOffloadThreshold = config.kernelWorkerOffloadThreshold;
+        bufferRingSize = config.bufferRingSize;
+        bufferRingBufferSize = config.bufferRingBufferSize;
+        fixedFileTableSize = config.fixedFileTableSize;
+        fixedBufferCount = config.fixedBufferCount;
+        fixedBufferSize = config.fixedBufferSize;
+        submissionPolling = config.submissionPolling;
+        submissionPollingIdleTimeout = config.submissionPollingIdleTimeout;
+        submissionPollingCpu = config.submissionPollingCpu;
+        sharedKernelWorkers = config.sharedKernelWorkers;
+        submitBatching = config.submitBatching;
+        metricListener = config.metricListener;
+        latencyTracking = config.latencyTracking;
+    }
+
+    /**
+     * Get the number of submission queue entries, or {@code 0} if the default ring size is used.
+     */
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    /**
+     * Set the number of submission queue entries, or {@code 0} to use the default ring size.
+     */
+    public IOUringHandlerConfig setRingSize(int ringSize) {
+        this.ringSize = checkPositiveOrZero(ringSize, "ringSize");
+        return this;
+    }
+
+    /**
+     * Get the number of registered file descriptors above which operations are offloaded to kernel workers,
+     * or {@code -1} if the default threshold is used.
+     */
+    public int getKernelWorkerOffloadThreshold() {
+        return kernelWorkerOffloadThreshold;
+    }
+
+    /**
+     * Set the number of registered file descriptors above which operations are offloaded to kernel workers
+     * ({@code IOSQE_ASYNC}), or {@code -1} to use the default threshold.
+     */
+    public IOUringHandlerConfig setKernelWorkerOffloadThreshold(int kernelWorkerOffloadThreshold) {
+        if (kernelWorkerOffloadThreshold < -1) {
+            throw new IllegalArgumentException(
+                    "kernelWorkerOffloadThreshold: " + kernelWorkerOffloadThreshold + " (expected: >= -1)");
+        }
+        this.kernelWorkerOffloadThreshold = kernelWorkerOffloadThreshold;
+        return this;
+    }
+
+    /**
+     * Get the number of buffers in the provided buffer ring, or {@code 0} if no buffer ring is used.
+     */
+    public int getBufferRingSize() {
+        return bufferRingSize;
+    }
+
+    /**
+     * Set the number of buffers in the provided buffer ring, or {@code 0} to not use a buffer ring.
+     * <p>
+     * With a buffer ring, socket channels use multishot receives, where the kernel picks a buffer from the ring for
+     * every completion, instead of submitting a receive with a freshly allocated buffer for every read. This saves
+     * both submissions and the memory of buffers that would otherwise sit idle in pending reads.
+     * If the kernel does not support provided buffer rings (Linux 5.19+), regular receives are used.
+     * <p>
+     * Note that a multishot receive keeps reading for as long as reads are requested, so errors such as a connection
+     * reset by the peer are more likely to be reported by a read than by a subsequent write.
+     *
+     * @param bufferRingSize The number of buffers, which must be a power of two no greater than 32768, or zero.
+     */
+    public IOUringHandlerConfig setBufferRingSize(int bufferRingSize) {
+        checkPositiveOrZero(bufferRingSize, "bufferRingSize");
+        if (bufferRingSize > 32768 || Integer.bitCount(bufferRingSize) > 1) {
+            throw new IllegalArgumentException(
+                    "bufferRingSize: " + bufferRingSize + " (expected: 0 or a power of two <= 32768)");
+        }
+        this.bufferRingSize = bufferRingSize;
+        return this;
+    }
+
+    /**
+     * Get the size in bytes of each buffer in the provided buffer ring.
+     */
+    public int getBufferRingBufferSize() {
+        return bufferRingBufferSize;
+    }
+
+    /**
+     * Set the size in bytes of each buffer in the provided buffer ring. This is the maximum number of bytes
+     * delivered by a single read.
+     */
+    public IOUringHandlerConfig setBufferRingBufferSize(int bufferRingBufferSize) {
+        this.bufferRingBufferSize = checkPositive(bufferRingBufferSize, "bufferRingBufferSize");
+        return this;
+    }
+
+    /**
+     * Get the number of slots in the fixed file table, or {@code 0} if no fixed file table is used.
+     */
+    public int getFixedFileTableSize() {
+        return fixedFileTableSize;
+    }
+
+    /**
+     * Set the number of slots in the fixed file table, or {@code 0} to not use a fixed file table.
+     * <p>
+     * The file descriptors of registered channels are put into the table, as long as it has free slots. Operations on
+     * them then refer to the fixed file, which saves the kernel from looking up the file on every operation.
+     * If the kernel does not support sparse fixed file tables (Linux 5.5+), regular file descriptors are used.
+     *
+     * @param fixedFileTableSize The number of slots, which must be no greater than 32768, or zero.
+     */
+    public IOUringHandlerConfig setFixedFileTableSize(int fixedFileTableSize) {
+        checkPositiveOrZero(fixedFileTableSize, "fixedFileTableSize");
+        if (fixedFileTableSize > 32768) {
+            throw new IllegalArgumentException(
+                    "fixedFileTableSize: " + fixedFileTableSize + " (expected: 0-32768)");
+        }
+        this.fixedFileTableSize = fixedFileTableSize;
+        return this;
+    }
+
+    /**
+     * Get the number of fixed buffers, or {@code 0} if no fixed buffers are used.
+     */
+    public int getFixedBufferCount() {
+        return fixedBufferCount;
+    }
+
+    /**
+     * Set the number of fixed buffers, or {@code 0} to not use fixed buffers.
+     * <p>
+     * The fixed buffers are registered with the kernel once, which saves it from pinning their memory on every
+     * operation. Socket channels read into fixed buffers while there are free ones, and writes of a single fixed
+     * buffer, such as an echo of a read, also use the registration.
+     * Note that the registered memory counts against the {@code RLIMIT_MEMLOCK} of the process on older kernels.
+     * If the buffers can not be registered, regular buffers are used.
+     */
+    public IOUringHandlerConfig setFixedBufferCount(int fixedBufferCount) {
+        checkPositiveOrZero(fixedBufferCount, "fixedBufferCount");
+        checkFixedBufferMemory(fixedBufferCount, fixedBufferSize);
+        this.fixedBufferCount = fixedBufferCount;
+        return this;
+    }
+
+    /**
+     * Get the size in bytes of each fixed buffer.
+     */
+    public int getFixedBufferSize() {
+        return fixedBufferSize;
+    }
+
+    /**
+     * Set the size in bytes of each fixed buffer. Reads that ask for larger buffers use regular buffers.
+     */
+    public IOUringHandlerConfig setFixedBufferSize(int fixedBufferSize) {
+        checkPositive(fixedBufferSize, "fixedBufferSize");
+        checkFixedBufferMemory(fixedBufferCount, fixedBufferSize);
+        this.fixedBufferSize = fixedBufferSize;
+        return this;
+    }
+
+    /**
+     * Get whether a kernel thread polls the submission queue ({@code IORING_SETUP_SQPOLL}).
+     */
+    public boolean isSubmissionPolling() {
+        return submissionPolling;
+    }
+
+    /**
+     * Set whether a kernel thread polls the submission queue ({@code IORING_SETUP_SQPOLL}).
+     * <p>
+     * The kernel thread picks up submissions as soon as they are queued, so the event loop only needs a system call
+     * to wait for completions, or to wake the thread up after it has been idle for
+     * {@linkplain #setSubmissionPollingIdleTimeout(int) the idle timeout}. This lowers latency at the cost of a CPU
+     * core that is busy polling while the ring is in use. Requires Linux 5.11+.
+     */
+    public IOUringHandlerConfig setSubmissionPolling(boolean submissionPolling) {
+        this.submissionPolling = submissionPolling;
+        return this;
+    }
+
+    /**
+     * Get the time in milliseconds after which an idle submission queue polling thread goes to sleep.
+     */
+    public int getSubmissionPollingIdleTimeout() {
+        return submissionPollingIdleTimeout;
+    }
+
+    /**
+     * Set the time in milliseconds after which an idle submission queue polling thread goes to sleep.
+     */
+    public IOUringHandlerConfig setSubmissionPollingIdleTimeout(int submissionPollingIdleTimeout) {
+        this.submissionPollingIdleTimeout = checkPositiveOrZero(submissionPollingIdleTimeout,
+                "submissionPollingIdleTimeout");
+        return this;
+    }
+
+    /**
+     * Get the CPU the submission queue polling thread is bound to, or {@code -1} if it is not bound to a CPU.
+     */
+    public int getSubmissionPollingCpu() {
+        return submissionPollingCpu;
+    }
+
+    /**
+     * Set the CPU the submission queue polling thread is bound to ({@code IORING_SETUP_SQ_AFF}), or {@code -1} to
+     * not bind it to a CPU.
+     */
+    public IOUringHandlerConfig setSubmissionPollingCpu(int submissionPollingCpu) {
+        if (submissionPollingCpu < -1) {
+            throw new IllegalArgumentException(
+                    "submissionPollingCpu: " + submissionPollingCpu + " (expected: >= -1)");
+        }
+        this.submissionPollingCpu = submissionPollingCpu;
+        return this;
+    }
+
+    /**
+     * Get whether all rings created by the same {@link IoHandlerFactory} share their kernel workers.
+     */
+    public boolean isSharedKernelWorkers() {
+        return sharedKernelWorkers;
+    }
+
+    /**
+     * Set whether all rings created by the same {@link IoHandlerFactory}, and so all event loops of an
+     * {@link io.netty5.channel.EventLoopGroup}, share their kernel workers ({@code IORING_SETUP_ATTACH_WQ}).
+     * <p>
+     * Rings that use {@linkplain #setSubmissionPolling(boolean) submission queue polling} then also share a single
+     * polling thread. Since Linux 5.12, the kernel keeps the async workers per thread, so for rings without submission
+     * queue polling this makes little difference there.
+     */
+    public IOUringHandlerConfig setSharedKernelWorkers(boolean sharedKernelWorkers) {
+        this.sharedKernelWorkers = sharedKernelWorkers;
+        return this;
+    }
+
+    /**
+     * Get whether the submissions of different channels are coalesced into a single {@code io_uring_enter} call.
+     */
+    public boolean isSubmitBatching() {
+        return submitBatching;
+    }
+
+    /**
+     * Set whether the submissions of different channels are coalesced into a single {@code io_uring_enter} call.
+     * <p>
+     * Without batching, every flush of a channel enters the kernel. With batching, the flushes that happen while
+     * completions are processed are all submitted at once, when the processing is done. Once the event loop is busy,
+     * so that it reaps several completions per run, this also applies to the flushes of the tasks that run between
+     * two runs.
+     * <p>
+     * Note that with batching, a flush no longer hands the data to the kernel right away, but only once the current
+     * batch is submitted. Handlers must therefore not block the event loop while they wait for the peer to react to
+     * data they just flushed. Batching is disabled by default.
+     */
+    public IOUringHandlerConfig setSubmitBatching(boolean submitBatching) {
+        this.submitBatching = submitBatching;
+        return this;
+    }
+
+    /**
+     * Get the listener that is given the {@link IOUringHandlerMetric} of every created handler, or {@code null} if
+     * no metrics are recorded.
+     */
+    public Consumer<? super IOUringHandlerMetric> getMetricListener() {
+        return metricListener;
+    }
+
+    /**
+     * Set the listener that is given the {@link IOUringHandlerMetric} of every handler that is created by the
+     * {@link IoHandlerFactory}, or {@code null} to not record any metrics, which is the default.
+     * <p>
+     * The listener is called on the thread that creates the handler, which is usually the thread that creates the
+     * {@link io.netty5.channel.EventLoopGroup}.
+     */
+    public IOUringHandlerConfig setMetricListener(Consumer<? super IOUringHandlerMetric> metricListener) {
+        this.metricListener = metricListener;
+        return this;
+    }
+
+    /**
+     * Get whether the latencies of the operations are tracked in the {@link IOUringHandlerMetric}.
+     */
+    public boolean isLatencyTracking() {
+        return latencyTracking;
+    }
+
+    /**
+     * Set whether the latencies of the operations are tracked in the {@link IOUringHandlerMetric}, which only has an
+     * effect if there is a {@linkplain #setMetricListener(Consumer) metric listener}. This costs a lookup for every
+     * submission and completion, so it is disabled by default.
+     *
+     * @see IOUringHandlerMetric#latencyHistograms()
+     */
+    public IOUringHandlerConfig setLatencyTracking(boolean latencyTracking) {
+        this.latencyTracking = latencyTracking;
+        return this;
+    }
+
+    private static void checkFixedBufferMemory(int fixedBufferCount, int fixedBufferSize) {
+        if ((long) fixedBufferCount * fixedBufferSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("fixedBufferCount * fixedBufferSize: " +
+                    (long) fixedBufferCount * fixedBufferSize + " (expected: <= " + Integer.MAX_VALUE + ')');
+        }
+    }
+}
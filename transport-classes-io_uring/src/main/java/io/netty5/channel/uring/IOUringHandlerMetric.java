@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import java.util.Map;
+
+/**
+ * Metrics of the ring of an {@code io_uring} based {@link io.netty5.channel.IoHandler}, as handed to the
+ * {@linkplain IOUringHandlerConfig#setMetricListener(java.util.function.Consumer) metric listener}.
+ * <p>
+ * The metrics are updated by the event loop thread of the handler, and may be read from any thread.
+ */
+public interface IOUringHandlerMetric {
+
+    /**
+     * Return the number of submission queue entries of the ring.
+     */
+    int submissionQueueSize();
+
+    /**
+     * Return the number of completion queue entries of the ring.
+     */
+    int completionQueueSize();
+
+    /**
+     * Return the number of times that queued submissions were handed to the kernel.
+     */
+    long submitCalls();
+
+    /**
+     * Return the number of {@code io_uring_enter} system calls, including those that only wait for completions.
+     */
+    long enterCalls();
+
+    /**
+     * Return the number of submission queue entries that were handed to the kernel. Divided by
+     * {@link #submitCalls()}, this is the average number of entries per submit.
+     */
+    long submittedEntries();
+
+    /**
+     * Return the highest number of submission queue entries that were handed to the kernel at once.
+     */
+    int peakSubmissionQueueOccupancy();
+
+    /**
+     * Return the number of times that completions were reaped from the ring.
+     */
+    long completionBatches();
+
+    /**
+     * Return the number of completion queue entries that were reaped. Divided by {@link #completionBatches()},
+     * this is the average number of entries per reap.
+     */
+    long completedEntries();
+
+    /**
+     * Return the highest number of completion queue entries that were reaped at once.
+     */
+    int peakCompletionQueueOccupancy();
+
+    /**
+     * Return the number of times that the kernel flagged the completion queue as overflown
+     * ({@code IORING_SQ_CQ_OVERFLOW}), because completions were posted faster than they were reaped.
+     */
+    long completionQueueOverflows();
+
+    /**
+     * Return the number of completions that the kernel had to drop, because the completion queue was full.
+     */
+    long droppedCompletions();
+
+    /**
+     * Return the number of submission queue entries that the kernel dropped, because they were invalid.
+     */
+    long droppedSubmissions();
+
+    /**
+     * Return the latency histograms of the operations that completed, keyed by the name of the operation
+     * (e.g. {@code "WRITEV"}), or an empty map if {@linkplain IOUringHandlerConfig#setLatencyTracking(boolean)
+     * latency tracking} is disabled.
+     * <p>
+     * The latency is the time from the submission of an entry until its (first) completion was reaped. Bucket
+     * {@code 0} counts the latencies below 1 microsecond, and bucket {@code i} those from {@code 2^(i-1)} up to
+     * {@code 2^i} microseconds. The last bucket also counts all larger latencies.
+     */
+    Map<String, long[]> latencyHistograms();
+}
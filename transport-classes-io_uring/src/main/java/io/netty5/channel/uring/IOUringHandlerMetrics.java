@@ -0,0 +1,289 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.util.internal.StringUtil;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@link IOUringHandlerMetric} of an {@link IOUringHandler}.
+ * <p>
+ * All counters are only written by the event loop thread, so they are plain volatile fields rather than atomics.
+ * <p>
+ * Latencies are tracked for as many entries in flight as fit into a small open-addressing table, keyed by their user
+ * data. An entry is stamped when it is handed to the kernel, and looked up when its completion is reaped, so both
+ * sides only take a single {@link System#nanoTime()} per batch. Lookups always go through all probes, rather than
+ * stopping at the first empty slot, so slots can simply be emptied when their entry completes. Entries that do not
+ * fit, or that share their user data with an entry that is already tracked, are not tracked.
+ */
+final class IOUringHandlerMetrics implements IOUringHandlerMetric {
+    static final int LATENCY_BUCKETS = 24;
+    private static final int MAX_OPS = 64;
+    private static final int TRACKED_ENTRIES = 1024; // Must be a power of two.
+    private static final int MAX_PROBES = 8;
+
+    private final int submissionQueueSize;
+    private final int completionQueueSize;
+    private final AtomicLongArray latencies; // LATENCY_BUCKETS per operation, or null if latency is not tracked.
+    private final long[] trackedUserData;
+    private final long[] trackedSubmitTimes;
+    private final int[] unstamped; // The slots of the tracked entries that were not handed to the kernel yet.
+    private int unstampedCount;
+    private int trackedCount;
+
+    private volatile long submitCalls;
+    private volatile long enterCalls;
+    private volatile long submittedEntries;
+    private volatile int peakSubmissionQueueOccupancy;
+    private volatile long completionBatches;
+    private volatile long completedEntries;
+    private volatile int peakCompletionQueueOccupancy;
+    private volatile long completionQueueOverflows;
+    private volatile long droppedCompletions;
+    private volatile long droppedSubmissions;
+
+    IOUringHandlerMetrics(int submissionQueueSize, int completionQueueSize, boolean trackLatency) {
+        this.submissionQueueSize = submissionQueueSize;
+        this.completionQueueSize = completionQueueSize;
+        if (trackLatency) {
+            latencies = new AtomicLongArray(MAX_OPS * LATENCY_BUCKETS);
+            trackedUserData = new long[TRACKED_ENTRIES];
+            trackedSubmitTimes = new long[TRACKED_ENTRIES];
+            unstamped = new int[TRACKED_ENTRIES];
+        } else {
+            latencies = null;
+            trackedUserData = null;
+            trackedSubmitTimes = null;
+            unstamped = null;
+        }
+    }
+
+    /**
+     * Called for every entry that is queued, with its user data.
+     */
+    void queued(long userData) {
+        if (latencies == null || userData == 0 || trackedCount == TRACKED_ENTRIES ||
+                (UserData.decodeOp(userData) & 0xFF) >= MAX_OPS) {
+            return;
+        }
+        int slot = hash(userData);
+        for (int i = 0; i < MAX_PROBES; i++, slot = slot + 1 & TRACKED_ENTRIES - 1) {
+            long existing = trackedUserData[slot];
+            if (existing == userData) {
+                return;
+            }
+            if (existing == 0) {
+                trackedUserData[slot] = userData;
+                trackedSubmitTimes[slot] = 0;
+                unstamped[unstampedCount++] = slot;
+                trackedCount++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Called when the queued entries were handed to the kernel.
+     *
+     * @param entries the number of entries.
+     * @param entered whether this took an {@code io_uring_enter} system call.
+     */
+    void submitted(int entries, boolean entered) {
+        submitCalls++;
+        if (entered) {
+            enterCalls++;
+        }
+        submittedEntries += entries;
+        if (entries > peakSubmissionQueueOccupancy) {
+            peakSubmissionQueueOccupancy = entries;
+        }
+        if (unstampedCount > 0) {
+            long now = System.nanoTime();
+            for (int i = 0; i < unstampedCount; i++) {
+                trackedSubmitTimes[unstamped[i]] = now;
+            }
+            unstampedCount = 0;
+        }
+    }
+
+    /**
+     * Called for every {@code io_uring_enter} system call that only waits for completions.
+     */
+    void entered() {
+        enterCalls++;
+    }
+
+    /**
+     * Called before a batch of completions is reaped.
+     *
+     * @param entries the number of completions in the batch.
+     * @param sqFlags the flags of the submission queue, which tell if the completion queue has overflown.
+     * @param droppedCompletions the kernel's count of dropped completions.
+     * @param droppedSubmissions the kernel's count of dropped submissions.
+     * @return the time to pass to {@link #completed(long, long)}.
+     */
+    long reaping(int entries, int sqFlags, int droppedCompletions, int droppedSubmissions) {
+        completionBatches++;
+        completedEntries += entries;
+        if (entries > peakCompletionQueueOccupancy) {
+            peakCompletionQueueOccupancy = entries;
+        }
+        if ((sqFlags & Native.IORING_SQ_CQ_OVERFLOW) != 0) {
+            completionQueueOverflows++;
+        }
+        // The kernel counters are unsigned 32 bit integers.
+        this.droppedCompletions = droppedCompletions & 0xFFFFFFFFL;
+        this.droppedSubmissions = droppedSubmissions & 0xFFFFFFFFL;
+        return trackedCount == 0 ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Called for every completion that is reaped, with its user data and the time returned by
+     * {@link #reaping(int, int, int, int)}.
+     */
+    void completed(long userData, long now) {
+        if (trackedCount == 0) {
+            return;
+        }
+        int slot = hash(userData);
+        for (int i = 0; i < MAX_PROBES; i++, slot = slot + 1 & TRACKED_ENTRIES - 1) {
+            if (trackedUserData[slot] == userData) {
+                long submitTime = trackedSubmitTimes[slot];
+                if (submitTime == 0) {
+                    // An entry with the same user data that was queued after this one completed.
+                    return;
+                }
+                trackedUserData[slot] = 0;
+                trackedCount--;
+                int op = UserData.decodeOp(userData) & 0xFF;
+                int index = op * LATENCY_BUCKETS + bucket(now - submitTime);
+                latencies.lazySet(index, latencies.get(index) + 1);
+                return;
+            }
+        }
+    }
+
+    private static int hash(long userData) {
+        int h = (int) (userData ^ userData >>> 32);
+        return (h * 0x9E3779B9 >>> 16) & TRACKED_ENTRIES - 1;
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), LATENCY_BUCKETS - 1);
+    }
+
+    @Override
+    public int submissionQueueSize() {
+        return submissionQueueSize;
+    }
+
+    @Override
+    public int completionQueueSize() {
+        return completionQueueSize;
+    }
+
+    @Override
+    public long submitCalls() {
+        return submitCalls;
+    }
+
+    @Override
+    public long enterCalls() {
+        return enterCalls;
+    }
+
+    @Override
+    public long submittedEntries() {
+        return submittedEntries;
+    }
+
+    @Override
+    public int peakSubmissionQueueOccupancy() {
+        return peakSubmissionQueueOccupancy;
+    }
+
+    @Override
+    public long completionBatches() {
+        return completionBatches;
+    }
+
+    @Override
+    public long completedEntries() {
+        return completedEntries;
+    }
+
+    @Override
+    public int peakCompletionQueueOccupancy() {
+        return peakCompletionQueueOccupancy;
+    }
+
+    @Override
+    public long completionQueueOverflows() {
+        return completionQueueOverflows;
+    }
+
+    @Override
+    public long droppedCompletions() {
+        return droppedCompletions;
+    }
+
+    @Override
+    public long droppedSubmissions() {
+        return droppedSubmissions;
+    }
+
+    @Override
+    public Map<String, long[]> latencyHistograms() {
+        if (latencies == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, long[]> histograms = new LinkedHashMap<>();
+        for (int op = 0; op < MAX_OPS; op++) {
+            long[] histogram = null;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                long count = latencies.get(op * LATENCY_BUCKETS + i);
+                if (count != 0) {
+                    if (histogram == null) {
+                        histogram = new long[LATENCY_BUCKETS];
+                    }
+                    histogram[i] = count;
+                }
+            }
+            if (histogram != null) {
+                histograms.put(Native.opToStr((byte) op), histogram);
+            }
+        }
+        return histograms;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) +
+                "(submitCalls: " + submitCalls +
+                "; enterCalls: " + enterCalls +
+                "; submittedEntries: " + submittedEntries +
+                "; completionBatches: " + completionBatches +
+                "; completedEntries: " + completedEntries +
+                "; completionQueueOverflows: " + completionQueueOverflows +
+                "; droppedCompletions: " + droppedCompletions +
+                "; droppedSubmissions: " + droppedSubmissions + ')';
+    }
+}
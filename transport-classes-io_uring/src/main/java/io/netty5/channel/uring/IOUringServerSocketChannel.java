@@ -29,12 +29,14 @@ import io.netty5.channel.socket.ServerSocketChannel;
 import io.netty5.channel.socket.SocketChannelWriteHandleFactory;
 import io.netty5.channel.socket.SocketProtocolFamily;
 import io.netty5.channel.unix.Errors;
+import io.netty5.channel.unix.FileDescriptor;
 import io.netty5.channel.unix.UnixChannel;
 import io.netty5.util.NetUtil;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
 import java.io.IOException;
+import java.net.ProtocolFamily;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
@@ -52,6 +54,8 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
         implements ServerSocketChannel {
     private static final InternalLogger LOGGER = InternalLoggerFactory.getInstance(IOUringDatagramChannel.class);
     private static final short IS_ACCEPT = 1;
+    private static final short IS_MULTISHOT_ACCEPT = 2;
+    private static volatile boolean multishotAcceptUnsupported;
     private final ByteBuffer sockaddrMemory;
     private final long sockaddrPtr;
     private final long addrlenPtr;
@@ -62,10 +66,20 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
     private final byte[] inet6AddressArray = new byte[SockaddrIn.IPV6_ADDRESS_LENGTH];
 
     private volatile int backlog = NetUtil.SOMAXCONN;
+    private volatile boolean multishotAccept;
+
+    private long multishotAcceptUdata;
+    private boolean multishotAcceptCancelled;
+    private boolean multishotAcceptCompleted;
 
     public IOUringServerSocketChannel(EventLoop eventLoop, EventLoopGroup childEventLoopGroup) {
+        this(eventLoop, childEventLoopGroup, null);
+    }
+
+    public IOUringServerSocketChannel(EventLoop eventLoop, EventLoopGroup childEventLoopGroup,
+                                      ProtocolFamily protocolFamily) {
         super(null, eventLoop, false, new ServerChannelReadHandleFactory(), new ServerChannelWriteHandleFactory(),
-                LinuxSocket.newSocketStream(), null, false);
+                LinuxSocket.newSocketStream(protocolFamily), null, false);
         this.childEventLoopGroup = childEventLoopGroup;
         sockaddrMemory = allocateDirectWithNativeOrder(Long.BYTES + Native.SIZEOF_SOCKADDR_STORAGE);
         // Needs to be initialized to the size of acceptedAddressMemory.
@@ -84,30 +98,91 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
 
     @Override
     protected void doRead(boolean wasReadPendingAlready) throws Exception {
-        if (!wasReadPendingAlready) {
+        if (multishotAcceptUdata != 0) {
+            // The multishot accept is still armed and will deliver the next connection.
+            return;
+        }
+        if (isMultishotAccept()) {
+            submitMultishotAccept();
+        } else if (!wasReadPendingAlready) {
             submissionQueue.addAccept(fd().intValue(), sockaddrPtr, addrlenPtr, IS_ACCEPT);
         }
     }
 
+    private boolean isMultishotAccept() {
+        return multishotAccept && !multishotAcceptUnsupported;
+    }
+
+    private void submitMultishotAccept() {
+        multishotAcceptUdata = submissionQueue.addAcceptMultishot(fd().intValue(), IS_MULTISHOT_ACCEPT);
+        multishotAcceptCancelled = false;
+    }
+
+    @Override
+    protected void doClearScheduledRead() {
+        super.doClearScheduledRead();
+        if (multishotAcceptUdata != 0 && !multishotAcceptCancelled) {
+            // Stop accepting new connections. The multishot accept stays armed until the kernel posts its final
+            // completion, so connections that are already accepted will still be delivered.
+            submissionQueue.addCancel(fd().intValue(), multishotAcceptUdata);
+            multishotAcceptCancelled = true;
+        }
+    }
+
     @Override
-    void readComplete(int res, long udata) {
+    void readComplete(int res, int flags, long udata) {
+        short data = UserData.decodeData(udata);
+        if (data == IS_MULTISHOT_ACCEPT) {
+            multishotAcceptComplete(res, flags, udata);
+            return;
+        }
         currentCompletionResult = res;
-        currentCompletionData = UserData.decodeData(udata);
+        currentCompletionData = data;
         readNow();
     }
 
+    private void multishotAcceptComplete(int res, int flags, long udata) {
+        boolean more = (flags & Native.IORING_CQE_F_MORE) != 0;
+        if (!more) {
+            multishotAcceptUdata = 0;
+        }
+        if (res >= 0) {
+            multishotAcceptCompleted = true;
+            // Accepted connections are collected and delivered in a single read loop, once all completions of this
+            // io_uring loop iteration have been processed. See ioLoopCompleted().
+            readsCompleted.push(res, udata);
+        } else if (res == Native.ERRNO_EINVAL_NEGATIVE && !multishotAcceptCompleted) {
+            // The kernel rejected the accept flags, so multishot accepts are not supported.
+            if (!multishotAcceptUnsupported) {
+                multishotAcceptUnsupported = true;
+                logger().debug("Multishot accept is not supported by the kernel, falling back to single-shot accept");
+            }
+        } else if (res != Native.ERRNO_ECANCELED_NEGATIVE &&
+                res != ERRNO_EAGAIN_NEGATIVE && res != ERRNO_EWOULDBLOCK_NEGATIVE) {
+            readsCompleted.push(new Failure(res), udata);
+        }
+        if (!more && active && isReadPending()) {
+            // The kernel terminated the multishot accept while we still want to accept connections, re-arm.
+            if (isMultishotAccept()) {
+                submitMultishotAccept();
+            } else {
+                submissionQueue.addAccept(fd().intValue(), sockaddrPtr, addrlenPtr, IS_ACCEPT);
+            }
+        }
+    }
+
     @Override
-    protected boolean doReadNow(ReadSink readSink) throws IOException {
+    protected boolean doReadNow(ReadSink readSink) throws Exception {
         int res = currentCompletionResult;
         short data = currentCompletionData;
         if (data != IS_ACCEPT) {
-            readSink.processRead(0, 0, null);
-            return false;
+            // Process the connections of the multishot accept, if any.
+            return super.doReadNow(readSink);
         }
         currentCompletionResult = 0;
         currentCompletionData = 0;
         if (res >= 0) {
-            Channel channel = newChildChannel(res);
+            Channel channel = newChildChannel(res, true);
             readSink.processRead(1, 1, channel);
         } else if (res == ERRNO_EAGAIN_NEGATIVE || res == ERRNO_EWOULDBLOCK_NEGATIVE) {
             // Check if we failed because there was nothing to accept atm.
@@ -121,12 +196,15 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
 
     @Override
     protected boolean processRead(ReadSink readSink, Object read) {
-        throw new UnsupportedOperationException();
+        // Only multishot accepts use the readsCompleted ring, which holds the accepted file descriptors.
+        readSink.processRead(1, 1, newChildChannel((Integer) read, false));
+        return false;
     }
 
-    private Channel newChildChannel(int fd) {
+    private Channel newChildChannel(int fd, boolean hasPeerAddress) {
         final SocketAddress peer;
-        if (socket.protocolFamily() == SocketProtocolFamily.UNIX) {
+        if (!hasPeerAddress || socket.protocolFamily() == SocketProtocolFamily.UNIX) {
+            // The peer address will be obtained from the accepted socket itself.
             peer = null;
         } else {
             peer = buildAddress();
@@ -160,7 +238,7 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
     }
 
     @Override
-    void writeComplete(int result, long udata) {
+    void writeComplete(int result, int flags, long udata) {
         throw new UnsupportedOperationException();
     }
 
@@ -182,6 +260,17 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
     @Override
     protected void doClose() {
         try {
+            // Close all accepted connections that were not delivered to the pipeline.
+            while (readsCompleted.poll()) {
+                Object completion = readsCompleted.getPolledObject();
+                if (completion instanceof Integer) {
+                    try {
+                        new FileDescriptor((Integer) completion).close();
+                    } catch (IOException e) {
+                        logger().debug("Failed to close accepted connection", e);
+                    }
+                }
+            }
             super.doClose();
         } finally {
             free(sockaddrMemory);
@@ -210,6 +299,9 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
         if (option == ChannelOption.SO_BACKLOG) {
             return (T) Integer.valueOf(getBacklog());
         }
+        if (option == IOUringChannelOption.MULTISHOT_ACCEPT) {
+            return (T) Boolean.valueOf(multishotAccept);
+        }
         return super.getExtendedOption(option);
     }
 
@@ -217,6 +309,8 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
     protected <T> void setExtendedOption(ChannelOption<T> option, T value) {
         if (option == ChannelOption.SO_BACKLOG) {
             setBacklog((Integer) value);
+        } else if (option == IOUringChannelOption.MULTISHOT_ACCEPT) {
+            multishotAccept = (Boolean) value;
         } else {
             super.setExtendedOption(option, value);
         }
@@ -224,7 +318,7 @@ public final class IOUringServerSocketChannel extends AbstractIOUringChannel<Uni
 
     @Override
     protected boolean isExtendedOptionSupported(ChannelOption<?> option) {
-        if (option == ChannelOption.SO_BACKLOG) {
+        if (option == ChannelOption.SO_BACKLOG || option == IOUringChannelOption.MULTISHOT_ACCEPT) {
             return true;
         }
         return super.isExtendedOptionSupported(option);
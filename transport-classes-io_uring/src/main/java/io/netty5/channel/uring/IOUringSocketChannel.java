@@ -21,6 +21,7 @@ import io.netty5.channel.AdaptiveReadHandleFactory;
 import io.netty5.channel.ChannelOption;
 import io.netty5.channel.ChannelPipeline;
 import io.netty5.channel.ChannelShutdownDirection;
+import io.netty5.channel.DefaultFileRegion;
 import io.netty5.channel.EventLoop;
 import io.netty5.channel.FileRegion;
 import io.netty5.channel.ReadHandleFactory;
@@ -28,23 +29,32 @@ import io.netty5.channel.WriteHandleFactory;
 import io.netty5.channel.socket.SocketChannel;
 import io.netty5.channel.socket.SocketChannelWriteHandleFactory;
 import io.netty5.channel.socket.SocketProtocolFamily;
+import io.netty5.channel.unix.DomainSocketReadMode;
 import io.netty5.channel.unix.Errors;
+import io.netty5.channel.unix.FileDescriptor;
 import io.netty5.channel.unix.IovArray;
+import io.netty5.channel.unix.UnixChannelOption;
 import io.netty5.channel.unix.UnixChannelUtil;
 import io.netty5.util.concurrent.Future;
 import io.netty5.util.concurrent.FutureListener;
 import io.netty5.util.concurrent.Promise;
+import io.netty5.util.internal.PlatformDependent;
 import io.netty5.util.internal.StringUtil;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.ObjLongConsumer;
 
 import static io.netty5.channel.unix.Limits.IOV_MAX;
 import static io.netty5.channel.unix.Limits.SSIZE_MAX;
@@ -55,19 +65,39 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
     private static final InternalLogger LOGGER = InternalLoggerFactory.getInstance(IOUringDatagramChannel.class);
     private static final short IS_WRITE = 0;
     private static final short IS_CONNECT = 1;
+    private static final short IS_SPLICE_IN = 2;
+    private static final short IS_SPLICE_OUT = 3;
+    private static final short IS_SEND_FD = 4;
+    private static final int SPLICE_CHUNK_SIZE = 65536; // The default capacity of a pipe.
+    private static volatile boolean sendZeroCopyUnsupported;
 
     private final IovArray writeIovs;
     private final ObjectRing<Promise<Void>> writePromises;
+    private final List<Buffer> writeBuffers; // Buffers in writeIovs that are not pinned yet, if zero-copy is enabled.
 
     private Buffer connectInitalData;
     private MsgHdrMemory connectMsgHdr;
     private boolean writeInFlight;
     private boolean moreWritesPending;
+    private int sendZeroCopyThreshold = -1;
+    private boolean sendZeroCopyFailed;
+    private boolean sendZeroCopySucceeded;
+    private boolean sendZeroCopy; // Whether the contents of writeIovs are sent with IORING_OP_SENDMSG_ZC.
+    private ZeroCopyNotifications.Pins writePins;
+    private long writeMsgHdr;
+    private RegionSplicer regionSplicer; // The DefaultFileRegion that is being spliced into the socket, if any.
+    private MsgHdrMemory sendFdMsgHdr;
+    private Promise<Void> sendFdPromise; // The promise of the FileDescriptor that is being sent, if any.
+    private volatile DomainSocketReadMode readMode = DomainSocketReadMode.BYTES;
 
     public IOUringSocketChannel(EventLoop eventLoop) {
+        this(eventLoop, null);
+    }
+
+    public IOUringSocketChannel(EventLoop eventLoop, ProtocolFamily protocolFamily) {
         this(null, eventLoop, true, new AdaptiveReadHandleFactory(),
                 new SocketChannelWriteHandleFactory(Integer.MAX_VALUE, SSIZE_MAX),
-                LinuxSocket.newSocketStream(), null, false);
+                LinuxSocket.newSocketStream(protocolFamily), null, false);
     }
 
     IOUringSocketChannel(
@@ -78,22 +108,79 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
                 socket, remote, active);
         writeIovs = new IovArray();
         writePromises = new ObjectRing<>();
+        writeBuffers = new ArrayList<>();
+    }
+
+    @Override
+    protected boolean isMultishotRecvSupported() {
+        return readMode == DomainSocketReadMode.BYTES;
+    }
+
+    @Override
+    protected boolean isFixedBufferReadSupported() {
+        return readMode == DomainSocketReadMode.BYTES;
+    }
+
+    @Override
+    protected void submitReadForReadBuffer(Buffer buffer, short readId, boolean nonBlocking,
+                                           ObjLongConsumer<Object> pendingConsumer) {
+        if (readMode == DomainSocketReadMode.BYTES) {
+            super.submitReadForReadBuffer(buffer, readId, nonBlocking, pendingConsumer);
+            return;
+        }
+        // Call recvmsg(2), so a file descriptor that is passed with SCM_RIGHTS is received along with the data.
+        try (var itr = buffer.forEachComponent()) {
+            var cmp = itr.firstWritable();
+            assert cmp != null;
+            ScmRightsRead read = new ScmRightsRead(buffer);
+            read.writeForScmRights(cmp.writableNativeAddress(), cmp.writableBytes());
+            int flags = Native.MSG_CMSG_CLOEXEC | (nonBlocking ? Native.MSG_DONTWAIT : 0);
+            long udata = submissionQueue.addRecvmsg(fd().intValue(), read.address(), flags, readId);
+            pendingConsumer.accept(read, udata);
+        }
+    }
+
+    @Override
+    protected Object prepareCompletedRead(Object obj, int result) {
+        if (obj instanceof ScmRightsRead) {
+            try (ScmRightsRead read = (ScmRightsRead) obj) {
+                Buffer buffer = read.takeBuffer();
+                int fd = read.readScmRights();
+                if (fd >= 0) {
+                    // The byte that carried the file descriptor is of no interest.
+                    buffer.close();
+                    return new FileDescriptor(fd);
+                }
+                buffer.skipWritableBytes(result);
+                return buffer;
+            }
+        }
+        return super.prepareCompletedRead(obj, result);
     }
 
     @Override
     protected boolean processRead(ReadSink readSink, Object read) {
+        if (read instanceof FileDescriptor) {
+            readSink.processRead(0, 0, read);
+            return false;
+        }
         Buffer buffer = (Buffer) read;
         if (buffer.readableBytes() == 0) {
             // Reading zero bytes means we got EOF, and we should close the channel.
             buffer.close();
             return true;
         }
+        if (readMode == DomainSocketReadMode.FILE_DESCRIPTORS) {
+            // Only file descriptors are read in this mode, so data without one is discarded.
+            buffer.close();
+            return false;
+        }
         readSink.processRead(buffer.capacity(), buffer.readableBytes(), buffer);
         return false;
     }
 
     @Override
-    protected void submitConnect(InetSocketAddress remoteAddress, Buffer initialData) throws IOException {
+    protected void submitConnect(SocketAddress remoteAddress, Buffer initialData) throws IOException {
         if (initialData != null && initialData.isDirect() && supportsTcpFastOpen()) {
             assert writePromises.isEmpty();
             connectInitalData = initialData;
@@ -117,10 +204,9 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
 
     @Override
     protected Object filterOutboundMessage(Object msg) {
-        // todo file descriptors???
-//        if (socket.protocolFamily() == SocketProtocolFamily.UNIX && msg instanceof FileDescriptor) {
-//            return msg;
-//        }
+        if (socket.protocolFamily() == SocketProtocolFamily.UNIX && msg instanceof FileDescriptor) {
+            return msg;
+        }
         if (msg instanceof Buffer) {
             Buffer buf = (Buffer) msg;
             if (UnixChannelUtil.isBufferCopyNeededForWrite(buf)) {
@@ -146,30 +232,135 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
         // We need to submit all messages as a single IO, in order to ensure ordering.
         // If we already have an outstanding write promise, we can't write anymore until it completes.
         if (!writeInFlight) {
+            // Left-over bytes of a previous write that was not zero-copy can't be pinned anymore, so the next write
+            // may only use zero-copy if the previous one did as well.
+            boolean zeroCopyAllowed = writeIovs.count() == 0 || sendZeroCopy;
             writeSink.consumeEachFlushedMessage(this::submitWriteMessage);
-            submissionQueue.addWritev(fd().intValue(), writeIovs.memoryAddress(0), writeIovs.count(), IS_WRITE);
-            writeInFlight = true;
+            if (regionSplicer != null) {
+                regionSplicer.submit();
+            } else if (sendFdPromise != null) {
+                submissionQueue.addSendmsg(fd().intValue(), sendFdMsgHdr.address(), 0, IS_SEND_FD);
+                writeInFlight = true;
+            } else {
+                sendZeroCopy = pinWriteBuffers(zeroCopyAllowed);
+                submitWrite();
+            }
+        }
+    }
+
+    /**
+     * Pin the memory of the buffers that were added to {@link #writeIovs}, if they should be sent with zero-copy.
+     * The buffers are split so the pinned part stays alive when the message is disposed on completion of its promise.
+     */
+    private boolean pinWriteBuffers(boolean zeroCopyAllowed) {
+        try {
+            if (!zeroCopyAllowed || sendZeroCopyThreshold < 0 || sendZeroCopyUnsupported || sendZeroCopyFailed ||
+                    writeIovs.size() == 0 || writeIovs.size() < sendZeroCopyThreshold) {
+                return false;
+            }
+            if (writePins == null) {
+                writePins = new ZeroCopyNotifications.Pins();
+            }
+            for (Buffer buf : writeBuffers) {
+                writePins.add(buf.split());
+            }
+            return true;
+        } finally {
+            writeBuffers.clear();
+        }
+    }
+
+    private void submitWrite() {
+        int fd = fd().intValue();
+        if (sendZeroCopy) {
+            if (writeMsgHdr == 0) {
+                writeMsgHdr = PlatformDependent.allocateMemory(Native.SIZEOF_MSGHDR);
+                PlatformDependent.setMemory(writeMsgHdr, Native.SIZEOF_MSGHDR, (byte) 0);
+            }
+            MsgHdr.write(writeMsgHdr, 0, 0, writeIovs.memoryAddress(0), writeIovs.count(), 0, 0, (short) 0);
+            short id = zeroCopyNotifications.add(fd, writePins);
+            submissionQueue.addSendmsgZc(fd, writeMsgHdr, 0, id);
+        } else {
+            long iov = writeIovs.memoryAddress(0);
+            long address = Iov.readBufferAddress(iov);
+            int length = Iov.readBufferLength(iov);
+            if (writeIovs.count() == 1 && fixedBuffers != null && fixedBuffers.contains(address, length)) {
+                // A single fixed buffer, like when a read is echoed back.
+                submissionQueue.addWriteFixed(fd, address, length, IOUringFixedBuffers.BUFFER_INDEX, IS_WRITE);
+            } else {
+                submissionQueue.addWritev(fd, iov, writeIovs.count(), IS_WRITE);
+            }
+        }
+        writeInFlight = true;
+    }
+
+    /**
+     * Release the pins of the buffers that have been fully written. The memory is freed once the kernel has posted
+     * the notifications of all zero-copy sends that used it.
+     */
+    private void releaseWritePins() {
+        writeBuffers.clear();
+        if (writePins != null) {
+            writePins.release();
+            writePins = null;
         }
     }
 
     private boolean submitWriteMessage(Object msg, Promise<Void> promise) {
+        if (regionSplicer != null || sendFdPromise != null) {
+            // Everything after a spliced region, or a file descriptor, is written once that has been transferred.
+            return false;
+        }
         if (msg instanceof Buffer) {
             Buffer buf = (Buffer) msg;
             if (buf.readableBytes() + writeIovs.size() < writeIovs.maxBytes() &&
                     buf.countReadableComponents() + writeIovs.count() < IOV_MAX) {
                 writePromises.push(promise, buf.readableBytes());
                 writeIovs.addReadable(buf);
+                if (sendZeroCopyThreshold >= 0) {
+                    writeBuffers.add(buf);
+                }
             } else {
                 return false;
             }
+        } else if (msg instanceof DefaultFileRegion) {
+            if (writeIovs.count() > 0) {
+                // The region is picked up again once the buffers before it have been written.
+                return false;
+            }
+            DefaultFileRegion region = (DefaultFileRegion) msg;
+            if (region.transferred() >= region.count()) {
+                promise.setSuccess(null);
+            } else {
+                try {
+                    regionSplicer = new RegionSplicer(region, promise);
+                } catch (IOException e) {
+                    promise.setFailure(e);
+                }
+            }
+        } else if (msg instanceof FileDescriptor) {
+            if (writeIovs.count() > 0) {
+                // The file descriptor is picked up again once the buffers before it have been written.
+                return false;
+            }
+            if (sendFdMsgHdr == null) {
+                sendFdMsgHdr = new MsgHdrMemory();
+            }
+            sendFdMsgHdr.writeScmRights(((FileDescriptor) msg).intValue());
+            sendFdPromise = promise;
         } else if (msg instanceof FileRegion) {
             FileRegion region = (FileRegion) msg;
             RegionWriter writer = new RegionWriter(region, promise);
-            writer.enqueueWrites();
+            if (!writer.enqueueWrites()) {
+                return false;
+            }
         } else if (msg instanceof RegionWriter) {
             // Continuation of previous file region.
             RegionWriter writer = (RegionWriter) msg;
-            writer.enqueueWrites();
+            if (!writer.enqueueWrites()) {
+                return false;
+            }
+            writer.promise.asFuture().cascadeTo(promise);
         } else {
             // Should never reach here
             throw new AssertionError("Unrecognized message: " + msg);
@@ -179,10 +370,41 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
     }
 
     @Override
-    void writeComplete(int result, long udata) {
+    void writeComplete(int result, int flags, long udata) {
+        if (UserData.decodeOp(udata) == Native.IORING_OP_SPLICE) {
+            regionSplicer.complete(result, UserData.decodeData(udata));
+            return;
+        }
         writeInFlight = false;
-        short data = UserData.decodeData(udata);
-        if (data == IS_CONNECT) {
+        if (UserData.decodeOp(udata) == Native.IORING_OP_SENDMSG && UserData.decodeData(udata) == IS_SEND_FD) {
+            sendFdComplete(result);
+            return;
+        }
+        boolean zeroCopy = UserData.decodeOp(udata) == Native.IORING_OP_SENDMSG_ZC;
+        if (zeroCopy) {
+            if ((flags & Native.IORING_CQE_F_MORE) == 0) {
+                // No notification will follow, so the kernel is already done with the memory.
+                zeroCopyNotifications.complete(udata);
+            }
+            if (result == Native.ERRNO_EINVAL_NEGATIVE && !sendZeroCopySucceeded ||
+                    result == Native.ERRNO_EOPNOTSUPP_NEGATIVE) {
+                // Zero-copy is not supported by the kernel (before 6.1), or by this socket. Nothing was written, so
+                // submit the same bytes again as a regular write.
+                if (result == Native.ERRNO_EINVAL_NEGATIVE) {
+                    sendZeroCopyUnsupported = true;
+                } else {
+                    sendZeroCopyFailed = true;
+                }
+                logger().debug("Zero-copy send failed (errno={}), falling back to regular writes", -result);
+                sendZeroCopy = false;
+                submitWrite();
+                return;
+            }
+            if (result >= 0) {
+                sendZeroCopySucceeded = true;
+            }
+        }
+        if (!zeroCopy && UserData.decodeData(udata) == IS_CONNECT) {
             assert connectInitalData != null;
             if (result > 0) {
                 connectInitalData.skipReadableBytes(result);
@@ -193,10 +415,10 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
             connectMsgHdr = null;
             return;
         }
-        assert data == IS_WRITE;
         if (result < 0) {
             var e = Errors.newIOException("write/flush", result);
             writeIovs.clear();
+            releaseWritePins();
             while (writePromises.poll()) {
                 writePromises.getPolledObject().setFailure(e);
             }
@@ -216,14 +438,32 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
                 }
             }
             boolean completedAll = writeIovs.completeBytes(result);
+            if (!completedAll) {
+                // We did not write everything. Submit another write IO for the remainder first, as the outbound
+                // buffer may already be empty, in which case writeFlushedNow() would not submit anything.
+                submitWrite();
+                return;
+            }
+            releaseWritePins();
+            if (moreWritesPending) {
+                moreWritesPending = false;
+                writeFlushedNow();
+            }
+        }
+    }
+
+    private void sendFdComplete(int result) {
+        Promise<Void> promise = sendFdPromise;
+        sendFdPromise = null;
+        if (result < 0) {
+            var e = Errors.newIOException("sendmsg", result);
+            promise.setFailure(e);
+            handleWriteError(e);
+        } else {
+            promise.setSuccess(null);
             if (moreWritesPending) {
                 moreWritesPending = false;
                 writeFlushedNow();
-            } else if (!completedAll) {
-                // We did not write everything. Submit another write IO for the remainder.
-                submissionQueue.addWritev(fd().intValue(),
-                        writeIovs.memoryAddress(0), writeIovs.count(), IS_WRITE);
-                writeInFlight = true;
             }
         }
     }
@@ -242,7 +482,7 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
         // We only do one write at a time, because on TCP we have to do the writes in-order,
         // and operations in io_uring can complete out-of-order.
         moreWritesPending = true;
-        return !writePromises.isEmpty();
+        return !writePromises.isEmpty() || regionSplicer != null || sendFdPromise != null;
     }
 
     @Override
@@ -288,17 +528,40 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
         return LOGGER;
     }
 
+    @Override
+    protected Future<Executor> prepareToClose() {
+        if (regionSplicer != null) {
+            regionSplicer.cancel();
+        }
+        return super.prepareToClose();
+    }
+
     @Override
     protected void doClose() {
         try {
             super.doClose();
         } finally {
+            if (regionSplicer != null) {
+                regionSplicer.closed();
+            }
             writeIovs.release();
+            releaseWritePins();
+            if (writeMsgHdr != 0) {
+                PlatformDependent.freeMemory(writeMsgHdr);
+                writeMsgHdr = 0;
+            }
+            if (sendFdMsgHdr != null) {
+                sendFdMsgHdr.release();
+                sendFdMsgHdr = null;
+            }
         }
     }
 
     @Override
     protected <T> T getExtendedOption(ChannelOption<T> option) {
+        if (option == IOUringChannelOption.SEND_ZC_THRESHOLD) {
+            return (T) Integer.valueOf(sendZeroCopyThreshold);
+        }
         if (option == ChannelOption.TCP_FASTOPEN_CONNECT) {
             try {
                 return (T) Boolean.valueOf(socket.isTcpFastOpenConnect());
@@ -306,17 +569,37 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
                 throw new UncheckedIOException(e);
             }
         }
+        if (option == UnixChannelOption.DOMAIN_SOCKET_READ_MODE) {
+            return (T) readMode;
+        }
+        if (option == UnixChannelOption.SO_PEERCRED) {
+            try {
+                return (T) socket.getPeerCredentials();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return super.getExtendedOption(option);
     }
 
     @Override
     protected <T> void setExtendedOption(ChannelOption<T> option, T value) {
-        if (option == ChannelOption.TCP_FASTOPEN_CONNECT) {
+        if (option == IOUringChannelOption.SEND_ZC_THRESHOLD) {
+            int threshold = (Integer) value;
+            if (threshold < -1) {
+                throw new IllegalArgumentException("sendZeroCopyThreshold: " + threshold + " (expected: >= -1)");
+            }
+            sendZeroCopyThreshold = threshold;
+        } else if (option == ChannelOption.TCP_FASTOPEN_CONNECT) {
             try {
                 socket.setTcpFastOpenConnect((Boolean) value);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
+        } else if (option == UnixChannelOption.DOMAIN_SOCKET_READ_MODE) {
+            readMode = requireNonNull((DomainSocketReadMode) value, "value");
+        } else if (option == UnixChannelOption.SO_PEERCRED) {
+            throw new UnsupportedOperationException("read-only option: " + option);
         } else {
             super.setExtendedOption(option, value);
         }
@@ -324,38 +607,199 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
 
     @Override
     protected boolean isExtendedOptionSupported(ChannelOption<?> option) {
-        return option == ChannelOption.TCP_FASTOPEN_CONNECT || super.isExtendedOptionSupported(option);
+        if (socket.protocolFamily() == SocketProtocolFamily.UNIX) {
+            return option == UnixChannelOption.DOMAIN_SOCKET_READ_MODE || option == UnixChannelOption.SO_PEERCRED ||
+                    option == ChannelOption.SO_RCVBUF || option == ChannelOption.SO_SNDBUF;
+        }
+        return option == ChannelOption.TCP_FASTOPEN_CONNECT || option == IOUringChannelOption.SEND_ZC_THRESHOLD ||
+                super.isExtendedOptionSupported(option);
+    }
+
+    /**
+     * Transfers a {@link DefaultFileRegion} with {@code IORING_OP_SPLICE}, from the file into a pipe that is lent by
+     * the {@link SplicePipes} of the event loop, and from the pipe into the socket. The two splices are linked, so both
+     * are submitted at once, and the data never passes through user space.
+     */
+    private final class RegionSplicer {
+        private final DefaultFileRegion region;
+        private final Promise<Void> promise;
+        private final int fileFd;
+        private final SplicePipes.Pipe pipe;
+        private long spliced; // The number of bytes of the region that were moved into the pipe.
+        private int inPipe; // The number of bytes in the pipe, that have not been moved into the socket yet.
+        private int inFlight; // The number of splices that have not completed yet.
+        private int chunkSize = SPLICE_CHUNK_SIZE;
+        private int requested;
+        private boolean waitForWritable; // Whether the socket was full when the pipe was last drained.
+        private boolean pollingWritable;
+        private IOException failure;
+
+        RegionSplicer(DefaultFileRegion region, Promise<Void> promise) throws IOException {
+            this.region = region;
+            this.promise = promise;
+            fileFd = LinuxSocket.fileRegionFd(region);
+            pipe = splicePipes.lease(IOUringSocketChannel.this);
+            spliced = region.transferred();
+        }
+
+        void submit() {
+            int fd = fd().intValue();
+            if (inPipe > 0) {
+                // The socket did not take everything, so drain the pipe before moving on.
+                if (waitForWritable) {
+                    waitForWritable = false;
+                    if (submissionQueue.remaining() < 2) {
+                        submissionQueue.submit();
+                    }
+                    submissionQueue.addPollOutLink(fd);
+                    pollingWritable = true;
+                }
+                submissionQueue.addSplice(pipe.writeFd(), pipe.readFd(), -1, fd, -1, inPipe, IS_SPLICE_OUT);
+                inFlight++;
+            } else {
+                requested = (int) Math.min(region.count() - spliced, chunkSize);
+                // The splices are linked, so they must not be separated by a submit.
+                if (submissionQueue.remaining() < 2) {
+                    submissionQueue.submit();
+                }
+                submissionQueue.link(true);
+                submissionQueue.addSplice(pipe.writeFd(), fileFd, region.position() + spliced, pipe.writeFd(), -1,
+                        requested, IS_SPLICE_IN);
+                submissionQueue.link(false);
+                submissionQueue.addSplice(pipe.writeFd(), pipe.readFd(), -1, fd, -1, requested, IS_SPLICE_OUT);
+                inFlight += 2;
+            }
+            writeInFlight = true;
+        }
+
+        void complete(int result, short data) {
+            inFlight--;
+            if (data == IS_SPLICE_IN) {
+                if (result > 0) {
+                    spliced += result;
+                    inPipe += result;
+                    if (result < requested) {
+                        // The pipe is smaller than expected, or the end of the file was reached. Either way, the
+                        // splice into the socket has been cancelled.
+                        chunkSize = result;
+                    }
+                } else if (result == 0) {
+                    try {
+                        validateFileRegion(region, spliced);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                } else {
+                    failure = Errors.newIOException("splice", result);
+                }
+            } else {
+                pollingWritable = false;
+                if (result > 0) {
+                    inPipe -= result;
+                } else if (result == Errors.ERRNO_EAGAIN_NEGATIVE) {
+                    waitForWritable = true;
+                } else if (result != Native.ERRNO_ECANCELED_NEGATIVE) {
+                    failure = Errors.newIOException("splice", result);
+                }
+            }
+            if (inFlight > 0) {
+                return;
+            }
+            writeInFlight = false;
+            if (!isActive()) {
+                finish(new ClosedChannelException());
+            } else if (failure != null) {
+                finish(failure);
+                handleWriteError(failure);
+            } else if (inPipe > 0 || spliced < region.count()) {
+                submit();
+            } else {
+                finish(null);
+                if (moreWritesPending) {
+                    moreWritesPending = false;
+                    writeFlushedNow();
+                }
+            }
+        }
+
+        /**
+         * Stop waiting for the socket to become writable, as it is about to be closed.
+         */
+        void cancel() {
+            if (pollingWritable) {
+                submissionQueue.addPollRemove(fd().intValue(), Native.POLLOUT);
+            }
+        }
+
+        /**
+         * Fail the transfer, once the splices that are still in flight have completed.
+         */
+        void closed() {
+            if (inFlight == 0) {
+                finish(new ClosedChannelException());
+            }
+        }
+
+        private void finish(Throwable cause) {
+            regionSplicer = null;
+            // A pipe that still holds data of this region can't be reused.
+            splicePipes.release(pipe, inPipe == 0);
+            if (cause == null) {
+                promise.setSuccess(null);
+            } else {
+                promise.tryFailure(cause);
+            }
+        }
     }
 
     private final class RegionWriter implements WritableByteChannel, FutureListener<Void> {
         private final FileRegion region;
         private final Promise<Void> promise;
         private long position;
+        private Promise<Void> lastWrite;
 
         RegionWriter(FileRegion region, Promise<Void> promise) {
             this.region = region;
-            this.position = region.position();
+            position = region.transferred(); // The position is relative to the start of the region.
             this.promise = promise;
         }
 
-        public void enqueueWrites() {
+        /**
+         * Enqueue writes for as much of the region as fits.
+         *
+         * @return {@code false} if nothing could be enqueued, and the region has to wait for the pending writes.
+         */
+        public boolean enqueueWrites() {
+            lastWrite = null;
             try {
                 region.transferTo(this, position);
             } catch (IOException e) {
                 promise.setFailure(e);
+                return true;
             }
+            if (lastWrite != null) {
+                // Writes complete in order, so the last one tells us when to continue.
+                lastWrite.asFuture().addListener(this);
+            } else if (position >= region.count()) {
+                promise.setSuccess(null);
+            } else {
+                return false;
+            }
+            return true;
         }
 
         @Override
         public void operationComplete(Future<? extends Void> future) throws Exception {
             if (future.isSuccess()) {
-                if (region.count() == region.transferred()) {
-                    region.release();
+                if (position >= region.count()) {
+                    // The region itself is disposed by the outbound buffer, once the promise is completed.
                     promise.setSuccess(null);
                 } else {
                     // Enqueue some more writes
                     IOUringSocketPipeline pipeline = (IOUringSocketPipeline) pipeline();
-                    pipeline.writeTransportDirect(this, promise); // Do this to reuse the promise.
+                    // The promise of the region can't be reused, as it has already been made uncancellable, so the
+                    // continuation gets its own that completes with it.
+                    pipeline.writeTransportDirect(this, newPromise());
                     executor().execute(pipeline::flush); // Schedule a flush to get the continuation going ASAP.
                 }
             } else {
@@ -369,9 +813,12 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
                 Promise<Void> promise = newPromise();
                 Buffer buffer = ioBufferAllocator().copyOf(src);
                 promise.asFuture().addListener(buffer, CLOSE_BUFFER);
-                promise.asFuture().addListener(this);
+                lastWrite = promise;
                 writePromises.push(promise, buffer.readableBytes());
                 writeIovs.addReadable(buffer);
+                if (sendZeroCopyThreshold >= 0) {
+                    writeBuffers.add(buffer);
+                }
                 position += buffer.readableBytes();
                 return buffer.readableBytes();
             }
@@ -384,8 +831,35 @@ public final class IOUringSocketChannel extends AbstractIOUringChannel<IOUringSe
         }
 
         @Override
-        public void close() throws IOException {
-            throw new UnsupportedOperationException();
+        public void close() {
+            // Called when a continuation is disposed by the outbound buffer; the region is disposed separately.
+        }
+    }
+
+    /**
+     * A {@code recvmsg(2)} into a read buffer, that may receive a file descriptor.
+     */
+    private static final class ScmRightsRead extends MsgHdrMemory implements AutoCloseable {
+        private Buffer buffer;
+
+        ScmRightsRead(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        Buffer takeBuffer() {
+            Buffer buffer = this.buffer;
+            this.buffer = null;
+            return buffer;
+        }
+
+        @Override
+        public void close() {
+            // Also called when the read is cancelled, or failed.
+            if (buffer != null) {
+                buffer.close();
+                buffer = null;
+            }
+            release();
         }
     }
 
@@ -16,6 +16,7 @@
 package io.netty5.channel.uring;
 
 import io.netty5.channel.ChannelException;
+import io.netty5.channel.DefaultFileRegion;
 import io.netty5.channel.socket.SocketProtocolFamily;
 import io.netty5.channel.unix.Errors;
 import io.netty5.channel.unix.NativeInetAddress;
@@ -369,6 +370,16 @@ final class LinuxSocket extends Socket {
         return wrap(newSocketDomain0(), SocketProtocolFamily.UNIX);
     }
 
+    /**
+     * Get the file descriptor of the file of the given region, to splice it from.
+     */
+    static int fileRegionFd(DefaultFileRegion region) throws IOException {
+        // Open the file-region as it may be created via the lazy constructor. This is needed as we directly access
+        // the FileChannel field via JNI.
+        region.open();
+        return getFileRegionFd(region);
+    }
+
     private static InetAddress unsafeInetAddrByName(String inetName) {
         try {
             return InetAddress.getByName(inetName);
@@ -401,6 +412,7 @@ final class LinuxSocket extends Socket {
     private static native int isIpRecvOrigDestAddr(int fd) throws IOException;
     private static native void getTcpInfo(int fd, long[] array) throws IOException;
     private static native PeerCredentials getPeerCredentials(int fd) throws IOException;
+    private static native int getFileRegionFd(DefaultFileRegion region);
     private static native int isTcpFastOpenConnect(int fd) throws IOException;
 
     private static native void setTcpDeferAccept(int fd, int deferAccept) throws IOException;
@@ -34,8 +34,6 @@ final class MsgHdr {
 
     static void write(long memoryAddress, long address, int addressSize,  long iovAddress, int iovLength,
                       long msgControlAddr, long cmsgHdrDataAddress, short segmentSize) {
-        PlatformDependent.putInt(memoryAddress + Native.MSGHDR_OFFSETOF_MSG_NAMELEN, addressSize);
-
         final int msgControlLen;
         if (segmentSize > 0) {
             msgControlLen = Native.CMSG_LEN;
@@ -46,6 +44,12 @@ final class MsgHdr {
             msgControlAddr = 0;
             msgControlLen = 0;
         }
+        write(memoryAddress, address, addressSize, iovAddress, iovLength, msgControlAddr, msgControlLen);
+    }
+
+    static void write(long memoryAddress, long address, int addressSize, long iovAddress, int iovLength,
+                      long msgControlAddr, int msgControlLen) {
+        PlatformDependent.putInt(memoryAddress + Native.MSGHDR_OFFSETOF_MSG_NAMELEN, addressSize);
         if (Native.SIZEOF_SIZE_T == 4) {
             PlatformDependent.putInt(memoryAddress + Native.MSGHDR_OFFSETOF_MSG_NAME, (int) address);
             PlatformDependent.putInt(memoryAddress + Native.MSGHDR_OFFSETOF_MSG_IOV, (int) iovAddress);
@@ -62,4 +66,22 @@ final class MsgHdr {
         }
         // No flags (we assume the memory was memset before)
     }
+
+    /**
+     * Read the length of the address, as updated by the kernel when a message was received.
+     */
+    static int readNameLength(long memory) {
+        return PlatformDependent.getInt(memory + Native.MSGHDR_OFFSETOF_MSG_NAMELEN);
+    }
+
+    /**
+     * Read the length of the ancillary data, as updated by the kernel when a message was received.
+     */
+    static int readControlLength(long memory) {
+        if (Native.SIZEOF_SIZE_T == 4) {
+            return PlatformDependent.getInt(memory + Native.MSGHDR_OFFSETOF_MSG_CONTROLLEN);
+        }
+        assert Native.SIZEOF_SIZE_T == 8;
+        return (int) PlatformDependent.getLong(memory + Native.MSGHDR_OFFSETOF_MSG_CONTROLLEN);
+    }
 }
@@ -17,17 +17,20 @@ package io.netty5.channel.uring;
 
 import io.netty5.buffer.Buffer;
 import io.netty5.channel.socket.DatagramPacket;
+import io.netty5.channel.socket.SocketProtocolFamily;
 import io.netty5.util.internal.PlatformDependent;
 
-import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 
 class MsgHdrMemory {
+    private static final int CMSG_SPACE = Math.max(Native.CMSG_SPACE, Native.CMSG_SPACE_FD);
+
     private final long memory;
     private final long cmsgDataAddr;
 
     MsgHdrMemory() {
-        int size = Native.SIZEOF_MSGHDR + Native.SIZEOF_SOCKADDR_STORAGE + Native.SIZEOF_IOVEC + Native.CMSG_SPACE;
+        // The control buffer is followed by a single byte, that carries a passed file descriptor.
+        int size = Native.SIZEOF_MSGHDR + Native.SIZEOF_SOCKADDR_STORAGE + Native.SIZEOF_IOVEC + CMSG_SPACE + 1;
         memory = PlatformDependent.allocateMemory(size);
         PlatformDependent.setMemory(memory, size, (byte) 0);
 
@@ -42,15 +45,51 @@ class MsgHdrMemory {
         long cmsgAddr = iovAddress + Native.SIZEOF_IOVEC;
         int addressLength;
         if (address == null) {
-            addressLength = socket.isIpv6() ? Native.SIZEOF_SOCKADDR_IN6 : Native.SIZEOF_SOCKADDR_IN;
+            if (socket.protocolFamily() == SocketProtocolFamily.UNIX) {
+                addressLength = Native.SIZEOF_SOCKADDR_UN;
+            } else {
+                addressLength = socket.isIpv6() ? Native.SIZEOF_SOCKADDR_IN6 : Native.SIZEOF_SOCKADDR_IN;
+            }
             PlatformDependent.setMemory(sockAddress, Native.SIZEOF_SOCKADDR_STORAGE, (byte) 0);
-        } else { // todo handle domain socket addresses
+        } else {
             addressLength = SockaddrIn.write(socket.isIpv6(), sockAddress, address);
         }
         Iov.write(iovAddress, bufferAddress, length);
         MsgHdr.write(memory, sockAddress, addressLength, iovAddress, 1, cmsgAddr, cmsgDataAddr, segmentSize);
     }
 
+    /**
+     * Prepare a message that passes the given file descriptor over a connected {@code AF_UNIX} socket. Like
+     * {@code sendmsg(2)} with {@code SCM_RIGHTS} needs, the descriptor is accompanied by a single byte of data.
+     */
+    void writeScmRights(int fd) {
+        long iovAddress = memory + Native.SIZEOF_MSGHDR + Native.SIZEOF_SOCKADDR_STORAGE;
+        long cmsgAddr = iovAddress + Native.SIZEOF_IOVEC;
+        Iov.write(iovAddress, cmsgAddr + CMSG_SPACE, 1);
+        PlatformDependent.setMemory(cmsgAddr, CMSG_SPACE, (byte) 0);
+        CmsgHdr.writeScmRights(cmsgAddr, cmsgDataAddr, fd);
+        MsgHdr.write(memory, 0, 0, iovAddress, 1, cmsgAddr, Native.CMSG_SPACE_FD);
+    }
+
+    /**
+     * Prepare a message that receives into the given buffer, along with a file descriptor that may be passed with
+     * {@code SCM_RIGHTS}. See {@link #readScmRights()}.
+     */
+    void writeForScmRights(long bufferAddress, int length) {
+        long iovAddress = memory + Native.SIZEOF_MSGHDR + Native.SIZEOF_SOCKADDR_STORAGE;
+        long cmsgAddr = iovAddress + Native.SIZEOF_IOVEC;
+        Iov.write(iovAddress, bufferAddress, length);
+        MsgHdr.write(memory, 0, 0, iovAddress, 1, cmsgAddr, Native.CMSG_SPACE_FD);
+    }
+
+    /**
+     * Return the file descriptor that was received with the message, or {@code -1} if there was none.
+     */
+    int readScmRights() {
+        long cmsgAddr = memory + Native.SIZEOF_MSGHDR + Native.SIZEOF_SOCKADDR_STORAGE + Native.SIZEOF_IOVEC;
+        return CmsgHdr.readScmRights(cmsgAddr, cmsgDataAddr, MsgHdr.readControlLength(memory));
+    }
+
     boolean hasPort(IOUringDatagramChannel channel) {
         long sockAddress = memory + Native.SIZEOF_MSGHDR;
         if (channel.isIpv6()) {
@@ -61,8 +100,10 @@ class MsgHdrMemory {
 
     DatagramPacket read(IOUringDatagramChannel channel, Buffer buffer, int bytesRead) {
         long sockAddress = memory + Native.SIZEOF_MSGHDR;
-        InetSocketAddress sender;
-        if (channel.isIpv6()) { // TODO handle domain socket addresses
+        SocketAddress sender;
+        if (channel.socket.protocolFamily() == SocketProtocolFamily.UNIX) {
+            sender = SockaddrIn.readDomain(sockAddress, MsgHdr.readNameLength(memory));
+        } else if (channel.isIpv6()) {
             byte[] ipv6Bytes = channel.inet6AddressArray();
             byte[] ipv4bytes = channel.inet4AddressArray();
 
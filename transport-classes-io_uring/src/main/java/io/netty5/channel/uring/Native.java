@@ -88,9 +88,12 @@ final class Native {
     static final int SOCK_CLOEXEC = NativeStaticallyReferencedJniMethods.sockCloexec();
     static final short AF_INET = (short) NativeStaticallyReferencedJniMethods.afInet();
     static final short AF_INET6 = (short) NativeStaticallyReferencedJniMethods.afInet6();
+    static final short AF_UNIX = (short) NativeStaticallyReferencedJniMethods.afUnix();
     static final int SIZEOF_SOCKADDR_STORAGE = NativeStaticallyReferencedJniMethods.sizeofSockaddrStorage();
     static final int SIZEOF_SOCKADDR_IN = NativeStaticallyReferencedJniMethods.sizeofSockaddrIn();
     static final int SIZEOF_SOCKADDR_IN6 = NativeStaticallyReferencedJniMethods.sizeofSockaddrIn6();
+    static final int SIZEOF_SOCKADDR_UN = NativeStaticallyReferencedJniMethods.sizeofSockaddrUn();
+    static final int SOCKADDR_UN_OFFSETOF_SUN_PATH = NativeStaticallyReferencedJniMethods.sockaddrUnOffsetofSunPath();
     static final int SOCKADDR_IN_OFFSETOF_SIN_FAMILY =
             NativeStaticallyReferencedJniMethods.sockaddrInOffsetofSinFamily();
     static final int SOCKADDR_IN_OFFSETOF_SIN_PORT = NativeStaticallyReferencedJniMethods.sockaddrInOffsetofSinPort();
@@ -111,6 +114,8 @@ final class Native {
     static final int SIZEOF_IOVEC = NativeStaticallyReferencedJniMethods.sizeofIovec();
     static final int CMSG_SPACE = NativeStaticallyReferencedJniMethods.cmsgSpace();
     static final int CMSG_LEN = NativeStaticallyReferencedJniMethods.cmsgLen();
+    static final int CMSG_SPACE_FD = NativeStaticallyReferencedJniMethods.cmsgSpaceFd();
+    static final int CMSG_LEN_FD = NativeStaticallyReferencedJniMethods.cmsgLenFd();
     static final int CMSG_OFFSETOF_CMSG_LEN = NativeStaticallyReferencedJniMethods.cmsghdrOffsetofCmsgLen();
     static final int CMSG_OFFSETOF_CMSG_LEVEL = NativeStaticallyReferencedJniMethods.cmsghdrOffsetofCmsgLevel();
     static final int CMSG_OFFSETOF_CMSG_TYPE = NativeStaticallyReferencedJniMethods.cmsghdrOffsetofCmsgType();
@@ -131,6 +136,9 @@ final class Native {
     static final int POLLRDHUP = NativeStaticallyReferencedJniMethods.pollrdhup();
     static final int ERRNO_ECANCELED_NEGATIVE = -NativeStaticallyReferencedJniMethods.ecanceled();
     static final int ERRNO_ETIME_NEGATIVE = -NativeStaticallyReferencedJniMethods.etime();
+    static final int ERRNO_EINVAL_NEGATIVE = -NativeStaticallyReferencedJniMethods.einval();
+    static final int ERRNO_ENOBUFS_NEGATIVE = -NativeStaticallyReferencedJniMethods.enobufs();
+    static final int ERRNO_EOPNOTSUPP_NEGATIVE = -NativeStaticallyReferencedJniMethods.eopnotsupp();
 
     // These constants must be defined to have the same numeric value as their corresponding
     // ordinal in the enum defined in the io_uring.h header file.
@@ -175,6 +183,8 @@ final class Native {
     static final byte IORING_OP_MKDIRAT = 37; // Specified by IORING_OP_MKDIRAT in io_uring.h
     static final byte IORING_OP_SYMLINKAT = 38; // Specified by IORING_OP_SYMLINKAT in io_uring.h
     static final byte IORING_OP_LINKAT = 39; // Specified by IORING_OP_LINKAT in io_uring.h
+    static final byte IORING_OP_SEND_ZC = 47; // Specified by IORING_OP_SEND_ZC in io_uring.h
+    static final byte IORING_OP_SENDMSG_ZC = 48; // Specified by IORING_OP_SENDMSG_ZC in io_uring.h
 
     static String opToStr(byte op) {
         switch (op) {
@@ -218,16 +228,36 @@ final class Native {
             case IORING_OP_MKDIRAT: return "MKDIRAT";
             case IORING_OP_SYMLINKAT: return "SYMLINKAT";
             case IORING_OP_LINKAT: return "LINKAT";
+            case IORING_OP_SEND_ZC: return "SEND_ZC";
+            case IORING_OP_SENDMSG_ZC: return "SENDMSG_ZC";
             default: return "[OP CODE " + op + ']';
         }
     }
 
     static final int IORING_ENTER_GETEVENTS = NativeStaticallyReferencedJniMethods.ioringEnterGetevents();
+    static final int IORING_ENTER_SQ_WAKEUP = NativeStaticallyReferencedJniMethods.ioringEnterSqWakeup();
+    static final int IORING_ENTER_SQ_WAIT = NativeStaticallyReferencedJniMethods.ioringEnterSqWait();
+    static final int IORING_SETUP_SQPOLL = NativeStaticallyReferencedJniMethods.ioringSetupSqpoll();
+    static final int IORING_SETUP_SQ_AFF = NativeStaticallyReferencedJniMethods.ioringSetupSqAff();
+    static final int IORING_SETUP_ATTACH_WQ = NativeStaticallyReferencedJniMethods.ioringSetupAttachWq();
+    static final int IORING_SQ_NEED_WAKEUP = NativeStaticallyReferencedJniMethods.ioringSqNeedWakeup();
+    static final int IORING_SQ_CQ_OVERFLOW = NativeStaticallyReferencedJniMethods.ioringSqCqOverflow();
     static final int IOSQE_ASYNC = NativeStaticallyReferencedJniMethods.iosqeAsync();
     static final int IOSQE_LINK = NativeStaticallyReferencedJniMethods.iosqeLink();
     static final int IOSQE_IO_DRAIN = NativeStaticallyReferencedJniMethods.iosqeDrain();
+    static final int IORING_ACCEPT_MULTISHOT = NativeStaticallyReferencedJniMethods.ioringAcceptMultishot();
+    static final int IORING_CQE_F_MORE = NativeStaticallyReferencedJniMethods.ioringCqeFMore();
+    static final int IORING_RECV_MULTISHOT = NativeStaticallyReferencedJniMethods.ioringRecvMultishot();
+    static final int IORING_CQE_F_BUFFER = NativeStaticallyReferencedJniMethods.ioringCqeFBuffer();
+    static final int IORING_CQE_BUFFER_SHIFT = NativeStaticallyReferencedJniMethods.ioringCqeBufferShift();
+    static final int IORING_CQE_F_NOTIF = NativeStaticallyReferencedJniMethods.ioringCqeFNotif();
+    static final int IOSQE_BUFFER_SELECT = NativeStaticallyReferencedJniMethods.iosqeBufferSelect();
+    static final int IOSQE_FIXED_FILE = NativeStaticallyReferencedJniMethods.iosqeFixedFile();
     static final int MSG_DONTWAIT = NativeStaticallyReferencedJniMethods.msgDontwait();
     static final int MSG_FASTOPEN = NativeStaticallyReferencedJniMethods.msgFastopen();
+    static final int MSG_CMSG_CLOEXEC = NativeStaticallyReferencedJniMethods.msgCmsgCloexec();
+    static final int SOL_SOCKET = NativeStaticallyReferencedJniMethods.solSocket();
+    static final int SCM_RIGHTS = NativeStaticallyReferencedJniMethods.scmRights();
     static final int SOL_UDP = NativeStaticallyReferencedJniMethods.solUdp();
     static final int UDP_SEGMENT = NativeStaticallyReferencedJniMethods.udpSegment();
     private static final int TFO_ENABLED_CLIENT_MASK = 0x1;
@@ -269,7 +299,21 @@ final class Native {
     }
 
     static RingBuffer createRingBuffer(int ringSize, int iosqeAsyncThreshold) {
-        long[][] values = ioUringSetup(ringSize);
+        return createRingBuffer(ringSize, iosqeAsyncThreshold, 0, 0, 0, 0);
+    }
+
+    /**
+     * Create a new ring.
+     *
+     * @param setupFlags The {@code IORING_SETUP_*} flags.
+     * @param sqThreadIdle The idle time of the submission queue polling thread in milliseconds, if
+     *                     {@code IORING_SETUP_SQPOLL} is set.
+     * @param sqThreadCpu The CPU of the submission queue polling thread, if {@code IORING_SETUP_SQ_AFF} is set.
+     * @param wqFd The fd of the ring to share the kernel workers with, if {@code IORING_SETUP_ATTACH_WQ} is set.
+     */
+    static RingBuffer createRingBuffer(int ringSize, int iosqeAsyncThreshold, int setupFlags, int sqThreadIdle,
+                                       int sqThreadCpu, int wqFd) {
+        long[][] values = ioUringSetup(ringSize, setupFlags, sqThreadIdle, sqThreadCpu, wqFd);
         assert values.length == 2;
         long[] completionQueueArgs = values[1];
         assert completionQueueArgs.length == 9;
@@ -298,6 +342,7 @@ final class Native {
                 submissionQueueArgs[9],
                 (int) submissionQueueArgs[10],
                 iosqeAsyncThreshold,
+                (setupFlags & IORING_SETUP_SQPOLL) != 0,
                 completionQueue);
         return new RingBuffer(submissionQueue, completionQueue);
     }
@@ -355,12 +400,56 @@ final class Native {
     }
 
     private static native boolean ioUringProbe(int ringFd, int[] ios);
-    private static native long[][] ioUringSetup(int entries);
+    private static native long[][] ioUringSetup(int entries, int flags, int sqThreadIdle, int sqThreadCpu,
+                                                int wqFd);
 
     static native int ioUringEnter(int ringFd, int toSubmit, int minComplete, int flags);
 
     static native void eventFdWrite(int fd, long value);
 
+    /**
+     * Register a provided buffer ring with the given number of entries and buffer group id.
+     *
+     * @return the address of the mapped ring memory, or a negative errno value if the registration failed.
+     */
+    static native long ioUringRegisterBufRing(int ringFd, int entries, short bgid);
+
+    /**
+     * Unregister the provided buffer ring with the given buffer group id, and unmap its memory.
+     *
+     * @return a negative errno value if the unregistration failed.
+     */
+    static native int ioUringUnregisterBufRing(int ringFd, long ringAddress, int entries, short bgid);
+
+    /**
+     * Register a sparse table of fixed files with the given number of slots, which are all empty.
+     *
+     * @return a negative errno value if the registration failed.
+     */
+    static native int ioUringRegisterFiles(int ringFd, int count);
+
+    /**
+     * Put the given file descriptor into the slot at the given offset of the fixed file table, or empty the slot if
+     * the file descriptor is {@code -1}.
+     *
+     * @return the number of updated slots, or a negative errno value if the update failed.
+     */
+    static native int ioUringRegisterFilesUpdate(int ringFd, int offset, int fd);
+
+    /**
+     * Register the given memory as the fixed buffer with index {@code 0}.
+     *
+     * @return a negative errno value if the registration failed.
+     */
+    static native int ioUringRegisterBuffers(int ringFd, long address, long length);
+
+    /**
+     * Unregister all fixed buffers.
+     *
+     * @return a negative errno value if the unregistration failed.
+     */
+    static native int ioUringUnregisterBuffers(int ringFd);
+
     static FileDescriptor newBlockingEventFd() {
         return new FileDescriptor(blockingEventFd());
     }
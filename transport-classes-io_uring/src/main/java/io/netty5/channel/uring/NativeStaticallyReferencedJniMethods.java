@@ -34,6 +34,7 @@ final class NativeStaticallyReferencedJniMethods {
     static native int sockCloexec();
     static native int afInet();
     static native int afInet6();
+    static native int afUnix();
     static native int sizeofSockaddrIn();
     static native int sizeofSockaddrIn6();
     static native int sockaddrInOffsetofSinFamily();
@@ -46,6 +47,8 @@ final class NativeStaticallyReferencedJniMethods {
     static native int sockaddrIn6OffsetofSin6Addr();
     static native int sockaddrIn6OffsetofSin6ScopeId();
     static native int in6AddressOffsetofS6Addr();
+    static native int sizeofSockaddrUn();
+    static native int sockaddrUnOffsetofSunPath();
     static native int sizeofSockaddrStorage();
     static native int sizeofSizeT();
     static native int sizeofIovec();
@@ -61,6 +64,9 @@ final class NativeStaticallyReferencedJniMethods {
     static native int msghdrOffsetofMsgFlags();
     static native int etime();
     static native int ecanceled();
+    static native int einval();
+    static native int enobufs();
+    static native int eopnotsupp();
     static native int pollin();
     static native int pollout();
     static native int pollrdhup();
@@ -68,10 +74,30 @@ final class NativeStaticallyReferencedJniMethods {
     static native int iosqeAsync();
     static native int iosqeLink();
     static native int iosqeDrain();
+    static native int ioringAcceptMultishot();
+    static native int ioringCqeFMore();
+    static native int ioringRecvMultishot();
+    static native int ioringCqeFBuffer();
+    static native int ioringCqeBufferShift();
+    static native int ioringCqeFNotif();
+    static native int iosqeBufferSelect();
+    static native int iosqeFixedFile();
+    static native int ioringSetupSqpoll();
+    static native int ioringSetupSqAff();
+    static native int ioringSetupAttachWq();
+    static native int ioringSqNeedWakeup();
+    static native int ioringSqCqOverflow();
+    static native int ioringEnterSqWakeup();
+    static native int ioringEnterSqWait();
     static native int msgDontwait();
     static native int msgFastopen();
     static native int cmsgSpace();
     static native int cmsgLen();
+    static native int cmsgSpaceFd();
+    static native int cmsgLenFd();
+    static native int msgCmsgCloexec();
+    static native int solSocket();
+    static native int scmRights();
     static native int solUdp();
     static native int udpSegment();
     static native int cmsghdrOffsetofCmsgLen();
@@ -24,6 +24,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 
 import static io.netty5.util.internal.PlatformDependent.BIG_ENDIAN_NATIVE_ORDER;
 
@@ -44,8 +45,7 @@ final class SockaddrIn {
                 return writeIPv4(memory, inet.getAddress(), inet.getPort());
             }
         } else if (address instanceof DomainSocketAddress) {
-            // todo
-            throw new UnsupportedOperationException("Unknown socket address type: " + address);
+            return writeDomain(memory, (DomainSocketAddress) address);
         } else {
             throw new UnsupportedOperationException("Unknown socket address type: " + address);
         }
@@ -119,6 +119,47 @@ final class SockaddrIn {
         return Native.SIZEOF_SOCKADDR_IN6;
     }
 
+    /**
+     * <pre>{@code
+     * struct sockaddr_un {
+     *     sa_family_t sun_family;   // AF_UNIX
+     *     char        sun_path[108]; // pathname
+     * };
+     * }</pre>
+     * Paths that start with a {@code NUL} byte are in the abstract namespace, and are written as is. Like with
+     * {@code bind(2)} and {@code connect(2)}, paths that do not fit are truncated.
+     */
+    static int writeDomain(long memory, DomainSocketAddress address) {
+        PlatformDependent.setMemory(memory, Native.SIZEOF_SOCKADDR_UN, (byte) 0);
+        PlatformDependent.putShort(memory, Native.AF_UNIX);
+        byte[] path = address.path().getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(path.length, Native.SIZEOF_SOCKADDR_UN - Native.SOCKADDR_UN_OFFSETOF_SUN_PATH);
+        PlatformDependent.copyMemory(path, 0, memory + Native.SOCKADDR_UN_OFFSETOF_SUN_PATH, length);
+        return Native.SOCKADDR_UN_OFFSETOF_SUN_PATH + length;
+    }
+
+    /**
+     * Read a {@code struct sockaddr_un} of the given length, as returned by the kernel. An unnamed socket has an
+     * empty path.
+     */
+    static DomainSocketAddress readDomain(long memory, int addressLength) {
+        int length = Math.min(addressLength, Native.SIZEOF_SOCKADDR_UN) - Native.SOCKADDR_UN_OFFSETOF_SUN_PATH;
+        if (length <= 0) {
+            return new DomainSocketAddress("");
+        }
+        byte[] path = new byte[length];
+        PlatformDependent.copyMemory(memory + Native.SOCKADDR_UN_OFFSETOF_SUN_PATH, path, 0, length);
+        if (path[0] != 0) {
+            // A pathname, which the kernel may have returned with its terminating NUL byte.
+            int end = 0;
+            while (end < length && path[end] != 0) {
+                end++;
+            }
+            length = end;
+        }
+        return new DomainSocketAddress(new String(path, 0, length, StandardCharsets.UTF_8));
+    }
+
     static InetSocketAddress readIPv4(long memory, byte[] tmpArray) {
         assert tmpArray.length == IPV4_ADDRESS_LENGTH;
         int port = handleNetworkOrder(PlatformDependent.getShort(
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.channel.unix.FileDescriptor;
+import io.netty5.util.collection.IntObjectHashMap;
+import io.netty5.util.collection.IntObjectMap;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * The pipes of an {@link IOUringHandler} that are used to transfer files with {@code IORING_OP_SPLICE}.
+ * <p>
+ * A file is spliced into a pipe, and from the pipe into the socket. A pipe is lent to a single channel for the
+ * duration of a transfer, and is reused by other channels of the same event loop once it has been drained.
+ * <p>
+ * The splices of a transfer use the write end of the pipe as the file descriptor of their user data, so their
+ * completions reach the channel that lent the pipe, even if it has been closed and deregistered in the meantime.
+ * All methods must be called from the event loop thread.
+ */
+final class SplicePipes {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(SplicePipes.class);
+    private static final int MAX_IDLE_PIPES = 16;
+
+    private final IntObjectMap<Pipe> leased = new IntObjectHashMap<>();
+    private final ArrayDeque<Pipe> idle = new ArrayDeque<>();
+
+    /**
+     * Lend a pipe to the given channel, creating a new one if there is no idle pipe.
+     */
+    Pipe lease(IOUringSocketChannel owner) throws IOException {
+        Pipe pipe = idle.poll();
+        if (pipe == null) {
+            FileDescriptor[] fds = FileDescriptor.pipe();
+            pipe = new Pipe(fds[0], fds[1]);
+        }
+        pipe.owner = owner;
+        leased.put(pipe.writeFd(), pipe);
+        return pipe;
+    }
+
+    /**
+     * Get the channel that a splice completion, with the given file descriptor in its user data, belongs to.
+     */
+    IOUringSocketChannel owner(int fd) {
+        Pipe pipe = leased.get(fd);
+        return pipe == null ? null : pipe.owner;
+    }
+
+    /**
+     * Return a pipe that has no splices in flight. The pipe is only reused if it is empty, as its contents would
+     * otherwise end up in the next transfer.
+     */
+    void release(Pipe pipe, boolean empty) {
+        leased.remove(pipe.writeFd());
+        pipe.owner = null;
+        if (empty && idle.size() < MAX_IDLE_PIPES) {
+            idle.push(pipe);
+        } else {
+            pipe.close();
+        }
+    }
+
+    /**
+     * Close all pipes. Only called when the ring is closed.
+     */
+    void close() {
+        for (Pipe pipe : leased.values()) {
+            pipe.close();
+        }
+        leased.clear();
+        Pipe pipe;
+        while ((pipe = idle.poll()) != null) {
+            pipe.close();
+        }
+    }
+
+    static final class Pipe {
+        private final FileDescriptor readEnd;
+        private final FileDescriptor writeEnd;
+        private IOUringSocketChannel owner;
+
+        Pipe(FileDescriptor readEnd, FileDescriptor writeEnd) {
+            this.readEnd = readEnd;
+            this.writeEnd = writeEnd;
+        }
+
+        int readFd() {
+            return readEnd.intValue();
+        }
+
+        int writeFd() {
+            return writeEnd.intValue();
+        }
+
+        void close() {
+            try {
+                readEnd.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close splice pipe", e);
+            }
+            try {
+                writeEnd.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close splice pipe", e);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ import io.netty5.util.internal.PlatformDependent;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
+import java.lang.invoke.VarHandle;
 import java.util.StringJoiner;
 import java.util.function.IntSupplier;
 
@@ -43,7 +44,8 @@ final class SubmissionQueue {
     private static final int SQE_LEN_FIELD = 24;
     private static final int SQE_RW_FLAGS_FIELD = 28;
     private static final int SQE_USER_DATA_FIELD = 32;
-    private static final int SQE_PAD_FIELD = 40;
+    private static final int SQE_BUF_INDEX_FIELD = 40; // u16, buf_index or buf_group
+    private static final int SQE_SPLICE_FD_IN_FIELD = 44; // s32, splice_fd_in or file_index
 
     private static final int KERNEL_TIMESPEC_TV_SEC_FIELD = 0;
     private static final int KERNEL_TIMESPEC_TV_NSEC_FIELD = 8;
@@ -64,16 +66,20 @@ final class SubmissionQueue {
     final int ringFd;
     private final long timeoutMemoryAddress;
     private final int iosqeAsyncThreshold;
+    private final boolean sqPoll;
     private final IntSupplier completionCount;
+    private IOUringFileTable fileTable;
+    private IOUringHandlerMetrics metrics;
     private int numHandledFds;
     private boolean link;
+    private boolean coalesce;
     private int head;
     private int tail;
 
     SubmissionQueue(long kHeadAddress, long kTailAddress, long kRingMaskAddress, long kRingEntriesAddress,
                     long kFlagsAddress, long kDroppedAddress, long kArrayAddress,
                     long submissionQueueArrayAddress, int ringSize, long ringAddress, int ringFd,
-                    int iosqeAsyncThreshold, IntSupplier completionCount) {
+                    int iosqeAsyncThreshold, boolean sqPoll, IntSupplier completionCount) {
         this.kHeadAddress = kHeadAddress;
         this.kTailAddress = kTailAddress;
         this.kFlagsAddress = kFlagsAddress;
@@ -90,6 +96,7 @@ final class SubmissionQueue {
 
         this.timeoutMemoryAddress = PlatformDependent.allocateMemory(KERNEL_TIMESPEC_SIZE);
         this.iosqeAsyncThreshold = iosqeAsyncThreshold;
+        this.sqPoll = sqPoll;
         this.completionCount = completionCount;
 
         // Zero the whole SQE array first
@@ -115,12 +122,44 @@ final class SubmissionQueue {
         this.link = link;
     }
 
+    /**
+     * Use the given fixed file table for the operations on the file descriptors that are in it.
+     */
+    void fileTable(IOUringFileTable fileTable) {
+        this.fileTable = fileTable;
+    }
+
+    /**
+     * Record the submissions and their latencies in the given metrics.
+     */
+    void metrics(IOUringHandlerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Set whether the submissions that channels request with {@link #submitOrCoalesce()} are left to the handler,
+     * which then hands the entries of all channels to the kernel at once.
+     */
+    void coalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
     private int flags() {
         return (numHandledFds < iosqeAsyncThreshold ? 0 : Native.IOSQE_ASYNC) | (link ? Native.IOSQE_LINK : 0);
     }
 
     private long enqueueSqe(byte op, int flags, int rwFlags, int fd,
                                long bufferAddress, int length, long offset, short data) {
+        return enqueueSqe(op, flags, (short) 0, rwFlags, fd, bufferAddress, length, offset, data, (short) 0);
+    }
+
+    private long enqueueSqe(byte op, int flags, short ioPrio, int rwFlags, int fd,
+                            long bufferAddress, int length, long offset, short data, short bufIndex) {
+        return enqueueSqe(op, flags, ioPrio, rwFlags, fd, fd, 0, bufferAddress, length, offset, data, bufIndex);
+    }
+
+    private long enqueueSqe(byte op, int flags, short ioPrio, int rwFlags, int fd, int udataFd, int spliceFdIn,
+                            long bufferAddress, int length, long offset, short data, short bufIndex) {
         int pending = tail - head;
         if (pending == ringEntries) {
             int submitted = submit();
@@ -128,26 +167,47 @@ final class SubmissionQueue {
                 // We have a problem, could not submit to make more room in the ring
                 throw new RuntimeException("SQ ring full and no submissions accepted");
             }
+            if (sqPoll) {
+                waitForSpace();
+            }
         }
         long sqe = submissionQueueArrayAddress + (tail++ & ringMask) * SQE_SIZE;
-        return setData(sqe, op, flags, rwFlags, fd, bufferAddress, length, offset, data);
+        return setData(sqe, op, flags, ioPrio, rwFlags, fd, udataFd, spliceFdIn, bufferAddress, length, offset, data,
+                bufIndex);
     }
 
-    private long setData(long sqe, byte op, int flags, int rwFlags, int fd, long bufferAddress, int length,
-                         long offset, short data) {
+    private long setData(long sqe, byte op, int flags, short ioPrio, int rwFlags, int fd, int udataFd,
+                         int spliceFdIn, long bufferAddress, int length, long offset, short data, short bufIndex) {
         //set sqe(submission queue) properties
 
+        // The user data carries the file descriptor, even if the operation refers to the fixed file instead.
+        int sqeFd = fd;
+        if (fileTable != null && isFileOp(op)) {
+            int slot = fileTable.slot(fd);
+            if (slot >= 0) {
+                sqeFd = slot;
+                flags |= Native.IOSQE_FIXED_FILE;
+            }
+        }
         PlatformDependent.putByte(sqe + SQE_OP_CODE_FIELD, op);
         PlatformDependent.putByte(sqe + SQE_FLAGS_FIELD, (byte) flags);
-        // This constant is set up-front
-        //PlatformDependent.putShort(sqe + SQE_IOPRIO_FIELD, (short) 0);
-        PlatformDependent.putInt(sqe + SQE_FD_FIELD, fd);
+        // The ioprio field doubles as the flags field for some operations (e.g. multishot accept), so we must always
+        // set it, as the SQE memory is reused.
+        PlatformDependent.putShort(sqe + SQE_IOPRIO_FIELD, ioPrio);
+        PlatformDependent.putInt(sqe + SQE_FD_FIELD, sqeFd);
         PlatformDependent.putLong(sqe + SQE_OFFSET_FIELD, offset);
         PlatformDependent.putLong(sqe + SQE_ADDRESS_FIELD, bufferAddress);
         PlatformDependent.putInt(sqe + SQE_LEN_FIELD, length);
         PlatformDependent.putInt(sqe + SQE_RW_FLAGS_FIELD, rwFlags);
-        long userData = UserData.encode(fd, op, data);
+        // Like the ioprio field, the buffer index (or group) must always be set, as the SQE memory is reused.
+        PlatformDependent.putShort(sqe + SQE_BUF_INDEX_FIELD, bufIndex);
+        // Also doubles as the file index of operations that create fixed files, so it must always be set.
+        PlatformDependent.putInt(sqe + SQE_SPLICE_FD_IN_FIELD, spliceFdIn);
+        long userData = UserData.encode(udataFd, op, data);
         PlatformDependent.putLong(sqe + SQE_USER_DATA_FIELD, userData);
+        if (metrics != null) {
+            metrics.queued(userData);
+        }
 
         if (logger.isTraceEnabled()) {
             if (op == Native.IORING_OP_WRITEV || op == Native.IORING_OP_READV) {
@@ -161,6 +221,31 @@ final class SubmissionQueue {
         return userData;
     }
 
+    /**
+     * Whether the given operation performs IO on its file descriptor, which can then be a fixed file.
+     * Operations like {@code IORING_OP_CLOSE} or {@code IORING_OP_ASYNC_CANCEL} must always use the file descriptor.
+     */
+    private static boolean isFileOp(byte op) {
+        switch (op) {
+            case Native.IORING_OP_READ:
+            case Native.IORING_OP_READ_FIXED:
+            case Native.IORING_OP_RECV:
+            case Native.IORING_OP_RECVMSG:
+            case Native.IORING_OP_WRITE:
+            case Native.IORING_OP_WRITE_FIXED:
+            case Native.IORING_OP_WRITEV:
+            case Native.IORING_OP_SEND:
+            case Native.IORING_OP_SENDMSG:
+            case Native.IORING_OP_SENDMSG_ZC:
+            case Native.IORING_OP_ACCEPT:
+            case Native.IORING_OP_CONNECT:
+            case Native.IORING_OP_POLL_ADD:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     @Override
     public String toString() {
         StringJoiner sb = new StringJoiner(", ", "SubmissionQueue [", "]");
@@ -199,6 +284,14 @@ final class SubmissionQueue {
         return addPoll(fd, Native.POLLOUT);
     }
 
+    /**
+     * Wait for the given file descriptor to become writable, before the operation that is added next.
+     */
+    long addPollOutLink(int fd) {
+        return enqueueSqe(Native.IORING_OP_POLL_ADD, Native.IOSQE_LINK, Native.POLLOUT, fd, 0, 0, 0,
+                (short) Native.POLLOUT);
+    }
+
     private long addPoll(int fd, int pollMask) {
         return enqueueSqe(Native.IORING_OP_POLL_ADD, 0, pollMask, fd, 0, 0, 0, (short) pollMask);
     }
@@ -206,21 +299,41 @@ final class SubmissionQueue {
     long addRecvmsg(int fd, long msgHdr, short extraData) {
         // Use Native.MSG_DONTWAIT due a io_uring bug which did have it not respect non-blocking fds.
         // See https://lore.kernel.org/io-uring/371592A7-A199-4F5C-A906-226FFC6CEED9@googlemail.com/T/#u
-        return enqueueSqe(Native.IORING_OP_RECVMSG, flags(), 0 /*Native.MSG_DONTWAIT*/, fd, msgHdr, 1, 0, extraData);
+        return addRecvmsg(fd, msgHdr, 0 /*Native.MSG_DONTWAIT*/, extraData);
+    }
+
+    long addRecvmsg(int fd, long msgHdr, int flags, short extraData) {
+        return enqueueSqe(Native.IORING_OP_RECVMSG, flags(), flags, fd, msgHdr, 1, 0, extraData);
     }
 
     long addSendmsg(int fd, long msgHdr, int flags, short extraData) {
         return enqueueSqe(Native.IORING_OP_SENDMSG, flags(), flags, fd, msgHdr, 1, 0, extraData);
     }
 
+    long addSendmsgZc(int fd, long msgHdr, int flags, short extraData) {
+        return enqueueSqe(Native.IORING_OP_SENDMSG_ZC, flags(), flags, fd, msgHdr, 1, 0, extraData);
+    }
+
     long addRead(int fd, long bufferAddress, int pos, int limit, short extraData) {
         return enqueueSqe(Native.IORING_OP_READ, flags(), 0, fd, bufferAddress + pos, limit - pos, 0, extraData);
     }
 
+    long addReadFixed(int fd, long bufferAddress, int length, short bufIndex, short extraData) {
+        return enqueueSqe(Native.IORING_OP_READ_FIXED, flags(), (short) 0, 0, fd, bufferAddress, length, 0, extraData,
+                bufIndex);
+    }
+
     long addRecv(int fd, long bufferAddress, int pos, int limit, int flags, short extraData) {
         return enqueueSqe(Native.IORING_OP_RECV, flags(), flags, fd, bufferAddress + pos, limit - pos, 0, extraData);
     }
 
+    long addRecvMultishot(int fd, short bufferGroup, int maxLength, short extraData) {
+        // The kernel picks a buffer from the provided buffer ring of the given group for every completion,
+        // and receives at most maxLength bytes into it.
+        return enqueueSqe(Native.IORING_OP_RECV, flags() | Native.IOSQE_BUFFER_SELECT,
+                (short) Native.IORING_RECV_MULTISHOT, 0, fd, 0, maxLength, 0, extraData, bufferGroup);
+    }
+
     long addEventFdRead(int fd, long bufferAddress, int pos, int limit, short extraData) {
         return enqueueSqe(Native.IORING_OP_READ, 0, 0, fd, bufferAddress + pos, limit - pos, 0, extraData);
     }
@@ -233,11 +346,22 @@ final class SubmissionQueue {
         return enqueueSqe(Native.IORING_OP_WRITE, flags(), 0, fd, bufferAddress + pos, limit - pos, 0, extraData);
     }
 
+    long addWriteFixed(int fd, long bufferAddress, int length, short bufIndex, short extraData) {
+        return enqueueSqe(Native.IORING_OP_WRITE_FIXED, flags(), (short) 0, 0, fd, bufferAddress, length, 0, extraData,
+                bufIndex);
+    }
+
     long addAccept(int fd, long address, long addressLength, short extraData) {
         return enqueueSqe(Native.IORING_OP_ACCEPT, flags(), /*Native.SOCK_NONBLOCK |*/ Native.SOCK_CLOEXEC, fd,
                 address, 0, addressLength, extraData);
     }
 
+    long addAcceptMultishot(int fd, short extraData) {
+        // The peer address is not captured for multishot accepts, as all completions would share the same memory.
+        return enqueueSqe(Native.IORING_OP_ACCEPT, flags(), (short) Native.IORING_ACCEPT_MULTISHOT,
+                Native.SOCK_CLOEXEC, fd, 0, 0, 0, extraData, (short) 0);
+    }
+
     //fill the address which is associated with server poll link user_data
     long addPollRemove(int fd, int pollMask) {
         assert pollMask <= Short.MAX_VALUE && pollMask >= Short.MIN_VALUE;
@@ -254,10 +378,38 @@ final class SubmissionQueue {
     }
 
     long addClose(int fd, boolean drain, short extraData) {
+        // The fixed file table holds a reference to the file, so it would not be closed while it is in there.
+        removeFixedFile(fd);
         int flags = flags() | (drain ? Native.IOSQE_IO_DRAIN : 0);
         return enqueueSqe(Native.IORING_OP_CLOSE, flags, 0, fd, 0, 0, 0, extraData);
     }
 
+    /**
+     * Take the given file descriptor out of the fixed file table, if it is in there. The slot is released when the
+     * {@code IORING_OP_FILES_UPDATE} completes, see {@link IOUringHandler}.
+     */
+    void removeFixedFile(int fd) {
+        if (fileTable != null) {
+            int slot = fileTable.remove(fd);
+            if (slot >= 0) {
+                enqueueSqe(Native.IORING_OP_FILES_UPDATE, flags(), 0, fd, fileTable.emptyFdAddress(), 1, slot,
+                        (short) slot);
+            }
+        }
+    }
+
+    /**
+     * Move {@code length} bytes from {@code fdIn} to {@code fdOut}, where one of them must be a pipe. An offset of
+     * {@code -1} means the current position of the file, which is the only option for pipes and sockets.
+     *
+     * @param udataFd the file descriptor to put into the user data, which identifies the owner of the completion.
+     */
+    long addSplice(int udataFd, int fdIn, long offsetIn, int fdOut, long offsetOut, int length, short extraData) {
+        // splice_off_in is in the place of the address, and splice_flags in the place of the rw_flags.
+        return enqueueSqe(Native.IORING_OP_SPLICE, flags(), (short) 0, 0, fdOut, udataFd, fdIn, offsetIn, length,
+                offsetOut, extraData, (short) 0);
+    }
+
     long addCancel(int fd, long sqeToCancel) {
         return enqueueSqe(Native.IORING_OP_ASYNC_CANCEL, flags(), 0, fd, sqeToCancel, 0, 0, (short) 0);
     }
@@ -267,12 +419,27 @@ final class SubmissionQueue {
         return submit > 0 ? submit(submit, 0, 0) : 0;
     }
 
+    /**
+     * Submit the queued entries on behalf of a channel, unless the handler is
+     * {@linkplain #coalesce(boolean) coalescing} them with the entries of other channels. In that case, the handler
+     * submits them before it waits for completions.
+     */
+    void submitOrCoalesce() {
+        // With a polling kernel thread, a submit is usually just a store to the tail, so there is nothing to save.
+        if (!coalesce || sqPoll) {
+            submit();
+        }
+    }
+
     int submitAndWait() {
         int submit = tail - head;
         if (submit > 0) {
             return submit(submit, 1, Native.IORING_ENTER_GETEVENTS);
         }
         assert submit == 0;
+        if (metrics != null) {
+            metrics.entered();
+        }
         int ret = Native.ioUringEnter(ringFd, 0, 1, Native.IORING_ENTER_GETEVENTS);
         if (ret < 0) {
             throw new RuntimeException("ioUringEnter syscall returned " + ret);
@@ -285,7 +452,24 @@ final class SubmissionQueue {
             logger.trace("submit(ring {}): {}", ringFd, toString());
         }
         PlatformDependent.putIntOrdered(kTailAddress, tail); // release memory barrier
+        if (sqPoll) {
+            // The kernel thread picks up the submissions by itself, so we only need to enter if it went to sleep,
+            // or if we want to wait for completions. The tail must be visible before we read the flags.
+            VarHandle.fullFence();
+            if ((PlatformDependent.getIntVolatile(kFlagsAddress) & Native.IORING_SQ_NEED_WAKEUP) != 0) {
+                flags |= Native.IORING_ENTER_SQ_WAKEUP;
+            } else if (minComplete == 0) {
+                head = PlatformDependent.getIntVolatile(kHeadAddress); // acquire memory barrier
+                if (metrics != null) {
+                    metrics.submitted(toSubmit, false);
+                }
+                return toSubmit;
+            }
+        }
         int ret = Native.ioUringEnter(ringFd, toSubmit, minComplete, flags);
+        if (metrics != null) {
+            metrics.submitted(toSubmit, true);
+        }
         head = PlatformDependent.getIntVolatile(kHeadAddress); // acquire memory barrier
         if (ret != toSubmit) {
             if (ret < 0) {
@@ -297,6 +481,19 @@ final class SubmissionQueue {
         return ret;
     }
 
+    /**
+     * Wait for the kernel thread to consume submissions, until there is room in the ring.
+     */
+    private void waitForSpace() {
+        while (tail - head == ringEntries) {
+            int ret = Native.ioUringEnter(ringFd, 0, 0, Native.IORING_ENTER_SQ_WAIT);
+            if (ret < 0) {
+                throw new RuntimeException("ioUringEnter syscall returned " + ret);
+            }
+            head = PlatformDependent.getIntVolatile(kHeadAddress);
+        }
+    }
+
     private void setTimeout(long timeoutNanoSeconds) {
         long seconds, nanoSeconds;
 
@@ -316,6 +513,20 @@ final class SubmissionQueue {
         return tail - head;
     }
 
+    /**
+     * The flags that the kernel sets on the submission queue, like {@code IORING_SQ_CQ_OVERFLOW}.
+     */
+    int kernelFlags() {
+        return PlatformDependent.getIntVolatile(kFlagsAddress);
+    }
+
+    /**
+     * The number of invalid entries that the kernel dropped.
+     */
+    int dropped() {
+        return PlatformDependent.getIntVolatile(kDroppedAddress);
+    }
+
     public int remaining() {
         return ringEntries - count();
     }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.util.collection.LongObjectHashMap;
+import io.netty5.util.collection.LongObjectMap;
+import io.netty5.util.internal.SilentDispose;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the zero-copy sends ({@code IORING_OP_SENDMSG_ZC}) of an {@link IOUringHandler} that are still waiting for
+ * their notification CQE.
+ * <p>
+ * The first CQE of a zero-copy send carries the result, and completes the write as usual. The kernel may still be
+ * reading the memory at that point, which is why a second CQE, flagged with {@code IORING_CQE_F_NOTIF}, is posted once
+ * the memory is no longer in use. The buffers of the send are kept alive in {@link Pins} until then.
+ * <p>
+ * Notifications can arrive after the channel that submitted the send was closed and deregistered, so they are tracked
+ * per handler, keyed by the user data of the submission.
+ */
+final class ZeroCopyNotifications {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(ZeroCopyNotifications.class);
+
+    private final LongObjectMap<Pins> pending = new LongObjectHashMap<>();
+    private short lastId;
+
+    /**
+     * Reserve the id of a new zero-copy send on the given file descriptor, to be used as the data of its user data.
+     * The given pins are kept alive until {@link #complete(long)} is called with the user data.
+     */
+    short add(int fd, Pins pins) {
+        long udata;
+        do {
+            udata = UserData.encode(fd, Native.IORING_OP_SENDMSG_ZC, ++lastId);
+        } while (pending.containsKey(udata));
+        pins.retain();
+        pending.put(udata, pins);
+        return lastId;
+    }
+
+    /**
+     * Signal that the kernel no longer uses the memory of the zero-copy send with the given user data.
+     */
+    void complete(long udata) {
+        Pins pins = pending.remove(udata);
+        if (pins != null) {
+            pins.release();
+        }
+    }
+
+    /**
+     * Release all pins, regardless of outstanding notifications. Only called when the ring is closed.
+     */
+    void releaseAll() {
+        for (Pins pins : pending.values()) {
+            pins.release();
+        }
+        pending.clear();
+    }
+
+    /**
+     * The buffers that are referenced by one or more zero-copy sends. The buffers are closed when the owner and all
+     * sends have released their reference.
+     */
+    static final class Pins {
+        private final List<Buffer> buffers = new ArrayList<>();
+        private int refCnt = 1;
+
+        void add(Buffer buffer) {
+            buffers.add(buffer);
+        }
+
+        void retain() {
+            refCnt++;
+        }
+
+        void release() {
+            if (--refCnt == 0) {
+                for (Buffer buffer : buffers) {
+                    SilentDispose.dispose(buffer, logger);
+                }
+                buffers.clear();
+            }
+        }
+    }
+}
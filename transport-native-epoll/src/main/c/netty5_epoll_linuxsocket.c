@@ -24,10 +24,12 @@
 #include <stdlib.h>
 #include <string.h>
 #include <errno.h>
+#include <fcntl.h>
 #include <netinet/in.h>
 #include <netinet/udp.h> // SOL_UDP
 #include <sys/sendfile.h>
 #include <linux/tcp.h> // TCP_NOTSENT_LOWAT is a linux specific define
+#include <linux/errqueue.h> // sock_extended_err
 #include "netty5_epoll_linuxsocket.h"
 #include "netty5_unix_errors.h"
 #include "netty5_unix_filedescriptor.h"
@@ -62,6 +64,20 @@
 #define UDP_GRO 104
 #endif
 
+// SO_ZEROCOPY, MSG_ZEROCOPY and SO_EE_ORIGIN_ZEROCOPY are defined in linux 4.14. We define these here so older
+// kernels can compile.
+#ifndef SO_ZEROCOPY
+#define SO_ZEROCOPY 60
+#endif
+
+#ifndef MSG_ZEROCOPY
+#define MSG_ZEROCOPY 0x4000000
+#endif
+
+#ifndef SO_EE_ORIGIN_ZEROCOPY
+#define SO_EE_ORIGIN_ZEROCOPY 5
+#endif
+
 static jclass peerCredentialsClass = NULL;
 static jmethodID peerCredentialsMethodId = NULL;
 
@@ -627,6 +643,74 @@ static void netty5_epoll_linuxsocket_setUdpGro(JNIEnv* env, jclass clazz, jint f
     netty5_unix_socket_setOption(env, fd, SOL_UDP, UDP_GRO, &optval, sizeof(optval));
 }
 
+static void netty5_epoll_linuxsocket_setZeroCopy(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    netty5_unix_socket_setOption(env, fd, SOL_SOCKET, SO_ZEROCOPY, &optval, sizeof(optval));
+}
+
+static jlong netty5_epoll_linuxsocket_sendZeroCopy(JNIEnv* env, jclass clazz, jint fd, jlong memoryAddress, jint length) {
+    struct msghdr m = { 0 };
+    m.msg_iov = (struct iovec*) (intptr_t) memoryAddress;
+    m.msg_iovlen = length;
+
+    ssize_t res;
+    int err;
+    do {
+        res = sendmsg(fd, &m, MSG_ZEROCOPY);
+        // keep on writing if it was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+    return (jlong) res;
+}
+
+static jint netty5_epoll_linuxsocket_recvZeroCopyNotification(JNIEnv* env, jclass clazz, jint fd, jintArray range) {
+    char control[CMSG_SPACE(sizeof(struct sock_extended_err) + sizeof(struct sockaddr_in6))];
+    struct msghdr m;
+    struct cmsghdr* cmsg;
+    struct sock_extended_err* serr;
+    ssize_t res;
+    int err;
+
+    for (;;) {
+        memset(&m, 0, sizeof(m));
+        m.msg_control = control;
+        m.msg_controllen = sizeof(control);
+
+        do {
+            res = recvmsg(fd, &m, MSG_ERRQUEUE);
+            // keep on reading if it was interrupted
+        } while (res == -1 && ((err = errno) == EINTR));
+
+        if (res < 0) {
+            return -err;
+        }
+
+        for (cmsg = CMSG_FIRSTHDR(&m); cmsg != NULL; cmsg = CMSG_NXTHDR(&m, cmsg)) {
+            if ((cmsg->cmsg_level == SOL_IP && cmsg->cmsg_type == IP_RECVERR) ||
+                    (cmsg->cmsg_level == SOL_IPV6 && cmsg->cmsg_type == IPV6_RECVERR)) {
+                serr = (struct sock_extended_err*) CMSG_DATA(cmsg);
+                if (serr->ee_errno == 0 && serr->ee_origin == SO_EE_ORIGIN_ZEROCOPY) {
+                    // The notification covers the sends with the ids from ee_info to ee_data (inclusive).
+                    jint cRange[2] = { (jint) serr->ee_info, (jint) serr->ee_data };
+                    (*env)->SetIntArrayRegion(env, range, 0, 2, cRange);
+                    return 1;
+                }
+            }
+        }
+        // Not a zero-copy notification, skip it.
+    }
+}
+
+static jint netty5_epoll_linuxsocket_duplicate(JNIEnv* env, jclass clazz, jint fd) {
+    int res = fcntl(fd, F_DUPFD_CLOEXEC, 0);
+    if (res < 0) {
+        return -errno;
+    }
+    return res;
+}
+
 
 static jlong netty5_epoll_linuxsocket_sendFile(JNIEnv* env, jclass clazz, jint fd, jobject fileRegion, jlong base_off, jlong off, jlong len) {
     jobject fileChannel = (*env)->GetObjectField(env, fileRegion, fileChannelFieldId);
@@ -703,7 +787,11 @@ static const JNINativeMethod fixed_method_table[] = {
   { "leaveGroup", "(IZ[B[BII)V", (void *) netty5_epoll_linuxsocket_leaveGroup },
   { "leaveSsmGroup", "(IZ[B[BII[B)V", (void *) netty5_epoll_linuxsocket_leaveSsmGroup },
   { "isUdpGro", "(I)I", (void *) netty5_epoll_linuxsocket_isUdpGro },
-  { "setUdpGro", "(II)V", (void *) netty5_epoll_linuxsocket_setUdpGro }
+  { "setUdpGro", "(II)V", (void *) netty5_epoll_linuxsocket_setUdpGro },
+  { "setZeroCopy", "(II)V", (void *) netty5_epoll_linuxsocket_setZeroCopy },
+  { "sendZeroCopy", "(IJI)J", (void *) netty5_epoll_linuxsocket_sendZeroCopy },
+  { "recvZeroCopyNotification", "(I[I)I", (void *) netty5_epoll_linuxsocket_recvZeroCopyNotification },
+  { "duplicate", "(I)I", (void *) netty5_epoll_linuxsocket_duplicate }
 
   // "sendFile" has a dynamic signature
 };
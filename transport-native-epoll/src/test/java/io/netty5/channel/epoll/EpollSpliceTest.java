@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.epoll;
+
+import io.netty5.bootstrap.Bootstrap;
+import io.netty5.bootstrap.ServerBootstrap;
+import io.netty5.buffer.Buffer;
+import io.netty5.channel.Channel;
+import io.netty5.channel.ChannelHandler;
+import io.netty5.channel.ChannelHandlerContext;
+import io.netty5.channel.ChannelOption;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.SimpleChannelInboundHandler;
+import io.netty5.util.NetUtil;
+import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.Promise;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EpollSpliceTest {
+    private static final int SPLICE_LEN = 32 * 1024;
+    private static final byte[] DATA = new byte[1024 * 1024];
+    private static EventLoopGroup GROUP;
+
+    @BeforeAll
+    public static void beforeClass() {
+        new Random().nextBytes(DATA);
+        GROUP = new MultithreadEventLoopGroup(2, EpollHandler.newFactory());
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        GROUP.shutdownGracefully();
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testSpliceToSocket() throws Throwable {
+        Channel echo = newServer(new EchoHandler());
+        Channel proxy = newProxy(echo.localAddress(), (inbound, outbound) -> {
+            inbound.spliceTo(outbound, Integer.MAX_VALUE);
+            return outbound.spliceTo(inbound, Integer.MAX_VALUE);
+        });
+        try {
+            Collector collector = new Collector(DATA.length);
+            Channel client = newClient(proxy.localAddress(), collector);
+            client.writeAndFlush(client.bufferAllocator().copyOf(DATA)).asStage().sync();
+            assertArrayEquals(DATA, collector.received.asFuture().asStage().get());
+            client.close().asStage().sync();
+        } finally {
+            proxy.close().asStage().sync();
+            echo.close().asStage().sync();
+        }
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testReadIntoPipelineAfterSplice() throws Throwable {
+        Collector spliced = new Collector(SPLICE_LEN);
+        Channel sink = newServer(spliced);
+        Collector read = new Collector(DATA.length - SPLICE_LEN);
+        Channel proxy = newProxy(sink.localAddress(), (inbound, outbound) -> {
+            inbound.pipeline().addLast(read);
+            return inbound.spliceTo(outbound, SPLICE_LEN);
+        });
+        try {
+            Channel client = newClient(proxy.localAddress(), new ChannelHandler() { });
+            client.writeAndFlush(client.bufferAllocator().copyOf(DATA)).asStage().sync();
+            assertArrayEquals(Arrays.copyOf(DATA, SPLICE_LEN), spliced.received.asFuture().asStage().get());
+            assertArrayEquals(Arrays.copyOfRange(DATA, SPLICE_LEN, DATA.length),
+                    read.received.asFuture().asStage().get());
+            client.close().asStage().sync();
+        } finally {
+            proxy.close().asStage().sync();
+            sink.close().asStage().sync();
+        }
+    }
+
+    @Test
+    public void testSpliceToChannelOfOtherEventLoop() throws Throwable {
+        EpollSocketChannel ch1 = new EpollSocketChannel(GROUP.next());
+        EpollSocketChannel ch2 = new EpollSocketChannel(GROUP.next());
+        try {
+            assertThat(ch1.executor()).isNotSameAs(ch2.executor());
+            assertThrows(IllegalArgumentException.class, () -> ch1.spliceTo(ch2, SPLICE_LEN));
+        } finally {
+            ch1.fd().close();
+            ch2.fd().close();
+        }
+    }
+
+    private static Channel newServer(ChannelHandler handler) throws Exception {
+        return new ServerBootstrap()
+                .group(GROUP)
+                .channel(EpollServerSocketChannel.class)
+                .childHandler(handler)
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).asStage().get();
+    }
+
+    /**
+     * Accept connections, and connect each to the given address with a channel of the same event loop, before the
+     * given function starts to splice.
+     */
+    private static Channel newProxy(SocketAddress target,
+                                    BiFunction<EpollSocketChannel, EpollSocketChannel, Future<Void>> splice)
+            throws Exception {
+        return new ServerBootstrap()
+                .group(GROUP)
+                .channel(EpollServerSocketChannel.class)
+                .childOption(ChannelOption.AUTO_READ, false)
+                .childHandler(new ChannelHandler() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        EpollSocketChannel inbound = (EpollSocketChannel) ctx.channel();
+                        new Bootstrap()
+                                .group(inbound.executor())
+                                .channel(EpollSocketChannel.class)
+                                .handler(new ChannelHandler() { })
+                                .connect(target).addListener(future -> {
+                                    if (future.isFailed()) {
+                                        inbound.close();
+                                        return;
+                                    }
+                                    EpollSocketChannel outbound = (EpollSocketChannel) future.getNow();
+                                    splice.apply(inbound, outbound).addListener(f -> {
+                                        if (f.isFailed()) {
+                                            outbound.close();
+                                        }
+                                    });
+                                    inbound.setOption(ChannelOption.AUTO_READ, true);
+                                });
+                    }
+                })
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).asStage().get();
+    }
+
+    private static Channel newClient(SocketAddress address, ChannelHandler handler) throws Exception {
+        return new Bootstrap()
+                .group(GROUP)
+                .channel(EpollSocketChannel.class)
+                .handler(handler)
+                .connect(address).asStage().get();
+    }
+
+    private static final class EchoHandler extends SimpleChannelInboundHandler<Buffer> {
+        EchoHandler() {
+            super(false);
+        }
+
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+
+        @Override
+        protected void messageReceived(ChannelHandlerContext ctx, Buffer msg) {
+            ctx.writeAndFlush(msg);
+        }
+    }
+
+    private static final class Collector extends SimpleChannelInboundHandler<Buffer> {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final int expected;
+        private final Promise<byte[]> received;
+
+        Collector(int expected) {
+            this.expected = expected;
+            received = GROUP.next().newPromise();
+        }
+
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+
+        @Override
+        protected void messageReceived(ChannelHandlerContext ctx, Buffer msg) {
+            byte[] bytes = new byte[msg.readableBytes()];
+            msg.readBytes(bytes, 0, bytes.length);
+            out.write(bytes, 0, bytes.length);
+            if (out.size() >= expected) {
+                received.trySuccess(out.toByteArray());
+            }
+        }
+
+        @Override
+        public void channelExceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            received.tryFailure(cause);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.epoll;
+
+import io.netty5.bootstrap.Bootstrap;
+import io.netty5.bootstrap.ServerBootstrap;
+import io.netty5.buffer.Buffer;
+import io.netty5.channel.Channel;
+import io.netty5.channel.ChannelHandler;
+import io.netty5.channel.ChannelHandlerContext;
+import io.netty5.channel.ChannelOption;
+import io.netty5.channel.DefaultSelectStrategyFactory;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.SimpleChannelInboundHandler;
+import io.netty5.channel.socket.SocketProtocolFamily;
+import io.netty5.util.NetUtil;
+import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.Promise;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpollZeroCopyTest {
+    private static final int THRESHOLD = 16 * 1024;
+    private static final byte[] DATA = new byte[4 * 1024 * 1024];
+    private static EventLoopGroup GROUP;
+
+    @BeforeAll
+    public static void beforeClass() {
+        new Random().nextBytes(DATA);
+        GROUP = new MultithreadEventLoopGroup(2, EpollHandler.newFactory());
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        GROUP.shutdownGracefully();
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testZeroCopyWrites() throws Throwable {
+        Collector collector = new Collector(DATA.length);
+        Channel server = new ServerBootstrap()
+                .group(GROUP)
+                .channel(EpollServerSocketChannel.class)
+                .childHandler(collector)
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).asStage().get();
+        EpollSocketChannel client = (EpollSocketChannel) new Bootstrap()
+                .group(GROUP)
+                .channel(EpollSocketChannel.class)
+                .option(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, THRESHOLD)
+                .handler(new ChannelHandler() { })
+                .connect(server.localAddress()).asStage().get();
+        try {
+            assertEquals(THRESHOLD, client.getOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+
+            // Mix writes below and above the threshold, single and gathering ones.
+            Random random = new Random();
+            List<Future<Void>> futures = new ArrayList<>();
+            int offset = 0;
+            while (offset < DATA.length) {
+                int len = Math.min(DATA.length - offset, random.nextBoolean() ?
+                        random.nextInt(THRESHOLD) + 1 : THRESHOLD + random.nextInt(8 * THRESHOLD));
+                Buffer buf = client.bufferAllocator().allocate(len);
+                buf.writeBytes(DATA, offset, len);
+                offset += len;
+                if (random.nextInt(4) == 0) {
+                    futures.add(client.writeAndFlush(buf));
+                } else {
+                    futures.add(client.write(buf));
+                }
+            }
+            client.flush();
+            for (Future<Void> future : futures) {
+                future.asStage().sync();
+            }
+            assertArrayEquals(DATA, collector.received.asFuture().asStage().get());
+
+            // All sends were received, so the kernel will post the remaining notifications soon.
+            while (client.executor().submit(client::pendingZeroCopySends).asStage().get() > 0) {
+                Thread.sleep(10);
+            }
+        } finally {
+            client.close().asStage().sync();
+            server.close().asStage().sync();
+        }
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testCloseWithOutstandingZeroCopySends() throws Throwable {
+        AtomicReference<EpollHandler> handler = new AtomicReference<>();
+        EventLoopGroup group = new MultithreadEventLoopGroup(1, () -> {
+            handler.set(new EpollHandler(0, DefaultSelectStrategyFactory.INSTANCE.newSelectStrategy()));
+            return handler.get();
+        });
+        // Don't read until the client was closed, so the kernel keeps sending from the buffers of the client.
+        Collector collector = new Collector(Integer.MAX_VALUE);
+        Channel server = new ServerBootstrap()
+                .group(GROUP)
+                .channel(EpollServerSocketChannel.class)
+                .childOption(ChannelOption.AUTO_READ, false)
+                .childHandler(collector)
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).asStage().get();
+        try {
+            EpollSocketChannel client = (EpollSocketChannel) new Bootstrap()
+                    .group(group)
+                    .channel(EpollSocketChannel.class)
+                    .option(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, THRESHOLD)
+                    .handler(new ChannelHandler() { })
+                    .connect(server.localAddress()).asStage().get();
+            for (int offset = 0; offset < DATA.length; offset += THRESHOLD) {
+                Buffer buf = client.bufferAllocator().allocate(THRESHOLD);
+                buf.writeBytes(DATA, offset, THRESHOLD);
+                client.write(buf);
+            }
+            client.flush();
+            while (client.executor().submit(client::pendingZeroCopySends).asStage().get() == 0) {
+                Thread.sleep(10);
+            }
+            client.close().asStage().sync();
+            assertEquals(1, group.next().submit(() -> handler.get().zeroCopyOrphans()).asStage().get());
+
+            // Reuse the memory, which would corrupt the data that is still sent if the buffers were released.
+            for (int i = 0; i < DATA.length / THRESHOLD; i++) {
+                try (Buffer buf = client.bufferAllocator().allocate(THRESHOLD)) {
+                    buf.writeBytes(new byte[THRESHOLD]);
+                }
+            }
+
+            while (collector.channel == null) {
+                Thread.sleep(10);
+            }
+            collector.channel.setOption(ChannelOption.AUTO_READ, true);
+            byte[] received = collector.received.asFuture().asStage().get();
+            assertTrue(received.length > 0);
+            assertArrayEquals(Arrays.copyOf(DATA, received.length), received);
+
+            // All sends were received, so the kernel will post the remaining notifications soon.
+            while (group.next().submit(() -> handler.get().zeroCopyOrphans()).asStage().get() > 0) {
+                Thread.sleep(10);
+            }
+        } finally {
+            server.close().asStage().sync();
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testZeroCopyThreshold() throws Throwable {
+        EpollSocketChannel ch = new EpollSocketChannel(GROUP.next());
+        try {
+            assertEquals(-1, ch.getOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+            ch.setOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, 0);
+            assertEquals(0, ch.getOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+            ch.setOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, -1);
+            assertEquals(-1, ch.getOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+            assertThrows(IllegalArgumentException.class,
+                    () -> ch.setOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, -2));
+        } finally {
+            ch.fd().close();
+        }
+    }
+
+    @Test
+    public void testZeroCopyNotSupportedByDomainSocket() throws Throwable {
+        EpollSocketChannel ch = new EpollSocketChannel(GROUP.next(), SocketProtocolFamily.UNIX);
+        try {
+            assertFalse(ch.isOptionSupported(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+        } finally {
+            ch.fd().close();
+        }
+    }
+
+    private static final class Collector extends SimpleChannelInboundHandler<Buffer> {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final int expected;
+        private final Promise<byte[]> received;
+        volatile Channel channel;
+
+        Collector(int expected) {
+            this.expected = expected;
+            received = GROUP.next().newPromise();
+        }
+
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            channel = ctx.channel();
+        }
+
+        @Override
+        protected void messageReceived(ChannelHandlerContext ctx, Buffer msg) {
+            byte[] bytes = new byte[msg.readableBytes()];
+            msg.readBytes(bytes, 0, bytes.length);
+            out.write(bytes, 0, bytes.length);
+            if (out.size() >= expected) {
+                received.trySuccess(out.toByteArray());
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            received.trySuccess(out.toByteArray());
+        }
+
+        @Override
+        public void channelExceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            received.tryFailure(cause);
+        }
+    }
+}
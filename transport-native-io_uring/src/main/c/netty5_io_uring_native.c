@@ -233,13 +233,18 @@ done:
 }
 
 
-static jobjectArray netty5_io_uring_setup(JNIEnv *env, jclass clazz, jint entries) {
+static jobjectArray netty5_io_uring_setup(JNIEnv *env, jclass clazz, jint entries, jint flags, jint sq_thread_idle,
+                                          jint sq_thread_cpu, jint wq_fd) {
     struct io_uring_params p;
     memset(&p, 0, sizeof(p));
 
+    p.flags = flags;
 #ifdef IORING_SETUP_SUBMIT_ALL
-    p.flags = IORING_SETUP_SUBMIT_ALL;
+    p.flags |= IORING_SETUP_SUBMIT_ALL;
 #endif
+    p.sq_thread_idle = sq_thread_idle;
+    p.sq_thread_cpu = sq_thread_cpu;
+    p.wq_fd = wq_fd;
 
     jobjectArray array = (*env)->NewObjectArray(env, 2, longArrayClass, NULL);
     if (array == NULL) {
@@ -270,6 +275,13 @@ static jobjectArray netty5_io_uring_setup(JNIEnv *env, jclass clazz, jint entrie
         }
         return NULL;
     }
+    if ((p.flags & IORING_SETUP_SQPOLL) && !(p.features & IORING_FEAT_SQPOLL_NONFIXED)) {
+        // Before Linux 5.11, a polled submission queue only works with fixed files, and requires privileges.
+        close(ring_fd);
+        netty5_unix_errors_throwRuntimeExceptionErrorNo(env,
+            "failed to create io_uring ring fd with IORING_SETUP_SQPOLL, which requires Linux 5.11+: ", EINVAL);
+        return NULL;
+    }
     struct io_uring io_uring_ring;
     int ret = setup_io_uring(ring_fd, &io_uring_ring, &p);
 
@@ -311,6 +323,80 @@ static jobjectArray netty5_io_uring_setup(JNIEnv *env, jclass clazz, jint entrie
     return array;
 }
 
+static jlong netty5_io_uring_register_buf_ring(JNIEnv *env, jclass clazz, jint ring_fd, jint entries, jshort bgid) {
+    size_t ring_size = entries * sizeof(struct io_uring_buf);
+    void *mapped = mmap(NULL, ring_size, PROT_READ | PROT_WRITE, MAP_ANONYMOUS | MAP_PRIVATE, -1, 0);
+    if (mapped == MAP_FAILED) {
+        return -errno;
+    }
+
+    struct io_uring_buf_reg reg;
+    memset(&reg, 0, sizeof(reg));
+    reg.ring_addr = (unsigned long) mapped;
+    reg.ring_entries = entries;
+    reg.bgid = (__u16) bgid;
+
+    if (sys_io_uring_register(ring_fd, IORING_REGISTER_PBUF_RING, &reg, 1) < 0) {
+        int err = errno;
+        munmap(mapped, ring_size);
+        return -err;
+    }
+    // The ring memory is zero-filled by mmap, so the tail is already initialized to zero.
+    return (jlong) mapped;
+}
+
+static jint netty5_io_uring_unregister_buf_ring(JNIEnv *env, jclass clazz, jint ring_fd, jlong ring_addr, jint entries,
+                                                jshort bgid) {
+    struct io_uring_buf_reg reg;
+    memset(&reg, 0, sizeof(reg));
+    reg.bgid = (__u16) bgid;
+
+    int ret = sys_io_uring_register(ring_fd, IORING_UNREGISTER_PBUF_RING, &reg, 1);
+    int err = errno;
+    munmap((void *) ring_addr, entries * sizeof(struct io_uring_buf));
+    return ret < 0 ? -err : ret;
+}
+
+static jint netty5_io_uring_register_files(JNIEnv *env, jclass clazz, jint ring_fd, jint count) {
+    int *fds = malloc(count * sizeof(int));
+    if (fds == NULL) {
+        return -ENOMEM;
+    }
+    // Register a sparse table, where all slots are empty until they are updated.
+    for (int i = 0; i < count; i++) {
+        fds[i] = -1;
+    }
+    int ret = sys_io_uring_register(ring_fd, IORING_REGISTER_FILES, fds, count);
+    int err = errno;
+    free(fds);
+    return ret < 0 ? -err : ret;
+}
+
+static jint netty5_io_uring_register_files_update(JNIEnv *env, jclass clazz, jint ring_fd, jint offset, jint fd) {
+    __s32 fds[1] = { fd };
+    struct io_uring_files_update update;
+    memset(&update, 0, sizeof(update));
+    update.offset = offset;
+    update.fds = (unsigned long) fds;
+
+    int ret = sys_io_uring_register(ring_fd, IORING_REGISTER_FILES_UPDATE, &update, 1);
+    return ret < 0 ? -errno : ret;
+}
+
+static jint netty5_io_uring_register_buffers(JNIEnv *env, jclass clazz, jint ring_fd, jlong address, jlong length) {
+    struct iovec iov;
+    iov.iov_base = (void *) address;
+    iov.iov_len = (size_t) length;
+
+    int ret = sys_io_uring_register(ring_fd, IORING_REGISTER_BUFFERS, &iov, 1);
+    return ret < 0 ? -errno : ret;
+}
+
+static jint netty5_io_uring_unregister_buffers(JNIEnv *env, jclass clazz, jint ring_fd) {
+    int ret = sys_io_uring_register(ring_fd, IORING_UNREGISTER_BUFFERS, NULL, 0);
+    return ret < 0 ? -errno : ret;
+}
+
 static jint netty5_create_file(JNIEnv *env, jclass class, jstring filename) {
     const char *file = (*env)->GetStringUTFChars(env, filename, 0);
 
@@ -341,6 +427,10 @@ static jint netty5_io_uring_afInet6(JNIEnv* env, jclass clazz) {
     return AF_INET6;
 }
 
+static jint netty5_io_uring_afUnix(JNIEnv* env, jclass clazz) {
+    return AF_UNIX;
+}
+
 static jint netty5_io_uring_sizeofSockaddrIn(JNIEnv* env, jclass clazz) {
     return sizeof(struct sockaddr_in);
 }
@@ -389,6 +479,14 @@ static jint netty5_io_uring_in6AddressOffsetofS6Addr(JNIEnv* env, jclass clazz)
     return offsetof(struct in6_addr, s6_addr);
 }
 
+static jint netty5_io_uring_sizeofSockaddrUn(JNIEnv* env, jclass clazz) {
+    return sizeof(struct sockaddr_un);
+}
+
+static jint netty5_io_uring_sockaddrUnOffsetofSunPath(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_un, sun_path);
+}
+
 static jint netty5_io_uring_sizeofSockaddrStorage(JNIEnv* env, jclass clazz) {
     return sizeof(struct sockaddr_storage);
 }
@@ -483,6 +581,18 @@ static jint netty5_io_uring_ecanceled(JNIEnv* env, jclass clazz) {
     return ECANCELED;
 }
 
+static jint netty5_io_uring_einval(JNIEnv* env, jclass clazz) {
+    return EINVAL;
+}
+
+static jint netty5_io_uring_enobufs(JNIEnv* env, jclass clazz) {
+    return ENOBUFS;
+}
+
+static jint netty5_io_uring_eopnotsupp(JNIEnv* env, jclass clazz) {
+    return EOPNOTSUPP;
+}
+
 static jint netty5_io_uring_pollin(JNIEnv* env, jclass clazz) {
     return POLLIN;
 }
@@ -511,6 +621,66 @@ static jint netty5_io_uring_iosqeDrain(JNIEnv* env, jclass clazz) {
     return IOSQE_IO_DRAIN;
 }
 
+static jint netty5_io_uring_ioringAcceptMultishot(JNIEnv* env, jclass clazz) {
+    return IORING_ACCEPT_MULTISHOT;
+}
+
+static jint netty5_io_uring_ioringCqeFMore(JNIEnv* env, jclass clazz) {
+    return IORING_CQE_F_MORE;
+}
+
+static jint netty5_io_uring_ioringRecvMultishot(JNIEnv* env, jclass clazz) {
+    return IORING_RECV_MULTISHOT;
+}
+
+static jint netty5_io_uring_ioringCqeFBuffer(JNIEnv* env, jclass clazz) {
+    return IORING_CQE_F_BUFFER;
+}
+
+static jint netty5_io_uring_ioringCqeBufferShift(JNIEnv* env, jclass clazz) {
+    return IORING_CQE_BUFFER_SHIFT;
+}
+
+static jint netty5_io_uring_ioringCqeFNotif(JNIEnv* env, jclass clazz) {
+    return IORING_CQE_F_NOTIF;
+}
+
+static jint netty5_io_uring_iosqeBufferSelect(JNIEnv* env, jclass clazz) {
+    return IOSQE_BUFFER_SELECT;
+}
+
+static jint netty5_io_uring_iosqeFixedFile(JNIEnv* env, jclass clazz) {
+    return IOSQE_FIXED_FILE;
+}
+
+static jint netty5_io_uring_ioringSetupSqpoll(JNIEnv* env, jclass clazz) {
+    return IORING_SETUP_SQPOLL;
+}
+
+static jint netty5_io_uring_ioringSetupSqAff(JNIEnv* env, jclass clazz) {
+    return IORING_SETUP_SQ_AFF;
+}
+
+static jint netty5_io_uring_ioringSetupAttachWq(JNIEnv* env, jclass clazz) {
+    return IORING_SETUP_ATTACH_WQ;
+}
+
+static jint netty5_io_uring_ioringSqNeedWakeup(JNIEnv* env, jclass clazz) {
+    return IORING_SQ_NEED_WAKEUP;
+}
+
+static jint netty5_io_uring_ioringSqCqOverflow(JNIEnv* env, jclass clazz) {
+    return IORING_SQ_CQ_OVERFLOW;
+}
+
+static jint netty5_io_uring_ioringEnterSqWakeup(JNIEnv* env, jclass clazz) {
+    return IORING_ENTER_SQ_WAKEUP;
+}
+
+static jint netty5_io_uring_ioringEnterSqWait(JNIEnv* env, jclass clazz) {
+    return IORING_ENTER_SQ_WAIT;
+}
+
 static jint netty5_io_uring_msgDontwait(JNIEnv* env, jclass clazz) {
     return MSG_DONTWAIT;
 }
@@ -527,6 +697,26 @@ static jint netty5_io_uring_cmsgLen(JNIEnv* env, jclass clazz) {
     return CMSG_LEN(sizeof(uint16_t));
 }
 
+static jint netty5_io_uring_cmsgSpaceFd(JNIEnv* env, jclass clazz) {
+    return CMSG_SPACE(sizeof(int));
+}
+
+static jint netty5_io_uring_cmsgLenFd(JNIEnv* env, jclass clazz) {
+    return CMSG_LEN(sizeof(int));
+}
+
+static jint netty5_io_uring_solSocket(JNIEnv* env, jclass clazz) {
+    return SOL_SOCKET;
+}
+
+static jint netty5_io_uring_scmRights(JNIEnv* env, jclass clazz) {
+    return SCM_RIGHTS;
+}
+
+static jint netty5_io_uring_msgCmsgCloexec(JNIEnv* env, jclass clazz) {
+    return MSG_CMSG_CLOEXEC;
+}
+
 static jint netty5_io_uring_solUdp(JNIEnv* env, jclass clazz) {
     return SOL_UDP;
 }
@@ -541,6 +731,7 @@ static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "sockCloexec", "()I", (void *) netty5_io_uring_sockCloexec },
   { "afInet", "()I", (void *) netty5_io_uring_afInet },
   { "afInet6", "()I", (void *) netty5_io_uring_afInet6 },
+  { "afUnix", "()I", (void *) netty5_io_uring_afUnix },
   { "sizeofSockaddrIn", "()I", (void *) netty5_io_uring_sizeofSockaddrIn },
   { "sizeofSockaddrIn6", "()I", (void *) netty5_io_uring_sizeofSockaddrIn6 },
   { "sockaddrInOffsetofSinFamily", "()I", (void *) netty5_io_uring_sockaddrInOffsetofSinFamily },
@@ -553,11 +744,15 @@ static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "sockaddrIn6OffsetofSin6Addr", "()I", (void *) netty5_io_uring_sockaddrIn6OffsetofSin6Addr },
   { "sockaddrIn6OffsetofSin6ScopeId", "()I", (void *) netty5_io_uring_sockaddrIn6OffsetofSin6ScopeId },
   { "in6AddressOffsetofS6Addr", "()I", (void *) netty5_io_uring_in6AddressOffsetofS6Addr },
+  { "sizeofSockaddrUn", "()I", (void *) netty5_io_uring_sizeofSockaddrUn },
+  { "sockaddrUnOffsetofSunPath", "()I", (void *) netty5_io_uring_sockaddrUnOffsetofSunPath },
   { "sizeofSockaddrStorage", "()I", (void *) netty5_io_uring_sizeofSockaddrStorage },
   { "sizeofSizeT", "()I", (void *) netty5_io_uring_sizeofSizeT },
   { "sizeofIovec", "()I", (void *) netty5_io_uring_sizeofIovec },
   { "cmsgSpace", "()I", (void *) netty5_io_uring_cmsgSpace},
   { "cmsgLen", "()I", (void *) netty5_io_uring_cmsgLen},
+  { "cmsgSpaceFd", "()I", (void *) netty5_io_uring_cmsgSpaceFd},
+  { "cmsgLenFd", "()I", (void *) netty5_io_uring_cmsgLenFd},
   { "iovecOffsetofIovBase", "()I", (void *) netty5_io_uring_iovecOffsetofIovBase },
   { "iovecOffsetofIovLen", "()I", (void *) netty5_io_uring_iovecOffsetofIovLen },
   { "sizeofMsghdr", "()I", (void *) netty5_io_uring_sizeofMsghdr },
@@ -570,6 +765,9 @@ static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "msghdrOffsetofMsgFlags", "()I", (void *) netty5_io_uring_msghdrOffsetofMsgFlags },
   { "etime", "()I", (void *) netty5_io_uring_etime },
   { "ecanceled", "()I", (void *) netty5_io_uring_ecanceled },
+  { "einval", "()I", (void *) netty5_io_uring_einval },
+  { "enobufs", "()I", (void *) netty5_io_uring_enobufs },
+  { "eopnotsupp", "()I", (void *) netty5_io_uring_eopnotsupp },
   { "pollin", "()I", (void *) netty5_io_uring_pollin },
   { "pollout", "()I", (void *) netty5_io_uring_pollout },
   { "pollrdhup", "()I", (void *) netty5_io_uring_pollrdhup },
@@ -577,8 +775,26 @@ static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "iosqeAsync", "()I", (void *) netty5_io_uring_iosqeAsync },
   { "iosqeLink", "()I", (void *) netty5_io_uring_iosqeLink },
   { "iosqeDrain", "()I", (void *) netty5_io_uring_iosqeDrain },
+  { "ioringAcceptMultishot", "()I", (void *) netty5_io_uring_ioringAcceptMultishot },
+  { "ioringCqeFMore", "()I", (void *) netty5_io_uring_ioringCqeFMore },
+  { "ioringRecvMultishot", "()I", (void *) netty5_io_uring_ioringRecvMultishot },
+  { "ioringCqeFBuffer", "()I", (void *) netty5_io_uring_ioringCqeFBuffer },
+  { "ioringCqeBufferShift", "()I", (void *) netty5_io_uring_ioringCqeBufferShift },
+  { "ioringCqeFNotif", "()I", (void *) netty5_io_uring_ioringCqeFNotif },
+  { "iosqeBufferSelect", "()I", (void *) netty5_io_uring_iosqeBufferSelect },
+  { "iosqeFixedFile", "()I", (void *) netty5_io_uring_iosqeFixedFile },
+  { "ioringSetupSqpoll", "()I", (void *) netty5_io_uring_ioringSetupSqpoll },
+  { "ioringSetupSqAff", "()I", (void *) netty5_io_uring_ioringSetupSqAff },
+  { "ioringSetupAttachWq", "()I", (void *) netty5_io_uring_ioringSetupAttachWq },
+  { "ioringSqNeedWakeup", "()I", (void *) netty5_io_uring_ioringSqNeedWakeup },
+  { "ioringSqCqOverflow", "()I", (void *) netty5_io_uring_ioringSqCqOverflow },
+  { "ioringEnterSqWakeup", "()I", (void *) netty5_io_uring_ioringEnterSqWakeup },
+  { "ioringEnterSqWait", "()I", (void *) netty5_io_uring_ioringEnterSqWait },
   { "msgDontwait", "()I", (void *) netty5_io_uring_msgDontwait },
   { "msgFastopen", "()I", (void *) netty5_io_uring_msgFastopen },
+  { "msgCmsgCloexec", "()I", (void *) netty5_io_uring_msgCmsgCloexec },
+  { "solSocket", "()I", (void *) netty5_io_uring_solSocket },
+  { "scmRights", "()I", (void *) netty5_io_uring_scmRights },
   { "solUdp", "()I", (void *) netty5_io_uring_solUdp },
   { "udpSegment", "()I", (void *) netty5_io_uring_udpSegment },
   { "cmsghdrOffsetofCmsgLen", "()I", (void *) netty5_io_uring_cmsghdrOffsetofCmsgLen },
@@ -589,9 +805,15 @@ static const JNINativeMethod statically_referenced_fixed_method_table[] = {
 static const jint statically_referenced_fixed_method_table_size = sizeof(statically_referenced_fixed_method_table) / sizeof(statically_referenced_fixed_method_table[0]);
 
 static const JNINativeMethod method_table[] = {
-    {"ioUringSetup", "(I)[[J", (void *) netty5_io_uring_setup},
+    {"ioUringSetup", "(IIIII)[[J", (void *) netty5_io_uring_setup},
     {"ioUringProbe", "(I[I)Z", (void *) netty5_io_uring_probe},
     {"ioUringExit", "(JIJIJII)V", (void *) netty5_io_uring_ring_buffer_exit},
+    {"ioUringRegisterBufRing", "(IIS)J", (void *) netty5_io_uring_register_buf_ring},
+    {"ioUringUnregisterBufRing", "(IJIS)I", (void *) netty5_io_uring_unregister_buf_ring},
+    {"ioUringRegisterFiles", "(II)I", (void *) netty5_io_uring_register_files},
+    {"ioUringRegisterFilesUpdate", "(III)I", (void *) netty5_io_uring_register_files_update},
+    {"ioUringRegisterBuffers", "(IJJ)I", (void *) netty5_io_uring_register_buffers},
+    {"ioUringUnregisterBuffers", "(I)I", (void *) netty5_io_uring_unregister_buffers},
     {"createFile", "(Ljava/lang/String;)I", (void *) netty5_create_file},
     {"ioUringEnter", "(IIII)I", (void *) netty5_io_uring_enter},
     {"blockingEventFd", "()I", (void *) netty5_epoll_native_blocking_event_fd},
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.uring;
+
+import io.netty5.channel.EventLoop;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.MultithreadEventLoopGroup;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class IOUringHandlerMetricTest {
+
+    @BeforeAll
+    public static void loadJNI() {
+        assumeTrue(IOUring.isAvailable());
+    }
+
+    @Test
+    public void testLatencyBuckets() {
+        assertEquals(0, IOUringHandlerMetrics.bucket(0));
+        assertEquals(0, IOUringHandlerMetrics.bucket(999));
+        assertEquals(1, IOUringHandlerMetrics.bucket(1000));
+        assertEquals(2, IOUringHandlerMetrics.bucket(2000));
+        assertEquals(2, IOUringHandlerMetrics.bucket(3999));
+        assertEquals(3, IOUringHandlerMetrics.bucket(4000));
+        assertEquals(IOUringHandlerMetrics.LATENCY_BUCKETS - 1, IOUringHandlerMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testTrackLatency() {
+        IOUringHandlerMetrics metrics = new IOUringHandlerMetrics(16, 32, true);
+        long write = UserData.encode(5, Native.IORING_OP_WRITEV, (short) 1);
+        long read = UserData.encode(5, Native.IORING_OP_READ, (short) 2);
+        metrics.queued(write);
+        metrics.queued(read);
+        metrics.submitted(2, true);
+        long now = metrics.reaping(2, 0, 0, 0);
+        metrics.completed(write, now);
+        metrics.completed(read, now);
+        // Not tracked anymore, so it must not be counted twice.
+        metrics.completed(read, now);
+
+        assertEquals(1, metrics.submitCalls());
+        assertEquals(1, metrics.enterCalls());
+        assertEquals(2, metrics.submittedEntries());
+        assertEquals(1, metrics.completionBatches());
+        assertEquals(2, metrics.completedEntries());
+        Map<String, long[]> histograms = metrics.latencyHistograms();
+        assertThat(histograms).containsOnlyKeys("WRITEV", "READ");
+        assertEquals(1, sum(histograms.get("WRITEV")));
+        assertEquals(1, sum(histograms.get("READ")));
+    }
+
+    @Test
+    public void testNoLatencyTracking() {
+        IOUringHandlerMetrics metrics = new IOUringHandlerMetrics(16, 32, false);
+        long write = UserData.encode(5, Native.IORING_OP_WRITEV, (short) 1);
+        metrics.queued(write);
+        metrics.submitted(1, false);
+        metrics.completed(write, metrics.reaping(1, Native.IORING_SQ_CQ_OVERFLOW, 3, 0));
+
+        assertEquals(1, metrics.submitCalls());
+        assertEquals(0, metrics.enterCalls());
+        assertEquals(1, metrics.completionQueueOverflows());
+        assertEquals(3, metrics.droppedCompletions());
+        assertThat(metrics.latencyHistograms()).isEmpty();
+    }
+
+    @Test
+    public void testMetricListener() throws Exception {
+        CopyOnWriteArrayList<IOUringHandlerMetric> metrics = new CopyOnWriteArrayList<>();
+        EventLoopGroup group = new MultithreadEventLoopGroup(2, IOUring.newFactory(new IOUringHandlerConfig()
+                .setMetricListener(metrics::add).setLatencyTracking(true)));
+        try {
+            assertEquals(2, metrics.size());
+            EventLoop loop = group.next();
+            // Waiting for the scheduled task submits a timeout.
+            loop.schedule(() -> { }, 10, TimeUnit.MILLISECONDS).asStage().sync();
+            loop.submit(() -> { }).asStage().sync();
+
+            long submitted = 0;
+            long completed = 0;
+            boolean timeoutTracked = false;
+            for (IOUringHandlerMetric metric : metrics) {
+                assertThat(metric.submissionQueueSize()).isPositive();
+                assertThat(metric.completionQueueSize()).isGreaterThanOrEqualTo(metric.submissionQueueSize());
+                assertThat(metric.submittedEntries()).isGreaterThanOrEqualTo(metric.submitCalls());
+                submitted += metric.submittedEntries();
+                completed += metric.completedEntries();
+                timeoutTracked |= metric.latencyHistograms().containsKey("TIMEOUT");
+            }
+            assertThat(submitted).isPositive();
+            assertThat(completed).isPositive();
+            assertThat(timeoutTracked).isTrue();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    private static long sum(long[] histogram) {
+        long sum = 0;
+        for (long count : histogram) {
+            sum += count;
+        }
+        return sum;
+    }
+}
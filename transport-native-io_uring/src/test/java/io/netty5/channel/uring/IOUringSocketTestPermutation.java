@@ -23,7 +23,10 @@ import io.netty5.channel.ChannelFactory;
 import io.netty5.channel.EventLoop;
 import io.netty5.channel.EventLoopGroup;
 import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.ServerChannel;
+import io.netty5.channel.ServerChannelFactory;
 import io.netty5.channel.socket.SocketChannelWriteHandleFactory;
+import io.netty5.channel.socket.SocketProtocolFamily;
 import io.netty5.channel.socket.nio.NioDatagramChannel;
 import io.netty5.channel.socket.nio.NioServerSocketChannel;
 import io.netty5.channel.socket.nio.NioSocketChannel;
@@ -41,6 +44,7 @@ import java.io.FileReader;
 import java.net.ProtocolFamily;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static io.netty5.channel.unix.Limits.SSIZE_MAX;
@@ -53,6 +57,25 @@ public class IOUringSocketTestPermutation extends SocketTestPermutation {
             BOSSES, new DefaultThreadFactory("testsuite-io_uring-boss", true), IOUring.newFactory());
     static final EventLoopGroup IO_URING_WORKER_GROUP = new MultithreadEventLoopGroup(
             WORKERS, new DefaultThreadFactory("testsuite-io_uring-worker", true), IOUring.newFactory());
+    // Keep the buffer ring small, so running out of buffers is also covered.
+    static final EventLoopGroup IO_URING_BUFFER_RING_WORKER_GROUP = new MultithreadEventLoopGroup(
+            WORKERS, new DefaultThreadFactory("testsuite-io_uring-buffer-ring-worker", true),
+            IOUring.newFactory(new IOUringHandlerConfig().setBufferRingSize(64).setBufferRingBufferSize(1024)));
+    // Keep the tables small, so running out of slots and buffers is also covered.
+    static final EventLoopGroup IO_URING_FIXED_WORKER_GROUP = new MultithreadEventLoopGroup(
+            WORKERS, new DefaultThreadFactory("testsuite-io_uring-fixed-worker", true),
+            IOUring.newFactory(new IOUringHandlerConfig().setFixedFileTableSize(8)
+                    .setFixedBufferCount(16).setFixedBufferSize(16384)));
+    // Use a short idle timeout, so the polling thread also goes to sleep and has to be woken up.
+    static final EventLoopGroup IO_URING_SQPOLL_GROUP = new MultithreadEventLoopGroup(
+            WORKERS, new DefaultThreadFactory("testsuite-io_uring-sqpoll", true),
+            IOUring.newFactory(new IOUringHandlerConfig().setSubmissionPolling(true)
+                    .setSubmissionPollingIdleTimeout(10).setSharedKernelWorkers(true)));
+    // Also record metrics, with latency tracking, so that is covered under load too.
+    static final EventLoopGroup IO_URING_BATCHING_GROUP = new MultithreadEventLoopGroup(
+            WORKERS, new DefaultThreadFactory("testsuite-io_uring-batching", true),
+            IOUring.newFactory(new IOUringHandlerConfig().setSubmitBatching(true)
+                    .setMetricListener(metric -> { }).setLatencyTracking(true)));
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringSocketTestPermutation.class);
 
@@ -67,10 +90,70 @@ public class IOUringSocketTestPermutation extends SocketTestPermutation {
         return list;
     }
 
+    /**
+     * Permutations where the io_uring channels send all writes with zero-copy, combined with each other and with NIO.
+     */
+    public List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> socketWithZeroCopySend() {
+        return comboWithNio(
+                () -> new ServerBootstrap().group(IO_URING_BOSS_GROUP, IO_URING_WORKER_GROUP)
+                        .channel(IOUringServerSocketChannel.class)
+                        .childOption(IOUringChannelOption.SEND_ZC_THRESHOLD, 0),
+                () -> new Bootstrap().group(IO_URING_WORKER_GROUP).channel(IOUringSocketChannel.class)
+                        .option(IOUringChannelOption.SEND_ZC_THRESHOLD, 0));
+    }
+
+    /**
+     * Permutations where the io_uring channels use a fixed file table and fixed buffers, combined with each other and
+     * with NIO.
+     */
+    public List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> socketWithFixedFilesAndBuffers() {
+        return comboWithNio(
+                () -> new ServerBootstrap().group(IO_URING_FIXED_WORKER_GROUP, IO_URING_FIXED_WORKER_GROUP)
+                        .channel(IOUringServerSocketChannel.class),
+                () -> new Bootstrap().group(IO_URING_FIXED_WORKER_GROUP).channel(IOUringSocketChannel.class));
+    }
+
+    /**
+     * Permutations where the io_uring channels use rings with submission queue polling, that share their kernel
+     * workers, combined with each other and with NIO.
+     */
+    public List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> socketWithSubmissionPolling() {
+        return comboWithNio(
+                () -> new ServerBootstrap().group(IO_URING_SQPOLL_GROUP, IO_URING_SQPOLL_GROUP)
+                        .channel(IOUringServerSocketChannel.class),
+                () -> new Bootstrap().group(IO_URING_SQPOLL_GROUP).channel(IOUringSocketChannel.class));
+    }
+
+    /**
+     * Permutations where the io_uring channels use rings that batch their submissions, combined with each other and
+     * with NIO.
+     */
+    public List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> socketWithSubmitBatching() {
+        return comboWithNio(
+                () -> new ServerBootstrap().group(IO_URING_BATCHING_GROUP, IO_URING_BATCHING_GROUP)
+                        .channel(IOUringServerSocketChannel.class),
+                () -> new Bootstrap().group(IO_URING_BATCHING_GROUP).channel(IOUringSocketChannel.class));
+    }
+
+    private List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> comboWithNio(
+            BootstrapFactory<ServerBootstrap> server, BootstrapFactory<Bootstrap> client) {
+        List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> list = combo(
+                Arrays.asList(server, serverNioBootstrapBase()), Arrays.asList(client, clientNioBoostrapBase()));
+
+        list.remove(list.size() - 1); // Exclude NIO x NIO test
+
+        return list;
+    }
+
     @Override
     public List<BootstrapFactory<ServerBootstrap>> serverSocket() {
         List<BootstrapFactory<ServerBootstrap>> toReturn = new ArrayList<>();
         toReturn.add(serverIouBootstrapBase());
+        toReturn.add(() -> new ServerBootstrap().group(IO_URING_BOSS_GROUP, IO_URING_WORKER_GROUP)
+                .channel(IOUringServerSocketChannel.class)
+                .option(IOUringChannelOption.MULTISHOT_ACCEPT, true));
+        toReturn.add(() -> new ServerBootstrap().group(IO_URING_BOSS_GROUP, IO_URING_BUFFER_RING_WORKER_GROUP)
+                .channel(IOUringServerSocketChannel.class));
         if (isServerFastOpen()) {
             toReturn.add(() -> {
                 ServerBootstrap serverBootstrap = new ServerBootstrap().group(IO_URING_BOSS_GROUP,
@@ -97,10 +180,12 @@ public class IOUringSocketTestPermutation extends SocketTestPermutation {
 
     @Override
     public List<BootstrapFactory<Bootstrap>> clientSocket() {
-        return Arrays.asList(
-                clientIouBootstrapBase(),
-                clientNioBoostrapBase()
-        );
+        List<BootstrapFactory<Bootstrap>> toReturn = new ArrayList<>();
+        toReturn.add(clientIouBootstrapBase());
+        toReturn.add(() -> new Bootstrap().group(IO_URING_BUFFER_RING_WORKER_GROUP)
+                .channel(IOUringSocketChannel.class));
+        toReturn.add(clientNioBoostrapBase());
+        return toReturn;
     }
 
     private BootstrapFactory<Bootstrap> clientIouBootstrapBase() {
@@ -149,6 +234,69 @@ public class IOUringSocketTestPermutation extends SocketTestPermutation {
         return combo(bfs, bfs);
     }
 
+    public List<BootstrapComboFactory<ServerBootstrap, Bootstrap>> domainSocket() {
+        return combo(serverDomainSocket(), clientDomainSocket());
+    }
+
+    public List<BootstrapFactory<ServerBootstrap>> serverDomainSocket() {
+        return Collections.singletonList(
+                () -> new ServerBootstrap().group(IO_URING_BOSS_GROUP, IO_URING_WORKER_GROUP)
+                        .channelFactory(new ServerChannelFactory<>() {
+                            @Override
+                            public ServerChannel newChannel(EventLoop eventLoop, EventLoopGroup childEventLoopGroup) {
+                                return new IOUringServerSocketChannel(eventLoop, childEventLoopGroup,
+                                        SocketProtocolFamily.UNIX);
+                            }
+
+                            @Override
+                            public String toString() {
+                                return IOUringServerSocketChannel.class.getSimpleName()
+                                        + "(..., " + SocketProtocolFamily.UNIX + ')';
+                            }
+                        })
+        );
+    }
+
+    public List<BootstrapFactory<Bootstrap>> clientDomainSocket() {
+        return Collections.singletonList(
+                () -> new Bootstrap().group(IO_URING_WORKER_GROUP)
+                        .channelFactory(new ChannelFactory<>() {
+                            @Override
+                            public Channel newChannel(EventLoop eventLoop) {
+                                return new IOUringSocketChannel(eventLoop, SocketProtocolFamily.UNIX);
+                            }
+
+                            @Override
+                            public String toString() {
+                                return IOUringSocketChannel.class.getSimpleName()
+                                        + "(..., " + SocketProtocolFamily.UNIX + ')';
+                            }
+                        })
+        );
+    }
+
+    public List<BootstrapComboFactory<Bootstrap, Bootstrap>> domainDatagram() {
+        return combo(domainDatagramSocket(), domainDatagramSocket());
+    }
+
+    public List<BootstrapFactory<Bootstrap>> domainDatagramSocket() {
+        return Collections.singletonList(
+                () -> new Bootstrap().group(IO_URING_WORKER_GROUP)
+                        .channelFactory(new ChannelFactory<>() {
+                            @Override
+                            public Channel newChannel(EventLoop eventLoop) {
+                                return new IOUringDatagramChannel(eventLoop, SocketProtocolFamily.UNIX);
+                            }
+
+                            @Override
+                            public String toString() {
+                                return IOUringDatagramChannel.class.getSimpleName()
+                                        + "(..., " + SocketProtocolFamily.UNIX + ')';
+                            }
+                        })
+        );
+    }
+
     public boolean isServerFastOpen() {
         int fastopen = 0;
         File file = new File("/proc/sys/net/ipv4/tcp_fastopen");
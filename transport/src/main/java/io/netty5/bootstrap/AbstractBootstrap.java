@@ -237,7 +237,10 @@ public abstract class AbstractBootstrap<B extends AbstractBootstrap<B, C, F>, C
 
     private Future<Channel> doBind(final SocketAddress localAddress) {
         EventLoop loop = group.next();
-        final Future<Channel> regFuture = initAndRegister(loop);
+        return doBind(loop, initAndRegister(loop), localAddress);
+    }
+
+    final Future<Channel> doBind(EventLoop loop, final Future<Channel> regFuture, final SocketAddress localAddress) {
         if (regFuture.isFailed()) {
             return regFuture;
         }
@@ -275,7 +278,10 @@ public abstract class AbstractBootstrap<B extends AbstractBootstrap<B, C, F>, C
         } catch (Throwable t) {
             return loop.newFailedFuture(t);
         }
+        return initAndRegister(loop, channel);
+    }
 
+    final Future<Channel> initAndRegister(EventLoop loop, Channel channel) {
         Promise<Channel> promise = loop.newPromise();
         loop.execute(() -> init(channel).addListener(future -> {
             if (future.isSuccess()) {
@@ -26,13 +26,21 @@ import io.netty5.channel.EventLoopGroup;
 import io.netty5.channel.ReflectiveServerChannelFactory;
 import io.netty5.channel.ServerChannel;
 import io.netty5.channel.ServerChannelFactory;
+import io.netty5.channel.group.ChannelGroup;
+import io.netty5.channel.group.DefaultChannelGroup;
 import io.netty5.util.AttributeKey;
+import io.netty5.util.concurrent.EventExecutor;
 import io.netty5.util.concurrent.Future;
 import io.netty5.util.concurrent.Promise;
+import io.netty5.util.internal.SocketUtils;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
@@ -197,6 +205,86 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
         return channelFactory.newChannel(eventLoop, childGroup);
     }
 
+    /**
+     * Create one {@link ServerChannel} per {@link EventLoop} of the child {@link EventLoopGroup} and bind all of them
+     * to the given port.
+     *
+     * @see #bindSharded(SocketAddress)
+     */
+    public Future<ChannelGroup> bindSharded(int inetPort) {
+        return bindSharded(new InetSocketAddress(inetPort));
+    }
+
+    /**
+     * Create one {@link ServerChannel} per {@link EventLoop} of the child {@link EventLoopGroup} and bind all of them
+     * to the given host and port.
+     *
+     * @see #bindSharded(SocketAddress)
+     */
+    public Future<ChannelGroup> bindSharded(String inetHost, int inetPort) {
+        return bindSharded(SocketUtils.socketAddress(inetHost, inetPort));
+    }
+
+    /**
+     * Create one {@link ServerChannel} per {@link EventLoop} of the child {@link EventLoopGroup} and bind all of them
+     * to the given {@link SocketAddress}, so that one logical server is served by as many listening sockets.
+     * <p>
+     * Each {@link ServerChannel} is registered to its own {@link EventLoop}, and the {@link Channel}s it accepts are
+     * registered to that same {@link EventLoop}. This way accepting and serving a connection never hands it off to
+     * another thread, and the kernel spreads new connections across the listening sockets.
+     * <p>
+     * The transport must allow several sockets to be bound to the same address, which for the native transports
+     * means setting {@code UnixChannelOption.SO_REUSEPORT} via {@link #option(ChannelOption, Object)}. If
+     * {@code localAddress} uses the ephemeral port {@code 0}, all sockets are bound to the port the first one got.
+     * <p>
+     * The returned {@link ChannelGroup} contains all bound {@link ServerChannel}s and can be used to close them at
+     * once. If any of the binds fails, the already bound {@link ServerChannel}s are closed again.
+     */
+    public Future<ChannelGroup> bindSharded(SocketAddress localAddress) {
+        validate();
+        requireNonNull(localAddress, "localAddress");
+        List<EventLoop> loops = new ArrayList<>();
+        for (EventExecutor executor : childGroup) {
+            loops.add((EventLoop) executor);
+        }
+        EventLoop first = loops.get(0);
+        ChannelGroup channels = new DefaultChannelGroup("sharded(" + localAddress + ')', first);
+        Promise<ChannelGroup> promise = first.newPromise();
+        bindShard(loops, 0, localAddress, channels, promise);
+        return promise.asFuture();
+    }
+
+    private void bindShard(List<EventLoop> loops, int index, SocketAddress localAddress,
+                           ChannelGroup channels, Promise<ChannelGroup> promise) {
+        EventLoop loop = loops.get(index);
+        final ServerChannel channel;
+        try {
+            // The EventLoop acts as its own EventLoopGroup, so all accepted children stay on it.
+            channel = channelFactory.newChannel(loop, loop);
+        } catch (Throwable t) {
+            failShards(channels, promise, t);
+            return;
+        }
+        doBind(loop, initAndRegister(loop, channel), localAddress).addListener(future -> {
+            if (future.isFailed()) {
+                failShards(channels, promise, future.cause());
+                return;
+            }
+            Channel bound = future.getNow();
+            channels.add(bound);
+            if (index + 1 == loops.size()) {
+                promise.setSuccess(channels);
+            } else {
+                // Use the actual address of the first channel, so an ephemeral port is shared by all of them.
+                bindShard(loops, index + 1, index == 0 ? bound.localAddress() : localAddress, channels, promise);
+            }
+        });
+    }
+
+    private static void failShards(ChannelGroup channels, Promise<ChannelGroup> promise, Throwable cause) {
+        channels.close().addListener(future -> promise.setFailure(cause));
+    }
+
     @Override
     public ServerBootstrap validate() {
         super.validate();
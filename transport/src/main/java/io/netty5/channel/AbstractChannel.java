@@ -60,6 +60,7 @@ import static io.netty5.channel.ChannelOption.MESSAGE_SIZE_ESTIMATOR;
 import static io.netty5.channel.ChannelOption.READ_HANDLE_FACTORY;
 import static io.netty5.channel.ChannelOption.TCP_FASTOPEN_CONNECT;
 import static io.netty5.channel.ChannelOption.WRITE_BUFFER_WATER_MARK;
+import static io.netty5.channel.ChannelOption.WRITE_COALESCING_THRESHOLD;
 import static io.netty5.channel.ChannelOption.WRITE_HANDLE_FACTORY;
 import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
 import static java.lang.Math.min;
@@ -115,6 +116,7 @@ public abstract class AbstractChannel<P extends Channel, L extends SocketAddress
     private volatile boolean autoClose = true;
     private volatile WriteBufferWaterMark writeBufferWaterMark = WriteBufferWaterMark.DEFAULT;
     private volatile boolean allowHalfClosure;
+    private volatile int writeCoalescingThreshold;
 
     /** Cache for the string representation of this channel */
     private boolean strValActive;
@@ -1017,7 +1019,7 @@ public abstract class AbstractChannel<P extends Channel, L extends SocketAddress
             return;
         }
 
-        outboundBuffer.addFlush();
+        outboundBuffer.addFlush(writeCoalescingThreshold, bufferAllocator());
         writeFlushed();
     }
 
@@ -1570,6 +1572,9 @@ public abstract class AbstractChannel<P extends Channel, L extends SocketAddress
         if (option == ALLOW_HALF_CLOSURE) {
             return (T) Boolean.valueOf(isAllowHalfClosure());
         }
+        if (option == WRITE_COALESCING_THRESHOLD) {
+            return (T) Integer.valueOf(getWriteCoalescingThreshold());
+        }
 
         return getExtendedOption(option);
     }
@@ -1610,6 +1615,8 @@ public abstract class AbstractChannel<P extends Channel, L extends SocketAddress
             setMessageSizeEstimator((MessageSizeEstimator) value);
         } else if (option == ALLOW_HALF_CLOSURE) {
             setAllowHalfClosure((Boolean) value);
+        } else if (option == WRITE_COALESCING_THRESHOLD) {
+            setWriteCoalescingThreshold((Integer) value);
         } else {
             setExtendedOption(option, value);
         }
@@ -1652,7 +1659,7 @@ public abstract class AbstractChannel<P extends Channel, L extends SocketAddress
         return newSupportedIdentityOptionsSet(
                 AUTO_READ, WRITE_BUFFER_WATER_MARK, CONNECT_TIMEOUT_MILLIS,
                 BUFFER_ALLOCATOR, READ_HANDLE_FACTORY, WRITE_HANDLE_FACTORY, AUTO_CLOSE, MESSAGE_SIZE_ESTIMATOR,
-                ALLOW_HALF_CLOSURE);
+                ALLOW_HALF_CLOSURE, WRITE_COALESCING_THRESHOLD);
     }
 
     /**
@@ -1760,6 +1767,14 @@ public abstract class AbstractChannel<P extends Channel, L extends SocketAddress
         this.allowHalfClosure = allowHalfClosure;
     }
 
+    private int getWriteCoalescingThreshold() {
+        return writeCoalescingThreshold;
+    }
+
+    private void setWriteCoalescingThreshold(int writeCoalescingThreshold) {
+        this.writeCoalescingThreshold = checkPositiveOrZero(writeCoalescingThreshold, "writeCoalescingThreshold");
+    }
+
     private static final class ClosePromise extends DefaultPromise<Void> {
 
         ClosePromise(EventExecutor eventExecutor) {
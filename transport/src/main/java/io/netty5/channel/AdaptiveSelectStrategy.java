@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link SelectStrategy} that polls for IO without blocking for a bounded window after the {@link IoHandler} ran out
+ * of work, and only blocks once nothing happened during that window.
+ * <p>
+ * The window tunes itself between zero and a configured maximum, based on how long it took for work to arrive each
+ * time the {@link IoHandler} ran out of it. If that gap fits into the maximum window, the window grows to cover it
+ * with some headroom, as spinning avoids the wakeup latency of a blocking select for such gaps. Otherwise it shrinks,
+ * so an {@link IoHandler} that mostly waits for long ends up blocking right away and burns no CPU.
+ * <p>
+ * The decisions made are counted and can be retrieved from the {@link EventLoop} thread or from any other thread.
+ * Instances are created through an {@link AdaptiveSelectStrategyFactory}.
+ */
+public final class AdaptiveSelectStrategy implements SelectStrategy {
+    // Windows shorter than this are not worth a non-blocking poll before blocking.
+    private static final long MIN_WINDOW_NANOS = 1000;
+
+    private final long maxWindowNanos;
+    private final LongSupplier nanoTime;
+
+    private long idleSinceNanos = -1;
+    private long selectStartNanos = -1;
+
+    // Only written by the EventLoop thread.
+    private volatile long windowNanos;
+    private volatile long spinLoops;
+    private volatile long spinHits;
+    private volatile long spinMisses;
+    private volatile long blockingSelects;
+
+    AdaptiveSelectStrategy(long maxWindowNanos, LongSupplier nanoTime) {
+        this.maxWindowNanos = maxWindowNanos;
+        this.nanoTime = nanoTime;
+        windowNanos = maxWindowNanos / 4;
+    }
+
+    @Override
+    public int calculateStrategy(IntSupplier selectSupplier, boolean notBlockForIo) throws Exception {
+        long now = nanoTime.getAsLong();
+        if (selectStartNanos != -1) {
+            // Back from a blocking select, so something happened.
+            selectStartNanos = -1;
+            idleEnded(now);
+        }
+        if (notBlockForIo) {
+            idleSinceNanos = -1;
+            return selectSupplier.getAsInt();
+        }
+        if (idleSinceNanos == -1) {
+            idleSinceNanos = now;
+            if (windowNanos == 0) {
+                return select(now);
+            }
+        }
+
+        int ready = selectSupplier.getAsInt();
+        if (ready > 0) {
+            spinHits++;
+            idleEnded(now);
+            return ready;
+        }
+        if (now - idleSinceNanos < windowNanos) {
+            spinLoops++;
+            Thread.onSpinWait();
+            return CONTINUE;
+        }
+        spinMisses++;
+        return select(now);
+    }
+
+    private int select(long now) {
+        blockingSelects++;
+        selectStartNanos = now;
+        return SELECT;
+    }
+
+    /**
+     * Adjusts the window to the time it took for something to happen since the {@link IoHandler} ran out of work.
+     */
+    private void idleEnded(long now) {
+        long idleNanos = now - idleSinceNanos;
+        idleSinceNanos = -1;
+        long window;
+        if (idleNanos <= maxWindowNanos) {
+            // Spinning pays off for gaps like this one. Leave some headroom, so slightly longer ones are covered too.
+            window = Math.min(maxWindowNanos, Math.max(windowNanos, idleNanos << 1));
+        } else {
+            // Spinning would not have helped.
+            window = windowNanos >>> 1;
+        }
+        windowNanos = window < MIN_WINDOW_NANOS ? 0 : window;
+    }
+
+    /**
+     * Returns the current length of the window during which IO is polled without blocking, in nanoseconds.
+     */
+    public long spinWindowNanos() {
+        return windowNanos;
+    }
+
+    /**
+     * Returns how many times a non-blocking poll found no IO and the {@link IoHandler} was told to poll again.
+     */
+    public long spinLoops() {
+        return spinLoops;
+    }
+
+    /**
+     * Returns how many times IO arrived while spinning, which saved a blocking select.
+     */
+    public long spinHits() {
+        return spinHits;
+    }
+
+    /**
+     * Returns how many times a spin window ran out without any IO.
+     */
+    public long spinMisses() {
+        return spinMisses;
+    }
+
+    /**
+     * Returns how many times the {@link IoHandler} was told to block.
+     */
+    public long blockingSelects() {
+        return blockingSelects;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSelectStrategy(spinWindowNanos: " + windowNanos +
+                ", spinLoops: " + spinLoops +
+                ", spinHits: " + spinHits +
+                ", spinMisses: " + spinMisses +
+                ", blockingSelects: " + blockingSelects + ')';
+    }
+}
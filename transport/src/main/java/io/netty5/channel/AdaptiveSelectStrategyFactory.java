@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import io.netty5.util.NettyRuntime;
+import io.netty5.util.internal.SystemPropertyUtil;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Factory which creates {@link AdaptiveSelectStrategy} instances. It can be passed to the {@code newFactory(...)}
+ * methods of {@link io.netty5.channel.nio.NioHandler} and of the native transports.
+ * <p>
+ * The factory keeps track of the strategies it created, so the decisions they made can be inspected.
+ * <p>
+ * Spinning only helps if the work that ends it can run on another CPU at the same time, so on a machine with a single
+ * available processor the strategies never spin, and behave like the default strategy.
+ */
+public final class AdaptiveSelectStrategyFactory implements SelectStrategyFactory {
+    private static final long DEFAULT_MAX_SPIN_NANOS = Math.max(1, SystemPropertyUtil.getLong(
+            "io.netty5.selectStrategy.maxSpinNanos", TimeUnit.MICROSECONDS.toNanos(50)));
+    private static final boolean SINGLE_PROCESSOR = NettyRuntime.availableProcessors() < 2;
+
+    private final long maxSpinNanos;
+    private final List<AdaptiveSelectStrategy> strategies = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new instance, whose strategies spin for at most {@code io.netty5.selectStrategy.maxSpinNanos}
+     * (50 microseconds by default).
+     */
+    public AdaptiveSelectStrategyFactory() {
+        maxSpinNanos = DEFAULT_MAX_SPIN_NANOS;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSpin   the maximum time the strategies poll for IO without blocking, once there is no work left.
+     * @param unit      the {@link TimeUnit} of {@code maxSpin}.
+     */
+    public AdaptiveSelectStrategyFactory(long maxSpin, TimeUnit unit) {
+        requireNonNull(unit, "unit");
+        maxSpinNanos = unit.toNanos(checkPositive(maxSpin, "maxSpin"));
+    }
+
+    @Override
+    public AdaptiveSelectStrategy newSelectStrategy() {
+        AdaptiveSelectStrategy strategy =
+                new AdaptiveSelectStrategy(SINGLE_PROCESSOR ? 0 : maxSpinNanos, System::nanoTime);
+        strategies.add(strategy);
+        return strategy;
+    }
+
+    /**
+     * Returns the {@link AdaptiveSelectStrategy}s created by this factory.
+     */
+    public List<AdaptiveSelectStrategy> strategies() {
+        return Collections.unmodifiableList(strategies);
+    }
+}
@@ -110,6 +110,8 @@ import java.net.SocketAddress;
  * <td>{@link ChannelOption#READ_HANDLE_FACTORY}</td>
  * </tr><tr>
  * <td>{@link ChannelOption#ALLOW_HALF_CLOSURE}</td>
+ * </tr><tr>
+ * <td>{@link ChannelOption#WRITE_COALESCING_THRESHOLD}</td>
  * </tr>
  * </table>
  * <p>
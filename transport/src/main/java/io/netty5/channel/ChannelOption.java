@@ -88,6 +88,16 @@ public class ChannelOption<T> extends AbstractConstant<ChannelOption<T>> {
             valueOf("WRITE_BUFFER_WATER_MARK");
 
     public static final ChannelOption<Boolean> ALLOW_HALF_CLOSURE = valueOf("ALLOW_HALF_CLOSURE");
+
+    /**
+     * If greater than {@code 0}, adjacent {@link io.netty5.buffer.Buffer}s with at most this many readable bytes are
+     * copied into a single {@link io.netty5.buffer.Buffer} when they are flushed, which is allocated from the
+     * {@link #BUFFER_ALLOCATOR}. Larger {@link io.netty5.buffer.Buffer}s are still written as they are.
+     * The {@link io.netty5.util.concurrent.Promise}s of the coalesced writes are notified once the coalesced
+     * {@link io.netty5.buffer.Buffer} was written.
+     * The default value is {@code 0}, which disables coalescing.
+     */
+    public static final ChannelOption<Integer> WRITE_COALESCING_THRESHOLD = valueOf("WRITE_COALESCING_THRESHOLD");
     public static final ChannelOption<Boolean> AUTO_READ = valueOf("AUTO_READ");
 
     /**
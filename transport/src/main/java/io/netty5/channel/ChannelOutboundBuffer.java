@@ -15,6 +15,8 @@
  */
 package io.netty5.channel;
 
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.BufferAllocator;
 import io.netty5.util.concurrent.EventExecutor;
 import io.netty5.util.concurrent.Future;
 import io.netty5.util.concurrent.FutureListener;
@@ -27,6 +29,8 @@ import io.netty5.util.internal.SystemPropertyUtil;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -54,6 +58,10 @@ final class ChannelOutboundBuffer {
     static final int CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD =
             SystemPropertyUtil.getInt("io.netty5.transport.outboundBufferEntrySizeOverhead", 96);
 
+    // The maximum number of bytes that small buffers are coalesced into, see addFlush(int, BufferAllocator).
+    static final int MAX_COALESCED_SIZE =
+            SystemPropertyUtil.getInt("io.netty5.transport.outboundBufferMaxCoalescedSize", 64 * 1024);
+
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelOutboundBuffer.class);
 
     private final EventExecutor executor;
@@ -130,6 +138,20 @@ final class ChannelOutboundBuffer {
      * and so you will be able to handle them.
      */
     void addFlush() {
+        addFlush(0, null);
+    }
+
+    /**
+     * Add a flush to this {@link ChannelOutboundBuffer}, like {@link #addFlush()}, and then copy runs of adjacent
+     * {@link Buffer}s with at most {@code coalescingThreshold} readable bytes each into a single {@link Buffer}
+     * allocated from the given {@link BufferAllocator}. The {@link Promise}s of the coalesced messages are notified
+     * once the coalesced {@link Buffer} was written.
+     *
+     * @param coalescingThreshold   the maximum number of readable bytes of {@link Buffer}s to coalesce,
+     *                              or {@code 0} to not coalesce at all.
+     * @param allocator             the {@link BufferAllocator} to allocate the coalesced {@link Buffer}s from.
+     */
+    void addFlush(int coalescingThreshold, BufferAllocator allocator) {
         assert executor.inEventLoop();
 
         // There is no need to process all entries if there was already a flush before and no new messages
@@ -144,6 +166,7 @@ final class ChannelOutboundBuffer {
             }
 
             Entry prev = null;
+            Entry firstFlushed = null;
             do {
                 if (!entry.promise.setUncancellable()) {
                     // Was cancelled so make sure we free up memory, unlink and notify about the freed bytes
@@ -162,6 +185,9 @@ final class ChannelOutboundBuffer {
                     decrementPendingOutboundBytes(pending);
                 } else {
                     flushed ++;
+                    if (firstFlushed == null) {
+                        firstFlushed = entry;
+                    }
                     prev = entry;
                     entry = entry.next;
                 }
@@ -169,7 +195,85 @@ final class ChannelOutboundBuffer {
 
             // All flushed so reset unflushedEntry
             unflushedEntry = null;
+
+            if (coalescingThreshold > 0 && firstFlushed != null) {
+                coalesce(firstFlushed, coalescingThreshold, allocator);
+            }
+        }
+    }
+
+    private void coalesce(Entry entry, int threshold, BufferAllocator allocator) {
+        int maxSize = Math.max(threshold, MAX_COALESCED_SIZE);
+        while (entry != null) {
+            if (!isCoalescable(entry, threshold)) {
+                entry = entry.next;
+                continue;
+            }
+            // Find the run of coalescable entries that starts with this one.
+            Entry last = entry;
+            int size = ((Buffer) entry.msg).readableBytes();
+            int count = 1;
+            while (isCoalescable(last.next, threshold)) {
+                int nextSize = ((Buffer) last.next.msg).readableBytes();
+                if (size + nextSize > maxSize) {
+                    break;
+                }
+                size += nextSize;
+                last = last.next;
+                count++;
+            }
+            Entry end = last.next;
+            if (count > 1) {
+                coalesce(entry, end, size, count, allocator);
+            }
+            entry = end;
+        }
+    }
+
+    private static boolean isCoalescable(Entry entry, int threshold) {
+        if (entry == null || !(entry.msg instanceof Buffer)) {
+            return false;
         }
+        Buffer buffer = (Buffer) entry.msg;
+        return buffer.isAccessible() && buffer.readableBytes() <= threshold;
+    }
+
+    /**
+     * Copy the messages of the entries from {@code first} up to {@code end} into a single {@link Buffer}, which then
+     * replaces the message of {@code first}. The other entries are unlinked.
+     */
+    private void coalesce(Entry first, Entry end, int size, int count, BufferAllocator allocator) {
+        final Buffer coalesced;
+        try {
+            coalesced = allocator.allocate(size);
+        } catch (Throwable cause) {
+            logger.debug("Failed to allocate a buffer for coalescing {} messages.", count, cause);
+            return;
+        }
+        List<Promise<Void>> promises = new ArrayList<>(count);
+        int pendingSize = 0;
+        Entry entry = first;
+        do {
+            try (Buffer buffer = (Buffer) entry.msg) {
+                coalesced.writeBytes(buffer);
+            }
+            promises.add(entry.promise);
+            pendingSize += entry.pendingSize;
+            if (entry == tailEntry) {
+                tailEntry = first;
+            }
+            Entry next = entry.next;
+            if (entry != first) {
+                entry.recycle();
+            }
+            entry = next;
+        } while (entry != end);
+
+        first.msg = coalesced;
+        first.coalescedPromises = promises;
+        first.pendingSize = pendingSize;
+        first.next = end;
+        flushed -= count - 1;
     }
 
     /**
@@ -214,6 +318,7 @@ final class ChannelOutboundBuffer {
         Object msg = e.msg;
 
         Promise<Void> promise = e.promise;
+        List<Promise<Void>> coalescedPromises = e.coalescedPromises;
         int size = e.pendingSize;
 
         removeEntry(e);
@@ -221,10 +326,10 @@ final class ChannelOutboundBuffer {
         if (!e.cancelled) {
             // only release message, fail and decrement if it was not canceled before.
             SilentDispose.trySilentDispose(msg, logger);
-            if (cause == null) {
-                safeSuccess(promise);
+            if (coalescedPromises == null) {
+                notifyPromise(promise, cause);
             } else {
-                safeFail(promise, cause);
+                notifyPromises(coalescedPromises, cause);
             }
             decrementPendingOutboundBytes(size);
         }
@@ -330,6 +435,20 @@ final class ChannelOutboundBuffer {
         }
     }
 
+    private static void notifyPromise(Promise<Void> promise, Throwable cause) {
+        if (cause == null) {
+            safeSuccess(promise);
+        } else {
+            safeFail(promise, cause);
+        }
+    }
+
+    private static void notifyPromises(List<Promise<Void>> promises, Throwable cause) {
+        for (Promise<Void> promise : promises) {
+            notifyPromise(promise, cause);
+        }
+    }
+
     private static void safeSuccess(Promise<Void> promise) {
         PromiseNotificationUtil.trySuccess(promise, null, logger);
     }
@@ -379,6 +498,13 @@ final class ChannelOutboundBuffer {
         do {
             if (!entry.cancelled) {
                 Promise<Void> promise = entry.promise;
+                List<Promise<Void>> coalescedPromises = entry.coalescedPromises;
+                if (coalescedPromises != null) {
+                    // The processor completes a single promise, which is then relayed to the coalesced ones.
+                    promise = executor.newPromise();
+                    promise.setUncancellable();
+                    promise.asFuture().addListener(future -> notifyPromises(coalescedPromises, future.cause()));
+                }
                 if (!processor.test(entry.msg, promise)) {
                     return;
                 }
@@ -400,6 +526,8 @@ final class ChannelOutboundBuffer {
         Entry next;
         Object msg;
         Promise<Void> promise;
+        // The promises of all messages that were coalesced into this entry, or null.
+        List<Promise<Void>> coalescedPromises;
         int pendingSize;
         boolean cancelled;
 
@@ -434,6 +562,7 @@ final class ChannelOutboundBuffer {
             next = null;
             msg = null;
             promise = null;
+            coalescedPromises = null;
             pendingSize = 0;
             cancelled = false;
             handle.recycle(this);
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+/**
+ * Runtime metrics of an {@link EventLoop}, or the sum of the metrics of all {@link EventLoop}s of an
+ * {@link EventLoopGroup}.
+ * <p>
+ * All metrics except {@link #pendingTasks()} are only updated if they were enabled with
+ * {@code -Dio.netty5.eventLoop.metrics=true}, and are {@code 0} otherwise.
+ * <p>
+ * The metrics are updated by the thread of the {@link EventLoop}, and may be read from any thread.
+ */
+public interface EventLoopMetric {
+
+    /**
+     * Return the time in nanoseconds spent in {@link IoHandler#run(IoExecutionContext)} processing IO, excluding the
+     * time spent waiting for IO, which is returned by {@link #ioWaitTimeNanos()}.
+     */
+    long ioTimeNanos();
+
+    /**
+     * Return the time in nanoseconds {@link IoHandler#run(IoExecutionContext)} spent blocking while waiting for IO
+     * to become ready.
+     */
+    long ioWaitTimeNanos();
+
+    /**
+     * Return the time in nanoseconds spent running tasks, including scheduled tasks.
+     */
+    long taskTimeNanos();
+
+    /**
+     * Return the number of times {@link IoHandler#run(IoExecutionContext)} was called.
+     */
+    long ioRuns();
+
+    /**
+     * Return the number of {@link IoHandle}s for which IO was processed. Divided by {@link #ioRuns()}, this is the
+     * average number of {@link IoHandle}s processed per run.
+     */
+    long processedHandles();
+
+    /**
+     * Return the histogram of the number of {@link IoHandle}s processed per {@link IoHandler#run(IoExecutionContext)}.
+     * Bucket {@code 0} counts the runs that did not process any {@link IoHandle}, and bucket {@code i} those that
+     * processed from {@code 2^(i-1)} up to {@code 2^i - 1}. The last bucket also counts all larger numbers.
+     */
+    long[] processedHandlesHistogram();
+
+    /**
+     * Return the number of tasks that were run, including scheduled tasks.
+     */
+    long tasksRun();
+
+    /**
+     * Return the histogram of the time sampled tasks waited in the task queue before they were run.
+     * Bucket {@code 0} counts the wait times below 1 microsecond, and bucket {@code i} those from {@code 2^(i-1)} up
+     * to {@code 2^i} microseconds. The last bucket also counts all longer wait times.
+     * <p>
+     * To keep the overhead low, only one submitted task at a time is sampled.
+     */
+    long[] taskQueueWaitTimeHistogram();
+
+    /**
+     * Return the number of tasks that are pending for processing, excluding scheduled tasks.
+     */
+    int pendingTasks();
+
+    /**
+     * Return the number of scheduled tasks, as of the last time the {@link EventLoop} ran its tasks.
+     */
+    int scheduledTasks();
+}
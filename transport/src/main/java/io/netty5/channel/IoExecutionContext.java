@@ -36,4 +36,15 @@ public interface IoExecutionContext {
      * closest scheduled task should run or {@code -1} if nothing is scheduled to run.
      */
     long deadlineNanos();
+
+    /**
+     * Called by the {@link IoHandler} right before it blocks waiting for IO to become ready, so the time spent waiting
+     * can be told apart from the time spent processing IO.
+     */
+    default void beforeBlocking() { }
+
+    /**
+     * Called by the {@link IoHandler} once it stopped blocking after {@link #beforeBlocking()} was called.
+     */
+    default void afterBlocking() { }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import io.netty5.util.concurrent.EventExecutor;
+import io.netty5.util.concurrent.EventExecutorChooserFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.netty5.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * {@link EventExecutorChooserFactory} that selects the {@link SingleThreadEventLoop} that currently has the least
+ * load, which is useful if {@link Channel}s are long-lived and so round-robin selection may leave some
+ * {@link EventLoop}s with a lot more work than others.
+ * <p>
+ * The load of an {@link EventLoop} is computed from the number of {@link IoHandle}s registered with it, as returned by
+ * {@link SingleThreadEventLoop#registeredIoHandles()}, scaled by how busy it was recently, as returned by
+ * {@link SingleThreadEventLoop#busyRatio()}. {@link EventExecutor}s that are not {@link SingleThreadEventLoop}s are
+ * considered to have no load. If multiple {@link EventLoop}s have the same load, they are selected in a round-robin
+ * fashion.
+ * <p>
+ * As the load is read without synchronization, concurrent calls to {@link EventExecutorChooser#next()} may select the
+ * same {@link EventLoop} before the registration of the first {@link Channel} has completed.
+ */
+public final class LeastLoadedEventLoopChooserFactory implements EventExecutorChooserFactory {
+
+    private static final LeastLoadedEventLoopChooserFactory DEFAULT = new LeastLoadedEventLoopChooserFactory(1.0);
+
+    private final double busyWeight;
+
+    private LeastLoadedEventLoopChooserFactory(double busyWeight) {
+        this.busyWeight = busyWeight;
+    }
+
+    /**
+     * Returns a {@link LeastLoadedEventLoopChooserFactory} for which an {@link EventLoop} that is busy all the time
+     * counts as twice as loaded as an idle one with the same number of registered {@link IoHandle}s.
+     */
+    public static LeastLoadedEventLoopChooserFactory newFactory() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a {@link LeastLoadedEventLoopChooserFactory} that uses the given weight for the busy ratio.
+     *
+     * @param busyWeight    the weight of the busy ratio, where the load of an {@link EventLoop} is computed as
+     *                      {@code (registeredIoHandles + 1) * (1 + busyWeight * busyRatio)}. {@code 0} means that
+     *                      only the number of registered {@link IoHandle}s is taken into account.
+     */
+    public static LeastLoadedEventLoopChooserFactory newFactory(double busyWeight) {
+        return new LeastLoadedEventLoopChooserFactory(checkPositiveOrZero(busyWeight, "busyWeight"));
+    }
+
+    @Override
+    public EventExecutorChooser newChooser(List<EventExecutor> executors) {
+        if (busyWeight > 0) {
+            // The busy ratio is only tracked on demand, as it requires reading the clock in every loop iteration.
+            for (EventExecutor executor : executors) {
+                if (executor instanceof SingleThreadEventLoop) {
+                    ((SingleThreadEventLoop) executor).trackBusyRatio();
+                }
+            }
+        }
+        return new LeastLoadedEventLoopChooser(executors.toArray(new EventExecutor[0]), busyWeight);
+    }
+
+    private static final class LeastLoadedEventLoopChooser implements EventExecutorChooser {
+        private final AtomicInteger idx = new AtomicInteger();
+        private final EventExecutor[] executors;
+        private final double busyWeight;
+
+        LeastLoadedEventLoopChooser(EventExecutor[] executors, double busyWeight) {
+            this.executors = executors;
+            this.busyWeight = busyWeight;
+        }
+
+        @Override
+        public EventExecutor next() {
+            int length = executors.length;
+            // Start at a different position each time, so that ties are broken in a round-robin fashion.
+            int start = Math.abs(idx.getAndIncrement() % length);
+            EventExecutor selected = executors[start];
+            double selectedLoad = load(selected);
+            for (int i = 1; i < length && selectedLoad > 0; i++) {
+                EventExecutor executor = executors[(start + i) % length];
+                double load = load(executor);
+                if (load < selectedLoad) {
+                    selected = executor;
+                    selectedLoad = load;
+                }
+            }
+            return selected;
+        }
+
+        private double load(EventExecutor executor) {
+            if (executor instanceof SingleThreadEventLoop) {
+                SingleThreadEventLoop eventLoop = (SingleThreadEventLoop) executor;
+                return (eventLoop.registeredIoHandles() + 1) * (1 + busyWeight * eventLoop.busyRatio());
+            }
+            return 0;
+        }
+    }
+}
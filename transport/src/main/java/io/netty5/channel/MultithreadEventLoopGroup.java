@@ -16,12 +16,18 @@
 package io.netty5.channel;
 
 import io.netty5.util.NettyRuntime;
+import io.netty5.util.concurrent.DefaultEventExecutorChooserFactory;
 import io.netty5.util.concurrent.DefaultThreadFactory;
+import io.netty5.util.concurrent.EventExecutor;
+import io.netty5.util.concurrent.EventExecutorChooserFactory;
 import io.netty5.util.concurrent.MultithreadEventExecutorGroup;
+import io.netty5.util.concurrent.PriorityQueueScheduledTaskStore;
 import io.netty5.util.concurrent.RejectedExecutionHandler;
 import io.netty5.util.concurrent.RejectedExecutionHandlers;
+import io.netty5.util.concurrent.ScheduledTaskStoreFactory;
 import io.netty5.util.concurrent.ThreadPerTaskExecutor;
 import io.netty5.util.internal.EmptyArrays;
+import io.netty5.util.internal.StringUtil;
 import io.netty5.util.internal.SystemPropertyUtil;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
@@ -33,13 +39,18 @@ import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * {@link EventLoopGroup} implementation that will handle its tasks with multiple threads.
  */
-public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup implements EventLoopGroup {
+public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup
+        implements EventLoopGroup, EventLoopMetricProvider {
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(MultithreadEventLoopGroup.class);
 
+    private final EventLoopMetric metric = new EventLoopGroupMetric(this);
+
     public static final int DEFAULT_EVENT_LOOP_THREADS;
 
     static {
@@ -212,6 +223,109 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
                 maxPendingTasks, rejectedHandler, maxTasksPerRun, EmptyArrays.EMPTY_OBJECTS);
     }
 
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param executor          the {@link Executor} to use, or {@code null} if the default should be used.
+     * @param ioHandlerFactory  the {@link IoHandlerFactory} to use for creating new
+     *                          {@link IoHandler} instances that will handle the IO for the
+     *                          {@link EventLoop}.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun    the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                          before trying to handle IO again.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} to use for selecting the {@link EventLoop}
+     *                          returned by {@link #next()}.
+     */
+    public MultithreadEventLoopGroup(int nThreads, Executor executor,
+                                     IoHandlerFactory ioHandlerFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     int maxTasksPerRun, EventExecutorChooserFactory chooserFactory) {
+        this(nThreads, executor, ioHandlerFactory,
+                maxPendingTasks, rejectedHandler, maxTasksPerRun, chooserFactory, EmptyArrays.EMPTY_OBJECTS);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param threadFactory     the {@link ThreadFactory} to use, or {@code null} if the default should be used.
+     * @param ioHandlerFactory  the {@link IoHandlerFactory} to use for creating new
+     *                          {@link IoHandler} instances that will handle the IO for the
+     *                          {@link EventLoop}.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun    the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                          before trying to handle IO again.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} to use for selecting the {@link EventLoop}
+     *                          returned by {@link #next()}.
+     */
+    public MultithreadEventLoopGroup(int nThreads, ThreadFactory threadFactory,
+                                     IoHandlerFactory ioHandlerFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     int maxTasksPerRun, EventExecutorChooserFactory chooserFactory) {
+        this(nThreads, threadFactory, ioHandlerFactory,
+                maxPendingTasks, rejectedHandler, maxTasksPerRun, chooserFactory, EmptyArrays.EMPTY_OBJECTS);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads                  the number of threads that will be used by this instance.
+     * @param executor                  the {@link Executor} to use, or {@code null} if the default should be used.
+     * @param ioHandlerFactory          the {@link IoHandlerFactory} to use for creating new
+     *                                  {@link IoHandler} instances that will handle the IO for the
+     *                                  {@link EventLoop}.
+     * @param maxPendingTasks           the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler           the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun            the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                                  before trying to handle IO again.
+     * @param chooserFactory            the {@link EventExecutorChooserFactory} to use for selecting the
+     *                                  {@link EventLoop} returned by {@link #next()}.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding the scheduled tasks
+     *                                  of each {@link EventLoop}.
+     */
+    public MultithreadEventLoopGroup(int nThreads, Executor executor,
+                                     IoHandlerFactory ioHandlerFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     int maxTasksPerRun, EventExecutorChooserFactory chooserFactory,
+                                     ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        super(pickThreadCount(nThreads),
+                executor == null ? new ThreadPerTaskExecutor(newDefaultThreadFactory()) : executor,
+                maxPendingTasks, rejectedHandler, chooserFactory, merge(ioHandlerFactory, maxTasksPerRun,
+                        requireNonNull(scheduledTaskStoreFactory, "scheduledTaskStoreFactory"),
+                        EmptyArrays.EMPTY_OBJECTS));
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads                  the number of threads that will be used by this instance.
+     * @param threadFactory             the {@link ThreadFactory} to use, or {@code null} if the default should be used.
+     * @param ioHandlerFactory          the {@link IoHandlerFactory} to use for creating new
+     *                                  {@link IoHandler} instances that will handle the IO for the
+     *                                  {@link EventLoop}.
+     * @param maxPendingTasks           the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler           the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun            the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                                  before trying to handle IO again.
+     * @param chooserFactory            the {@link EventExecutorChooserFactory} to use for selecting the
+     *                                  {@link EventLoop} returned by {@link #next()}.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding the scheduled tasks
+     *                                  of each {@link EventLoop}.
+     */
+    public MultithreadEventLoopGroup(int nThreads, ThreadFactory threadFactory,
+                                     IoHandlerFactory ioHandlerFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     int maxTasksPerRun, EventExecutorChooserFactory chooserFactory,
+                                     ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        super(pickThreadCount(nThreads), threadFactory == null ? newDefaultThreadFactory() : threadFactory,
+                maxPendingTasks, rejectedHandler, chooserFactory, merge(ioHandlerFactory, maxTasksPerRun,
+                        requireNonNull(scheduledTaskStoreFactory, "scheduledTaskStoreFactory"),
+                        EmptyArrays.EMPTY_OBJECTS));
+    }
+
     // Constructors provided for sub-classes that want to pass more args to newChild(...).
 
     /**
@@ -227,15 +341,42 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
      * @param maxTasksPerRun    the maximum number of tasks per {@link EventLoop} run that will be processed
      *                          before trying to handle IO again.
      * @param args              extra arguments passed to {@link #newChild(Executor, int, RejectedExecutionHandler,
-     *                          IoHandler, int, Object...)}
+     *                          IoHandler, int, ScheduledTaskStoreFactory, Object...)}
      */
     protected MultithreadEventLoopGroup(int nThreads, Executor executor,
                                      IoHandlerFactory ioHandlerFactory,
                                      int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
                                      int maxTasksPerRun, Object... args) {
+        this(nThreads, executor, ioHandlerFactory, maxPendingTasks, rejectedHandler, maxTasksPerRun,
+                DefaultEventExecutorChooserFactory.INSTANCE, args);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param executor          the {@link Executor} to use, or {@code null} if the default should be used.
+     * @param ioHandlerFactory  the {@link IoHandlerFactory} to use for creating new
+     *                          {@link IoHandler} instances that will handle the IO for the
+     *                          {@link EventLoop}.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun    the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                          before trying to handle IO again.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} to use for selecting the {@link EventLoop}
+     *                          returned by {@link #next()}.
+     * @param args              extra arguments passed to {@link #newChild(Executor, int, RejectedExecutionHandler,
+     *                          IoHandler, int, ScheduledTaskStoreFactory, Object...)}
+     */
+    protected MultithreadEventLoopGroup(int nThreads, Executor executor,
+                                     IoHandlerFactory ioHandlerFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     int maxTasksPerRun, EventExecutorChooserFactory chooserFactory,
+                                     Object... args) {
         super(pickThreadCount(nThreads),
                 executor == null ? new ThreadPerTaskExecutor(newDefaultThreadFactory()) : executor,
-                maxPendingTasks, rejectedHandler, merge(ioHandlerFactory, maxTasksPerRun, args));
+                maxPendingTasks, rejectedHandler, chooserFactory,
+                merge(ioHandlerFactory, maxTasksPerRun, PriorityQueueScheduledTaskStore.newFactory(), args));
     }
 
     /**
@@ -251,14 +392,41 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
      * @param maxTasksPerRun    the maximum number of tasks per {@link EventLoop} run that will be processed
      *                          before trying to handle IO again.
      * @param args              extra arguments passed to {@link #newChild(Executor, int, RejectedExecutionHandler,
-     *                          IoHandler, int, Object...)}
+     *                          IoHandler, int, ScheduledTaskStoreFactory, Object...)}
      */
     protected MultithreadEventLoopGroup(int nThreads, ThreadFactory threadFactory,
                                      IoHandlerFactory ioHandlerFactory,
                                      int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
                                      int maxTasksPerRun, Object... args) {
+        this(nThreads, threadFactory, ioHandlerFactory, maxPendingTasks, rejectedHandler, maxTasksPerRun,
+                DefaultEventExecutorChooserFactory.INSTANCE, args);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param threadFactory     the {@link ThreadFactory} to use, or {@code null} if the default should be used.
+     * @param ioHandlerFactory  the {@link IoHandlerFactory} to use for creating new
+     *                          {@link IoHandler} instances that will handle the IO for the
+     *                          {@link EventLoop}.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun    the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                          before trying to handle IO again.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} to use for selecting the {@link EventLoop}
+     *                          returned by {@link #next()}.
+     * @param args              extra arguments passed to {@link #newChild(Executor, int, RejectedExecutionHandler,
+     *                          IoHandler, int, ScheduledTaskStoreFactory, Object...)}
+     */
+    protected MultithreadEventLoopGroup(int nThreads, ThreadFactory threadFactory,
+                                     IoHandlerFactory ioHandlerFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler,
+                                     int maxTasksPerRun, EventExecutorChooserFactory chooserFactory,
+                                     Object... args) {
         super(pickThreadCount(nThreads), threadFactory == null ? newDefaultThreadFactory() : threadFactory,
-                maxPendingTasks, rejectedHandler, merge(ioHandlerFactory, maxTasksPerRun, args));
+                maxPendingTasks, rejectedHandler, chooserFactory,
+                merge(ioHandlerFactory, maxTasksPerRun, PriorityQueueScheduledTaskStore.newFactory(), args));
     }
 
     private static ThreadFactory newDefaultThreadFactory() {
@@ -272,11 +440,12 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
         return nThreads == 0 ? DEFAULT_EVENT_LOOP_THREADS : nThreads;
     }
 
-    private static Object[] merge(IoHandlerFactory ioHandlerFactory,
-                                  int maxTasksPerRun, Object... args) {
-        List<Object> argList = new ArrayList<>(2 + args.length);
+    private static Object[] merge(IoHandlerFactory ioHandlerFactory, int maxTasksPerRun,
+                                  ScheduledTaskStoreFactory scheduledTaskStoreFactory, Object... args) {
+        List<Object> argList = new ArrayList<>(3 + args.length);
         argList.add(ioHandlerFactory);
         argList.add(maxTasksPerRun);
+        argList.add(scheduledTaskStoreFactory);
         Collections.addAll(argList, args);
         return argList.toArray();
     }
@@ -286,12 +455,21 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
         return (EventLoop) super.next();
     }
 
+    /**
+     * Returns the {@link EventLoopMetric} that sums the metrics of all {@link EventLoop}s of this group that are
+     * {@link EventLoopMetricProvider}s.
+     */
+    @Override
+    public final EventLoopMetric metric() {
+        return metric;
+    }
+
     @Override
     protected final EventLoop newChild(Executor executor, int maxPendingTasks,
                                        RejectedExecutionHandler rejectedExecutionHandler, Object... args) {
         return newChild(executor, maxPendingTasks, rejectedExecutionHandler,
-                ((IoHandlerFactory) args[0]).newHandler(), (Integer) args[1],
-                Arrays.copyOfRange(args, 2, args.length));
+                ((IoHandlerFactory) args[0]).newHandler(), (Integer) args[1], (ScheduledTaskStoreFactory) args[2],
+                Arrays.copyOfRange(args, 3, args.length));
     }
 
     /**
@@ -307,6 +485,7 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
      * @param ioHandler                 the {@link IoHandler} to use.
      * @param maxTasksPerRun            the maximum number of tasks per {@link EventLoop} run that will be processed
      *                                  before trying to handle IO again.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding the scheduled tasks.
      * @param args                      any extra args needed to construct the {@link EventLoop}. This will be an empty
      *                                  array if not sub-classes and extra arguments are given.
      * @return                          the {@link EventLoop} to use.
@@ -314,9 +493,140 @@ public class MultithreadEventLoopGroup extends MultithreadEventExecutorGroup imp
     protected EventLoop newChild(Executor executor, int maxPendingTasks,
                                  RejectedExecutionHandler rejectedExecutionHandler,
                                  IoHandler ioHandler, int maxTasksPerRun,
-                                 Object... args) {
+                                 ScheduledTaskStoreFactory scheduledTaskStoreFactory, Object... args) {
         assert args.length == 0;
         return new SingleThreadEventLoop(executor, ioHandler, maxPendingTasks,
-                rejectedExecutionHandler, maxTasksPerRun);
+                rejectedExecutionHandler, maxTasksPerRun, scheduledTaskStoreFactory);
+    }
+
+    private static final class EventLoopGroupMetric implements EventLoopMetric {
+        private final MultithreadEventLoopGroup group;
+
+        EventLoopGroupMetric(MultithreadEventLoopGroup group) {
+            this.group = group;
+        }
+
+        private List<EventLoopMetric> metrics() {
+            List<EventLoopMetric> metrics = new ArrayList<>(group.executorCount());
+            for (EventExecutor executor : group.executors()) {
+                if (executor instanceof EventLoopMetricProvider) {
+                    metrics.add(((EventLoopMetricProvider) executor).metric());
+                }
+            }
+            return metrics;
+        }
+
+        private static long[] sum(long[] total, long[] histogram) {
+            if (total == null) {
+                return histogram.clone();
+            }
+            for (int i = 0; i < Math.min(total.length, histogram.length); i++) {
+                total[i] += histogram[i];
+            }
+            return total;
+        }
+
+        @Override
+        public long ioTimeNanos() {
+            long ioTimeNanos = 0;
+            for (EventLoopMetric metric : metrics()) {
+                ioTimeNanos += metric.ioTimeNanos();
+            }
+            return ioTimeNanos;
+        }
+
+        @Override
+        public long ioWaitTimeNanos() {
+            long ioWaitTimeNanos = 0;
+            for (EventLoopMetric metric : metrics()) {
+                ioWaitTimeNanos += metric.ioWaitTimeNanos();
+            }
+            return ioWaitTimeNanos;
+        }
+
+        @Override
+        public long taskTimeNanos() {
+            long taskTimeNanos = 0;
+            for (EventLoopMetric metric : metrics()) {
+                taskTimeNanos += metric.taskTimeNanos();
+            }
+            return taskTimeNanos;
+        }
+
+        @Override
+        public long ioRuns() {
+            long ioRuns = 0;
+            for (EventLoopMetric metric : metrics()) {
+                ioRuns += metric.ioRuns();
+            }
+            return ioRuns;
+        }
+
+        @Override
+        public long processedHandles() {
+            long processedHandles = 0;
+            for (EventLoopMetric metric : metrics()) {
+                processedHandles += metric.processedHandles();
+            }
+            return processedHandles;
+        }
+
+        @Override
+        public long[] processedHandlesHistogram() {
+            long[] histogram = null;
+            for (EventLoopMetric metric : metrics()) {
+                histogram = sum(histogram, metric.processedHandlesHistogram());
+            }
+            return histogram == null ? new long[0] : histogram;
+        }
+
+        @Override
+        public long tasksRun() {
+            long tasksRun = 0;
+            for (EventLoopMetric metric : metrics()) {
+                tasksRun += metric.tasksRun();
+            }
+            return tasksRun;
+        }
+
+        @Override
+        public long[] taskQueueWaitTimeHistogram() {
+            long[] histogram = null;
+            for (EventLoopMetric metric : metrics()) {
+                histogram = sum(histogram, metric.taskQueueWaitTimeHistogram());
+            }
+            return histogram == null ? new long[0] : histogram;
+        }
+
+        @Override
+        public int pendingTasks() {
+            int pendingTasks = 0;
+            for (EventLoopMetric metric : metrics()) {
+                pendingTasks += metric.pendingTasks();
+            }
+            return pendingTasks;
+        }
+
+        @Override
+        public int scheduledTasks() {
+            int scheduledTasks = 0;
+            for (EventLoopMetric metric : metrics()) {
+                scheduledTasks += metric.scheduledTasks();
+            }
+            return scheduledTasks;
+        }
+
+        @Override
+        public String toString() {
+            return StringUtil.simpleClassName(this) +
+                    "(ioTimeNanos: " + ioTimeNanos() +
+                    "; ioWaitTimeNanos: " + ioWaitTimeNanos() +
+                    "; taskTimeNanos: " + taskTimeNanos() +
+                    "; ioRuns: " + ioRuns() +
+                    "; processedHandles: " + processedHandles() +
+                    "; tasksRun: " + tasksRun() +
+                    "; pendingTasks: " + pendingTasks() +
+                    "; scheduledTasks: " + scheduledTasks() + ')';
+        }
     }
 }
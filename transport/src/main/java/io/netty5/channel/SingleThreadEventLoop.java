@@ -16,9 +16,11 @@
 package io.netty5.channel;
 
 import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.PriorityQueueScheduledTaskStore;
 import io.netty5.util.concurrent.Promise;
 import io.netty5.util.concurrent.RejectedExecutionHandler;
 import io.netty5.util.concurrent.RejectedExecutionHandlers;
+import io.netty5.util.concurrent.ScheduledTaskStoreFactory;
 import io.netty5.util.concurrent.SingleThreadEventExecutor;
 import io.netty5.util.internal.PlatformDependent;
 import io.netty5.util.internal.SystemPropertyUtil;
@@ -26,6 +28,7 @@ import io.netty5.util.internal.SystemPropertyUtil;
 import java.util.Queue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import static io.netty5.util.internal.ObjectUtil.checkPositive;
 import static java.util.Objects.requireNonNull;
@@ -34,7 +37,7 @@ import static java.util.Objects.requireNonNull;
  * {@link EventLoop} that execute all its submitted tasks in a single thread and uses an {@link IoHandler} for
  * IO processing.
  */
-public class SingleThreadEventLoop extends SingleThreadEventExecutor implements EventLoop {
+public class SingleThreadEventLoop extends SingleThreadEventExecutor implements EventLoop, EventLoopMetricProvider {
 
     protected static final int DEFAULT_MAX_PENDING_TASKS = Math.max(16,
             SystemPropertyUtil.getInt("io.netty5.eventLoop.maxPendingTasks", Integer.MAX_VALUE));
@@ -43,6 +46,9 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
     protected static final int DEFAULT_MAX_TASKS_PER_RUN = Math.max(1,
             SystemPropertyUtil.getInt("io.netty5.eventLoop.maxTaskPerRun", 1024 * 4));
 
+    private static final boolean METRICS_ENABLED =
+            SystemPropertyUtil.getBoolean("io.netty5.eventLoop.metrics", false);
+
     private final IoExecutionContext context = new IoExecutionContext() {
         @Override
         public boolean canBlock() {
@@ -61,10 +67,43 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
             assert inEventLoop();
             return SingleThreadEventLoop.this.deadlineNanos();
         }
+
+        @Override
+        public void beforeBlocking() {
+            assert inEventLoop();
+            if (timed) {
+                blockingStartNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void afterBlocking() {
+            assert inEventLoop();
+            if (timed) {
+                ioWaitNanos += System.nanoTime() - blockingStartNanos;
+            }
+        }
     };
 
+    // Weight of the most recent window in the busy ratio EWMA.
+    private static final double BUSY_RATIO_ALPHA = 0.25;
+    private static final long BUSY_RATIO_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final IoHandler ioHandler;
     private final int maxTasksPerRun;
+    private final SingleThreadEventLoopMetrics metrics = new SingleThreadEventLoopMetrics(this);
+
+    // Only modified from within the EventLoop, but read from other threads.
+    private volatile int registeredIoHandles;
+    private volatile double busyRatio;
+    private volatile boolean busyRatioTracked;
+    private long busyWindowStartNanos;
+    private long busyWindowBusyNanos;
+
+    // Only used from within the EventLoop, while an iteration of run() is timed.
+    private boolean timed;
+    private long blockingStartNanos;
+    private long ioWaitNanos;
 
     /**
      * Create a new instance
@@ -127,7 +166,26 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
     public SingleThreadEventLoop(ThreadFactory threadFactory,
                                  IoHandler ioHandler, int maxPendingTasks,
                                  RejectedExecutionHandler rejectedHandler, int maxTasksPerRun) {
-        super(threadFactory, maxPendingTasks, rejectedHandler);
+        this(threadFactory, ioHandler, maxPendingTasks, rejectedHandler, maxTasksPerRun,
+                PriorityQueueScheduledTaskStore.newFactory());
+    }
+
+    /**
+     * Create a new instance
+     *
+     * @param threadFactory             the {@link ThreadFactory} which will be used for the used {@link Thread}
+     * @param ioHandler                 the {@link IoHandler} to use.
+     * @param maxPendingTasks           the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler           the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun            the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                                  before trying to handle IO again.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding scheduled tasks.
+     */
+    public SingleThreadEventLoop(ThreadFactory threadFactory,
+                                 IoHandler ioHandler, int maxPendingTasks,
+                                 RejectedExecutionHandler rejectedHandler, int maxTasksPerRun,
+                                 ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        super(threadFactory, maxPendingTasks, rejectedHandler, scheduledTaskStoreFactory);
         this.ioHandler = requireNonNull(ioHandler, "ioHandler");
         this.maxTasksPerRun = checkPositive(maxTasksPerRun, "maxTasksPerRun");
     }
@@ -145,7 +203,26 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
     public SingleThreadEventLoop(Executor executor,
                                  IoHandler ioHandler, int maxPendingTasks,
                                  RejectedExecutionHandler rejectedHandler, int maxTasksPerRun) {
-        super(executor, maxPendingTasks, rejectedHandler);
+        this(executor, ioHandler, maxPendingTasks, rejectedHandler, maxTasksPerRun,
+                PriorityQueueScheduledTaskStore.newFactory());
+    }
+
+    /**
+     * Create a new instance
+     *
+     * @param executor                  the {@link Executor} which will be used to run this {@link EventLoop}.
+     * @param ioHandler                 the {@link IoHandler} to use.
+     * @param maxPendingTasks           the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler           the {@link RejectedExecutionHandler} to use.
+     * @param maxTasksPerRun            the maximum number of tasks per {@link EventLoop} run that will be processed
+     *                                  before trying to handle IO again.
+     * @param scheduledTaskStoreFactory the {@link ScheduledTaskStoreFactory} to use for holding scheduled tasks.
+     */
+    public SingleThreadEventLoop(Executor executor,
+                                 IoHandler ioHandler, int maxPendingTasks,
+                                 RejectedExecutionHandler rejectedHandler, int maxTasksPerRun,
+                                 ScheduledTaskStoreFactory scheduledTaskStoreFactory) {
+        super(executor, maxPendingTasks, rejectedHandler, scheduledTaskStoreFactory);
         this.ioHandler = requireNonNull(ioHandler, "ioHandler");
         this.maxTasksPerRun = checkPositive(maxTasksPerRun, "maxTasksPerRun");
     }
@@ -173,14 +250,89 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
     protected void run() {
         assert inEventLoop();
         do {
-            runIO();
+            // Only read the clock if the metrics or the busy ratio are of interest.
+            timed = METRICS_ENABLED || busyRatioTracked;
+            ioWaitNanos = 0;
+            long ioStartNanos = timed ? System.nanoTime() : 0;
+            int handled = runIO();
+            long ioEndNanos = timed ? System.nanoTime() : 0;
             if (isShuttingDown()) {
                 ioHandler.prepareToDestroy();
             }
-            runAllTasks(maxTasksPerRun);
+            int tasks = runAllTasks(maxTasksPerRun);
+            if (timed) {
+                long endNanos = System.nanoTime();
+                // The time the IoHandler reported as blocking for IO does not count as processing IO.
+                long ioNanos = Math.max(0, ioEndNanos - ioStartNanos - ioWaitNanos);
+                if (METRICS_ENABLED) {
+                    metrics.ioRun(ioNanos, ioWaitNanos, handled);
+                    metrics.tasksRun(endNanos - ioEndNanos, tasks, scheduledTaskCount());
+                }
+                updateBusyRatio(ioStartNanos, endNanos, ioNanos + endNanos - ioEndNanos);
+            }
         } while (!confirmShutdown());
     }
 
+    private void updateBusyRatio(long startNanos, long nowNanos, long busyNanos) {
+        if (busyWindowStartNanos == 0) {
+            busyWindowStartNanos = startNanos;
+        }
+        busyWindowBusyNanos += busyNanos;
+        long windowNanos = nowNanos - busyWindowStartNanos;
+        if (windowNanos >= BUSY_RATIO_WINDOW_NANOS) {
+            double ratio = Math.min(1.0, (double) busyWindowBusyNanos / windowNanos);
+            busyRatio += BUSY_RATIO_ALPHA * (ratio - busyRatio);
+            busyWindowStartNanos = nowNanos;
+            busyWindowBusyNanos = 0;
+        }
+    }
+
+    @Override
+    public final EventLoopMetric metric() {
+        return metrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!METRICS_ENABLED) {
+            super.execute(task);
+            return;
+        }
+        Runnable submitted = metrics.submitted(requireNonNull(task, "task"));
+        try {
+            super.execute(submitted);
+        } catch (Throwable cause) {
+            metrics.rejected(submitted);
+            throw cause;
+        }
+    }
+
+    /**
+     * Returns the number of {@link IoHandle}s that are currently registered with this {@link EventLoop}.
+     * This method may be called from any thread.
+     */
+    public final int registeredIoHandles() {
+        return registeredIoHandles;
+    }
+
+    /**
+     * Returns the exponentially weighted moving average of the fraction of time, between {@code 0} and {@code 1},
+     * this {@link EventLoop} recently spent processing IO and tasks rather than waiting for work.
+     * The busy ratio is only tracked once {@link #trackBusyRatio()} was called, and is {@code 0} before.
+     * This method may be called from any thread.
+     */
+    public final double busyRatio() {
+        return busyRatio;
+    }
+
+    /**
+     * Start tracking the {@link #busyRatio()} of this {@link EventLoop}, which requires reading the clock a few times
+     * per iteration of the loop. This method may be called from any thread.
+     */
+    final void trackBusyRatio() {
+        busyRatioTracked = true;
+    }
+
     /**
      * Called when IO will be processed for all the {@link Channel}s on this {@link SingleThreadEventLoop}.
      * This method returns the number of {@link Channel}s for which IO was processed.
@@ -212,6 +364,7 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
             checkInEventLoopIfPossible(handle);
 
             ioHandler.register(handle);
+            registeredIoHandles++;
         } catch (Throwable cause) {
             promise.setFailure(cause);
             return;
@@ -238,6 +391,7 @@ public class SingleThreadEventLoop extends SingleThreadEventExecutor implements
             checkInEventLoopIfPossible(handle);
 
             ioHandler.deregister(handle);
+            registeredIoHandles--;
         } catch (Throwable cause) {
             promise.setFailure(cause);
             return;
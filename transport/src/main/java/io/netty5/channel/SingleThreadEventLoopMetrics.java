@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import io.netty5.util.internal.StringUtil;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@link EventLoopMetric} of a {@link SingleThreadEventLoop}.
+ * <p>
+ * All counters are only written by the event loop thread, so they are plain volatile fields rather than atomics.
+ * <p>
+ * The time tasks wait in the task queue is sampled by wrapping a single submitted task at a time, so that the common
+ * path of {@link SingleThreadEventLoop#execute(Runnable)} only costs a volatile read.
+ */
+final class SingleThreadEventLoopMetrics implements EventLoopMetric {
+    static final int PROCESSED_HANDLES_BUCKETS = 16;
+    static final int WAIT_TIME_BUCKETS = 24;
+
+    private static final AtomicIntegerFieldUpdater<SingleThreadEventLoopMetrics> SAMPLING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventLoopMetrics.class, "sampling");
+
+    private final SingleThreadEventLoop eventLoop;
+    private final AtomicLongArray processedHandlesHistogram = new AtomicLongArray(PROCESSED_HANDLES_BUCKETS);
+    private final AtomicLongArray waitTimeHistogram = new AtomicLongArray(WAIT_TIME_BUCKETS);
+
+    private volatile int sampling;
+    private volatile long ioTimeNanos;
+    private volatile long ioWaitTimeNanos;
+    private volatile long taskTimeNanos;
+    private volatile long ioRuns;
+    private volatile long processedHandles;
+    private volatile long tasksRun;
+    private volatile int scheduledTasks;
+
+    SingleThreadEventLoopMetrics(SingleThreadEventLoop eventLoop) {
+        this.eventLoop = eventLoop;
+    }
+
+    /**
+     * Called for every submitted task, returning the task to add to the task queue.
+     */
+    Runnable submitted(Runnable task) {
+        if (sampling != 0 || !SAMPLING_UPDATER.compareAndSet(this, 0, 1)) {
+            return task;
+        }
+        long submitTime = System.nanoTime();
+        if (task instanceof SingleThreadEventLoop.NonWakeupRunnable) {
+            return new SampledNonWakeupTask(task, submitTime);
+        }
+        return new SampledTask(task, submitTime);
+    }
+
+    /**
+     * Called if a task returned by {@link #submitted(Runnable)} could not be added to the task queue.
+     */
+    void rejected(Runnable task) {
+        if (task instanceof SampledTask) {
+            sampling = 0;
+        }
+    }
+
+    /**
+     * Called after {@link IoHandler#run(IoExecutionContext)} returned, with the time spent processing IO and the time
+     * spent waiting for IO.
+     */
+    void ioRun(long nanos, long waitNanos, int handled) {
+        ioRuns++;
+        ioTimeNanos += nanos;
+        ioWaitTimeNanos += waitNanos;
+        processedHandles += handled;
+        increment(processedHandlesHistogram,
+                Math.min(32 - Integer.numberOfLeadingZeros(handled), PROCESSED_HANDLES_BUCKETS - 1));
+    }
+
+    /**
+     * Called after tasks were run.
+     */
+    void tasksRun(long nanos, int tasks, int scheduledTasks) {
+        tasksRun += tasks;
+        taskTimeNanos += nanos;
+        this.scheduledTasks = scheduledTasks;
+    }
+
+    private void sampled(long submitTime) {
+        long micros = (System.nanoTime() - submitTime) / 1000;
+        increment(waitTimeHistogram, Math.min(64 - Long.numberOfLeadingZeros(micros), WAIT_TIME_BUCKETS - 1));
+        sampling = 0;
+    }
+
+    private static void increment(AtomicLongArray histogram, int index) {
+        histogram.lazySet(index, histogram.get(index) + 1);
+    }
+
+    private static long[] toArray(AtomicLongArray histogram) {
+        long[] array = new long[histogram.length()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = histogram.get(i);
+        }
+        return array;
+    }
+
+    @Override
+    public long ioTimeNanos() {
+        return ioTimeNanos;
+    }
+
+    @Override
+    public long ioWaitTimeNanos() {
+        return ioWaitTimeNanos;
+    }
+
+    @Override
+    public long taskTimeNanos() {
+        return taskTimeNanos;
+    }
+
+    @Override
+    public long ioRuns() {
+        return ioRuns;
+    }
+
+    @Override
+    public long processedHandles() {
+        return processedHandles;
+    }
+
+    @Override
+    public long[] processedHandlesHistogram() {
+        return toArray(processedHandlesHistogram);
+    }
+
+    @Override
+    public long tasksRun() {
+        return tasksRun;
+    }
+
+    @Override
+    public long[] taskQueueWaitTimeHistogram() {
+        return toArray(waitTimeHistogram);
+    }
+
+    @Override
+    public int pendingTasks() {
+        return eventLoop.pendingTasks();
+    }
+
+    @Override
+    public int scheduledTasks() {
+        return scheduledTasks;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) +
+                "(ioTimeNanos: " + ioTimeNanos +
+                "; ioWaitTimeNanos: " + ioWaitTimeNanos +
+                "; taskTimeNanos: " + taskTimeNanos +
+                "; ioRuns: " + ioRuns +
+                "; processedHandles: " + processedHandles +
+                "; tasksRun: " + tasksRun +
+                "; pendingTasks: " + pendingTasks() +
+                "; scheduledTasks: " + scheduledTasks + ')';
+    }
+
+    private class SampledTask implements Runnable {
+        private final Runnable task;
+        private final long submitTime;
+
+        SampledTask(Runnable task, long submitTime) {
+            this.task = task;
+            this.submitTime = submitTime;
+        }
+
+        @Override
+        public void run() {
+            sampled(submitTime);
+            task.run();
+        }
+    }
+
+    private final class SampledNonWakeupTask extends SampledTask implements SingleThreadEventLoop.NonWakeupRunnable {
+        SampledNonWakeupTask(Runnable task, long submitTime) {
+            super(task, submitTime);
+        }
+    }
+}
@@ -24,13 +24,16 @@ import io.netty5.util.ReferenceCountUtil;
 import io.netty5.util.concurrent.EventExecutor;
 import io.netty5.util.concurrent.Future;
 import io.netty5.util.concurrent.FutureContextListener;
+import io.netty5.util.concurrent.Promise;
 import io.netty5.util.internal.StringUtil;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -40,6 +43,11 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * The default {@link ChannelGroup} implementation.
+ * <p>
+ * Writes to the channels of the group are grouped by {@link EventExecutor}, so that the channels of each event loop
+ * are written to by a single task, instead of one task per channel. Each channel is written its own copy of a
+ * {@link Buffer} message, unless the group was created to share buffers, in which case every channel gets a read-only
+ * view of the same memory.
  */
 public class DefaultChannelGroup extends AbstractSet<Channel> implements ChannelGroup {
 
@@ -50,6 +58,7 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
     private final ConcurrentMap<ChannelId, Channel> nonServerChannels = new ConcurrentHashMap<>();
     private final FutureContextListener<Channel, Void> remover = (channel, future) -> remove(channel);
     private final boolean stayClosed;
+    private final boolean shareBuffers;
     private volatile boolean closed;
 
     /**
@@ -87,10 +96,24 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
      * the same name, which means no duplicate check is done against group names.
      */
     public DefaultChannelGroup(String name, EventExecutor executor, boolean stayClosed) {
+        this(name, executor, stayClosed, false);
+    }
+
+    /**
+     * Creates a new group with the specified {@code name} and {@link EventExecutor} to notify the
+     * {@link ChannelGroupFuture}s. {@code stayClosed} defines whether or not, this group can be closed
+     * more than once. {@code shareBuffers} defines whether {@link Buffer} messages that are written to the group are
+     * made {@linkplain Buffer#makeReadOnly() read-only}, and shared by all channels via read-only views, instead of
+     * being copied for every channel. This makes broadcasting a message to many channels cheap, but the handlers
+     * of the channels must not modify the buffers they write. Please note that different groups can have the same
+     * name, which means no duplicate check is done against group names.
+     */
+    public DefaultChannelGroup(String name, EventExecutor executor, boolean stayClosed, boolean shareBuffers) {
         requireNonNull(name, "name");
         this.name = name;
         this.executor = executor;
         this.stayClosed = stayClosed;
+        this.shareBuffers = shareBuffers;
     }
 
     @Override
@@ -228,9 +251,10 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
 
     // Create a safe duplicate of the message to write it to a channel but not affect other writes.
     // See https://github.com/netty/netty/issues/1461
-    private static Object safeDuplicate(Object message) {
+    private Object safeDuplicate(Object message) {
         if (message instanceof Buffer) {
-            return ((Buffer) message).copy();
+            // A read-only copy of a read-only buffer shares its memory.
+            return ((Buffer) message).copy(shareBuffers);
         } else {
             return ReferenceCountUtil.retain(message);
         }
@@ -238,13 +262,36 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
 
     @Override
     public ChannelGroupFuture write(Object message, ChannelMatcher matcher) {
+        return write(message, matcher, false);
+    }
+
+    private ChannelGroupFuture write(Object message, ChannelMatcher matcher, boolean flush) {
         requireNonNull(message, "message");
         requireNonNull(matcher, "matcher");
 
+        if (shareBuffers && message instanceof Buffer) {
+            ((Buffer) message).makeReadOnly();
+        }
         Map<Channel, Future<Void>> futures = new LinkedHashMap<>(nonServerChannels.size());
+        Map<EventExecutor, List<PendingWrite>> pendingWrites = null;
         for (Channel c: nonServerChannels.values()) {
             if (matcher.matches(c)) {
-                futures.put(c, c.write(safeDuplicate(message)));
+                EventExecutor loop = c.executor();
+                if (loop.inEventLoop()) {
+                    futures.put(c, write(c, safeDuplicate(message), flush));
+                } else {
+                    if (pendingWrites == null) {
+                        pendingWrites = new HashMap<>();
+                    }
+                    PendingWrite write = new PendingWrite(c, safeDuplicate(message), loop.newPromise());
+                    pendingWrites.computeIfAbsent(loop, l -> new ArrayList<>()).add(write);
+                    futures.put(c, write.promise.asFuture());
+                }
+            }
+        }
+        if (pendingWrites != null) {
+            for (Map.Entry<EventExecutor, List<PendingWrite>> entry : pendingWrites.entrySet()) {
+                submitWrites(entry.getKey(), entry.getValue(), flush);
             }
         }
         ChannelGroupFuture future = new DefaultChannelGroupFuture(this, futures, executor);
@@ -252,6 +299,28 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
         return future;
     }
 
+    private static Future<Void> write(Channel channel, Object message, boolean flush) {
+        return flush ? channel.writeAndFlush(message) : channel.write(message);
+    }
+
+    /**
+     * Write to all channels of the given event loop with a single task.
+     */
+    private static void submitWrites(EventExecutor loop, List<PendingWrite> writes, boolean flush) {
+        try {
+            loop.execute(() -> {
+                for (PendingWrite write : writes) {
+                    write(write.channel, write.message, flush).cascadeTo(write.promise);
+                }
+            });
+        } catch (Throwable cause) {
+            for (PendingWrite write : writes) {
+                Resource.dispose(write.message);
+                write.promise.setFailure(cause);
+            }
+        }
+    }
+
     @Override
     public ChannelGroup flush() {
         return flush(ChannelMatchers.all());
@@ -357,17 +426,7 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
 
     @Override
     public ChannelGroupFuture writeAndFlush(Object message, ChannelMatcher matcher) {
-        requireNonNull(message, "message");
-
-        Map<Channel, Future<Void>> futures = new LinkedHashMap<>(nonServerChannels.size());
-        for (Channel c: nonServerChannels.values()) {
-            if (matcher.matches(c)) {
-                futures.put(c, c.writeAndFlush(safeDuplicate(message)));
-            }
-        }
-        final ChannelGroupFuture future = new DefaultChannelGroupFuture(this, futures, executor);
-        Resource.dispose(message);
-        return future;
+        return write(message, matcher, true);
     }
 
     @Override
@@ -418,4 +477,16 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
     public String toString() {
         return StringUtil.simpleClassName(this) + "(name: " + name() + ", size: " + size() + ')';
     }
+
+    private static final class PendingWrite {
+        final Channel channel;
+        final Object message;
+        final Promise<Void> promise;
+
+        PendingWrite(Channel channel, Object message, Promise<Void> promise) {
+            this.channel = channel;
+            this.message = message;
+            this.promise = promise;
+        }
+    }
 }
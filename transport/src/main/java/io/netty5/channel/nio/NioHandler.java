@@ -575,7 +575,9 @@ public final class NioHandler implements IoHandler {
                     break;
                 }
 
+                runner.beforeBlocking();
                 int selectedKeys = selector.select(timeoutMillis);
+                runner.afterBlocking();
                 selectCnt ++;
 
                 if (selectedKeys != 0 || oldWakenUp || wakenUp.get() || !runner.canBlock()) {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import java.net.SocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An endpoint in the shared memory transport. A {@link SharedMemoryServerChannel} is identified by the directory in
+ * which connecting {@link SharedMemoryChannel}s create their segment files, while a connection is identified by its
+ * segment file.
+ */
+public final class SharedMemoryAddress extends SocketAddress implements Comparable<SharedMemoryAddress> {
+
+    private static final long serialVersionUID = -3167464210402335247L;
+
+    private final String path;
+
+    /**
+     * Creates a new instance with the specified path.
+     */
+    public SharedMemoryAddress(Path path) {
+        this.path = requireNonNull(path, "path").toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Creates a new instance with the specified path.
+     */
+    public SharedMemoryAddress(String path) {
+        this(Paths.get(requireNonNull(path, "path")));
+    }
+
+    /**
+     * Returns the path of this address.
+     */
+    public Path path() {
+        return Paths.get(path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SharedMemoryAddress)) {
+            return false;
+        }
+
+        return path.equals(((SharedMemoryAddress) o).path);
+    }
+
+    @Override
+    public int compareTo(SharedMemoryAddress o) {
+        return path.compareTo(o.path);
+    }
+
+    @Override
+    public String toString() {
+        return "shm:" + path;
+    }
+}
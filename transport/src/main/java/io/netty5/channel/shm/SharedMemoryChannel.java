@@ -0,0 +1,358 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import io.netty5.buffer.Buffer;
+import io.netty5.channel.AbstractChannel;
+import io.netty5.channel.Channel;
+import io.netty5.channel.ChannelShutdownDirection;
+import io.netty5.channel.EventLoop;
+import io.netty5.util.Resource;
+import io.netty5.util.internal.StringUtil;
+import io.netty5.util.internal.SystemPropertyUtil;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketAddress;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.UnsupportedAddressTypeException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.netty5.util.internal.MathUtil.safeFindNextPositivePowerOfTwo;
+import static io.netty5.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * A {@link Channel} for the shared memory transport, which allows the communication between processes on the same
+ * host without going through the kernel for each message.
+ * <p>
+ * Each connection is backed by a memory mapped file that holds one ring buffer per direction. Writing a
+ * {@link Buffer} copies its bytes into the ring of the outbound direction, from where the peer copies them into the
+ * {@link Buffer}s it reads. If the ring is full, the write is resumed once the peer has made room.
+ * <p>
+ * If the process of the peer dies without closing the connection, the {@link SharedMemoryHandler} notices it at the
+ * next periodic check, and the channel is failed with an {@link IOException} and closed. This relies on both
+ * processes sharing the same process id namespace.
+ */
+public class SharedMemoryChannel extends AbstractChannel<SharedMemoryServerChannel, SharedMemoryAddress,
+        SharedMemoryAddress> implements SharedMemoryChannelUnsafe {
+    private static final String EXPECTED_TYPES = " (expected: " + StringUtil.simpleClassName(Buffer.class) + ')';
+    private static final int DEFAULT_RING_CAPACITY = safeFindNextPositivePowerOfTwo(
+            SystemPropertyUtil.getInt("io.netty5.channel.shm.ringCapacity", 256 * 1024));
+
+    private enum State { OPEN, CONNECTED, CLOSED }
+
+    private final int ringCapacity;
+    private SharedMemorySegment segment;
+    private SharedMemoryRing inbound;
+    private SharedMemoryRing outbound;
+    private boolean writeScheduled;
+    private long peerPid;
+    private volatile State state;
+    private volatile SharedMemoryAddress localAddress;
+    private volatile SharedMemoryAddress remoteAddress;
+    private volatile boolean inputShutdown;
+    private volatile boolean outputShutdown;
+
+    /**
+     * Creates a new instance, which uses rings of the default capacity once connected.
+     */
+    public SharedMemoryChannel(EventLoop eventLoop) {
+        this(eventLoop, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param eventLoop     the {@link EventLoop} to use for IO.
+     * @param ringCapacity  the capacity of the ring of each direction, which is rounded up to a power of two.
+     */
+    public SharedMemoryChannel(EventLoop eventLoop, int ringCapacity) {
+        super(null, eventLoop, false);
+        this.ringCapacity = safeFindNextPositivePowerOfTwo(checkPositive(ringCapacity, "ringCapacity"));
+        state = State.OPEN;
+    }
+
+    SharedMemoryChannel(SharedMemoryServerChannel parent, EventLoop eventLoop, SharedMemorySegment segment) {
+        super(parent, eventLoop, false);
+        ringCapacity = 0;
+        this.segment = segment;
+        inbound = segment.clientToServer();
+        outbound = segment.serverToClient();
+        localAddress = parent.localAddress();
+        remoteAddress = new SharedMemoryAddress(segment.file());
+        peerPid = segment.clientPid();
+        state = State.CONNECTED;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    @Override
+    public boolean isActive() {
+        return state == State.CONNECTED;
+    }
+
+    @Override
+    protected SharedMemoryAddress localAddress0() {
+        return localAddress;
+    }
+
+    @Override
+    protected SharedMemoryAddress remoteAddress0() {
+        return remoteAddress;
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) {
+        throw new UnsupportedOperationException("bind");
+    }
+
+    @Override
+    protected void doShutdown(ChannelShutdownDirection direction) {
+        switch (direction) {
+            case Inbound:
+                inputShutdown = true;
+                break;
+            case Outbound:
+                outputShutdown = true;
+                // Let the peer see the end of the stream once it has read everything that was written before.
+                outbound.closeWriter();
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    @Override
+    public boolean isShutdown(ChannelShutdownDirection direction) {
+        if (!isActive()) {
+            return true;
+        }
+        switch (direction) {
+            case Inbound:
+                return inputShutdown;
+            case Outbound:
+                return outputShutdown;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        State oldState = state;
+        state = State.CLOSED;
+        SharedMemorySegment segment = this.segment;
+        if (segment == null) {
+            return;
+        }
+        this.segment = null;
+        try {
+            if (oldState != State.CONNECTED) {
+                // Withdraw the connect attempt, so the server will not accept it anymore.
+                segment.complete(SharedMemorySegment.STATE_REFUSED);
+                Files.deleteIfExists(segment.file());
+            }
+        } finally {
+            inbound.closeReader();
+            outbound.closeWriter();
+            inbound = null;
+            outbound = null;
+            segment.unmap();
+        }
+    }
+
+    @Override
+    protected void doRead(boolean wasReadPendingAlready) {
+        // Nothing to do, the SharedMemoryHandler will read once the inbound ring has bytes while a read is pending.
+    }
+
+    @Override
+    protected boolean doReadNow(ReadSink readSink) throws Exception {
+        Buffer buffer = null;
+        try {
+            buffer = readSink.allocateBuffer();
+            if (buffer == null) {
+                readSink.processRead(0, 0, null);
+                return false;
+            }
+            int attemptedBytesRead = buffer.writableBytes();
+            int actualBytesRead = buffer.transferFrom(inbound, attemptedBytesRead);
+            if (actualBytesRead <= 0) {
+                // nothing was read. release the buffer.
+                Resource.dispose(buffer);
+                buffer = null;
+                readSink.processRead(attemptedBytesRead, actualBytesRead, null);
+                return actualBytesRead < 0;
+            }
+
+            readSink.processRead(attemptedBytesRead, actualBytesRead, buffer);
+            buffer = null;
+            return false;
+        } catch (Throwable t) {
+            if (buffer != null) {
+                buffer.close();
+            }
+            throw t;
+        }
+    }
+
+    @Override
+    protected void doWriteNow(WriteSink writeSink) throws Exception {
+        switch (state) {
+            case OPEN:
+                throw new NotYetConnectedException();
+            case CLOSED:
+                throw new ClosedChannelException();
+            case CONNECTED:
+                break;
+            default:
+                throw new AssertionError();
+        }
+
+        Buffer buf = (Buffer) writeSink.currentFlushedMessage();
+        int attemptedBytesWrite = buf.readableBytes();
+        if (attemptedBytesWrite == 0) {
+            writeSink.complete(0, 0, 1, true);
+            return;
+        }
+        int actualBytesWrite = buf.transferTo(outbound, attemptedBytesWrite);
+        if (actualBytesWrite == 0) {
+            // The ring is full, continue once the peer has read from it.
+            writeScheduled = true;
+        }
+        writeSink.complete(attemptedBytesWrite, actualBytesWrite,
+                actualBytesWrite == attemptedBytesWrite ? 1 : 0, actualBytesWrite > 0);
+    }
+
+    @Override
+    protected boolean isWriteFlushedScheduled() {
+        return writeScheduled;
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof Buffer) {
+            return msg;
+        }
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+    }
+
+    @Override
+    protected boolean doConnect(SocketAddress remoteAddress, SocketAddress localAddress, Buffer initialData)
+            throws Exception {
+        if (state == State.CONNECTED) {
+            throw new AlreadyConnectedException();
+        }
+        if (localAddress != null) {
+            throw new UnsupportedOperationException("bind");
+        }
+        if (!(remoteAddress instanceof SharedMemoryAddress)) {
+            throw new UnsupportedAddressTypeException();
+        }
+        Path directory = ((SharedMemoryAddress) remoteAddress).path();
+        if (!SharedMemoryServerChannel.isListening(directory)) {
+            throw new ConnectException("connection refused: " + remoteAddress);
+        }
+
+        SharedMemorySegment segment = SharedMemorySegment.create(directory, ringCapacity);
+        this.segment = segment;
+        inbound = segment.serverToClient();
+        outbound = segment.clientToServer();
+        this.localAddress = new SharedMemoryAddress(segment.file());
+        // The server accepts the connection asynchronously, see processTransportNow().
+        return false;
+    }
+
+    @Override
+    protected boolean doFinishConnect(SharedMemoryAddress requestedRemoteAddress) throws Exception {
+        int connectState = segment.state();
+        if (connectState == SharedMemorySegment.STATE_PENDING) {
+            return false;
+        }
+        if (connectState != SharedMemorySegment.STATE_ACCEPTED) {
+            throw new ConnectException("connection refused: " + requestedRemoteAddress);
+        }
+        state = State.CONNECTED;
+        remoteAddress = requestedRemoteAddress;
+        peerPid = segment.serverPid();
+        return true;
+    }
+
+    @Override
+    public boolean processTransportNow() {
+        if (state == State.CLOSED || segment == null) {
+            return false;
+        }
+        if (isConnectPending()) {
+            if (segment.state() == SharedMemorySegment.STATE_PENDING) {
+                return false;
+            }
+            finishConnect();
+            return true;
+        }
+
+        boolean processed = false;
+        if (writeScheduled && (outbound.writableBytes() > 0 || outbound.isReaderClosed())) {
+            writeScheduled = false;
+            writeFlushedNow();
+            processed = true;
+        }
+        // The write may have closed the channel.
+        if (state == State.CONNECTED && isReadPending() && !isShutdown(ChannelShutdownDirection.Inbound) &&
+                (inbound.readableBytes() > 0 || inbound.isWriterClosed())) {
+            readNow();
+            processed = true;
+        }
+        return processed;
+    }
+
+    @Override
+    public void checkPeerNow() {
+        if (state != State.CONNECTED || ProcessHandle.of(peerPid).map(ProcessHandle::isAlive).orElse(false)) {
+            return;
+        }
+        // The peer can not close the rings anymore, so without this the connection would look idle forever.
+        pipeline().fireChannelExceptionCaught(new IOException("Peer process " + peerPid + " died"));
+        closeTransport(newPromise());
+    }
+
+    @Override
+    public void registerTransportNow() {
+        // Noop
+    }
+
+    @Override
+    public void deregisterTransportNow() {
+        // Noop
+    }
+
+    @Override
+    public void closeTransportNow() {
+        closeTransport(newPromise());
+    }
+}
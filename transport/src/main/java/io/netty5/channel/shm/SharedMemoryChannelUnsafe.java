@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+interface SharedMemoryChannelUnsafe {
+    void registerTransportNow();
+    void deregisterTransportNow();
+    void closeTransportNow();
+
+    /**
+     * Processes whatever became ready on the transport since the last call.
+     *
+     * @return {@code true} if anything was processed.
+     */
+    boolean processTransportNow();
+
+    /**
+     * Checks if the process of the peer is still alive, and fails the transport if it is not.
+     */
+    void checkPeerNow();
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import io.netty5.channel.IoExecutionContext;
+import io.netty5.channel.IoHandle;
+import io.netty5.channel.IoHandler;
+import io.netty5.channel.IoHandlerFactory;
+import io.netty5.util.internal.StringUtil;
+import io.netty5.util.internal.SystemPropertyUtil;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link IoHandler} implementation for {@link SharedMemoryChannel} and {@link SharedMemoryServerChannel}.
+ * <p>
+ * The peer of a connection lives in another process and cannot wake up the thread of this handler, so the rings of
+ * all registered channels are polled on each run. When nothing was ready the handler first spins for a few runs and
+ * then parks for increasingly longer periods, up to {@code io.netty5.channel.shm.maxParkNanos} (one millisecond by
+ * default), which bounds the latency that an idle connection adds to the first message it receives. The price is that
+ * an idle {@link io.netty5.channel.EventLoop} with registered channels still wakes up {@code 1s / maxParkNanos} times
+ * per second (a thousand times by default) to poll all of their rings. Raise {@code maxParkNanos} to trade latency
+ * for less CPU usage while idle.
+ * <p>
+ * As the peer may die without closing its side of the rings, the handler also checks every
+ * {@code io.netty5.channel.shm.peerCheckIntervalMillis} (one second by default) whether the process of the peer of
+ * each channel is still alive, and fails the channel if it is not.
+ */
+public final class SharedMemoryHandler implements IoHandler {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(SharedMemoryHandler.class);
+    private static final SharedMemoryChannelUnsafe[] EMPTY = new SharedMemoryChannelUnsafe[0];
+
+    private static final int SPIN_RUNS = SystemPropertyUtil.getInt("io.netty5.channel.shm.spinRuns", 64);
+    private static final long MIN_PARK_NANOS = 1000;
+    private static final long MAX_PARK_NANOS =
+            Math.max(MIN_PARK_NANOS, SystemPropertyUtil.getLong("io.netty5.channel.shm.maxParkNanos", 1000000));
+    private static final long PEER_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Math.max(1, SystemPropertyUtil.getLong("io.netty5.channel.shm.peerCheckIntervalMillis", 1000)));
+    // Busy runs do not read the clock, so only check if the peer check is due every so many runs.
+    private static final int PEER_CHECK_RUNS = 1024;
+
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty5.channel.shm.spinRuns: {}", SPIN_RUNS);
+            logger.debug("-Dio.netty5.channel.shm.maxParkNanos: {}", MAX_PARK_NANOS);
+            logger.debug("-Dio.netty5.channel.shm.peerCheckIntervalMillis: {}",
+                    TimeUnit.NANOSECONDS.toMillis(PEER_CHECK_INTERVAL_NANOS));
+        }
+    }
+
+    // Copied on each change, so channels may be registered and deregistered while the handles are processed.
+    private SharedMemoryChannelUnsafe[] registeredChannels = EMPTY;
+    private volatile Thread executionThread;
+    private int idleRuns;
+    private int runsSincePeerCheck;
+    private long lastPeerCheckNanos = System.nanoTime();
+
+    private SharedMemoryHandler() { }
+
+    /**
+     * Returns a new {@link IoHandlerFactory} that creates {@link SharedMemoryHandler} instances.
+     */
+    public static IoHandlerFactory newFactory() {
+        return SharedMemoryHandler::new;
+    }
+
+    private static SharedMemoryChannelUnsafe cast(IoHandle handle) {
+        if (handle instanceof SharedMemoryChannelUnsafe) {
+            return (SharedMemoryChannelUnsafe) handle;
+        }
+        throw new IllegalArgumentException("IoHandle of type " + StringUtil.simpleClassName(handle) + " not supported");
+    }
+
+    @Override
+    public int run(IoExecutionContext runner) {
+        if (executionThread == null) {
+            executionThread = Thread.currentThread();
+        }
+        int handled = processTransports();
+        if (handled > 0 || !runner.canBlock()) {
+            idleRuns = 0;
+            if (++runsSincePeerCheck >= PEER_CHECK_RUNS) {
+                checkPeers(System.nanoTime());
+            }
+            return handled;
+        }
+        if (registeredChannels.length == 0) {
+            // Nothing to poll, just block until there is a task ready to process or wakeup(...) is called.
+            runner.beforeBlocking();
+            LockSupport.parkNanos(this, runner.delayNanos(System.nanoTime()));
+            runner.afterBlocking();
+            return 0;
+        }
+        if (++idleRuns <= SPIN_RUNS) {
+            Thread.onSpinWait();
+            return 0;
+        }
+        long parkNanos = Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << Math.min(idleRuns - SPIN_RUNS - 1, 20));
+        long nowNanos = System.nanoTime();
+        checkPeers(nowNanos);
+        runner.beforeBlocking();
+        LockSupport.parkNanos(this, Math.min(parkNanos, runner.delayNanos(nowNanos)));
+        runner.afterBlocking();
+        return processTransports();
+    }
+
+    private void checkPeers(long nowNanos) {
+        runsSincePeerCheck = 0;
+        if (nowNanos - lastPeerCheckNanos < PEER_CHECK_INTERVAL_NANOS) {
+            return;
+        }
+        lastPeerCheckNanos = nowNanos;
+        for (SharedMemoryChannelUnsafe unsafe : registeredChannels) {
+            unsafe.checkPeerNow();
+        }
+    }
+
+    private int processTransports() {
+        int handled = 0;
+        for (SharedMemoryChannelUnsafe unsafe : registeredChannels) {
+            if (unsafe.processTransportNow()) {
+                handled++;
+            }
+        }
+        return handled;
+    }
+
+    @Override
+    public void wakeup(boolean inEventLoop) {
+        if (!inEventLoop) {
+            Thread thread = executionThread;
+            if (thread != null) {
+                // Wakeup if we block at the moment.
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    @Override
+    public void prepareToDestroy() {
+        for (SharedMemoryChannelUnsafe unsafe : registeredChannels) {
+            unsafe.closeTransportNow();
+        }
+        registeredChannels = EMPTY;
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void register(IoHandle handle) {
+        SharedMemoryChannelUnsafe unsafe = cast(handle);
+        if (indexOf(unsafe) < 0) {
+            SharedMemoryChannelUnsafe[] channels = Arrays.copyOf(registeredChannels, registeredChannels.length + 1);
+            channels[channels.length - 1] = unsafe;
+            registeredChannels = channels;
+            idleRuns = 0;
+            unsafe.registerTransportNow();
+        }
+    }
+
+    @Override
+    public void deregister(IoHandle handle) {
+        SharedMemoryChannelUnsafe unsafe = cast(handle);
+        int index = indexOf(unsafe);
+        if (index >= 0) {
+            SharedMemoryChannelUnsafe[] channels = registeredChannels;
+            SharedMemoryChannelUnsafe[] newChannels = Arrays.copyOf(channels, channels.length - 1);
+            System.arraycopy(channels, index + 1, newChannels, index, channels.length - index - 1);
+            registeredChannels = newChannels;
+            unsafe.deregisterTransportNow();
+        }
+    }
+
+    private int indexOf(SharedMemoryChannelUnsafe unsafe) {
+        SharedMemoryChannelUnsafe[] channels = registeredChannels;
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i] == unsafe) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isCompatible(Class<? extends IoHandle> handleType) {
+        return SharedMemoryChannelUnsafe.class.isAssignableFrom(handleType);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ByteChannel;
+
+/**
+ * A single-producer single-consumer ring of bytes in a {@link ByteBuffer} that may be shared between processes.
+ * <p>
+ * The ring is made of a header and a data region whose size is a power of two. The header holds the monotonically
+ * increasing write and read indices, each next to the closed flag of the same side and on a cache line of its own, so
+ * the producer and the consumer never write to the same cache line. The indices are published with release semantics
+ * after the data has been copied, and read with acquire semantics before it is copied, so no other synchronization is
+ * needed between the two sides.
+ * <p>
+ * Each side of the ring must only ever be used by a single thread at a time.
+ */
+final class SharedMemoryRing implements ByteChannel {
+    static final int HEADER_SIZE = 128;
+
+    private static final int WRITE_INDEX_OFFSET = 0;
+    private static final int WRITER_CLOSED_OFFSET = 8;
+    private static final int READ_INDEX_OFFSET = 64;
+    private static final int READER_CLOSED_OFFSET = 72;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer segment;
+    private final int headerOffset;
+    private final ByteBuffer data;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param segment       the {@link ByteBuffer} that holds the ring, which must be direct.
+     * @param headerOffset  the offset of the {@link #HEADER_SIZE} bytes long header, which must be aligned to 8.
+     * @param dataOffset    the offset of the data region.
+     * @param capacity      the size of the data region, which must be a power of two.
+     */
+    SharedMemoryRing(ByteBuffer segment, int headerOffset, int dataOffset, int capacity) {
+        assert segment.isDirect();
+        assert (headerOffset & 7) == 0;
+        assert Integer.bitCount(capacity) == 1;
+        this.segment = segment;
+        this.headerOffset = headerOffset;
+        this.capacity = capacity;
+        mask = capacity - 1;
+        data = segment.duplicate().position(dataOffset).limit(dataOffset + capacity).slice();
+    }
+
+    /**
+     * Returns the number of bytes that can be read from the ring.
+     */
+    int readableBytes() {
+        return (int) ((long) LONG.getAcquire(segment, headerOffset + WRITE_INDEX_OFFSET) -
+                (long) LONG.getOpaque(segment, headerOffset + READ_INDEX_OFFSET));
+    }
+
+    /**
+     * Returns the number of bytes that can be written to the ring.
+     */
+    int writableBytes() {
+        return capacity - (int) ((long) LONG.getOpaque(segment, headerOffset + WRITE_INDEX_OFFSET) -
+                (long) LONG.getAcquire(segment, headerOffset + READ_INDEX_OFFSET));
+    }
+
+    /**
+     * Returns {@code true} if the writing side has been closed, which means that no more bytes will become readable.
+     */
+    boolean isWriterClosed() {
+        return (int) INT.getAcquire(segment, headerOffset + WRITER_CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the reading side has been closed, which means that written bytes will never be read.
+     */
+    boolean isReaderClosed() {
+        return (int) INT.getAcquire(segment, headerOffset + READER_CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Closes the writing side. Bytes that were written before remain readable.
+     */
+    void closeWriter() {
+        INT.setRelease(segment, headerOffset + WRITER_CLOSED_OFFSET, 1);
+    }
+
+    /**
+     * Closes the reading side.
+     */
+    void closeReader() {
+        INT.setRelease(segment, headerOffset + READER_CLOSED_OFFSET, 1);
+    }
+
+    /**
+     * Copies as many bytes as are readable and fit into the given {@link ByteBuffer}.
+     *
+     * @return the number of bytes read, or {@code -1} if the ring is empty and the writing side has been closed.
+     */
+    @Override
+    public int read(ByteBuffer dst) {
+        // Check the closed flag before the write index, so all bytes written before closing are seen.
+        boolean writerClosed = isWriterClosed();
+        long readIndex = (long) LONG.getOpaque(segment, headerOffset + READ_INDEX_OFFSET);
+        long writeIndex = (long) LONG.getAcquire(segment, headerOffset + WRITE_INDEX_OFFSET);
+        int length = (int) Math.min(writeIndex - readIndex, dst.remaining());
+        if (length == 0) {
+            return writerClosed && writeIndex == readIndex ? -1 : 0;
+        }
+        int offset = (int) readIndex & mask;
+        int first = Math.min(length, capacity - offset);
+        dst.put(data.limit(offset + first).position(offset));
+        if (first < length) {
+            dst.put(data.limit(length - first).position(0));
+        }
+        LONG.setRelease(segment, headerOffset + READ_INDEX_OFFSET, readIndex + length);
+        return length;
+    }
+
+    /**
+     * Copies as many bytes from the given {@link ByteBuffer} as fit into the ring.
+     *
+     * @return the number of bytes written.
+     * @throws IOException if the reading side has been closed.
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (isReaderClosed()) {
+            throw new IOException("Broken pipe");
+        }
+        long writeIndex = (long) LONG.getOpaque(segment, headerOffset + WRITE_INDEX_OFFSET);
+        long readIndex = (long) LONG.getAcquire(segment, headerOffset + READ_INDEX_OFFSET);
+        int length = Math.min(capacity - (int) (writeIndex - readIndex), src.remaining());
+        if (length == 0) {
+            return 0;
+        }
+        int offset = (int) writeIndex & mask;
+        int first = Math.min(length, capacity - offset);
+        int limit = src.limit();
+        try {
+            src.limit(src.position() + first);
+            data.limit(capacity).position(offset);
+            data.put(src);
+            if (first < length) {
+                src.limit(src.position() + length - first);
+                data.position(0);
+                data.put(src);
+            }
+        } finally {
+            src.limit(limit);
+        }
+        LONG.setRelease(segment, headerOffset + WRITE_INDEX_OFFSET, writeIndex + length);
+        return length;
+    }
+
+    /**
+     * Returns {@code true} if neither side has been closed.
+     */
+    @Override
+    public boolean isOpen() {
+        return !isWriterClosed() && !isReaderClosed();
+    }
+
+    /**
+     * Closes both sides of the ring.
+     */
+    @Override
+    public void close() {
+        closeWriter();
+        closeReader();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import io.netty5.util.internal.PlatformDependent;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The memory mapped file that backs a connection of the shared memory transport. It holds a small header followed
+ * by two {@link SharedMemoryRing}s, one for each direction.
+ * <p>
+ * The header starts with a magic number and version, followed by the capacity of the rings and the state of the
+ * connection, which is used by the server to accept or refuse the connection. It also holds the process ids of the
+ * client and the server, so each side can detect if the process of its peer died without closing the connection.
+ */
+final class SharedMemorySegment {
+    static final String FILE_SUFFIX = ".shm";
+
+    static final int STATE_PENDING = 0;
+    static final int STATE_ACCEPTED = 1;
+    static final int STATE_REFUSED = 2;
+
+    private static final int MAGIC = 0x4e53484d; // NSHM
+    private static final int VERSION = 2;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int STATE_OFFSET = 12;
+    private static final int CLIENT_PID_OFFSET = 16;
+    private static final int SERVER_PID_OFFSET = 24;
+    private static final int CLIENT_TO_SERVER_OFFSET = 64;
+    private static final int SERVER_TO_CLIENT_OFFSET = CLIENT_TO_SERVER_OFFSET + SharedMemoryRing.HEADER_SIZE;
+    // Start the data regions on a page boundary.
+    private static final int DATA_OFFSET = 4096;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final SharedMemoryRing clientToServer;
+    private final SharedMemoryRing serverToClient;
+    private boolean unmapped;
+
+    private SharedMemorySegment(Path file, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        clientToServer = new SharedMemoryRing(buffer, CLIENT_TO_SERVER_OFFSET, DATA_OFFSET, capacity);
+        serverToClient = new SharedMemoryRing(buffer, SERVER_TO_CLIENT_OFFSET, DATA_OFFSET + capacity, capacity);
+    }
+
+    /**
+     * Creates a new segment file in the given directory, with rings of the given capacity. The file only becomes
+     * visible under its final name once it has been initialized.
+     *
+     * @param directory the directory in which the file is created.
+     * @param capacity  the capacity of each ring, which must be a power of two.
+     */
+    static SharedMemorySegment create(Path directory, int capacity) throws IOException {
+        assert Integer.bitCount(capacity) == 1;
+        Path tmp = Files.createTempFile(directory, "connect", ".tmp");
+        try {
+            MappedByteBuffer buffer;
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + 2L * capacity);
+            }
+            INT.set(buffer, VERSION_OFFSET, VERSION);
+            INT.set(buffer, CAPACITY_OFFSET, capacity);
+            INT.set(buffer, STATE_OFFSET, STATE_PENDING);
+            LONG.set(buffer, CLIENT_PID_OFFSET, ProcessHandle.current().pid());
+            INT.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+
+            String name = tmp.getFileName().toString();
+            Path file = tmp.resolveSibling(name.substring(0, name.length() - 4) + FILE_SUFFIX);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            return new SharedMemorySegment(file, buffer, capacity);
+        } catch (Throwable cause) {
+            Files.deleteIfExists(tmp);
+            throw cause;
+        }
+    }
+
+    /**
+     * Maps an existing segment file.
+     */
+    static SharedMemorySegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            if (size < DATA_OFFSET) {
+                throw new IOException("Not a shared memory segment: " + file);
+            }
+            buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        SharedMemorySegment segment = null;
+        try {
+            if ((int) INT.getAcquire(buffer, MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a shared memory segment: " + file);
+            }
+            int version = (int) INT.get(buffer, VERSION_OFFSET);
+            if (version != VERSION) {
+                throw new IOException("Unsupported shared memory segment version: " + version +
+                        " (expected: " + VERSION + ')');
+            }
+            int capacity = (int) INT.get(buffer, CAPACITY_OFFSET);
+            if (capacity <= 0 || Integer.bitCount(capacity) != 1 || buffer.capacity() < DATA_OFFSET + 2L * capacity) {
+                throw new IOException("Invalid shared memory segment capacity: " + capacity);
+            }
+            segment = new SharedMemorySegment(file, buffer, capacity);
+            return segment;
+        } finally {
+            if (segment == null) {
+                PlatformDependent.freeDirectBuffer(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns the file that backs this segment.
+     */
+    Path file() {
+        return file;
+    }
+
+    /**
+     * Returns the {@link SharedMemoryRing} on which the client writes and the server reads.
+     */
+    SharedMemoryRing clientToServer() {
+        return clientToServer;
+    }
+
+    /**
+     * Returns the {@link SharedMemoryRing} on which the server writes and the client reads.
+     */
+    SharedMemoryRing serverToClient() {
+        return serverToClient;
+    }
+
+    /**
+     * Returns the state of the connection, which is one of {@link #STATE_PENDING}, {@link #STATE_ACCEPTED} or
+     * {@link #STATE_REFUSED}.
+     */
+    int state() {
+        return (int) INT.getAcquire(buffer, STATE_OFFSET);
+    }
+
+    /**
+     * Moves the connection from {@link #STATE_PENDING} to the given state. When accepting the connection, the process
+     * id of the server is stored before the state is changed, so the client sees it once it sees the new state.
+     *
+     * @return {@code true} if the state was changed, {@code false} if the connection was not pending anymore.
+     */
+    boolean complete(int state) {
+        if (state == STATE_ACCEPTED) {
+            LONG.set(buffer, SERVER_PID_OFFSET, ProcessHandle.current().pid());
+        }
+        return INT.compareAndSet(buffer, STATE_OFFSET, STATE_PENDING, state);
+    }
+
+    /**
+     * Returns the process id of the client that created the segment.
+     */
+    long clientPid() {
+        return (long) LONG.get(buffer, CLIENT_PID_OFFSET);
+    }
+
+    /**
+     * Returns the process id of the server, which is only valid once the connection was accepted.
+     */
+    long serverPid() {
+        return (long) LONG.get(buffer, SERVER_PID_OFFSET);
+    }
+
+    /**
+     * Unmaps the segment. It must not be accessed anymore afterwards.
+     */
+    void unmap() {
+        if (!unmapped) {
+            unmapped = true;
+            PlatformDependent.freeDirectBuffer(buffer);
+        }
+    }
+}
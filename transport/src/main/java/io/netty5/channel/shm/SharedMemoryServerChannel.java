@@ -0,0 +1,293 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import io.netty5.channel.AbstractServerChannel;
+import io.netty5.channel.EventLoop;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.ServerChannel;
+import io.netty5.util.internal.logging.InternalLogger;
+import io.netty5.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.SocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.UnsupportedAddressTypeException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ServerChannel} for the shared memory transport.
+ * <p>
+ * The server is bound to a directory, in which connecting {@link SharedMemoryChannel}s create their segment files.
+ * The directory holds a lock file for as long as the server is bound, which is used by clients to tell whether a
+ * server is listening. New segment files are discovered through a {@link WatchService} on the directory.
+ */
+public class SharedMemoryServerChannel extends AbstractServerChannel<SharedMemoryChannel, SharedMemoryAddress,
+        SharedMemoryAddress> implements SharedMemoryChannelUnsafe {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(SharedMemoryServerChannel.class);
+    private static final String LOCK_FILE = "server.lock";
+    // Directories bound in this JVM. Their lock file must not be probed, as closing any channel of a file may release
+    // all the locks that this JVM holds on it.
+    private static final Set<Path> BOUND_DIRECTORIES = ConcurrentHashMap.newKeySet();
+
+    private final Queue<Path> pendingConnections = new ArrayDeque<>();
+    private volatile int state; // 0 - open, 1 - active, 2 - closed
+    private volatile SharedMemoryAddress localAddress;
+    private FileChannel lockChannel;
+    private WatchService watchService;
+
+    public SharedMemoryServerChannel(EventLoop eventLoop, EventLoopGroup childEventLoopGroup) {
+        super(eventLoop, childEventLoopGroup, SharedMemoryChannel.class);
+    }
+
+    /**
+     * Returns {@code true} if a {@link SharedMemoryServerChannel} is bound to the given directory, either in this
+     * or in another process.
+     */
+    static boolean isListening(Path directory) throws IOException {
+        if (BOUND_DIRECTORIES.contains(directory)) {
+            return true;
+        }
+        try (FileChannel ch = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.WRITE)) {
+            FileLock lock = ch.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (OverlappingFileLockException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state < 2;
+    }
+
+    @Override
+    public boolean isActive() {
+        return state == 1;
+    }
+
+    @Override
+    protected SharedMemoryAddress localAddress0() {
+        return localAddress;
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        if (!(localAddress instanceof SharedMemoryAddress)) {
+            throw new UnsupportedAddressTypeException();
+        }
+        SharedMemoryAddress address = (SharedMemoryAddress) localAddress;
+        Path directory = address.path();
+        Files.createDirectories(directory);
+        if (!BOUND_DIRECTORIES.add(directory)) {
+            throw new BindException("Address already in use: " + address);
+        }
+        FileChannel lockChannel = null;
+        WatchService watchService = null;
+        try {
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (lockChannel.tryLock() == null) {
+                throw new BindException("Address already in use: " + address);
+            }
+            // Segment files that are left from before were created by clients of a previous server, which are not
+            // waiting for them to be accepted anymore.
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                    directory, '*' + SharedMemorySegment.FILE_SUFFIX)) {
+                for (Path file : stream) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+            // Pick up connections that were made before the directory was watched.
+            scanDirectory(directory);
+        } catch (Throwable cause) {
+            if (watchService != null) {
+                watchService.close();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+            BOUND_DIRECTORIES.remove(directory);
+            throw cause;
+        }
+        this.lockChannel = lockChannel;
+        this.watchService = watchService;
+        this.localAddress = address;
+        state = 1;
+    }
+
+    private void scanDirectory(Path directory) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                directory, '*' + SharedMemorySegment.FILE_SUFFIX)) {
+            for (Path file : stream) {
+                if (!pendingConnections.contains(file)) {
+                    pendingConnections.add(file);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (state <= 1) {
+            // Update all internal state before the closeFuture is notified.
+            state = 2;
+            SharedMemoryAddress localAddress = this.localAddress;
+            if (localAddress != null) {
+                this.localAddress = null;
+                try {
+                    watchService.close();
+                    lockChannel.close();
+                } finally {
+                    BOUND_DIRECTORIES.remove(localAddress.path());
+                    refusePendingConnections();
+                }
+            }
+        }
+    }
+
+    private void refusePendingConnections() {
+        Path file;
+        while ((file = pendingConnections.poll()) != null) {
+            try {
+                SharedMemorySegment segment = SharedMemorySegment.open(file);
+                try {
+                    segment.complete(SharedMemorySegment.STATE_REFUSED);
+                } finally {
+                    segment.unmap();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.debug("Failed to refuse shared memory connection {}", file, e);
+            }
+        }
+    }
+
+    @Override
+    protected void doRead(boolean wasReadPendingAlready) {
+        if (!pendingConnections.isEmpty()) {
+            readNow();
+        }
+    }
+
+    @Override
+    protected boolean doReadNow(ReadSink readSink) {
+        Path file;
+        while ((file = pendingConnections.poll()) != null) {
+            SharedMemorySegment segment;
+            try {
+                segment = SharedMemorySegment.open(file);
+            } catch (NoSuchFileException e) {
+                // The connect attempt was withdrawn.
+                continue;
+            } catch (IOException e) {
+                logger.warn("Failed to open shared memory segment {}", file, e);
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.debug("Failed to delete shared memory segment {}", file, e);
+            }
+            if (!segment.complete(SharedMemorySegment.STATE_ACCEPTED)) {
+                segment.unmap();
+                continue;
+            }
+            readSink.processRead(0, 0, newSharedMemoryChannel(segment));
+            return false;
+        }
+        readSink.processRead(0, 0, null);
+        return false;
+    }
+
+    private SharedMemoryChannel newSharedMemoryChannel(SharedMemorySegment segment) {
+        return new SharedMemoryChannel(this, childEventLoopGroup().next(), segment);
+    }
+
+    @Override
+    public void checkPeerNow() {
+        // Noop, the server has no peer.
+    }
+
+    @Override
+    public boolean processTransportNow() {
+        if (state != 1) {
+            return false;
+        }
+        boolean processed = false;
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    try {
+                        scanDirectory(directory);
+                    } catch (IOException e) {
+                        logger.warn("Failed to scan {} for shared memory connections", directory, e);
+                    }
+                } else {
+                    Path name = (Path) event.context();
+                    if (name.toString().endsWith(SharedMemorySegment.FILE_SUFFIX)) {
+                        pendingConnections.add(directory.resolve(name));
+                    }
+                }
+            }
+            key.reset();
+            processed = true;
+        }
+        if (!pendingConnections.isEmpty() && isReadPending()) {
+            readNow();
+            processed = true;
+        }
+        return processed;
+    }
+
+    @Override
+    public void registerTransportNow() {
+    }
+
+    @Override
+    public void deregisterTransportNow() {
+    }
+
+    @Override
+    public void closeTransportNow() {
+        closeTransport(newPromise());
+    }
+}
@@ -22,6 +22,7 @@ import io.netty5.channel.ChannelInitializer;
 import io.netty5.channel.ChannelOption;
 import io.netty5.channel.EventLoopGroup;
 import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.group.ChannelGroup;
 import io.netty5.channel.local.LocalAddress;
 import io.netty5.channel.local.LocalChannel;
 import io.netty5.channel.local.LocalHandler;
@@ -31,13 +32,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ServerBootstrapTest {
@@ -177,4 +183,63 @@ public class ServerBootstrapTest {
         group.shutdownGracefully();
         assertTrue(requestServed.get());
     }
+
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testBindShardedKeepsChildrenOnAcceptingLoop() throws Exception {
+        LocalAddress addr = new LocalAddress(UUID.randomUUID().toString());
+        EventLoopGroup parentGroup = new MultithreadEventLoopGroup(1, LocalHandler.newFactory());
+        EventLoopGroup childGroup = new MultithreadEventLoopGroup(1, LocalHandler.newFactory());
+        BlockingQueue<Channel> accepted = new LinkedBlockingQueue<>();
+        try {
+            ChannelGroup servers = new ServerBootstrap()
+                    .group(parentGroup, childGroup)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(new ChannelInitializer<>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            accepted.add(ch);
+                        }
+                    })
+                    .bindSharded(addr).asStage().get();
+            assertEquals(1, servers.size());
+            Channel server = servers.iterator().next();
+            assertSame(childGroup.next(), server.executor());
+
+            Channel client = new Bootstrap()
+                    .group(parentGroup)
+                    .channel(LocalChannel.class)
+                    .handler(new ChannelHandler() { })
+                    .connect(addr).asStage().get();
+            Channel child = accepted.take();
+            assertSame(server.executor(), child.executor());
+            assertSame(server, child.parent());
+
+            client.close().asStage().sync();
+            servers.close().asStage().sync();
+        } finally {
+            parentGroup.shutdownGracefully();
+            childGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testBindShardedClosesBoundChannelsOnFailure() throws Exception {
+        LocalAddress addr = new LocalAddress(UUID.randomUUID().toString());
+        // The local transport does not allow several channels on one address, so the second bind fails.
+        EventLoopGroup group = new MultithreadEventLoopGroup(2, LocalHandler.newFactory());
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(new ChannelHandler() { });
+            assertThrows(ExecutionException.class, () -> sb.bindSharded(addr).asStage().get());
+
+            // The first channel was closed again, so the address can be bound once more.
+            sb.bind(addr).asStage().get().close().asStage().sync();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
 }
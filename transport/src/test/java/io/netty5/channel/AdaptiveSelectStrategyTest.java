@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveSelectStrategyTest {
+    private static final long MAX_WINDOW_NANOS = 100_000;
+
+    private long nanoTime;
+    private final AdaptiveSelectStrategy strategy = new AdaptiveSelectStrategy(MAX_WINDOW_NANOS, () -> nanoTime);
+
+    @Test
+    public void testSpinsThenSelectsWhenIdle() throws Exception {
+        long window = strategy.spinWindowNanos();
+        assertEquals(MAX_WINDOW_NANOS / 4, window);
+
+        assertEquals(SelectStrategy.CONTINUE, strategy.calculateStrategy(() -> 0, false));
+        nanoTime += window / 2;
+        assertEquals(SelectStrategy.CONTINUE, strategy.calculateStrategy(() -> 0, false));
+        nanoTime += window / 2;
+        assertEquals(SelectStrategy.SELECT, strategy.calculateStrategy(() -> 0, false));
+
+        assertEquals(2, strategy.spinLoops());
+        assertEquals(1, strategy.spinMisses());
+        assertEquals(1, strategy.blockingSelects());
+        assertEquals(window, strategy.spinWindowNanos());
+
+        // The select blocked for longer than spinning could have covered.
+        nanoTime += MAX_WINDOW_NANOS;
+        assertEquals(1, strategy.calculateStrategy(() -> 1, true));
+        assertEquals(window / 2, strategy.spinWindowNanos());
+    }
+
+    @Test
+    public void testStopsPollingOnceWindowCollapsed() throws Exception {
+        while (strategy.spinWindowNanos() != 0) {
+            strategy.calculateStrategy(() -> 0, false);
+            // Block for long enough to not count as a short select.
+            nanoTime += MAX_WINDOW_NANOS + 1;
+        }
+        AtomicInteger polls = new AtomicInteger();
+        IntSupplier supplier = () -> {
+            polls.incrementAndGet();
+            return 0;
+        };
+        assertEquals(SelectStrategy.SELECT, strategy.calculateStrategy(supplier, false));
+        assertEquals(0, polls.get());
+    }
+
+    @Test
+    public void testIoWhileSpinningGrowsWindow() throws Exception {
+        long window = strategy.spinWindowNanos();
+        assertEquals(SelectStrategy.CONTINUE, strategy.calculateStrategy(() -> 0, false));
+        nanoTime += window - 1;
+        assertEquals(3, strategy.calculateStrategy(() -> 3, false));
+
+        assertEquals(1, strategy.spinHits());
+        assertEquals(0, strategy.blockingSelects());
+        assertEquals(Math.min(MAX_WINDOW_NANOS, (window - 1) * 2), strategy.spinWindowNanos());
+    }
+
+    @Test
+    public void testShortBlockingSelectGrowsWindow() throws Exception {
+        while (strategy.spinWindowNanos() != 0) {
+            strategy.calculateStrategy(() -> 0, false);
+            nanoTime += MAX_WINDOW_NANOS + 1;
+        }
+        assertEquals(SelectStrategy.SELECT, strategy.calculateStrategy(() -> 0, false));
+        // The select returned after 10 microseconds.
+        nanoTime += 10_000;
+        assertEquals(1, strategy.calculateStrategy(() -> 1, false));
+        assertEquals(20_000, strategy.spinWindowNanos());
+    }
+
+    @Test
+    public void testNeverBlocksWhenNotAllowed() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, strategy.calculateStrategy(() -> 0, true));
+            nanoTime += MAX_WINDOW_NANOS;
+        }
+        assertEquals(0, strategy.blockingSelects());
+        assertEquals(0, strategy.spinLoops());
+    }
+}
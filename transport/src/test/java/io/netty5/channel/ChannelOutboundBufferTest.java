@@ -177,6 +177,80 @@ public class ChannelOutboundBufferTest {
         });
     }
 
+    @Test
+    void coalesceSmallBuffers() throws Exception {
+        testChannelOutboundBuffer((buffer, executor) -> {
+            BufferAllocator allocator = BufferAllocator.onHeapUnpooled();
+            Promise<Void> p1 = executor.newPromise();
+            Promise<Void> p2 = executor.newPromise();
+            Promise<Void> p3 = executor.newPromise();
+            Promise<Void> p4 = executor.newPromise();
+            Promise<Void> p5 = executor.newPromise();
+            Promise<Void> cancelled = executor.newPromise();
+            Buffer large = allocator.allocate(16).fill((byte) 'x').writerOffset(16);
+            buffer.addMessage(allocator.copyOf("a", StandardCharsets.US_ASCII), 1, p1);
+            buffer.addMessage(allocator.copyOf("b", StandardCharsets.US_ASCII), 1, p2);
+            buffer.addMessage(allocator.copyOf("c", StandardCharsets.US_ASCII), 1, cancelled);
+            buffer.addMessage(allocator.copyOf("d", StandardCharsets.US_ASCII), 1, p3);
+            buffer.addMessage(large, 16, p4);
+            buffer.addMessage(allocator.copyOf("e", StandardCharsets.US_ASCII), 1, p5);
+            assertTrue(cancelled.cancel());
+            long pending = buffer.totalPendingWriteBytes();
+
+            buffer.addFlush(8, allocator);
+            assertThat(buffer.size()).isEqualTo(3);
+            assertThat(buffer.totalPendingWriteBytes()).isEqualTo(pending - 1 - CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD);
+
+            Buffer coalesced = (Buffer) buffer.current();
+            assertThat(coalesced.toString(StandardCharsets.US_ASCII)).isEqualTo("abd");
+            assertTrue(buffer.remove());
+            assertTrue(p1.isSuccess());
+            assertTrue(p2.isSuccess());
+            assertTrue(p3.isSuccess());
+
+            assertThat(buffer.current()).isSameAs(large);
+            assertTrue(buffer.remove(new Exception()));
+            assertFalse(p4.isSuccess());
+
+            // A single small buffer is not copied.
+            Buffer current = (Buffer) buffer.current();
+            assertThat(current.toString(StandardCharsets.US_ASCII)).isEqualTo("e");
+            assertTrue(buffer.remove());
+            assertTrue(p5.isSuccess());
+            assertTrue(buffer.isEmpty());
+        });
+    }
+
+    @Test
+    void coalesceOnlyNewlyFlushedBuffers() throws Exception {
+        testChannelOutboundBuffer((buffer, executor) -> {
+            BufferAllocator allocator = BufferAllocator.onHeapUnpooled();
+            Promise<Void> p1 = executor.newPromise();
+            Promise<Void> p2 = executor.newPromise();
+            Promise<Void> p3 = executor.newPromise();
+            buffer.addMessage(allocator.copyOf("a", StandardCharsets.US_ASCII), 1, p1);
+            buffer.addFlush(8, allocator);
+            buffer.addMessage(allocator.copyOf("b", StandardCharsets.US_ASCII), 1, p2);
+            buffer.addMessage(allocator.copyOf("c", StandardCharsets.US_ASCII), 1, p3);
+            buffer.addFlush(8, allocator);
+            assertThat(buffer.size()).isEqualTo(2);
+
+            assertThat(((Buffer) buffer.current()).toString(StandardCharsets.US_ASCII)).isEqualTo("a");
+            assertTrue(buffer.remove());
+            assertThat(((Buffer) buffer.current()).toString(StandardCharsets.US_ASCII)).isEqualTo("bc");
+
+            // New messages must still be appended after the coalesced one.
+            Promise<Void> p4 = executor.newPromise();
+            buffer.addMessage(allocator.copyOf("d", StandardCharsets.US_ASCII), 1, p4);
+            buffer.addFlush();
+            assertTrue(buffer.remove(new Exception()));
+            assertTrue(p1.isSuccess());
+            assertNotNull(p2.cause());
+            assertNotNull(p3.cause());
+            assertThat(((Buffer) buffer.current()).toString(StandardCharsets.US_ASCII)).isEqualTo("d");
+        });
+    }
+
     private static void release(ChannelOutboundBuffer buffer) {
         while (!buffer.isEmpty()) {
             assertTrue(buffer.remove());
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import io.netty5.channel.local.LocalChannel;
+import io.netty5.channel.local.LocalHandler;
+import io.netty5.util.concurrent.EventExecutor;
+import io.netty5.util.concurrent.RejectedExecutionHandlers;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+public class LeastLoadedEventLoopChooserFactoryTest {
+
+    @Test
+    public void testSelectsLeastLoadedEventLoop() throws Exception {
+        EventLoopGroup group = new MultithreadEventLoopGroup(4, (ThreadFactory) null, LocalHandler.newFactory(),
+                SingleThreadEventLoop.DEFAULT_MAX_PENDING_TASKS, RejectedExecutionHandlers.reject(),
+                SingleThreadEventLoop.DEFAULT_MAX_TASKS_PER_RUN, LeastLoadedEventLoopChooserFactory.newFactory(0));
+        List<Channel> channels = new ArrayList<>();
+        try {
+            List<SingleThreadEventLoop> loops = new ArrayList<>();
+            for (EventExecutor executor : group) {
+                loops.add((SingleThreadEventLoop) executor);
+            }
+            SingleThreadEventLoop loaded = loops.get(0);
+            for (int i = 0; i < 3; i++) {
+                channels.add(register(loaded));
+            }
+            assertEquals(3, loaded.registeredIoHandles());
+
+            for (int i = 0; i < 9; i++) {
+                EventLoop next = group.next();
+                assertNotSame(loaded, next);
+                channels.add(register(next));
+            }
+            for (SingleThreadEventLoop loop : loops) {
+                assertEquals(3, loop.registeredIoHandles());
+            }
+
+            for (Channel channel : channels) {
+                channel.close().asStage().sync();
+            }
+            for (SingleThreadEventLoop loop : loops) {
+                loop.submit(() -> { }).asStage().sync();
+                assertEquals(0, loop.registeredIoHandles());
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    private static Channel register(EventLoop eventLoop) throws Exception {
+        Channel channel = new LocalChannel(eventLoop);
+        channel.register().asStage().sync();
+        return channel;
+    }
+}
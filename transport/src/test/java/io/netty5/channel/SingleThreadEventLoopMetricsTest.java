@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel;
+
+import io.netty5.channel.local.LocalHandler;
+import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.ImmediateExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleThreadEventLoopMetricsTest {
+
+    @Test
+    public void testIoAndTaskCounters() {
+        SingleThreadEventLoopMetrics metrics = newMetrics();
+        metrics.ioRun(100, 1000, 0);
+        metrics.ioRun(200, 0, 1);
+        metrics.ioRun(300, 2000, 5);
+        metrics.ioRun(400, 0, Integer.MAX_VALUE);
+        metrics.tasksRun(50, 3, 7);
+        metrics.tasksRun(60, 2, 4);
+
+        assertEquals(1000, metrics.ioTimeNanos());
+        assertEquals(3000, metrics.ioWaitTimeNanos());
+        assertEquals(4, metrics.ioRuns());
+        assertEquals(6L + Integer.MAX_VALUE, metrics.processedHandles());
+        long[] histogram = new long[SingleThreadEventLoopMetrics.PROCESSED_HANDLES_BUCKETS];
+        histogram[0] = 1;
+        histogram[1] = 1;
+        histogram[3] = 1;
+        histogram[histogram.length - 1] = 1;
+        assertArrayEquals(histogram, metrics.processedHandlesHistogram());
+
+        assertEquals(110, metrics.taskTimeNanos());
+        assertEquals(5, metrics.tasksRun());
+        assertEquals(4, metrics.scheduledTasks());
+    }
+
+    @Test
+    public void testSamplesOneTaskAtATime() {
+        SingleThreadEventLoopMetrics metrics = newMetrics();
+        int[] runs = new int[1];
+        Runnable task = () -> runs[0]++;
+        Runnable sampled = metrics.submitted(task);
+        assertNotSame(task, sampled);
+        assertSame(task, metrics.submitted(task));
+
+        sampled.run();
+        assertEquals(1, runs[0]);
+        long[] histogram = metrics.taskQueueWaitTimeHistogram();
+        assertEquals(SingleThreadEventLoopMetrics.WAIT_TIME_BUCKETS, histogram.length);
+        long sampledCount = 0;
+        for (long count : histogram) {
+            sampledCount += count;
+        }
+        assertEquals(1, sampledCount);
+
+        // Once the sampled task ran, or was rejected, the next one is sampled.
+        Runnable nonWakeupTask = (SingleThreadEventLoop.NonWakeupRunnable) () -> { };
+        Runnable rejected = metrics.submitted(nonWakeupTask);
+        assertTrue(rejected instanceof SingleThreadEventLoop.NonWakeupRunnable);
+        metrics.rejected(rejected);
+        assertNotSame(task, metrics.submitted(task));
+    }
+
+    @Test
+    public void testGroupMetric() throws Exception {
+        MultithreadEventLoopGroup group = new MultithreadEventLoopGroup(2, LocalHandler.newFactory());
+        try {
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch latch = new CountDownLatch(1);
+            for (int i = 0; i < 2; i++) {
+                group.next().execute(() -> {
+                    started.countDown();
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            started.await();
+            Future<?> first = group.next().submit(() -> { });
+            Future<?> second = group.next().submit(() -> { });
+            assertEquals(2, group.metric().pendingTasks());
+            latch.countDown();
+            first.asStage().sync();
+            second.asStage().sync();
+            assertEquals(0, group.metric().pendingTasks());
+            assertEquals(SingleThreadEventLoopMetrics.WAIT_TIME_BUCKETS,
+                    group.metric().taskQueueWaitTimeHistogram().length);
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    private static SingleThreadEventLoopMetrics newMetrics() {
+        return new SingleThreadEventLoopMetrics(new SingleThreadEventLoop(
+                ImmediateExecutor.INSTANCE, LocalHandler.newFactory().newHandler()));
+    }
+}
@@ -16,10 +16,13 @@
 package io.netty5.channel;
 
 import io.netty5.channel.local.LocalChannel;
+import io.netty5.channel.local.LocalHandler;
 import io.netty5.util.concurrent.DefaultPromise;
 import io.netty5.util.concurrent.EventExecutor;
 import io.netty5.util.concurrent.Future;
+import io.netty5.util.concurrent.RejectedExecutionHandlers;
 import io.netty5.util.concurrent.SingleThreadEventExecutor;
+import io.netty5.util.concurrent.TimingWheelScheduledTaskStore;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.LoggerContext;
@@ -37,6 +40,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -145,6 +149,26 @@ public class SingleThreadEventLoopTest {
                    is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(500))));
     }
 
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void scheduleTaskWithChooserAndScheduledTaskStore() throws Exception {
+        AtomicInteger chosen = new AtomicInteger();
+        MultithreadEventLoopGroup group = new MultithreadEventLoopGroup(2, (ThreadFactory) null,
+                LocalHandler.newFactory(), SingleThreadEventLoop.DEFAULT_MAX_PENDING_TASKS,
+                RejectedExecutionHandlers.reject(), SingleThreadEventLoop.DEFAULT_MAX_TASKS_PER_RUN,
+                executors -> () -> {
+                    chosen.incrementAndGet();
+                    return executors.get(1);
+                }, TimingWheelScheduledTaskStore.newFactory());
+        try {
+            EventLoop loop = group.next();
+            assertEquals(1, chosen.get());
+            assertEquals(Integer.valueOf(1), loop.schedule(() -> 1, 10, TimeUnit.MILLISECONDS).asStage().get());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
     @Test
     @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
     public void scheduleTaskAtFixedRateA() throws Exception {
@@ -15,18 +15,38 @@
  */
 package io.netty5.channel.group;
 
+import io.netty5.bootstrap.Bootstrap;
 import io.netty5.bootstrap.ServerBootstrap;
+import io.netty5.buffer.Buffer;
+import io.netty5.buffer.BufferAllocator;
+import io.netty5.buffer.DefaultBufferAllocators;
 import io.netty5.channel.Channel;
 import io.netty5.channel.ChannelHandler;
 import io.netty5.channel.ChannelHandlerContext;
 import io.netty5.channel.EventLoopGroup;
 import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.channel.local.LocalAddress;
+import io.netty5.channel.local.LocalChannel;
+import io.netty5.channel.local.LocalHandler;
+import io.netty5.channel.local.LocalServerChannel;
 import io.netty5.channel.nio.NioHandler;
 import io.netty5.channel.socket.nio.NioServerSocketChannel;
 import io.netty5.util.concurrent.FutureCompletionStage;
 import io.netty5.util.concurrent.GlobalEventExecutor;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class DefaultChannelGroupTest {
 
     // Test for #1183
@@ -59,4 +79,67 @@ public class DefaultChannelGroupTest {
         bossGroup.terminationFuture().asStage().sync();
         workerGroup.terminationFuture().asStage().sync();
     }
+
+    @Test
+    public void testWriteAndFlushSharedBuffer() throws Exception {
+        testWriteAndFlush(true);
+    }
+
+    @Test
+    public void testWriteAndFlushCopiedBuffer() throws Exception {
+        testWriteAndFlush(false);
+    }
+
+    private static void testWriteAndFlush(boolean shareBuffers) throws Exception {
+        final int channels = 8;
+        EventLoopGroup group = new MultithreadEventLoopGroup(2, LocalHandler.newFactory());
+        BlockingQueue<Buffer> received = new LinkedBlockingQueue<>();
+        ChannelGroup recipients = new DefaultChannelGroup("recipients", GlobalEventExecutor.INSTANCE, false,
+                shareBuffers);
+        LocalAddress address = new LocalAddress(DefaultChannelGroupTest.class);
+        BufferAllocator allocator = DefaultBufferAllocators.offHeapAllocator();
+        try {
+            Channel server = new ServerBootstrap()
+                    .group(group)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(new ChannelHandler() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            received.add((Buffer) msg);
+                        }
+                    })
+                    .bind(address).asStage().get();
+            Bootstrap cb = new Bootstrap()
+                    .group(group)
+                    .channel(LocalChannel.class)
+                    .handler(new ChannelHandler() { });
+            for (int i = 0; i < channels; i++) {
+                recipients.add(cb.connect(address).asStage().get());
+            }
+
+            Buffer message = allocator.copyOf("tick", US_ASCII);
+            recipients.writeAndFlush(message).asStage().sync();
+            assertFalse(message.isAccessible());
+
+            Set<Long> addresses = new HashSet<>();
+            for (int i = 0; i < channels; i++) {
+                try (Buffer buf = received.poll(10, TimeUnit.SECONDS)) {
+                    assertNotNull(buf);
+                    assertEquals("tick", buf.toString(US_ASCII));
+                    assertEquals(shareBuffers, buf.readOnly());
+                    try (var iteration = buf.forEachComponent()) {
+                        addresses.add(iteration.first().readableNativeAddress());
+                    }
+                }
+            }
+            // Read-only views share the memory of the message, while copies have memory of their own.
+            assertEquals(shareBuffers ? 1 : channels, addresses.size());
+            assertTrue(received.isEmpty());
+
+            recipients.close().asStage().sync();
+            server.close().asStage().sync();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
 }
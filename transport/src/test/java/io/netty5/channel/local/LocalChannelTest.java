@@ -38,6 +38,7 @@ import io.netty5.util.concurrent.FutureCompletionStage;
 import io.netty5.util.concurrent.FutureListener;
 import io.netty5.util.concurrent.Promise;
 import io.netty5.util.concurrent.RejectedExecutionHandler;
+import io.netty5.util.concurrent.ScheduledTaskStoreFactory;
 import io.netty5.util.internal.SilentDispose;
 import io.netty5.util.internal.logging.InternalLogger;
 import io.netty5.util.internal.logging.InternalLoggerFactory;
@@ -274,7 +275,8 @@ public class LocalChannelTest {
             @Override
             protected EventLoop newChild(
                     Executor executor, int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler,
-                    IoHandler ioHandler, int maxTasksPerRun, Object... args) {
+                    IoHandler ioHandler, int maxTasksPerRun, ScheduledTaskStoreFactory scheduledTaskStoreFactory,
+                    Object... args) {
                 return new SingleThreadEventLoop(executor, ioHandler, maxPendingTasks, rejectedExecutionHandler) {
 
                     @Override
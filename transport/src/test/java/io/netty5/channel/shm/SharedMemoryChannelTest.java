@@ -0,0 +1,245 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty5.channel.shm;
+
+import io.netty5.bootstrap.Bootstrap;
+import io.netty5.bootstrap.ServerBootstrap;
+import io.netty5.buffer.Buffer;
+import io.netty5.channel.Channel;
+import io.netty5.channel.ChannelHandler;
+import io.netty5.channel.ChannelHandlerContext;
+import io.netty5.channel.ChannelInitializer;
+import io.netty5.channel.EventLoopGroup;
+import io.netty5.channel.MultithreadEventLoopGroup;
+import io.netty5.util.concurrent.Future;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 30, unit = TimeUnit.SECONDS)
+public class SharedMemoryChannelTest {
+
+    private static EventLoopGroup clientGroup;
+    private static EventLoopGroup serverGroup;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    public static void beforeClass() {
+        clientGroup = new MultithreadEventLoopGroup(1, SharedMemoryHandler.newFactory());
+        serverGroup = new MultithreadEventLoopGroup(2, SharedMemoryHandler.newFactory());
+    }
+
+    @AfterAll
+    public static void afterClass() throws Exception {
+        Future<?> clientFuture = clientGroup.shutdownGracefully(0, 0, SECONDS);
+        Future<?> serverFuture = serverGroup.shutdownGracefully(0, 0, SECONDS);
+        clientFuture.asStage().await();
+        serverFuture.asStage().await();
+    }
+
+    @Test
+    public void testEchoThroughSmallRings() throws Exception {
+        byte[] data = new byte[1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(data);
+        byte[] received = new byte[data.length];
+        CountDownLatch receivedAll = new CountDownLatch(1);
+
+        Channel sc = newServerBootstrap().bind(new SharedMemoryAddress(directory)).asStage().get();
+        Channel cc = null;
+        try {
+            cc = new Bootstrap()
+                    .group(clientGroup)
+                    // Rings much smaller than the data, so they wrap around and fill up all the time.
+                    .channelFactory(eventLoop -> new SharedMemoryChannel(eventLoop, 4096))
+                    .handler(new ChannelHandler() {
+                        private int offset;
+
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            try (Buffer buffer = (Buffer) msg) {
+                                int length = buffer.readableBytes();
+                                buffer.readBytes(received, offset, length);
+                                offset += length;
+                            }
+                            if (offset == received.length) {
+                                receivedAll.countDown();
+                            }
+                        }
+                    })
+                    .connect(sc.localAddress()).asStage().get();
+
+            for (int offset = 0; offset < data.length; offset += 8192) {
+                cc.write(cc.bufferAllocator().allocate(8192).writeBytes(data, offset, 8192));
+            }
+            cc.flush();
+
+            assertTrue(receivedAll.await(20, SECONDS));
+            assertArrayEquals(data, received);
+        } finally {
+            if (cc != null) {
+                cc.close().asStage().sync();
+            }
+            sc.close().asStage().sync();
+        }
+    }
+
+    @Test
+    public void testPeerSeesClose() throws Exception {
+        AtomicReference<Channel> accepted = new AtomicReference<>();
+        CountDownLatch acceptedLatch = new CountDownLatch(1);
+        Channel sc = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(SharedMemoryServerChannel.class)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        accepted.set(ch);
+                        acceptedLatch.countDown();
+                    }
+                })
+                .bind(new SharedMemoryAddress(directory)).asStage().get();
+        try {
+            Channel cc = newClientBootstrap().connect(sc.localAddress()).asStage().get();
+            assertTrue(acceptedLatch.await(10, SECONDS));
+            Channel child = accepted.get();
+            assertThat(child.remoteAddress()).isEqualTo(cc.localAddress());
+            assertThat(cc.remoteAddress()).isEqualTo(sc.localAddress());
+            // The segment file is removed once the connection was accepted.
+            assertThat(Files.exists(((SharedMemoryAddress) cc.localAddress()).path())).isFalse();
+
+            cc.close().asStage().sync();
+            child.closeFuture().asStage().await(10, SECONDS);
+            assertThat(child.isOpen()).isFalse();
+        } finally {
+            sc.close().asStage().sync();
+        }
+    }
+
+    @Test
+    public void testPeerProcessDeath() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch closedLatch = new CountDownLatch(1);
+        Channel sc = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(SharedMemoryServerChannel.class)
+                .childHandler(new ChannelHandler() {
+                    @Override
+                    public void channelExceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+                        failure.set(cause);
+                    }
+
+                    @Override
+                    public void channelInactive(ChannelHandlerContext ctx) {
+                        closedLatch.countDown();
+                    }
+                })
+                .bind(new SharedMemoryAddress(directory)).asStage().get();
+        try {
+            // Connect from another process that exits without closing the connection.
+            Process process = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    DyingPeer.class.getName(), directory.toString())
+                    .inheritIO()
+                    .start();
+            assertThat(process.waitFor()).isZero();
+
+            assertTrue(closedLatch.await(20, SECONDS));
+            assertThat(failure.get()).isInstanceOf(IOException.class).hasMessageContaining("died");
+        } finally {
+            sc.close().asStage().sync();
+        }
+    }
+
+    @Test
+    public void testConnectRefusedWithoutServer() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> newClientBootstrap().connect(new SharedMemoryAddress(directory)).asStage().get());
+        assertThat(e).hasCauseInstanceOf(ConnectException.class);
+    }
+
+    @Test
+    public void testBindTwiceFails() throws Exception {
+        Channel sc = newServerBootstrap().bind(new SharedMemoryAddress(directory)).asStage().get();
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> newServerBootstrap().bind(new SharedMemoryAddress(directory)).asStage().get());
+            assertThat(e).hasCauseInstanceOf(BindException.class);
+        } finally {
+            sc.close().asStage().sync();
+        }
+
+        // Once closed, the address can be bound again.
+        newServerBootstrap().bind(new SharedMemoryAddress(directory)).asStage().get().close().asStage().sync();
+    }
+
+    public static final class DyingPeer {
+        public static void main(String[] args) throws Exception {
+            SharedMemorySegment.create(Path.of(args[0]), 4096);
+            Runtime.getRuntime().halt(0);
+        }
+    }
+
+    private static Bootstrap newClientBootstrap() {
+        return new Bootstrap()
+                .group(clientGroup)
+                .channel(SharedMemoryChannel.class)
+                .handler(new ChannelHandler() { });
+    }
+
+    private static ServerBootstrap newServerBootstrap() {
+        return new ServerBootstrap()
+                .group(serverGroup)
+                .channel(SharedMemoryServerChannel.class)
+                .childHandler(new ChannelHandler() {
+                    @Override
+                    public boolean isSharable() {
+                        return true;
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ctx.write(msg);
+                    }
+
+                    @Override
+                    public void channelReadComplete(ChannelHandlerContext ctx) {
+                        ctx.flush();
+                    }
+                });
+    }
+}